@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.mvel.MVELRule;
+import org.jeasy.rules.spel.SpELRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the firing of equivalent MVEL and SpEL rules by the {@link DefaultRulesEngine}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionLanguageBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rulesCount;
+
+    private Rules mvelRules;
+    private Rules spelRules;
+    private RulesEngine rulesEngine;
+    private Facts facts;
+
+    @Setup
+    public void setUp() {
+        mvelRules = new Rules();
+        spelRules = new Rules();
+        for (int i = 0; i < rulesCount; i++) {
+            mvelRules.register(new MVELRule()
+                    .name("rule" + i)
+                    .when("person.age > " + (i % 100) + " && person.name.length() > 2")
+                    .then("person.setAdult(true);"));
+            spelRules.register(new SpELRule()
+                    .name("rule" + i)
+                    .when("#person.age > " + (i % 100) + " && #person.name.length() > 2")
+                    .then("#person.setAdult(true)"));
+        }
+        rulesEngine = new DefaultRulesEngine();
+        facts = new Facts();
+        facts.put("person", new Person("foo", 42));
+    }
+
+    @Benchmark
+    public Facts fireMvelRules() {
+        rulesEngine.fire(mvelRules, facts);
+        return facts;
+    }
+
+    @Benchmark
+    public Facts fireSpelRules() {
+        rulesEngine.fire(spelRules, facts);
+        return facts;
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.InferenceRulesEngine;
+import org.jeasy.rules.mvel.MVELRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link InferenceRulesEngine#fire(Rules, Facts)} with MVEL conditions walking a collection,
+ * where each rule fires once and disables itself. The cost is dominated by the number of times
+ * conditions are evaluated.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InferenceRulesEngineBenchmark {
+
+    @Param({"10", "100"})
+    private int rulesCount;
+
+    @Param({"100", "1000"})
+    private int itemsCount;
+
+    private InferenceRulesEngine rulesEngine;
+    private Rules rules;
+    private List<Integer> items;
+
+    @Setup
+    public void setUp() {
+        rulesEngine = new InferenceRulesEngine();
+        rules = new Rules();
+        for (int i = 0; i < rulesCount; i++) {
+            rules.register(new MVELRule()
+                    .name("rule" + i)
+                    .when("enabled" + i + " && ($ in items if $ > " + i + ").size() > 0")
+                    .then("enabled" + i + " = false;"));
+        }
+        items = new ArrayList<>();
+        for (int i = 0; i < itemsCount; i++) {
+            items.add(i);
+        }
+    }
+
+    @Benchmark
+    public Facts fire() {
+        Facts facts = new Facts();
+        facts.put("items", items);
+        for (int i = 0; i < rulesCount; i++) {
+            facts.put("enabled" + i, true);
+        }
+        rulesEngine.fire(rules, facts);
+        return facts;
+    }
+
+}
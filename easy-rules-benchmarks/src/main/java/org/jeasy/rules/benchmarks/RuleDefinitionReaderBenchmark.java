@@ -0,0 +1,137 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.mvel.MVELExpressionCache;
+import org.jeasy.rules.mvel.MVELRuleFactory;
+import org.jeasy.rules.support.JsonRuleDefinitionReader;
+import org.jeasy.rules.support.RuleDefinition;
+import org.jeasy.rules.support.RuleDefinitionReader;
+import org.jeasy.rules.support.RulePackReader;
+import org.jeasy.rules.support.RulePackWriter;
+import org.jeasy.rules.support.YamlRuleDefinitionReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the loading of rule descriptors with the {@link JsonRuleDefinitionReader} and the
+ * {@link YamlRuleDefinitionReader}, and the creation of MVEL rules from them, with and without
+ * a cache of compiled expressions, or from a rule pack.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleDefinitionReaderBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rulesCount;
+
+    @Param({"json", "yaml"})
+    private String format;
+
+    @Param({"0", "10000"})
+    private int expressionCacheSize;
+
+    private RuleDefinitionReader reader;
+    private String descriptor;
+    private byte[] rulePack;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        if ("json".equals(format)) {
+            reader = new JsonRuleDefinitionReader();
+            builder.append('[');
+            for (int i = 0; i < rulesCount; i++) {
+                builder.append(i == 0 ? "" : ",").append('{')
+                        .append("\"name\": \"rule").append(i).append("\",")
+                        .append("\"description\": \"when age is greater than ").append(i % 100).append(", then mark as adult\",")
+                        .append("\"priority\": ").append(i).append(',')
+                        .append("\"condition\": \"person.age > ").append(i % 100).append("\",")
+                        .append("\"actions\": [\"person.setAdult(true);\"]")
+                        .append('}');
+            }
+            builder.append(']');
+        } else {
+            reader = new YamlRuleDefinitionReader();
+            for (int i = 0; i < rulesCount; i++) {
+                builder.append("---\n")
+                        .append("name: rule").append(i).append('\n')
+                        .append("description: when age is greater than ").append(i % 100).append(", then mark as adult\n")
+                        .append("priority: ").append(i).append('\n')
+                        .append("condition: \"person.age > ").append(i % 100).append("\"\n")
+                        .append("actions:\n")
+                        .append("  - \"person.setAdult(true);\"\n");
+            }
+        }
+        descriptor = builder.toString();
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            new RulePackWriter().write(new MVELRuleFactory(reader).createRulePack(new StringReader(descriptor)), outputStream);
+            rulePack = outputStream.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to create the rule pack", e);
+        }
+    }
+
+    @Benchmark
+    public List<RuleDefinition> readRuleDefinitions() throws Exception {
+        return reader.read(new StringReader(descriptor));
+    }
+
+    @Benchmark
+    public Rules createRules() throws Exception {
+        // a new cache for each load, so that duplicate expressions are only shared within a descriptor
+        MVELRuleFactory ruleFactory = new MVELRuleFactory(reader, new MVELExpressionCache(expressionCacheSize));
+        return ruleFactory.createRules(new StringReader(descriptor));
+    }
+
+    @Benchmark
+    public Rules createRulesFromRulePack() throws Exception {
+        MVELRuleFactory ruleFactory = new MVELRuleFactory(reader, new MVELExpressionCache(expressionCacheSize));
+        return ruleFactory.createRules(new RulePackReader().read(ByteBuffer.wrap(rulePack)));
+    }
+
+}
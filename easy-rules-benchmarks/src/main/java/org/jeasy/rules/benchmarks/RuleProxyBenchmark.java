@@ -0,0 +1,135 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.core.BasicRule;
+import org.jeasy.rules.core.RuleProxy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the invocation of annotated rules through {@link RuleProxy}, with method handles
+ * (default) and with reflection, to an equivalent hand-written {@link Rule} implementation.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleProxyBenchmark {
+
+    private Rule handWrittenRule;
+    private Rule proxiedRule;
+    private Facts facts;
+
+    @Setup
+    public void setUp() {
+        handWrittenRule = new AdultRule();
+        proxiedRule = RuleProxy.asRule(new AnnotatedAdultRule());
+        facts = new Facts();
+        facts.put("age", 30);
+        facts.put("name", "foo");
+    }
+
+    @Benchmark
+    public boolean handWritten() {
+        return fire(handWrittenRule);
+    }
+
+    @Benchmark
+    public boolean proxyWithMethodHandles() {
+        return fire(proxiedRule);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-D" + RuleProxy.REFLECTIVE_INVOCATION_PROPERTY + "=true")
+    public boolean proxyWithReflection() {
+        return fire(proxiedRule);
+    }
+
+    @Benchmark
+    public int proxyPriority() {
+        return proxiedRule.getPriority();
+    }
+
+    private boolean fire(Rule rule) {
+        boolean result = rule.evaluate(facts);
+        if (result) {
+            rule.accept(facts);
+        }
+        return result;
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "adult rule")
+    public static class AnnotatedAdultRule {
+
+        @Condition
+        public boolean isAdult(@Fact("age") int age) {
+            return age >= 18;
+        }
+
+        @Action
+        public void markAsAdult(@Fact("name") String name, Facts facts) {
+            facts.put("adult", name);
+        }
+    }
+
+    public static class AdultRule extends BasicRule {
+
+        public AdultRule() {
+            super("adult rule");
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            Integer age = facts.get("age");
+            return age >= 18;
+        }
+
+        @Override
+        public void accept(Facts facts) {
+            String name = facts.get("name");
+            facts.put("adult", name);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.benchmarks;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.InferenceRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.jeasy.rules.core.RuleProxy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DefaultRulesEngine#fire(Rules, Facts)} and {@link InferenceRulesEngine#fire(Rules, Facts)}
+ * with rules defined with the {@link RuleBuilder} or annotated and wrapped by {@link RuleProxy}.
+ *
+ * Each rule fires at most once: it is triggered if the age of a person is greater than a threshold
+ * and marks itself as fired in a fact.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RulesEngineBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int rulesCount;
+
+    @Param({"builder", "proxy"})
+    private String ruleType;
+
+    private RulesEngine defaultRulesEngine;
+    private RulesEngine inferenceRulesEngine;
+    private Rules rules;
+    private Facts facts;
+    private boolean[] fired;
+
+    @Setup
+    public void setUp() {
+        defaultRulesEngine = new DefaultRulesEngine();
+        inferenceRulesEngine = new InferenceRulesEngine();
+        rules = new Rules();
+        for (int i = 0; i < rulesCount; i++) {
+            rules.register("proxy".equals(ruleType) ? RuleProxy.asRule(new AgeRule(i)) : ageRule(i));
+        }
+        fired = new boolean[rulesCount];
+        facts = new Facts();
+        facts.put("person", new Person("foo", 42));
+        facts.put("fired", fired);
+    }
+
+    @Benchmark
+    public Facts fireDefaultRulesEngine() {
+        Arrays.fill(fired, false);
+        defaultRulesEngine.fire(rules, facts);
+        return facts;
+    }
+
+    @Benchmark
+    public Facts fireInferenceRulesEngine() {
+        Arrays.fill(fired, false);
+        inferenceRulesEngine.fire(rules, facts);
+        return facts;
+    }
+
+    private static org.jeasy.rules.api.Rule ageRule(int index) {
+        return new RuleBuilder()
+                .name("rule" + index)
+                .priority(index)
+                .when(facts -> !facts.<boolean[]>get("fired")[index]
+                        && facts.<Person>get("person").getAge() > index % 100)
+                .then(facts -> facts.<boolean[]>get("fired")[index] = true)
+                .build();
+    }
+
+    @org.jeasy.rules.annotation.Rule(name = "age rule")
+    public static class AgeRule {
+
+        private final int index;
+
+        public AgeRule(int index) {
+            this.index = index;
+        }
+
+        @Condition
+        public boolean when(@Fact("person") Person person, @Fact("fired") boolean[] fired) {
+            return !fired[index] && person.getAge() > index % 100;
+        }
+
+        @Action
+        public void then(@Fact("fired") boolean[] fired) {
+            fired[index] = true;
+        }
+
+        @Priority
+        public int getPriority() {
+            return index;
+        }
+    }
+
+}
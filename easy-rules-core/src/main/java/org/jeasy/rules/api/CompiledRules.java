@@ -0,0 +1,283 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of a {@link Rules} set.
+ *
+ * Rules are sorted once, when the snapshot is created, and stored in an array
+ * together with their names and priorities. A snapshot can hence be shared
+ * between threads and fired concurrently without any copy or lock, provided
+ * that each thread fires it with its own {@link Facts}.
+ *
+ * Names and priorities are captured when the snapshot is created. A rule with a
+ * dynamic priority is re-sorted only when a new snapshot is created.
+ *
+ * Any attempt to register or unregister a rule in a snapshot results in an
+ * {@link UnsupportedOperationException}. Use {@link #toRules()} to get a mutable
+ * copy and create a new snapshot from it.
+ *
+ * A snapshot stores its rules on its own and overrides every method of {@link Rules}
+ * accessing rules: creating or slicing a snapshot does not sort rules again.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class CompiledRules extends Rules {
+
+    private static final CompiledRules EMPTY = new CompiledRules(new Rule[0]);
+
+    private final Rule[] rules;
+    private final String[] names;
+    private final int[] priorities;
+    private final boolean sortedByPriority;
+    private volatile Map<String, Rule> rulesByName;
+
+    private CompiledRules(final Rule[] rules) {
+        super(false);
+        this.rules = rules;
+        this.names = new String[rules.length];
+        this.priorities = new int[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            names[i] = rules[i].getName();
+            priorities[i] = rules[i].getPriority();
+        }
+        this.sortedByPriority = isSorted(priorities);
+    }
+
+    private CompiledRules(final Rule[] rules, final String[] names, final int[] priorities) {
+        super(false);
+        this.rules = rules;
+        this.names = names;
+        this.priorities = priorities;
+        this.sortedByPriority = isSorted(priorities);
+    }
+
+    /**
+     * Create an immutable snapshot of the given rules.
+     *
+     * @param rules to compile
+     * @return a snapshot of the given rules, or the rules themselves if they are already compiled
+     */
+    public static CompiledRules of(final Rules rules) {
+        if (rules instanceof CompiledRules) {
+            return (CompiledRules) rules;
+        }
+        List<Rule> sortedRules = new ArrayList<>();
+        rules.forEach(sortedRules::add);
+        return new CompiledRules(sortedRules.toArray(new Rule[0]));
+    }
+
+    /**
+     * Create an immutable snapshot of the given rules, fired in the given order rather than in their
+     * natural order. This can be used to pin an order of rules learned by a rules engine.
+     *
+     * @param rules to compile, in firing order
+     * @return a snapshot of the given rules in the given order
+     */
+    public static CompiledRules inOrder(final List<Rule> rules) {
+        Objects.requireNonNull(rules);
+        return new CompiledRules(rules.toArray(new Rule[0]));
+    }
+
+    /**
+     * Get an empty snapshot.
+     *
+     * @return an empty snapshot
+     */
+    public static CompiledRules empty() {
+        return EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Get the rule at the given position.
+     *
+     * @param index of the rule in firing order
+     * @return the rule at the given position
+     */
+    public Rule get(final int index) {
+        return rules[index];
+    }
+
+    /**
+     * Get the name of the rule at the given position, as captured when the snapshot was created.
+     *
+     * @param index of the rule in firing order
+     * @return the name of the rule at the given position
+     */
+    public String getName(final int index) {
+        return names[index];
+    }
+
+    /**
+     * Get the priority of the rule at the given position, as captured when the snapshot was created.
+     *
+     * @param index of the rule in firing order
+     * @return the priority of the rule at the given position
+     */
+    public int getPriority(final int index) {
+        return priorities[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The name index is built the first time a rule is looked up.
+     */
+    @Override
+    public Rule getRule(final String ruleName) {
+        Objects.requireNonNull(ruleName);
+        Map<String, Rule> index = rulesByName;
+        if (index == null) {
+            index = new HashMap<>();
+            for (int i = rules.length - 1; i >= 0; i--) {
+                index.put(Rules.key(names[i]), rules[i]);
+            }
+            rulesByName = index;
+        }
+        return index.get(Rules.key(ruleName));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned rules are a snapshot as well, and share the precomputed names and priorities of this snapshot.
+     */
+    @Override
+    public CompiledRules getRules(final int fromPriority, final int toPriority) {
+        if (fromPriority > toPriority) {
+            return EMPTY;
+        }
+        if (!sortedByPriority) {
+            // rules with a custom order, select them one by one
+            int[] selectedIndexes = new int[rules.length];
+            int count = 0;
+            for (int i = 0; i < rules.length; i++) {
+                if (priorities[i] >= fromPriority && priorities[i] <= toPriority) {
+                    selectedIndexes[count++] = i;
+                }
+            }
+            Rule[] selectedRules = new Rule[count];
+            String[] selectedNames = new String[count];
+            int[] selectedPriorities = new int[count];
+            for (int i = 0; i < count; i++) {
+                selectedRules[i] = rules[selectedIndexes[i]];
+                selectedNames[i] = names[selectedIndexes[i]];
+                selectedPriorities[i] = priorities[selectedIndexes[i]];
+            }
+            return new CompiledRules(selectedRules, selectedNames, selectedPriorities);
+        }
+        int from = firstIndexAbove(fromPriority - 1L);
+        int to = firstIndexAbove(toPriority);
+        if (from == 0 && to == rules.length) {
+            return this;
+        }
+        return new CompiledRules(Arrays.copyOfRange(rules, from, to),
+                Arrays.copyOfRange(names, from, to), Arrays.copyOfRange(priorities, from, to));
+    }
+
+    /**
+     * Create a mutable copy of this snapshot.
+     *
+     * @return a mutable copy of the rules
+     */
+    public Rules toRules() {
+        return new Rules(rules);
+    }
+
+    @Override
+    public void register(Object rule) {
+        throw new UnsupportedOperationException("Compiled rules are immutable");
+    }
+
+    @Override
+    public void unregister(Object rule) {
+        throw new UnsupportedOperationException("Compiled rules are immutable");
+    }
+
+    @Override
+    public void unregister(String ruleName) {
+        throw new UnsupportedOperationException("Compiled rules are immutable");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("Compiled rules are immutable");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    @Override
+    public Iterator<Rule> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(rules)).iterator();
+    }
+
+    @Override
+    public Stream<Rule> asStream() {
+        return Arrays.stream(rules);
+    }
+
+    /*
+     * Binary search of the first rule whose priority is strictly greater than the given one.
+     */
+    private int firstIndexAbove(final long priority) {
+        int low = 0;
+        int high = priorities.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (priorities[middle] <= priority) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isSorted(final int[] priorities) {
+        for (int i = 1; i < priorities.length; i++) {
+            if (priorities[i - 1] > priorities[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
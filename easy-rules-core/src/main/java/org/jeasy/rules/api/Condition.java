@@ -32,6 +32,7 @@ public interface Condition {
 
     /**
      * Evaluate the condition according to the known facts.
+     * Facts must not be modified during evaluation.
      *
      * @param facts known when evaluating the rule.
      *
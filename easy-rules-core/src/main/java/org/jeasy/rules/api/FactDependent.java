@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.Set;
+
+/**
+ * Mixin interface for rules that know which facts they depend on.
+ *
+ * The inference rules engine uses these dependencies to re-evaluate a rule only
+ * when one of the facts read by its condition has changed. A rule that does not
+ * implement this interface, or that returns <code>null</code>, is considered to
+ * depend on all facts.
+ *
+ * Rules engines also skip the evaluation of a rule when one of its required facts
+ * is missing, and consider that the rule has not been triggered.
+ *
+ * Rules can also declare that their conditions are mutually exclusive with the ones of
+ * other rules, so that rules engines may reorder them.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public interface FactDependent {
+
+    /**
+     * Get the names of the facts read by the condition of the rule.
+     *
+     * @return names of the facts read by the condition, or null if unknown
+     */
+    Set<String> getConditionFacts();
+
+    /**
+     * Get the names of the facts that the actions of the rule may modify, either by
+     * replacing, adding or removing them, or by changing the state of the fact objects.
+     *
+     * @return names of the facts that the actions may modify, or null if unknown
+     */
+    Set<String> getActionFacts();
+
+    /**
+     * Get the names of the facts without which the condition of the rule can not evaluate
+     * to true. The condition is not evaluated if one of these facts is missing.
+     *
+     * @return names of the facts required by the condition, or null if unknown
+     */
+    default Set<String> getRequiredFacts() {
+        return null;
+    }
+
+    /**
+     * Get the name of the group of mutually exclusive rules of the rule: whatever the facts, the
+     * condition of at most one rule of a group is true. Rules engines may evaluate rules of the same
+     * group and priority in any order when rules are skipped once a rule has been applied.
+     *
+     * @return name of the group of mutually exclusive rules of the rule, or null if none
+     */
+    default String getExclusiveGroup() {
+        return null;
+    }
+
+}
@@ -24,6 +24,8 @@
 package org.jeasy.rules.api;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -31,11 +33,29 @@ import static java.lang.String.format;
 /**
  * Represents a set of named facts. Facts have unique name within a <code>Facts</code> object.
  *
+ * Facts are read-only while conditions are evaluated: rules engines never modify facts
+ * during evaluation, and conditions must not modify them either. This is what allows
+ * {@link RulesEngine#check(Rules, Facts)} to evaluate conditions concurrently from several
+ * threads when the engine is configured to do so. Facts are not thread-safe otherwise.
+ *
+ * Changes are tracked with version numbers: each time a fact is added, replaced or removed,
+ * through this class or through the map returned by {@link #asMap()}, the version of the facts
+ * is incremented and recorded as the version of the changed fact. Changes of the state of a
+ * fact object are not detected and can be reported with {@link #markChanged(String)}.
+ *
+ * Changes are only tracked once versions have been requested for the first time, with
+ * {@link #getVersion()}, {@link #getVersion(String)} or {@link #getChangedFacts(long)}, as
+ * inference engines do. Until then, the version of the facts is 0 and changes are not
+ * recorded, so that firing rules with other engines does not pay for tracking.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class Facts implements Iterable<Map.Entry<String, Object>> {
 
-    private Map<String, Object> facts = new HashMap<>();
+    private Map<String, Object> facts = new TrackingMap();
+    // versions of changed facts, null until changes are tracked
+    private Map<String, Long> versions;
+    private long version;
 
     /**
      * Put a fact in the working memory.
@@ -89,6 +109,70 @@ public class Facts implements Iterable<Map.Entry<String, Object>> {
         return facts;
     }
 
+    /**
+     * Report a change of the state of a fact object.
+     *
+     * @param name of the changed fact
+     */
+    public void markChanged(String name) {
+        Objects.requireNonNull(name);
+        changed(name);
+    }
+
+    private void changed(String name) {
+        if (versions != null) {
+            versions.put(name, ++version);
+        }
+    }
+
+    private void trackChanges() {
+        if (versions == null) {
+            versions = new HashMap<>();
+        }
+    }
+
+    /**
+     * Get the current version of the facts, which is incremented on each change once changes are tracked.
+     *
+     * @return the current version
+     */
+    public long getVersion() {
+        trackChanges();
+        return version;
+    }
+
+    /**
+     * Get the version of the facts when a fact has last been changed.
+     *
+     * @param name of the fact
+     * @return the version of the last change of the fact, or 0 if it has not been changed since changes are tracked
+     */
+    public long getVersion(String name) {
+        Objects.requireNonNull(name);
+        trackChanges();
+        return versions.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Get the names of the facts changed (including removed facts) since the given version.
+     *
+     * @param sinceVersion version of the facts, as returned by {@link #getVersion()}
+     * @return names of the facts changed after the given version
+     */
+    public Set<String> getChangedFacts(long sinceVersion) {
+        trackChanges();
+        Set<String> changedFacts = new HashSet<>();
+        if (sinceVersion >= version) {
+            return changedFacts;
+        }
+        for (Map.Entry<String, Long> factVersion : versions.entrySet()) {
+            if (factVersion.getValue() > sinceVersion) {
+                changedFacts.add(factVersion.getKey());
+            }
+        }
+        return changedFacts;
+    }
+
     @Override
     public Iterator<Map.Entry<String, Object>> iterator() {
         return facts.entrySet().iterator();
@@ -100,4 +184,102 @@ public class Facts implements Iterable<Map.Entry<String, Object>> {
                 .map(entry -> format(" { %s : %s } ", entry.getKey(), String.valueOf(entry.getValue())))
                 .collect(Collectors.joining(",", "[", "]"));
     }
+
+    /*
+     * Map recording the version of changed facts. Changes made through iterators of
+     * its views are not tracked.
+     */
+    private class TrackingMap extends HashMap<String, Object> {
+
+        @Override
+        public Object put(String name, Object fact) {
+            changed(name);
+            return super.put(name, fact);
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ?> facts) {
+            facts.keySet().forEach(Facts.this::changed);
+            super.putAll(facts);
+        }
+
+        @Override
+        public Object remove(Object name) {
+            if (name instanceof String && containsKey(name)) {
+                changed((String) name);
+            }
+            return super.remove(name);
+        }
+
+        @Override
+        public boolean remove(Object name, Object fact) {
+            boolean removed = super.remove(name, fact);
+            if (removed) {
+                changed((String) name);
+            }
+            return removed;
+        }
+
+        @Override
+        public void clear() {
+            keySet().forEach(Facts.this::changed);
+            super.clear();
+        }
+
+        @Override
+        public Object putIfAbsent(String name, Object fact) {
+            Object previousFact = super.putIfAbsent(name, fact);
+            if (previousFact == null) {
+                changed(name);
+            }
+            return previousFact;
+        }
+
+        @Override
+        public boolean replace(String name, Object oldFact, Object newFact) {
+            boolean replaced = super.replace(name, oldFact, newFact);
+            if (replaced) {
+                changed(name);
+            }
+            return replaced;
+        }
+
+        @Override
+        public Object replace(String name, Object fact) {
+            if (containsKey(name)) {
+                changed(name);
+            }
+            return super.replace(name, fact);
+        }
+
+        @Override
+        public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+            keySet().forEach(Facts.this::changed);
+            super.replaceAll(function);
+        }
+
+        @Override
+        public Object computeIfAbsent(String name, Function<? super String, ?> mappingFunction) {
+            changed(name);
+            return super.computeIfAbsent(name, mappingFunction);
+        }
+
+        @Override
+        public Object computeIfPresent(String name, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+            changed(name);
+            return super.computeIfPresent(name, remappingFunction);
+        }
+
+        @Override
+        public Object compute(String name, BiFunction<? super String, ? super Object, ?> remappingFunction) {
+            changed(name);
+            return super.compute(name, remappingFunction);
+        }
+
+        @Override
+        public Object merge(String name, Object fact, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            changed(name);
+            return super.merge(name, fact, remappingFunction);
+        }
+    }
 }
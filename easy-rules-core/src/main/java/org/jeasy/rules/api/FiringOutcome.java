@@ -0,0 +1,117 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of firing a rule set on one of the facts of a batch.
+ *
+ * Outcomes are recorded by rules engines while rules are fired.
+ *
+ * @see RulesEngine#fireAll(Rules, Iterable)
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class FiringOutcome {
+
+    private final Facts facts;
+    private final List<Rule> firedRules = new ArrayList<>();
+    private final Map<Rule, Exception> failedRules = new LinkedHashMap<>();
+
+    /**
+     * Create a new outcome of firing rules on the given facts.
+     *
+     * @param facts on which rules are fired
+     */
+    public FiringOutcome(final Facts facts) {
+        this.facts = facts;
+    }
+
+    /**
+     * Get the facts on which rules have been fired.
+     *
+     * @return the facts
+     */
+    public Facts getFacts() {
+        return facts;
+    }
+
+    /**
+     * Get the rules whose actions have been executed successfully, in firing order.
+     *
+     * @return the rules that have been fired
+     */
+    public List<Rule> getFiredRules() {
+        return Collections.unmodifiableList(firedRules);
+    }
+
+    /**
+     * Get the rules whose actions have failed, with the exception thrown by each of them.
+     *
+     * @return the rules that have failed
+     */
+    public Map<Rule, Exception> getFailedRules() {
+        return Collections.unmodifiableMap(failedRules);
+    }
+
+    /**
+     * Check if at least one rule has failed.
+     *
+     * @return true if at least one rule has failed, false otherwise
+     */
+    public boolean hasFailures() {
+        return !failedRules.isEmpty();
+    }
+
+    /**
+     * Record that the actions of a rule have been executed successfully.
+     *
+     * @param rule that has been fired
+     */
+    public void onSuccess(final Rule rule) {
+        firedRules.add(rule);
+    }
+
+    /**
+     * Record that the actions of a rule have failed.
+     *
+     * @param rule that has failed
+     * @param exception thrown by the actions of the rule
+     */
+    public void onFailure(final Rule rule, final Exception exception) {
+        failedRules.put(rule, exception);
+    }
+
+    @Override
+    public String toString() {
+        return "Firing outcome { " +
+                "firedRules = " + firedRules +
+                ", failedRules = " + failedRules.keySet() +
+                " }";
+    }
+}
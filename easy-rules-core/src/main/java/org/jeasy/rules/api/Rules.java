@@ -26,18 +26,27 @@ package org.jeasy.rules.api;
 import org.jeasy.rules.core.RuleProxy;
 
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
  * This class encapsulates a set of rules and represents a rules namespace.
  * Rules must have a unique name within a rules namespace.
  *
+ * Rules are indexed by name (ignoring case) and sorted by priority, so that a rule can be
+ * looked up or unregistered by name in constant time, and a range of priorities can be
+ * selected without iterating over the whole set. Names and priorities are indexed when
+ * rules are registered. Rules with a custom order that does not follow priorities are
+ * selected by priority one by one.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class Rules implements Iterable<Rule> {
 
-    private Set<Rule> rules = new TreeSet<>();
+    // null for subclasses storing rules on their own
+    private final NavigableSet<Rule> rules;
+    private final Map<String, Rule> rulesByName;
+    // false once a rule with a custom order is registered before a rule of lower priority
+    private boolean sortedByPriority = true;
 
     /**
      * Create a new {@link Rules} object.
@@ -45,7 +54,8 @@ public class Rules implements Iterable<Rule> {
      * @param rules to register
      */
     public Rules(Set<Rule> rules) {
-        this.rules = new TreeSet<>(rules);
+        this(true);
+        rules.forEach(this::add);
     }
 
     /**
@@ -54,7 +64,10 @@ public class Rules implements Iterable<Rule> {
      * @param rules to register
      */
     public Rules(Rule... rules) {
-        Collections.addAll(this.rules, rules);
+        this(true);
+        for (Rule rule : rules) {
+            add(rule);
+        }
     }
 
     /**
@@ -63,9 +76,21 @@ public class Rules implements Iterable<Rule> {
      * @param rules to register
      */
     public Rules(Object... rules) {
+        this(true);
         Arrays.stream(rules).forEach(rule -> this.register(RuleProxy.asRule(rule)));
     }
 
+    /**
+     * Create a new {@link Rules} object, which may not store rules. Subclasses storing rules
+     * on their own create it without storage, and must then override every method accessing rules.
+     *
+     * @param storeRules true to store registered rules, false to create it without storage
+     */
+    protected Rules(final boolean storeRules) {
+        this.rules = storeRules ? new TreeSet<>() : null;
+        this.rulesByName = storeRules ? new HashMap<>() : null;
+    }
+
     /**
      * Register a new rule.
      *
@@ -73,7 +98,7 @@ public class Rules implements Iterable<Rule> {
      */
     public void register(Object rule) {
         Objects.requireNonNull(rule);
-        rules.add(RuleProxy.asRule(rule));
+        add(RuleProxy.asRule(rule));
     }
 
     /**
@@ -83,7 +108,7 @@ public class Rules implements Iterable<Rule> {
      */
     public void unregister(Object rule) {
         Objects.requireNonNull(rule);
-        rules.remove(RuleProxy.asRule(rule));
+        remove(RuleProxy.asRule(rule));
     }
 
     /**
@@ -93,7 +118,67 @@ public class Rules implements Iterable<Rule> {
      */
     public void unregister(final String ruleName) {
         Objects.requireNonNull(ruleName);
-        findRuleByName(ruleName).ifPresent(this::unregister);
+        Rule rule = getRule(ruleName);
+        if (rule != null) {
+            remove(rule);
+        }
+    }
+
+    /**
+     * Get a rule by name, ignoring case.
+     *
+     * @param ruleName the name of the rule
+     * @return the rule with the given name, or null if there is no such rule
+     */
+    public Rule getRule(final String ruleName) {
+        Objects.requireNonNull(ruleName);
+        return rulesByName.get(key(ruleName));
+    }
+
+    /**
+     * Get rules whose priority is in the given range, in firing order.
+     * The returned rules are a copy: changes to them do not affect this set. The first rule of the range
+     * is looked up in logarithmic time, and copying the k rules of the range takes O(k log k) time. Rules
+     * with a custom order that does not follow priorities are selected one by one, in linear time.
+     *
+     * @param fromPriority lowest priority of the range (inclusive)
+     * @param toPriority highest priority of the range (inclusive)
+     * @return rules whose priority is in the given range
+     */
+    public Rules getRules(final int fromPriority, final int toPriority) {
+        if (fromPriority > toPriority) {
+            return new Rules();
+        }
+        if (!sortedByPriority) {
+            // rules with a custom order, select them one by one
+            Rules range = new Rules();
+            for (Rule rule : rules) {
+                if (rule.getPriority() >= fromPriority && rule.getPriority() <= toPriority) {
+                    range.add(rule);
+                }
+            }
+            return range;
+        }
+        Rules range = new Rules();
+        Rule first = rules.ceiling(new PriorityBound(fromPriority));
+        if (first != null) {
+            for (Rule rule : rules.tailSet(first, true)) {
+                if (rule.getPriority() > toPriority) {
+                    break;
+                }
+                range.add(rule);
+            }
+        }
+        return range;
+    }
+
+    /**
+     * Get the number of rules.
+     *
+     * @return the number of rules
+     */
+    public int size() {
+        return rules.size();
     }
 
     /**
@@ -110,20 +195,150 @@ public class Rules implements Iterable<Rule> {
      */
     public void clear() {
         rules.clear();
+        rulesByName.clear();
+        sortedByPriority = true;
     }
 
     @Override
     public Iterator<Rule> iterator() {
-        return rules.iterator();
+        return new Iterator<Rule>() {
+            private final Iterator<Rule> iterator = rules.iterator();
+            private Rule current;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Rule next() {
+                current = iterator.next();
+                return current;
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                unindex(current);
+            }
+        };
     }
 
     public Stream<Rule> asStream() {
         return rules.stream();
     }
 
-    private Optional<Rule> findRuleByName(String ruleName) {
-        return rules.stream()
-                .filter(rule -> rule.getName().equalsIgnoreCase(ruleName))
-                .findFirst();
+    private void add(Rule rule) {
+        if (!rules.add(rule)) {
+            return;
+        }
+        if (sortedByPriority) {
+            Rule lower = rules.lower(rule);
+            Rule higher = rules.higher(rule);
+            sortedByPriority = (lower == null || lower.getPriority() <= rule.getPriority())
+                    && (higher == null || higher.getPriority() >= rule.getPriority());
+        }
+        String key = key(rule.getName());
+        Rule indexedRule = rulesByName.get(key);
+        // rules sharing a name are looked up in firing order
+        if (indexedRule == null || rule.compareTo(indexedRule) < 0) {
+            rulesByName.put(key, rule);
+        }
+    }
+
+    private void remove(Rule rule) {
+        Rule removedRule = rules.ceiling(rule);
+        if (removedRule != null && removedRule.compareTo(rule) == 0 && rules.remove(removedRule)) {
+            unindex(removedRule);
+        }
+    }
+
+    private void unindex(Rule rule) {
+        if (rules.isEmpty()) {
+            sortedByPriority = true;
+        }
+        String key = key(rule.getName());
+        if (rulesByName.get(key) != rule) {
+            return;
+        }
+        // when no two rules share a name, there is no other rule to index under this one's name
+        if (rules.size() < rulesByName.size()) {
+            rulesByName.remove(key);
+            return;
+        }
+        Rule nextRule = null;
+        for (Rule candidate : rules) {
+            if (Objects.equals(key, key(candidate.getName()))) {
+                nextRule = candidate;
+                break;
+            }
+        }
+        if (nextRule == null) {
+            rulesByName.remove(key);
+        } else {
+            rulesByName.put(key, nextRule);
+        }
+    }
+
+    /*
+     * Names are equal ignoring case, as with String#equalsIgnoreCase, if and only if their keys are equal:
+     * each character is converted to upper case then to lower case. Names in lower case ASCII are their own key.
+     */
+    static String key(String ruleName) {
+        if (ruleName == null) {
+            return null;
+        }
+        for (int i = 0; i < ruleName.length(); i++) {
+            char c = ruleName.charAt(i);
+            if (c >= 0x80 || (c >= 'A' && c <= 'Z')) {
+                StringBuilder key = new StringBuilder(ruleName.length());
+                ruleName.codePoints().forEach(codePoint -> key.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint))));
+                return key.toString();
+            }
+        }
+        return ruleName;
+    }
+
+    /*
+     * Sorted before any rule of the given priority. Used to look up the first rule of a priority range,
+     * only as the first operand of comparisons, so that it is never compared by a rule with a custom order.
+     */
+    private static final class PriorityBound implements Rule {
+
+        private final int priority;
+
+        private PriorityBound(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public String getName() {
+            return "";
+        }
+
+        @Override
+        public String getDescription() {
+            return "";
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return false;
+        }
+
+        @Override
+        public void accept(Facts facts) {
+        }
+
+        @Override
+        public int compareTo(Rule rule) {
+            int result = Integer.compare(priority, rule.getPriority());
+            return result != 0 ? result : "".compareTo(rule.getName());
+        }
     }
 }
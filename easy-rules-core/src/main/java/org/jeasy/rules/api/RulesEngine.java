@@ -23,8 +23,10 @@
  */
 package org.jeasy.rules.api;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.jeasy.rules.core.RulesEngineParameters;
 
@@ -66,4 +68,43 @@ public interface RulesEngine {
      * @return a map with the result of evaluation of each rule
      */
     Map<Rule, Boolean> check(Rules rules, Facts facts);
+
+    /**
+     * Fire all registered rules on each of the given facts.
+     *
+     * The setup of the rule set is done once for the whole batch: rules are sorted once and
+     * rules engine listeners are notified with {@link RulesEngineListener#beforeBatch(Rules)}
+     * and {@link RulesEngineListener#afterBatch(Rules, List)} instead of once per facts.
+     * Rule listeners are still notified for each rule fired on each facts.
+     *
+     * The default implementation fires rules on each facts with {@link #fire(Rules, Facts)},
+     * so listeners are notified as for any firing. Since fired rules can not be observed
+     * through this interface, the returned outcomes only record the facts. Rules engines of
+     * Easy Rules override this method to set up the rule set once and to record fired and
+     * failed rules.
+     *
+     * @param rules to fire
+     * @param facts on which rules are fired
+     * @return the outcome of firing rules on each facts, in the same order as the given facts
+     */
+    default List<FiringOutcome> fireAll(Rules rules, Iterable<Facts> facts) {
+        List<FiringOutcome> outcomes = new ArrayList<>();
+        for (Facts batchFacts : facts) {
+            fire(rules, batchFacts);
+            outcomes.add(new FiringOutcome(batchFacts));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Fire all registered rules on each of the given facts.
+     *
+     * @param rules to fire
+     * @param facts on which rules are fired
+     * @return the outcome of firing rules on each facts, in the same order as the given facts
+     * @see #fireAll(Rules, Iterable)
+     */
+    default List<FiringOutcome> fireAll(Rules rules, Stream<Facts> facts) {
+        return fireAll(rules, (Iterable<Facts>) facts::iterator);
+    }
 }
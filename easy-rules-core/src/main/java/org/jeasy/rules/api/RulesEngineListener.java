@@ -25,6 +25,8 @@ package org.jeasy.rules.api;
 
 import org.jeasy.rules.core.InferenceRulesEngine;
 
+import java.util.List;
+
 /**
  * A listener for rules engine execution events.
  *
@@ -49,4 +51,20 @@ public interface RulesEngineListener {
      * @param facts present after firing rules
      */
     void afterExecute(Rules rules, Facts facts);
+
+    /**
+     * Triggered before firing the rule set on a batch of facts with {@link RulesEngine#fireAll(Rules, Iterable)}.
+     * <strong>{@link #beforeEvaluate(Rules, Facts)} and {@link #afterExecute(Rules, Facts)} are not triggered for each facts of the batch.</strong>
+     *
+     * @param rules to fire
+     */
+    default void beforeBatch(Rules rules) { }
+
+    /**
+     * Triggered after firing the rule set on a batch of facts with {@link RulesEngine#fireAll(Rules, Iterable)}.
+     *
+     * @param rules fired
+     * @param outcomes of firing rules on each facts of the batch
+     */
+    default void afterBatch(Rules rules, List<FiringOutcome> outcomes) { }
 }
\ No newline at end of file
@@ -0,0 +1,281 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Base class of the {@link Rule} adapters generated at build time for annotated rules
+ * by the Easy Rules annotation processor.
+ *
+ * A generated adapter calls the condition and action methods of the annotated rule directly.
+ * When an adapter is available for an annotated rule class, {@link RuleProxy#asRule(Object)}
+ * returns it instead of creating a dynamic proxy. Adapters behave exactly like dynamic proxies:
+ * rules are evaluated to false when a declared fact is missing, exceptions thrown by annotated
+ * methods are reported in the same way, and equality and ordering are based on the rule's
+ * name, description and priority.
+ *
+ * <strong>This class is not intended to be extended by hand.</strong>
+ *
+ * @param <T> type of the annotated rule
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public abstract class AbstractRuleAdapter<T> implements Rule, FactDependent {
+
+    /**
+     * Suffix of the name of generated adapters, which are named after the binary name of the
+     * annotated rule class where '$' is replaced with '_'.
+     */
+    public static final String ADAPTER_SUFFIX = "_RuleAdapter";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRuleAdapter.class);
+
+    /**
+     * The annotated rule.
+     */
+    protected final T target;
+
+    private final String name;
+    private final String description;
+    private final int priority;
+    private final String conditionMethodName;
+    private final Set<String> conditionFacts;
+    private final Set<String> actionFacts;
+    private final Set<String> requiredFacts;
+
+    /**
+     * Create a new rule adapter.
+     *
+     * @param target the annotated rule
+     * @param name of the rule
+     * @param description of the rule
+     * @param priority of the rule
+     * @param conditionMethodName name of the condition method
+     * @param conditionFacts names of the facts injected in the condition method, or null if {@link Facts} are injected
+     * @param requiredFacts names of the facts injected with {@link org.jeasy.rules.annotation.Fact} in the condition method,
+     *                      whether {@link Facts} are injected as well or not
+     * @param actionFacts names of the facts injected in action methods, or null if {@link Facts} are injected
+     */
+    protected AbstractRuleAdapter(final T target, final String name, final String description,
+                                  final int priority, final String conditionMethodName,
+                                  final String[] conditionFacts, final String[] requiredFacts,
+                                  final String[] actionFacts) {
+        this.target = Objects.requireNonNull(target);
+        this.name = name;
+        this.description = description;
+        this.priority = priority;
+        this.conditionMethodName = conditionMethodName;
+        this.conditionFacts = toSet(conditionFacts);
+        this.requiredFacts = toSet(requiredFacts);
+        this.actionFacts = toSet(actionFacts);
+    }
+
+    private static Set<String> toSet(final String[] facts) {
+        return facts != null ? Collections.unmodifiableSet(new HashSet<>(Arrays.asList(facts))) : null;
+    }
+
+    /**
+     * Call the condition method of the annotated rule.
+     *
+     * @param facts to inject
+     * @return the result of the condition method
+     */
+    protected abstract boolean doEvaluate(Facts facts);
+
+    /**
+     * Call the action methods of the annotated rule in order.
+     *
+     * @param facts to inject
+     */
+    protected abstract void doExecute(Facts facts);
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public Set<String> getConditionFacts() {
+        return conditionFacts;
+    }
+
+    @Override
+    public Set<String> getActionFacts() {
+        return actionFacts;
+    }
+
+    @Override
+    public Set<String> getRequiredFacts() {
+        return requiredFacts;
+    }
+
+    @Override
+    public boolean evaluate(final Facts facts) {
+        try {
+            return doEvaluate(facts);
+        } catch (NoSuchFactException e) {
+            LOGGER.error("Rule '{}' has been evaluated to false due to a declared but missing fact '{}' in {}",
+                    target.getClass().getName(), e.getMissingFact(), facts);
+            return false;
+        } catch (IllegalArgumentException e) {
+            String error = "Types of injected facts in method '%s' in rule '%s' do not match parameters types";
+            throw new RuntimeException(format(error, conditionMethodName, target.getClass().getName()), e);
+        }
+    }
+
+    @Override
+    public void accept(final Facts facts) {
+        doExecute(facts);
+    }
+
+    /**
+     * Get the annotated rule.
+     *
+     * @return the annotated rule
+     */
+    public T getTarget() {
+        return target;
+    }
+
+    /**
+     * Look up a declared fact.
+     *
+     * @param facts known facts
+     * @param factName name of the fact
+     * @param parameterType type of the parameter in which the fact is injected
+     * @return the fact, converted to the wrapper type of the parameter if it is a primitive type
+     * @throws NoSuchFactException if there is no fact with the given name
+     * @throws IllegalArgumentException if the fact cannot be injected in the parameter
+     */
+    protected static Object fact(final Facts facts, final String factName, final Class<?> parameterType) {
+        Object fact = RuleInvoker.getFact(facts, factName, parameterType);
+        if (!parameterType.isPrimitive() || parameterType == boolean.class
+                || parameterType == char.class || parameterType == byte.class) {
+            return fact;
+        }
+        Number number = fact instanceof Character ? (int) (Character) fact : (Number) fact;
+        if (parameterType == short.class) {
+            return number.shortValue();
+        } else if (parameterType == int.class) {
+            return number.intValue();
+        } else if (parameterType == long.class) {
+            return number.longValue();
+        } else if (parameterType == float.class) {
+            return number.floatValue();
+        } else {
+            return number.doubleValue();
+        }
+    }
+
+    /**
+     * Check that the facts can be injected in a parameter of the given type.
+     *
+     * @param facts known facts
+     * @param parameterType type of the parameter
+     * @param <F> type of the parameter
+     * @return the facts
+     * @throws IllegalArgumentException if the facts cannot be injected in the parameter
+     */
+    protected static <F extends Facts> F facts(final Facts facts, final Class<F> parameterType) {
+        if (!parameterType.isInstance(facts)) {
+            throw new IllegalArgumentException("argument type mismatch");
+        }
+        return parameterType.cast(facts);
+    }
+
+    /**
+     * Wrap an exception thrown by an annotated method as a dynamic proxy does.
+     *
+     * @param throwable thrown by the annotated method
+     * @return the exception to throw
+     */
+    protected static RuntimeException invocationFailure(final Throwable throwable) {
+        return new UndeclaredThrowableException(new InvocationTargetException(throwable));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Rule)) {
+            return false;
+        }
+        Rule otherRule = (Rule) o;
+        return getPriority() == otherRule.getPriority()
+                && name.equals(otherRule.getName())
+                && Objects.equals(description, otherRule.getDescription());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = name.hashCode();
+        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + getPriority();
+        return result;
+    }
+
+    @Override
+    public int compareTo(final Rule otherRule) {
+        int otherPriority = otherRule.getPriority();
+        int priority = getPriority();
+        if (priority < otherPriority) {
+            return -1;
+        } else if (priority > otherPriority) {
+            return 1;
+        } else {
+            return name.compareTo(otherRule.getName());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return target.toString();
+    }
+
+}
@@ -23,24 +23,50 @@
  */
 package org.jeasy.rules.core;
 
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
 import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.api.RulesEngine;
 import org.jeasy.rules.api.RulesEngineListener;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Base class for {@link RulesEngine} implementations.
  *
+ * Listeners are held in copy-on-write lists so that they can be registered while
+ * rules are fired concurrently by other threads. They are also published as arrays,
+ * which are iterated when rules are fired. The array of rule listeners does not contain
+ * the default rule listener, which is called directly by rules engines.
+ *
+ * Sampled rule listeners are only notified of a fraction of firings, given by the
+ * {@link RulesEngineParameters#getSamplingRate() sampling rate} of the engine. Whether a
+ * firing is sampled is decided once when it starts, by choosing the array of listeners
+ * that will be notified, so that sampled listeners see all rules of a sampled firing and
+ * unsampled firings cost no more than if no sampled listener was registered.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 abstract class AbstractRuleEngine implements RulesEngine {
 
+    private static final RuleListener[] NO_RULE_LISTENERS = new RuleListener[0];
+
     RulesEngineParameters parameters;
     List<RuleListener> ruleListeners;
     List<RulesEngineListener> rulesEngineListeners;
+    final List<RuleListener> sampledRuleListeners = new CopyOnWriteArrayList<>();
+    final DefaultRuleListener defaultRuleListener = new DefaultRuleListener();
+    volatile RuleListener[] registeredRuleListeners = NO_RULE_LISTENERS;
+    // registered and sampled rule listeners, null if no sampled rule listener is registered
+    volatile RuleListener[] registeredAndSampledRuleListeners;
+    volatile RulesEngineListener[] registeredRulesEngineListeners;
 
     AbstractRuleEngine() {
         this(new RulesEngineParameters());
@@ -48,10 +74,11 @@ abstract class AbstractRuleEngine implements RulesEngine {
 
     AbstractRuleEngine(final RulesEngineParameters parameters) {
         this.parameters = parameters;
-        this.ruleListeners = new ArrayList<>();
-        this.ruleListeners.add(new DefaultRuleListener());
-        this.rulesEngineListeners = new ArrayList<>();
+        this.ruleListeners = new CopyOnWriteArrayList<>();
+        this.ruleListeners.add(defaultRuleListener);
+        this.rulesEngineListeners = new CopyOnWriteArrayList<>();
         this.rulesEngineListeners.add(new DefaultRulesEngineListener(parameters));
+        this.registeredRulesEngineListeners = this.rulesEngineListeners.toArray(new RulesEngineListener[0]);
     }
 
     @Override
@@ -61,7 +88,8 @@ abstract class AbstractRuleEngine implements RulesEngine {
                 parameters.isSkipOnFirstFailedRule(),
                 parameters.isSkipOnFirstNonTriggeredRule(),
                 parameters.getPriorityThreshold()
-        );
+        ).samplingRate(parameters.getSamplingRate())
+                .adaptiveRuleOrdering(parameters.isAdaptiveRuleOrdering());
     }
 
     @Override
@@ -69,24 +97,118 @@ abstract class AbstractRuleEngine implements RulesEngine {
         return Collections.unmodifiableList(ruleListeners);
     }
 
+    /**
+     * Return the list of sampled rule listeners.
+     *
+     * @return the sampled rule listeners
+     */
+    public List<RuleListener> getSampledRuleListeners() {
+        return Collections.unmodifiableList(sampledRuleListeners);
+    }
+
     @Override
     public List<RulesEngineListener> getRulesEngineListeners() {
         return Collections.unmodifiableList(rulesEngineListeners);
     }
 
-    public void registerRuleListener(RuleListener ruleListener) {
+    @Override
+    public List<FiringOutcome> fireAll(Rules rules, Iterable<Facts> facts) {
+        Objects.requireNonNull(rules);
+        Objects.requireNonNull(facts);
+        // rules are sorted once for the whole batch
+        CompiledRules compiledRules = CompiledRules.of(rules);
+        for (RulesEngineListener rulesEngineListener : registeredRulesEngineListeners) {
+            rulesEngineListener.beforeBatch(compiledRules);
+        }
+        List<FiringOutcome> outcomes = doFireAll(compiledRules, facts);
+        for (RulesEngineListener rulesEngineListener : registeredRulesEngineListeners) {
+            rulesEngineListener.afterBatch(compiledRules, outcomes);
+        }
+        return outcomes;
+    }
+
+    List<FiringOutcome> doFireAll(CompiledRules rules, Iterable<Facts> facts) {
+        List<FiringOutcome> outcomes = new ArrayList<>();
+        for (Facts batchFacts : facts) {
+            outcomes.add(fireInBatch(rules, batchFacts));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Fire rules on one of the facts of a batch, without notifying rules engine listeners.
+     */
+    abstract FiringOutcome fireInBatch(CompiledRules rules, Facts facts);
+
+    public synchronized void registerRuleListener(RuleListener ruleListener) {
         ruleListeners.add(ruleListener);
+        publishRuleListeners();
     }
 
-    public void registerRuleListeners(List<RuleListener> ruleListeners) {
+    public synchronized void registerRuleListeners(List<RuleListener> ruleListeners) {
         this.ruleListeners.addAll(ruleListeners);
+        publishRuleListeners();
     }
 
-    public void registerRulesEngineListener(RulesEngineListener rulesEngineListener) {
+    /**
+     * Register a rule listener which is notified of sampled firings only.
+     * This is meant for listeners too expensive to be notified of all firings,
+     * like tracing listeners.
+     *
+     * @param ruleListener to register
+     * @see RulesEngineParameters#setSamplingRate(double)
+     */
+    public synchronized void registerSampledRuleListener(RuleListener ruleListener) {
+        sampledRuleListeners.add(ruleListener);
+        publishRuleListeners();
+    }
+
+    /**
+     * Register a list of rule listeners which are notified of sampled firings only.
+     *
+     * @param ruleListeners to register
+     * @see #registerSampledRuleListener(RuleListener)
+     */
+    public synchronized void registerSampledRuleListeners(List<RuleListener> ruleListeners) {
+        sampledRuleListeners.addAll(ruleListeners);
+        publishRuleListeners();
+    }
+
+    public synchronized void registerRulesEngineListener(RulesEngineListener rulesEngineListener) {
         rulesEngineListeners.add(rulesEngineListener);
+        registeredRulesEngineListeners = rulesEngineListeners.toArray(new RulesEngineListener[0]);
     }
 
-    public void registerRulesEngineListeners(List<RulesEngineListener> rulesEngineListeners) {
+    public synchronized void registerRulesEngineListeners(List<RulesEngineListener> rulesEngineListeners) {
         this.rulesEngineListeners.addAll(rulesEngineListeners);
+        registeredRulesEngineListeners = this.rulesEngineListeners.toArray(new RulesEngineListener[0]);
+    }
+
+    private void publishRuleListeners() {
+        List<RuleListener> listeners = new ArrayList<>(ruleListeners);
+        listeners.remove(defaultRuleListener);
+        registeredRuleListeners = listeners.toArray(NO_RULE_LISTENERS);
+        if (sampledRuleListeners.isEmpty()) {
+            registeredAndSampledRuleListeners = null;
+        } else {
+            listeners.addAll(sampledRuleListeners);
+            registeredAndSampledRuleListeners = listeners.toArray(NO_RULE_LISTENERS);
+        }
+    }
+
+    /**
+     * Select rule listeners to notify of a firing, depending on whether it is sampled.
+     */
+    RuleListener[] selectRuleListeners() {
+        RuleListener[] sampledListeners = registeredAndSampledRuleListeners;
+        if (sampledListeners != null && isSampled()) {
+            return sampledListeners;
+        }
+        return registeredRuleListeners;
+    }
+
+    private boolean isSampled() {
+        double samplingRate = parameters.getSamplingRate();
+        return samplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < samplingRate;
     }
 }
@@ -24,9 +24,12 @@
 package org.jeasy.rules.core;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 
 /**
  * Utility class that associates an action method and its execution order.
+ * Action methods of the same order are sorted by name and parameter types.
  *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
@@ -56,10 +59,18 @@ class ActionMethodOrderBean implements Comparable<ActionMethodOrderBean> {
         } else if (order > actionMethodOrderBean.getOrder()) {
             return 1;
         } else {
-            return method.equals(actionMethodOrderBean.getMethod()) ? 0 : 1;
+            // same order as generated rule adapters: by name and parameter types
+            int result = method.getName().compareTo(actionMethodOrderBean.getMethod().getName());
+            return result != 0 ? result : parameterTypes(method).compareTo(parameterTypes(actionMethodOrderBean.getMethod()));
         }
     }
 
+    private static String parameterTypes(final Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getCanonicalName)
+                .collect(Collectors.joining(","));
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -0,0 +1,264 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Order of a compiled rule set learned from the cost and the selectivity of the conditions of rules,
+ * for a rules engine that skips rules once a rule has been applied.
+ *
+ * Rules are reordered only within bands of consecutive rules of the same priority that are mutually
+ * exclusive and commute: every rule of the band declares the same exclusive group (see
+ * {@link FactDependent#getExclusiveGroup()}) and the facts read by its condition and modified by its
+ * actions, and no action modifies a fact read or modified by another rule of the band. Since at most
+ * one rule of such a band is triggered, and rules are skipped once it is applied, firing the rules
+ * of the band in any order applies the same rule and yields the same facts.
+ *
+ * The evaluations of conditions are recorded by position of the rule in the compiled rule set, and
+ * rules are reordered every {@link #REORDER_INTERVAL} firings, so that rules with the lowest cost per
+ * triggered evaluation are evaluated first. Selectivities are smoothed so that a rule is never
+ * considered to be always or never triggered, and a rule that has not been evaluated yet is considered
+ * to cost as much as the average rule of its band. Recorded evaluations are halved after each
+ * reordering, so that the order follows changes of facts over time.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class AdaptiveRuleOrder {
+
+    static final int REORDER_INTERVAL = 1024;
+    private static final int SHARED = -1;
+
+    private final Rule[] rules;
+    private final int[][] bands;
+    private final AtomicLongArray evaluations;
+    private final AtomicLongArray triggeredEvaluations;
+    private final AtomicLongArray evaluationNanos;
+    private final AtomicLong firings = new AtomicLong();
+    private volatile Order order;
+
+    /*
+     * The compiled rule set is not referenced, so that it can be garbage collected while its order is cached.
+     */
+    AdaptiveRuleOrder(final CompiledRules rules) {
+        this.rules = new Rule[rules.size()];
+        Arrays.setAll(this.rules, rules::get);
+        this.bands = findExclusiveBands(rules);
+        this.evaluations = new AtomicLongArray(rules.size());
+        this.triggeredEvaluations = new AtomicLongArray(rules.size());
+        this.evaluationNanos = new AtomicLongArray(rules.size());
+        int[] declaredIndexes = new int[rules.size()];
+        Arrays.setAll(declaredIndexes, i -> i);
+        this.order = new Order(null, declaredIndexes);
+    }
+
+    /*
+     * Bands are the runs of rules of the same priority and exclusive group, as compiled rules are sorted
+     * by priority. Only bands of at least two commutative rules are kept, as ranges [from, to).
+     */
+    private static int[][] findExclusiveBands(CompiledRules rules) {
+        List<int[]> bands = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= rules.size(); i++) {
+            if (i == rules.size() || rules.getPriority(i) != rules.getPriority(from)
+                    || !Objects.equals(exclusiveGroupOf(rules.get(i)), exclusiveGroupOf(rules.get(from)))) {
+                if (i - from > 1 && exclusiveGroupOf(rules.get(from)) != null && commute(rules, from, i)) {
+                    bands.add(new int[]{from, i});
+                }
+                from = i;
+            }
+        }
+        return bands.toArray(new int[0][]);
+    }
+
+    private static String exclusiveGroupOf(Rule rule) {
+        return rule instanceof FactDependent ? ((FactDependent) rule).getExclusiveGroup() : null;
+    }
+
+    /*
+     * Facts are mapped to the only rule of the band reading or modifying them, or to SHARED, so that
+     * overlaps are found in time linear in the number of facts of the band.
+     */
+    private static boolean commute(CompiledRules rules, int from, int to) {
+        Map<String, Integer> users = new HashMap<>();
+        for (int i = from; i < to; i++) {
+            FactDependent rule = (FactDependent) rules.get(i);
+            if (rule.getConditionFacts() == null || rule.getActionFacts() == null) {
+                return false;
+            }
+            Integer user = i;
+            for (String fact : rule.getConditionFacts()) {
+                users.merge(fact, user, AdaptiveRuleOrder::mergeUsers);
+            }
+            for (String fact : rule.getActionFacts()) {
+                users.merge(fact, user, AdaptiveRuleOrder::mergeUsers);
+            }
+        }
+        for (int i = from; i < to; i++) {
+            for (String fact : ((FactDependent) rules.get(i)).getActionFacts()) {
+                if (users.get(fact) == SHARED) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static Integer mergeUsers(Integer user, Integer otherUser) {
+        return user.equals(otherUser) ? user : SHARED;
+    }
+
+    /**
+     * Check if some rules of the compiled rule set can be reordered.
+     *
+     * @return true if at least two mutually exclusive rules of the same priority commute
+     */
+    boolean isAdaptive() {
+        return bands.length > 0;
+    }
+
+    /**
+     * Get the current order of rules.
+     *
+     * @return the current order
+     */
+    Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Get the order of rules for a new firing, reordering rules first if the reorder interval is reached.
+     *
+     * @return the order of rules for the firing
+     */
+    Order nextFiring() {
+        if (firings.incrementAndGet() % REORDER_INTERVAL == 0) {
+            reorder();
+        }
+        return order;
+    }
+
+    private synchronized void reorder() {
+        double[] costs = new double[rules.length];
+        for (int[] band : bands) {
+            double bandCost = 0;
+            int evaluatedRules = 0;
+            for (int i = band[0]; i < band[1]; i++) {
+                if (evaluations.get(i) > 0) {
+                    bandCost += (double) evaluationNanos.get(i) / evaluations.get(i);
+                    evaluatedRules++;
+                }
+            }
+            bandCost = evaluatedRules > 0 ? bandCost / evaluatedRules : 0;
+            for (int i = band[0]; i < band[1]; i++) {
+                long ruleEvaluations = evaluations.get(i);
+                // conditions too cheap to be timed still cost something, so that their selectivity matters
+                double cost = Math.max(1, ruleEvaluations > 0 ? (double) evaluationNanos.get(i) / ruleEvaluations : bandCost);
+                double selectivity = (triggeredEvaluations.get(i) + 1.0) / (ruleEvaluations + 2.0);
+                costs[i] = cost / selectivity;
+            }
+        }
+        Integer[] declaredIndexes = new Integer[rules.length];
+        Arrays.setAll(declaredIndexes, i -> i);
+        for (int[] band : bands) {
+            // the sort is stable, so rules of equal cost keep their declared order
+            Arrays.sort(declaredIndexes, band[0], band[1], Comparator.comparingDouble(i -> costs[i]));
+        }
+        List<Rule> orderedRules = new ArrayList<>(rules.length);
+        int[] newDeclaredIndexes = new int[rules.length];
+        for (int i = 0; i < declaredIndexes.length; i++) {
+            orderedRules.add(rules[declaredIndexes[i]]);
+            newDeclaredIndexes[i] = declaredIndexes[i];
+        }
+        order = new Order(CompiledRules.inOrder(orderedRules), newDeclaredIndexes);
+        for (int i = 0; i < rules.length; i++) {
+            evaluations.set(i, evaluations.get(i) / 2);
+            triggeredEvaluations.set(i, triggeredEvaluations.get(i) / 2);
+            evaluationNanos.set(i, evaluationNanos.get(i) / 2);
+        }
+    }
+
+    /**
+     * Order of the rules of a compiled rule set, recording the evaluations of their conditions.
+     */
+    final class Order {
+
+        private final CompiledRules orderedRules;
+        private final int[] declaredIndexes;
+
+        // ordered rules are null until rules are reordered
+        private Order(final CompiledRules orderedRules, final int[] declaredIndexes) {
+            this.orderedRules = orderedRules;
+            this.declaredIndexes = declaredIndexes;
+        }
+
+        /**
+         * Get the rules in this order.
+         *
+         * @param rules the compiled rule set, returned as is if its rules have not been reordered yet
+         * @return the rules in this order
+         */
+        CompiledRules getRules(final CompiledRules rules) {
+            return orderedRules != null ? orderedRules : rules;
+        }
+
+        /**
+         * Get the position of a rule in the compiled rule set.
+         *
+         * @param index position of the rule in this order
+         * @return the position of the rule in the compiled rule set
+         */
+        int getDeclaredIndex(final int index) {
+            return declaredIndexes[index];
+        }
+
+        /**
+         * Record an evaluation of the condition of a rule.
+         *
+         * @param index position of the rule in this order
+         * @param nanos duration of the evaluation
+         * @param triggered result of the evaluation
+         */
+        void recordEvaluation(final int index, final long nanos, final boolean triggered) {
+            int declaredIndex = declaredIndexes[index];
+            evaluations.incrementAndGet(declaredIndex);
+            evaluationNanos.addAndGet(declaredIndex, nanos);
+            if (triggered) {
+                triggeredEvaluations.incrementAndGet(declaredIndex);
+            }
+        }
+    }
+}
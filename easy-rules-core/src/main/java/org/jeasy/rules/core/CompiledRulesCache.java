@@ -0,0 +1,103 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Function;
+
+/**
+ * Values computed once per {@link CompiledRules} snapshot, such as indexes of its rules, and kept as long
+ * as the snapshot is reachable. Engines firing several snapshots alternately, or a snapshot and the
+ * snapshots that replaced it, keep a value for each of them.
+ *
+ * The value of the last snapshot looked up is read without any lock. Values must not refer to the
+ * snapshot they are computed from, otherwise the snapshot would never be garbage collected.
+ *
+ * @param <V> type of values
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class CompiledRulesCache<V> {
+
+    private final Function<CompiledRules, V> valueFactory;
+    // snapshots do not override equals and hashCode, so they are looked up by identity
+    private final Map<CompiledRules, V> values = new WeakHashMap<>();
+    private volatile Entry<V> lastEntry;
+
+    CompiledRulesCache(final Function<CompiledRules, V> valueFactory) {
+        this.valueFactory = valueFactory;
+    }
+
+    /**
+     * Get the value of a snapshot, computing it if needed.
+     *
+     * @param rules the snapshot
+     * @return the value of the snapshot
+     */
+    V get(final CompiledRules rules) {
+        Entry<V> entry = lastEntry;
+        if (entry != null && entry.get() == rules) {
+            return entry.value;
+        }
+        V value;
+        synchronized (values) {
+            value = values.get(rules);
+            if (value == null) {
+                value = valueFactory.apply(rules);
+                values.put(rules, value);
+            }
+        }
+        lastEntry = new Entry<>(rules, value);
+        return value;
+    }
+
+    /**
+     * Get the value of a snapshot if it has been computed.
+     *
+     * @param rules the snapshot
+     * @return the value of the snapshot, or null if it has not been computed
+     */
+    V getIfPresent(final CompiledRules rules) {
+        Entry<V> entry = lastEntry;
+        if (entry != null && entry.get() == rules) {
+            return entry.value;
+        }
+        synchronized (values) {
+            return values.get(rules);
+        }
+    }
+
+    private static final class Entry<V> extends WeakReference<CompiledRules> {
+
+        private final V value;
+
+        private Entry(final CompiledRules rules, final V value) {
+            super(rules);
+            this.value = value;
+        }
+    }
+}
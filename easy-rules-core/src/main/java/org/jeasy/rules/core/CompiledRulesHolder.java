@@ -0,0 +1,141 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rules;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Holder of the current {@link CompiledRules} snapshot of a rule set.
+ *
+ * Threads firing rules read the current snapshot with {@link #get()} without any lock.
+ * Changes are applied in a copy-on-write fashion: a mutable copy of the current snapshot
+ * is modified, compiled and then atomically published, so that rules being fired are
+ * never modified.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class CompiledRulesHolder {
+
+    private final AtomicReference<CompiledRules> current;
+
+    /**
+     * Create a new {@link CompiledRulesHolder} with no rules.
+     */
+    public CompiledRulesHolder() {
+        this(CompiledRules.empty());
+    }
+
+    /**
+     * Create a new {@link CompiledRulesHolder}.
+     *
+     * @param rules initial rules
+     */
+    public CompiledRulesHolder(final Rules rules) {
+        Objects.requireNonNull(rules);
+        this.current = new AtomicReference<>(CompiledRules.of(rules));
+    }
+
+    /**
+     * Get the current snapshot.
+     *
+     * @return the current snapshot
+     */
+    public CompiledRules get() {
+        return current.get();
+    }
+
+    /**
+     * Replace the current snapshot with a snapshot of the given rules.
+     *
+     * @param rules to publish
+     * @return the published snapshot
+     */
+    public CompiledRules publish(final Rules rules) {
+        Objects.requireNonNull(rules);
+        CompiledRules compiledRules = CompiledRules.of(rules);
+        current.set(compiledRules);
+        return compiledRules;
+    }
+
+    /**
+     * Apply changes to a copy of the current snapshot and publish the result.
+     *
+     * If another snapshot is published concurrently, changes are applied again to
+     * a copy of the new snapshot, so they must not have side effects other than
+     * modifying the given rules.
+     *
+     * @param changes to apply to a mutable copy of the current rules
+     * @return the published snapshot
+     */
+    public CompiledRules update(final Consumer<Rules> changes) {
+        Objects.requireNonNull(changes);
+        while (true) {
+            CompiledRules currentRules = current.get();
+            Rules rules = currentRules.toRules();
+            changes.accept(rules);
+            CompiledRules compiledRules = CompiledRules.of(rules);
+            if (current.compareAndSet(currentRules, compiledRules)) {
+                return compiledRules;
+            }
+        }
+    }
+
+    /**
+     * Register a new rule and publish the resulting snapshot.
+     *
+     * @param rule to register
+     * @return the published snapshot
+     */
+    public CompiledRules register(final Object rule) {
+        Objects.requireNonNull(rule);
+        return update(rules -> rules.register(rule));
+    }
+
+    /**
+     * Unregister a rule and publish the resulting snapshot.
+     *
+     * @param rule to unregister
+     * @return the published snapshot
+     */
+    public CompiledRules unregister(final Object rule) {
+        Objects.requireNonNull(rule);
+        return update(rules -> rules.unregister(rule));
+    }
+
+    /**
+     * Unregister a rule by name and publish the resulting snapshot.
+     *
+     * @param ruleName the name of the rule to unregister
+     * @return the published snapshot
+     */
+    public CompiledRules unregister(final String ruleName) {
+        Objects.requireNonNull(ruleName);
+        return update(rules -> rules.unregister(ruleName));
+    }
+}
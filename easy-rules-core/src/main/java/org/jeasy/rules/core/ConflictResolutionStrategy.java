@@ -0,0 +1,82 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Strategy used by the {@link InferenceRulesEngine} to resolve conflicts between rules whose
+ * conditions are satisfied at the same time.
+ *
+ * At each inference cycle, the engine gives the strategy the agenda of matched rules sorted in their
+ * natural order (priority by default). The strategy returns the rules to fire in this cycle, in firing
+ * order. Matched rules that are not returned remain on the agenda and are considered again in the next
+ * cycle, without evaluating their conditions again unless facts they depend on have changed.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@FunctionalInterface
+public interface ConflictResolutionStrategy {
+
+    /**
+     * Fire all matched rules in their natural order. This is the default strategy.
+     */
+    ConflictResolutionStrategy ALL = agenda -> agenda;
+
+    /**
+     * Fire only the first matched rule in natural order, so that each rule sees the changes
+     * made by rules fired before it when it is selected.
+     */
+    ConflictResolutionStrategy FIRST = agenda -> agenda.isEmpty() ? agenda : agenda.subList(0, 1);
+
+    /**
+     * Resolve conflicts between matched rules.
+     *
+     * @param agenda matched rules sorted in their natural order
+     * @return the rules to fire in this cycle, in firing order
+     */
+    List<Rule> resolve(List<Rule> agenda);
+
+    /**
+     * Create a strategy firing all matched rules in the order of the given comparator.
+     *
+     * @param comparator used to order matched rules
+     * @return a new conflict resolution strategy
+     */
+    static ConflictResolutionStrategy orderedBy(final Comparator<? super Rule> comparator) {
+        Objects.requireNonNull(comparator);
+        return agenda -> {
+            List<Rule> orderedAgenda = new ArrayList<>(agenda);
+            Collections.sort(orderedAgenda, comparator);
+            return orderedAgenda;
+        };
+    }
+
+}
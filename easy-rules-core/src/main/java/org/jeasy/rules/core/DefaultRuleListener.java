@@ -41,6 +41,9 @@ class DefaultRuleListener implements RuleListener {
 
     @Override
     public void afterEvaluate(final Rule rule, final Facts facts, final boolean evaluationResult) {
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
         final String ruleName = rule.getName();
         if (evaluationResult) {
             LOGGER.debug("Rule '{}' triggered", ruleName);
@@ -56,7 +59,9 @@ class DefaultRuleListener implements RuleListener {
 
     @Override
     public void onSuccess(final Rule rule, final Facts facts) {
-        LOGGER.debug("Rule '{}' performed successfully", rule.getName());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Rule '{}' performed successfully", rule.getName());
+        }
     }
 
     @Override
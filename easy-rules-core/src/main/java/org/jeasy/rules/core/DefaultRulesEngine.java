@@ -27,8 +27,19 @@ import org.jeasy.rules.api.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -37,6 +48,23 @@ import java.util.stream.Collectors;
  * This implementation handles a set of rules with unique name.
  * <p>
  * Rules are fired according to their natural order which is priority by default.
+ * <p>
+ * The engine can be shared between threads: {@link CompiledRules} can be fired concurrently
+ * as long as each thread fires them with its own facts.
+ * <p>
+ * When created with an {@link Executor}, the engine evaluates rules of {@link #check(Rules, Facts)}
+ * in parallel. Rule listeners are still called on the caller thread, in rules order.
+ * Facts of a batch fired with {@link #fireAll(Rules, Iterable)} are partitioned and fired in
+ * parallel as well, in which case rule listeners must be thread-safe.
+ * <p>
+ * Rules whose required facts (see {@link FactDependent#getRequiredFacts()}) are missing are
+ * not evaluated and are considered as not triggered. Required facts of {@link CompiledRules}
+ * are indexed, so that such rules are found once per firing rather than rule by rule. Indexes
+ * are kept as long as their {@link CompiledRules} are reachable.
+ * <p>
+ * When adaptive rule ordering is enabled (see {@link RulesEngineParameters#setAdaptiveRuleOrdering(boolean)}),
+ * mutually exclusive rules of the same priority of {@link CompiledRules} are reordered according to the
+ * observed cost and selectivity of their conditions. The order is learned separately for each {@link CompiledRules}.
  *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
@@ -44,11 +72,18 @@ public final class DefaultRulesEngine extends AbstractRuleEngine {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultRulesEngine.class);
 
+    private final Executor executor;
+    private final int parallelism;
+    private final CompiledRulesCache<RequiredFactsIndex> requiredFactsIndexes = new CompiledRulesCache<>(RequiredFactsIndex::new);
+    private final CompiledRulesCache<AdaptiveRuleOrder> adaptiveRuleOrders = new CompiledRulesCache<>(AdaptiveRuleOrder::new);
+
     /**
      * Create a new {@link DefaultRulesEngine} with default parameters.
      */
     public DefaultRulesEngine() {
         super();
+        this.executor = null;
+        this.parallelism = 1;
     }
 
     /**
@@ -58,102 +93,369 @@ public final class DefaultRulesEngine extends AbstractRuleEngine {
      */
     public DefaultRulesEngine(final RulesEngineParameters parameters) {
         super(parameters);
+        this.executor = null;
+        this.parallelism = 1;
+    }
+
+    /**
+     * Create a new {@link DefaultRulesEngine} evaluating rules of {@link #check(Rules, Facts)}, and
+     * firing rules on facts of a batch, in parallel.
+     *
+     * Rules (or facts of a batch) are split in as many partitions as the parallelism of the executor
+     * if it is a {@link ForkJoinPool}, or as the number of available processors otherwise. One partition
+     * is processed on the caller thread and the others are submitted to the executor. Facts are read
+     * concurrently during evaluation of {@link #check(Rules, Facts)} and must not be modified by conditions.
+     * When firing a batch in parallel, rules and rule listeners must be thread-safe.
+     *
+     * @param parameters of the engine
+     * @param executor used to evaluate rules in parallel
+     */
+    public DefaultRulesEngine(final RulesEngineParameters parameters, final Executor executor) {
+        super(parameters);
+        Objects.requireNonNull(executor);
+        this.executor = executor;
+        this.parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
     }
 
     @Override
     public void fire(Rules rules, Facts facts) {
         triggerListenersBeforeRules(rules, facts);
-        doFire(rules, facts);
+        doFire(rules, facts, null, selectRuleListeners());
         triggerListenersAfterRules(rules, facts);
     }
 
-    void doFire(Rules rules, Facts facts) {
+    /*
+     * The outcome, if any, records fired and failed rules. Names of rules are only resolved
+     * for logging, and priorities only if a priority threshold is set. Given rule listeners
+     * are those selected for this firing.
+     */
+    void doFire(Rules rules, Facts facts, FiringOutcome outcome, RuleListener[] listeners) {
+        if (rules instanceof CompiledRules) {
+            doFire((CompiledRules) rules, facts, outcome, listeners);
+            return;
+        }
+        int priorityThreshold = parameters.getPriorityThreshold();
         for (Rule rule : rules) {
-            final String name = rule.getName();
-            final int priority = rule.getPriority();
-            if (priority > parameters.getPriorityThreshold()) {
-                LOGGER.debug("Rule priority threshold ({}) exceeded at rule '{}' with priority={}, next rules will be skipped",
-                        parameters.getPriorityThreshold(), name, priority);
+            if (priorityThreshold != Integer.MAX_VALUE
+                    && isPriorityThresholdExceeded(rule, null, rule.getPriority(), priorityThreshold)) {
+                break;
+            }
+            if (!doFire(rule, null, !Utils.hasRequiredFacts(rule, facts), facts, outcome, listeners, null, 0)) {
+                break;
+            }
+        }
+    }
+
+    /*
+     * Compiled rules are already sorted, and their names, priorities and required facts are precomputed.
+     * With adaptive rule ordering, rules are fired in the learned order, while required facts are still
+     * looked up by position of rules in the compiled rule set.
+     */
+    private void doFire(CompiledRules rules, Facts facts, FiringOutcome outcome, RuleListener[] listeners) {
+        RequiredFactsIndex requiredFacts = requiredFactsIndexes.get(rules);
+        long missingFacts = requiredFacts.getMissingFacts(facts);
+        AdaptiveRuleOrder.Order order = null;
+        if (isAdaptiveRuleOrdering()) {
+            AdaptiveRuleOrder adaptiveOrder = adaptiveRuleOrders.get(rules);
+            if (adaptiveOrder.isAdaptive()) {
+                order = adaptiveOrder.nextFiring();
+            }
+        }
+        CompiledRules orderedRules = order != null ? order.getRules(rules) : rules;
+        int priorityThreshold = parameters.getPriorityThreshold();
+        for (int i = 0; i < orderedRules.size(); i++) {
+            Rule rule = orderedRules.get(i);
+            String name = orderedRules.getName(i);
+            if (isPriorityThresholdExceeded(rule, name, orderedRules.getPriority(i), priorityThreshold)) {
                 break;
             }
-            if (!shouldBeEvaluated(rule, facts)) {
-                LOGGER.debug("Rule '{}' has been skipped before being evaluated",
-                    name);
-                continue;
-            }
-            if (rule.evaluate(facts)) {
-                triggerListenersAfterEvaluate(rule, facts, true);
-                try {
-                    triggerListenersBeforeExecute(rule, facts);
-                    rule.accept(facts);
-                    triggerListenersOnSuccess(rule, facts);
-                    if (parameters.isSkipOnFirstAppliedRule()) {
-                        LOGGER.debug("Next rules will be skipped since parameter skipOnFirstAppliedRule is set");
-                        break;
-                    }
-                } catch (Exception exception) {
-                    triggerListenersOnFailure(rule, exception, facts);
-                    if (parameters.isSkipOnFirstFailedRule()) {
-                        LOGGER.debug("Next rules will be skipped since parameter skipOnFirstFailedRule is set");
-                        break;
-                    }
-                }
-            } else {
-                triggerListenersAfterEvaluate(rule, facts, false);
-                if (parameters.isSkipOnFirstNonTriggeredRule()) {
-                    LOGGER.debug("Next rules will be skipped since parameter skipOnFirstNonTriggeredRule is set");
-                    break;
-                }
+            int declaredIndex = order != null ? order.getDeclaredIndex(i) : i;
+            if (!doFire(rule, name, requiredFacts.hasMissingFacts(declaredIndex, missingFacts, facts), facts, outcome,
+                    listeners, order, i)) {
+                break;
+            }
+        }
+    }
+
+    /*
+     * Reordering rules only pays off if rules are skipped once some rule has been applied. Rules skipped
+     * once some rule is not triggered would depend on the order of rules, even if they are mutually exclusive.
+     */
+    private boolean isAdaptiveRuleOrdering() {
+        return parameters.isAdaptiveRuleOrdering()
+                && parameters.isSkipOnFirstAppliedRule() && !parameters.isSkipOnFirstNonTriggeredRule();
+    }
+
+    /**
+     * Get the given rules in the order in which this engine fires them. When adaptive rule ordering
+     * is enabled, this is the order learned so far from the firings of the given rules: mutually
+     * exclusive rules of the same priority that commute may be reordered. The returned rules can be fired with adaptive rule
+     * ordering disabled to pin the learned order, and their names can be persisted to pin it across
+     * restarts with {@link CompiledRules#inOrder(List)}.
+     *
+     * @param rules compiled rules fired by this engine
+     * @return the given rules in firing order
+     */
+    public CompiledRules getLearnedRuleOrder(final CompiledRules rules) {
+        Objects.requireNonNull(rules);
+        AdaptiveRuleOrder adaptiveOrder = adaptiveRuleOrders.getIfPresent(rules);
+        return adaptiveOrder != null ? adaptiveOrder.getOrder().getRules(rules) : rules;
+    }
+
+    /*
+     * Fire rules of an agenda in order. Their conditions have already been evaluated to true, and
+     * rule listeners notified of it, and are evaluated again only if the given predicate tells that
+     * their evaluation result is stale.
+     */
+    void doFire(List<Rule> agenda, Facts facts, FiringOutcome outcome, Predicate<Rule> stale, RuleListener[] listeners) {
+        int priorityThreshold = parameters.getPriorityThreshold();
+        for (Rule rule : agenda) {
+            if (priorityThreshold != Integer.MAX_VALUE
+                    && isPriorityThresholdExceeded(rule, null, rule.getPriority(), priorityThreshold)) {
+                break;
+            }
+            boolean proceed = stale.test(rule)
+                    ? doFire(rule, null, !Utils.hasRequiredFacts(rule, facts), facts, outcome, listeners, null, 0)
+                    : execute(rule, facts, outcome, listeners);
+            if (!proceed) {
+                break;
             }
         }
     }
 
+    /*
+     * Fire a single rule and return false if next rules should be skipped. A rule whose
+     * required facts are missing is not evaluated and is considered as not triggered.
+     * The name of the rule is resolved lazily if it is not given. If an adaptive order is given,
+     * the evaluation of the condition is recorded at the given position of the rule in this order.
+     */
+    private boolean doFire(Rule rule, String name, boolean missingFacts, Facts facts, FiringOutcome outcome,
+                           RuleListener[] listeners, AdaptiveRuleOrder.Order order, int index) {
+        if (!shouldBeEvaluated(rule, facts, listeners)) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Rule '{}' has been skipped before being evaluated", nameOf(rule, name));
+            }
+            return true;
+        }
+        if (missingFacts) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Rule '{}' has not been evaluated since a required fact is missing", nameOf(rule, name));
+            }
+            if (order != null) {
+                order.recordEvaluation(index, 0, false);
+            }
+        } else if (order == null ? rule.evaluate(facts) : evaluate(rule, facts, order, index)) {
+            triggerListenersAfterEvaluate(rule, facts, true, listeners);
+            return execute(rule, facts, outcome, listeners);
+        }
+        triggerListenersAfterEvaluate(rule, facts, false, listeners);
+        if (parameters.isSkipOnFirstNonTriggeredRule()) {
+            LOGGER.debug("Next rules will be skipped since parameter skipOnFirstNonTriggeredRule is set");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean evaluate(Rule rule, Facts facts, AdaptiveRuleOrder.Order order, int index) {
+        long start = System.nanoTime();
+        boolean triggered = rule.evaluate(facts);
+        order.recordEvaluation(index, System.nanoTime() - start, triggered);
+        return triggered;
+    }
+
+    private boolean isPriorityThresholdExceeded(Rule rule, String name, int priority, int priorityThreshold) {
+        if (priority > priorityThreshold) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Rule priority threshold ({}) exceeded at rule '{}' with priority={}, next rules will be skipped",
+                        priorityThreshold, nameOf(rule, name), priority);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static String nameOf(Rule rule, String name) {
+        return name != null ? name : rule.getName();
+    }
+
+    /*
+     * Execute a rule whose condition evaluated to true and return false if next rules should be skipped.
+     * Rule listeners must have been notified of the evaluation already.
+     */
+    private boolean execute(Rule rule, Facts facts, FiringOutcome outcome, RuleListener[] listeners) {
+        try {
+            triggerListenersBeforeExecute(rule, facts, listeners);
+            rule.accept(facts);
+            triggerListenersOnSuccess(rule, facts, listeners);
+            if (outcome != null) {
+                outcome.onSuccess(rule);
+            }
+            if (parameters.isSkipOnFirstAppliedRule()) {
+                LOGGER.debug("Next rules will be skipped since parameter skipOnFirstAppliedRule is set");
+                return false;
+            }
+        } catch (Exception exception) {
+            triggerListenersOnFailure(rule, exception, facts, listeners);
+            if (outcome != null) {
+                outcome.onFailure(rule, exception);
+            }
+            if (parameters.isSkipOnFirstFailedRule()) {
+                LOGGER.debug("Next rules will be skipped since parameter skipOnFirstFailedRule is set");
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public Map<Rule, Boolean> check(Rules rules, Facts facts) {
         triggerListenersBeforeRules(rules, facts);
-        Map<Rule, Boolean> result = doCheck(rules, facts);
+        Map<Rule, Boolean> result = doCheck(rules, facts, selectRuleListeners());
         triggerListenersAfterRules(rules, facts);
         return result;
     }
 
-    private Map<Rule, Boolean> doCheck(Rules rules, Facts facts) {
+    private Map<Rule, Boolean> doCheck(Rules rules, Facts facts, RuleListener[] listeners) {
         LOGGER.debug("Checking rules");
+        if (executor != null) {
+            return doCheckInParallel(rules, facts, listeners);
+        }
         return rules.asStream()
-                .filter(rule -> shouldBeEvaluated(rule, facts))
-                .collect(Collectors.toMap(Function.identity(), rule -> rule.evaluate(facts)));
+                .filter(rule -> shouldBeEvaluated(rule, facts, listeners))
+                .collect(Collectors.toMap(Function.identity(), rule -> evaluate(rule, facts)));
     }
 
-    private void triggerListenersOnFailure(final Rule rule, final Exception exception, Facts facts) {
-        ruleListeners.forEach(ruleListener -> ruleListener.onFailure(rule, facts, exception));
+    private Map<Rule, Boolean> doCheckInParallel(Rules rules, Facts facts, RuleListener[] listeners) {
+        // listeners are not required to be thread-safe, so they are called on the caller thread
+        List<Rule> selectedRules = rules.asStream()
+                .filter(rule -> shouldBeEvaluated(rule, facts, listeners))
+                .collect(Collectors.toList());
+        boolean[] results = new boolean[selectedRules.size()];
+        runInParallel(selectedRules.size(), (from, to) -> evaluate(selectedRules, from, to, facts, results));
+        Map<Rule, Boolean> result = new HashMap<>();
+        for (int i = 0; i < results.length; i++) {
+            result.put(selectedRules.get(i), results[i]);
+        }
+        return result;
     }
 
-    private void triggerListenersOnSuccess(final Rule rule, Facts facts) {
-        ruleListeners.forEach(ruleListener -> ruleListener.onSuccess(rule, facts));
+    @Override
+    List<FiringOutcome> doFireAll(CompiledRules rules, Iterable<Facts> facts) {
+        if (executor == null) {
+            return super.doFireAll(rules, facts);
+        }
+        List<Facts> batch = new ArrayList<>();
+        facts.forEach(batch::add);
+        FiringOutcome[] outcomes = new FiringOutcome[batch.size()];
+        runInParallel(batch.size(), (from, to) -> {
+            for (int i = from; i < to; i++) {
+                outcomes[i] = fireInBatch(rules, batch.get(i));
+            }
+        });
+        return Arrays.asList(outcomes);
     }
 
-    private void triggerListenersBeforeExecute(final Rule rule, Facts facts) {
-        ruleListeners.forEach(ruleListener -> ruleListener.beforeExecute(rule, facts));
+    @Override
+    FiringOutcome fireInBatch(CompiledRules rules, Facts facts) {
+        FiringOutcome outcome = new FiringOutcome(facts);
+        doFire(rules, facts, outcome, selectRuleListeners());
+        return outcome;
     }
 
-    private boolean triggerListenersBeforeEvaluate(Rule rule, Facts facts) {
-        return ruleListeners.stream()
-                .allMatch(ruleListener -> ruleListener.beforeEvaluate(rule, facts));
+    /*
+     * Split the range [0, size) in contiguous partitions, run the first one on the caller
+     * thread and the others on the executor, then wait for all of them.
+     */
+    private void runInParallel(int size, BiConsumer<Integer, Integer> partitionTask) {
+        int partitionSize = Math.max(1, (size + parallelism - 1) / parallelism);
+        List<CompletableFuture<Void>> partitions = new ArrayList<>();
+        for (int start = partitionSize; start < size; start += partitionSize) {
+            int from = start;
+            int to = Math.min(start + partitionSize, size);
+            partitions.add(CompletableFuture.runAsync(() -> partitionTask.accept(from, to), executor));
+        }
+        partitionTask.accept(0, Math.min(partitionSize, size));
+        try {
+            CompletableFuture.allOf(partitions.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
     }
 
-    private void triggerListenersAfterEvaluate(Rule rule, Facts facts, boolean evaluationResult) {
-        ruleListeners.forEach(ruleListener -> ruleListener.afterEvaluate(rule, facts, evaluationResult));
+    private void evaluate(List<Rule> rules, int from, int to, Facts facts, boolean[] results) {
+        for (int i = from; i < to; i++) {
+            results[i] = evaluate(rules.get(i), facts);
+        }
+    }
+
+    private boolean evaluate(Rule rule, Facts facts) {
+        return Utils.hasRequiredFacts(rule, facts) && rule.evaluate(facts);
+    }
+
+    /*
+     * Rule listeners are iterated over the array selected by AbstractRuleEngine for the current firing,
+     * and the default rule listener, which only logs, is called directly. When no rule listener has been
+     * registered, triggering rule listeners hence costs no more than a call to the default rule listener.
+     */
+    private void triggerListenersOnFailure(final Rule rule, final Exception exception, Facts facts, RuleListener[] listeners) {
+        defaultRuleListener.onFailure(rule, facts, exception);
+        for (RuleListener ruleListener : listeners) {
+            ruleListener.onFailure(rule, facts, exception);
+        }
+    }
+
+    private void triggerListenersOnSuccess(final Rule rule, Facts facts, RuleListener[] listeners) {
+        defaultRuleListener.onSuccess(rule, facts);
+        for (RuleListener ruleListener : listeners) {
+            ruleListener.onSuccess(rule, facts);
+        }
+    }
+
+    private void triggerListenersBeforeExecute(final Rule rule, Facts facts, RuleListener[] listeners) {
+        for (RuleListener ruleListener : listeners) {
+            ruleListener.beforeExecute(rule, facts);
+        }
+    }
+
+    private boolean triggerListenersBeforeEvaluate(Rule rule, Facts facts, RuleListener[] listeners) {
+        // the default rule listener does not veto the evaluation of any rule
+        for (RuleListener ruleListener : listeners) {
+            if (!ruleListener.beforeEvaluate(rule, facts)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    void triggerListenersAfterEvaluate(Rule rule, Facts facts, boolean evaluationResult, RuleListener[] listeners) {
+        defaultRuleListener.afterEvaluate(rule, facts, evaluationResult);
+        for (RuleListener ruleListener : listeners) {
+            ruleListener.afterEvaluate(rule, facts, evaluationResult);
+        }
     }
 
     private void triggerListenersBeforeRules(Rules rule, Facts facts) {
-        rulesEngineListeners.forEach(rulesEngineListener -> rulesEngineListener.beforeEvaluate(rule, facts));
+        for (RulesEngineListener rulesEngineListener : registeredRulesEngineListeners) {
+            rulesEngineListener.beforeEvaluate(rule, facts);
+        }
     }
 
     private void triggerListenersAfterRules(Rules rule, Facts facts) {
-        rulesEngineListeners.forEach(rulesEngineListener -> rulesEngineListener.afterExecute(rule, facts));
+        for (RulesEngineListener rulesEngineListener : registeredRulesEngineListeners) {
+            rulesEngineListener.afterExecute(rule, facts);
+        }
     }
 
-    private boolean shouldBeEvaluated(Rule rule, Facts facts) {
-        return triggerListenersBeforeEvaluate(rule, facts);
+    boolean shouldBeEvaluated(Rule rule, Facts facts, RuleListener[] listeners) {
+        return triggerListenersBeforeEvaluate(rule, facts, listeners);
     }
 
 }
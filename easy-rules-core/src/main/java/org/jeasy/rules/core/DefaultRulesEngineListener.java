@@ -42,6 +42,9 @@ class DefaultRulesEngineListener implements RulesEngineListener {
     @Override
     public void beforeEvaluate(Rules rules, Facts facts) {
         if (!rules.isEmpty()) {
+            if (!LOGGER.isDebugEnabled()) {
+                return;
+            }
             logEngineParameters();
             log(rules);
             log(facts);
@@ -56,6 +59,20 @@ class DefaultRulesEngineListener implements RulesEngineListener {
 
     }
 
+    @Override
+    public void beforeBatch(Rules rules) {
+        if (!rules.isEmpty()) {
+            if (!LOGGER.isDebugEnabled()) {
+                return;
+            }
+            logEngineParameters();
+            log(rules);
+            LOGGER.debug("Batch firing started");
+        } else {
+            LOGGER.warn("No rules registered! Nothing to apply");
+        }
+    }
+
     private void logEngineParameters() {
         LOGGER.debug(parameters.toString());
     }
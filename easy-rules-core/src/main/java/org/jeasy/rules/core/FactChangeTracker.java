@@ -0,0 +1,98 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
+import org.jeasy.rules.api.Rule;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Track facts changed during an iteration of inference engines: facts changed in {@link Facts}
+ * and facts that actions of rules executed since the beginning of the iteration may have modified.
+ *
+ * Changes are accumulated incrementally, so that they can be queried before firing each rule.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class FactChangeTracker {
+
+    private final Facts facts;
+    private final FiringOutcome outcome;
+    private final Set<String> changedFacts = new HashSet<>();
+    private long version;
+    private int firedRules;
+    private int failedRules;
+    private boolean unknown;
+
+    FactChangeTracker(final Facts facts, final FiringOutcome outcome) {
+        this.facts = facts;
+        this.outcome = outcome;
+        this.version = facts.getVersion();
+    }
+
+    /*
+     * Facts changed since the beginning of the iteration, or null if unknown. The returned set
+     * is updated by subsequent calls.
+     */
+    Set<String> getChangedFacts() {
+        if (unknown) {
+            return null;
+        }
+        if (facts.getVersion() != version) {
+            changedFacts.addAll(facts.getChangedFacts(version));
+            version = facts.getVersion();
+        }
+        List<Rule> executedRules = outcome.getFiredRules();
+        for (; firedRules < executedRules.size(); firedRules++) {
+            addActionFacts(executedRules.get(firedRules));
+        }
+        if (outcome.getFailedRules().size() != failedRules) {
+            outcome.getFailedRules().keySet().forEach(this::addActionFacts);
+            failedRules = outcome.getFailedRules().size();
+        }
+        return unknown ? null : changedFacts;
+    }
+
+    /*
+     * Check if the condition of a rule may depend on facts changed since the beginning of the iteration.
+     */
+    boolean isAffected(final Rule rule) {
+        return Utils.dependsOn(rule, getChangedFacts());
+    }
+
+    private void addActionFacts(final Rule rule) {
+        Set<String> actionFacts = rule instanceof FactDependent ? ((FactDependent) rule).getActionFacts() : null;
+        if (actionFacts == null) {
+            unknown = true;
+        } else {
+            changedFacts.addAll(actionFacts);
+        }
+    }
+
+}
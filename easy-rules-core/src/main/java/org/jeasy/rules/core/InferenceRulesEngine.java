@@ -28,7 +28,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Inference {@link RulesEngine} implementation.
@@ -37,6 +36,22 @@ import java.util.stream.Collectors;
  *
  * The engine continuously selects and fires rules until no more rules are applicable.
  *
+ * Rules are evaluated incrementally: after the first iteration, only rules fired during the previous
+ * iteration and rules whose condition depends on facts changed during the previous iteration are
+ * re-evaluated to select candidates, others keep the result of their last evaluation. Rules declare the facts they depend on by implementing
+ * {@link FactDependent}, rules that do not are re-evaluated whenever a fact changes. Rules are indexed
+ * by the facts read by their conditions, and indexes of {@link CompiledRules} are kept as long as they are reachable.
+ *
+ * A fact is considered changed after an iteration if it has been added, removed or replaced
+ * (as tracked by {@link Facts#getChangedFacts(long)}), or if it may have been modified by the
+ * action of a fired rule according to {@link FactDependent#getActionFacts()}.
+ *
+ * Selected candidates form an agenda which is fired without evaluating conditions a second time,
+ * unless a rule fired before in the same iteration changed facts they depend on. Conflicts between
+ * candidates are resolved with a {@link ConflictResolutionStrategy}. Rule listeners are notified
+ * before and after each evaluation of a rule, including evaluations to select candidates, and
+ * before and after the execution of each fired rule.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public final class InferenceRulesEngine extends AbstractRuleEngine {
@@ -44,6 +59,8 @@ public final class InferenceRulesEngine extends AbstractRuleEngine {
     private static final Logger LOGGER = LoggerFactory.getLogger(InferenceRulesEngine.class);
 
     private DefaultRulesEngine delegate;
+    private ConflictResolutionStrategy conflictResolutionStrategy;
+    private final CompiledRulesCache<RuleNetwork> networks = new CompiledRulesCache<>(RuleNetwork::new);
 
     /**
      * Create a new inference rules engine with default parameters.
@@ -58,29 +75,92 @@ public final class InferenceRulesEngine extends AbstractRuleEngine {
      * @param parameters of the engine
      */
     public InferenceRulesEngine(RulesEngineParameters parameters) {
+        this(parameters, ConflictResolutionStrategy.ALL);
+    }
+
+    /**
+     * Create a new inference rules engine.
+     *
+     * @param parameters of the engine
+     * @param conflictResolutionStrategy used to select rules to fire among candidates
+     */
+    public InferenceRulesEngine(RulesEngineParameters parameters, ConflictResolutionStrategy conflictResolutionStrategy) {
         super(parameters);
+        Objects.requireNonNull(conflictResolutionStrategy);
         delegate = new DefaultRulesEngine(parameters);
+        this.conflictResolutionStrategy = conflictResolutionStrategy;
     }
 
     @Override
     public void fire(Rules rules, Facts facts) {
-        Set<Rule> selectedRules;
-        do {
+        doFire(rules, facts, null);
+    }
+
+    @Override
+    FiringOutcome fireInBatch(CompiledRules rules, Facts facts) {
+        FiringOutcome outcome = new FiringOutcome(facts);
+        doFire(rules, facts, outcome);
+        return outcome;
+    }
+
+    private void doFire(Rules rules, Facts facts, FiringOutcome outcome) {
+        // all iterations notify the same listeners, whether the firing is sampled or not
+        RuleListener[] listeners = delegate.selectRuleListeners();
+        CompiledRules compiledRules = CompiledRules.of(rules);
+        RuleNetwork network = rules instanceof CompiledRules ? networks.get(compiledRules) : new RuleNetwork(compiledRules);
+        boolean[] matches = new boolean[compiledRules.size()];
+        BitSet vetoedRules = new BitSet();
+        BitSet rulesToEvaluate = network.getAffectedRules(null);
+        while (true) {
             LOGGER.debug("Selecting candidate rules based on the following facts: {}", facts);
-            selectedRules = selectCandidates(rules, facts);
-            if (!selectedRules.isEmpty()) {
-                delegate.doFire(new Rules(selectedRules), facts);
-            } else {
+            List<Rule> agenda = conflictResolutionStrategy.resolve(selectCandidates(compiledRules, facts, matches, rulesToEvaluate, vetoedRules, listeners));
+            if (agenda.isEmpty()) {
                 LOGGER.debug("No candidate rules found for facts: {}", facts);
+                return;
+            }
+            FiringOutcome iterationOutcome = new FiringOutcome(facts);
+            FactChangeTracker changes = new FactChangeTracker(facts, iterationOutcome);
+            delegate.doFire(agenda, facts, iterationOutcome, changes::isAffected, listeners);
+            if (outcome != null) {
+                iterationOutcome.getFiredRules().forEach(outcome::onSuccess);
+                iterationOutcome.getFailedRules().forEach(outcome::onFailure);
             }
-        } while (!selectedRules.isEmpty());
+            rulesToEvaluate = network.getAffectedRules(changes.getChangedFacts());
+            // rules of the agenda are always re-evaluated, as their actions may have changed the result
+            // of their own condition without changing any fact (the state of an annotated rule for example)
+            for (Rule rule : agenda) {
+                int index = network.indexOf(rule);
+                if (index >= 0) {
+                    rulesToEvaluate.set(index);
+                }
+            }
+            rulesToEvaluate.or(vetoedRules);
+        }
     }
 
-    private Set<Rule> selectCandidates(Rules rules, Facts facts) {
-        Set<Rule> candidates = new TreeSet<>();
-        for (Rule rule : rules) {
-            if (rule.evaluate(facts)) {
-                candidates.add(rule);
+    /*
+     * Only the given rules are re-evaluated, others keep their previous evaluation result. Rules whose
+     * evaluation is vetoed by a rule listener are not candidates, and are submitted again to listeners
+     * in the next iteration.
+     */
+    private List<Rule> selectCandidates(CompiledRules rules, Facts facts, boolean[] matches, BitSet rulesToEvaluate,
+                                        BitSet vetoedRules, RuleListener[] listeners) {
+        for (int i = rulesToEvaluate.nextSetBit(0); i >= 0; i = rulesToEvaluate.nextSetBit(i + 1)) {
+            Rule rule = rules.get(i);
+            if (!delegate.shouldBeEvaluated(rule, facts, listeners)) {
+                LOGGER.debug("Rule '{}' has been skipped before being evaluated", rules.getName(i));
+                matches[i] = false;
+                vetoedRules.set(i);
+                continue;
+            }
+            vetoedRules.clear(i);
+            matches[i] = Utils.hasRequiredFacts(rule, facts) && rule.evaluate(facts);
+            delegate.triggerListenersAfterEvaluate(rule, facts, matches[i], listeners);
+        }
+        List<Rule> candidates = new ArrayList<>();
+        for (int i = 0; i < matches.length; i++) {
+            if (matches[i]) {
+                candidates.add(rules.get(i));
             }
         }
         return candidates;
@@ -109,6 +189,24 @@ public final class InferenceRulesEngine extends AbstractRuleEngine {
         delegate.registerRuleListeners(ruleListeners);
     }
 
+    /**
+     * Register a sampled rule listener.
+     * @param ruleListener to register
+     */
+    public void registerSampledRuleListener(RuleListener ruleListener) {
+        super.registerSampledRuleListener(ruleListener);
+        delegate.registerSampledRuleListener(ruleListener);
+    }
+
+    /**
+     * Register a list of sampled rule listeners.
+     * @param ruleListeners to register
+     */
+    public void registerSampledRuleListeners(List<RuleListener> ruleListeners) {
+        super.registerSampledRuleListeners(ruleListeners);
+        delegate.registerSampledRuleListeners(ruleListeners);
+    }
+
     /**
      * Register a rules engine listener.
      * @param rulesEngineListener to register
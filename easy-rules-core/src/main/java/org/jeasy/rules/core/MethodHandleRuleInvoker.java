@@ -0,0 +1,167 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link RuleInvoker} based on {@link MethodHandle}s.
+ *
+ * Each method is adapted once per rule class to a handle of type {@code (Object, Facts)}
+ * that looks up declared facts in pre-resolved argument slots, so that no argument
+ * array is allocated and no reflective access check is performed on invocation.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+class MethodHandleRuleInvoker extends RuleInvoker {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodHandle GET_FACT;
+    private static final MethodHandle WRAP_EXCEPTION;
+
+    static {
+        try {
+            GET_FACT = LOOKUP.findStatic(RuleInvoker.class, "getFact",
+                    methodType(Object.class, Facts.class, String.class, Class.class));
+            WRAP_EXCEPTION = LOOKUP.findConstructor(InvocationTargetException.class,
+                    methodType(void.class, Throwable.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final MethodHandle condition;
+    private final MethodHandle[] actions;
+    private final MethodHandle priority;
+
+    private MethodHandleRuleInvoker(final RuleMetadata metadata) throws IllegalAccessException {
+        condition = adapt(metadata.getConditionMethod(), metadata.getConditionFacts())
+                .asType(methodType(boolean.class, Object.class, Facts.class));
+        Method[] actionMethods = metadata.getActionMethods();
+        actions = new MethodHandle[actionMethods.length];
+        for (int i = 0; i < actionMethods.length; i++) {
+            actions[i] = adapt(actionMethods[i], metadata.getActionFacts()[i])
+                    .asType(methodType(void.class, Object.class, Facts.class));
+        }
+        Method priorityMethod = metadata.getPriorityMethod();
+        priority = priorityMethod != null ? wrapExceptions(LOOKUP.unreflect(priorityMethod))
+                .asType(methodType(int.class, Object.class)) : null;
+    }
+
+    /**
+     * Create a {@link MethodHandleRuleInvoker} for the given rule metadata.
+     *
+     * @param metadata of the annotated rule
+     * @return a new invoker or null if methods of the rule are not accessible through method handles
+     */
+    static MethodHandleRuleInvoker create(final RuleMetadata metadata) {
+        try {
+            return new MethodHandleRuleInvoker(metadata);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    @Override
+    boolean evaluate(final Object target, final Facts facts) throws Exception {
+        try {
+            return (boolean) condition.invokeExact(target, facts);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+
+    @Override
+    void execute(final Object target, final Facts facts) throws Exception {
+        try {
+            for (MethodHandle action : actions) {
+                action.invokeExact(target, facts);
+            }
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+
+    @Override
+    int getPriority(final Object target) throws Exception {
+        try {
+            return (int) priority.invokeExact(target);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new InvocationTargetException(throwable);
+        }
+    }
+
+    /*
+     * Adapt the given method to a handle of type (DeclaringClass, Facts)ReturnType
+     * where each parameter is resolved from the facts.
+     */
+    private static MethodHandle adapt(final Method method, final String[] factNames) throws IllegalAccessException {
+        MethodHandle handle = wrapExceptions(LOOKUP.unreflect(method));
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            return MethodHandles.dropArguments(handle, 1, Facts.class);
+        }
+        MethodHandle[] filters = new MethodHandle[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            MethodHandle filter = factNames[i] != null
+                    ? MethodHandles.insertArguments(GET_FACT, 1, factNames[i], parameterTypes[i])
+                    : MethodHandles.identity(Facts.class);
+            filters[i] = filter.asType(methodType(parameterTypes[i], Facts.class));
+        }
+        handle = MethodHandles.filterArguments(handle, 1, filters);
+        int[] reorder = new int[parameterTypes.length + 1];
+        Arrays.fill(reorder, 1, reorder.length, 1);
+        MethodType type = methodType(handle.type().returnType(), handle.type().parameterType(0), Facts.class);
+        return MethodHandles.permuteArguments(handle, type, reorder);
+    }
+
+    /*
+     * Wrap any exception thrown by the target method in an InvocationTargetException,
+     * as reflective invocation does, to tell it apart from fact injection errors.
+     */
+    private static MethodHandle wrapExceptions(final MethodHandle handle) {
+        MethodType type = handle.type();
+        MethodHandle thrower = MethodHandles.throwException(type.returnType(), InvocationTargetException.class);
+        thrower = MethodHandles.filterArguments(thrower, 0, WRAP_EXCEPTION);
+        thrower = MethodHandles.dropArguments(thrower, 1, type.parameterList());
+        return MethodHandles.catchException(handle, Throwable.class, thrower);
+    }
+
+}
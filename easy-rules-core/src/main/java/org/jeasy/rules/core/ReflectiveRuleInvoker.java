@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link RuleInvoker} based on {@link Method#invoke(Object, Object...)}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+class ReflectiveRuleInvoker extends RuleInvoker {
+
+    private final RuleMetadata metadata;
+
+    ReflectiveRuleInvoker(final RuleMetadata metadata) {
+        this.metadata = metadata;
+    }
+
+    @Override
+    boolean evaluate(final Object target, final Facts facts) throws Exception {
+        Object[] actualParameters = getActualParameters(metadata.getConditionFacts(), facts);
+        return (boolean) metadata.getConditionMethod().invoke(target, actualParameters); // validated upfront
+    }
+
+    @Override
+    void execute(final Object target, final Facts facts) throws Exception {
+        Method[] actionMethods = metadata.getActionMethods();
+        String[][] actionFacts = metadata.getActionFacts();
+        for (int i = 0; i < actionMethods.length; i++) {
+            Object[] actualParameters = getActualParameters(actionFacts[i], facts);
+            actionMethods[i].invoke(target, actualParameters);
+        }
+    }
+
+    @Override
+    int getPriority(final Object target) throws Exception {
+        return (int) metadata.getPriorityMethod().invoke(target);
+    }
+
+    private Object[] getActualParameters(final String[] factNames, final Facts facts) {
+        Object[] actualParameters = new Object[factNames.length];
+        for (int i = 0; i < factNames.length; i++) {
+            String factName = factNames[i];
+            if (factName != null) {
+                actualParameters[i] = getFact(facts, factName);
+            } else {
+                actualParameters[i] = facts; //validated upfront, there may be only one parameter not annotated and which is of type Facts.class
+            }
+        }
+        return actualParameters;
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of a compiled rule set by the names of the facts required by the conditions of rules,
+ * so that rules whose required facts are missing can be found without looking up the facts
+ * of every rule.
+ *
+ * Required facts are numbered. When there are at most 64 of them, missing facts are looked up
+ * once per firing and recorded in a bit mask, which is matched against the required facts of
+ * each rule. Otherwise, the required facts of each rule are looked up one by one. Rules whose
+ * required facts are unknown are always evaluated.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class RequiredFactsIndex {
+
+    private static final int MAXIMUM_MASKED_FACTS = Long.SIZE;
+    private static final String[] NO_FACTS = new String[0];
+
+    private final String[] facts;
+    private final String[][] requiredFacts;
+    private final long[] requiredFactsMasks;
+
+    RequiredFactsIndex(final CompiledRules rules) {
+        Map<String, Integer> factNumbers = new LinkedHashMap<>();
+        requiredFacts = new String[rules.size()][];
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            Set<String> ruleFacts = rule instanceof FactDependent ? ((FactDependent) rule).getRequiredFacts() : null;
+            requiredFacts[i] = ruleFacts != null ? ruleFacts.toArray(NO_FACTS) : NO_FACTS;
+            for (String fact : requiredFacts[i]) {
+                factNumbers.putIfAbsent(fact, factNumbers.size());
+            }
+        }
+        facts = factNumbers.keySet().toArray(NO_FACTS);
+        if (facts.length > MAXIMUM_MASKED_FACTS) {
+            requiredFactsMasks = null;
+        } else {
+            requiredFactsMasks = new long[rules.size()];
+            for (int i = 0; i < rules.size(); i++) {
+                for (String fact : requiredFacts[i]) {
+                    requiredFactsMasks[i] |= 1L << factNumbers.get(fact);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the required facts that are missing from the given facts.
+     *
+     * @param facts to look up
+     * @return a bit mask of the numbers of the missing facts, or 0 if missing facts are looked up rule by rule
+     */
+    long getMissingFacts(final Facts facts) {
+        if (requiredFactsMasks == null) {
+            return 0;
+        }
+        Map<String, Object> factsMap = facts.asMap();
+        long missingFacts = 0;
+        for (int i = 0; i < this.facts.length; i++) {
+            if (!factsMap.containsKey(this.facts[i])) {
+                missingFacts |= 1L << i;
+            }
+        }
+        return missingFacts;
+    }
+
+    /**
+     * Check if a required fact of a rule is missing.
+     *
+     * @param rule position of the rule
+     * @param missingFacts as returned by {@link #getMissingFacts(Facts)}
+     * @param facts to look up
+     * @return true if a required fact of the rule is missing
+     */
+    boolean hasMissingFacts(final int rule, final long missingFacts, final Facts facts) {
+        if (requiredFactsMasks != null) {
+            return (requiredFactsMasks[rule] & missingFacts) != 0;
+        }
+        Map<String, Object> factsMap = facts.asMap();
+        for (String fact : requiredFacts[rule]) {
+            if (!factsMap.containsKey(fact)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
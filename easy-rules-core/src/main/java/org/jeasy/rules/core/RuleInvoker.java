@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Strategy to invoke the condition, action and priority methods of an annotated rule.
+ *
+ * Exceptions thrown by the invoked methods are wrapped in an {@link InvocationTargetException},
+ * while a {@link NoSuchFactException} or an {@link IllegalArgumentException} is thrown as is
+ * when declared facts are missing or do not match parameters types.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+abstract class RuleInvoker {
+
+    private static final Map<Class<?>, Class<?>[]> WIDENING_CONVERSIONS = new HashMap<>();
+
+    static {
+        WIDENING_CONVERSIONS.put(boolean.class, new Class<?>[]{Boolean.class});
+        WIDENING_CONVERSIONS.put(byte.class, new Class<?>[]{Byte.class});
+        WIDENING_CONVERSIONS.put(char.class, new Class<?>[]{Character.class});
+        WIDENING_CONVERSIONS.put(short.class, new Class<?>[]{Short.class, Byte.class});
+        WIDENING_CONVERSIONS.put(int.class, new Class<?>[]{Integer.class, Character.class, Short.class, Byte.class});
+        WIDENING_CONVERSIONS.put(long.class, new Class<?>[]{Long.class, Integer.class, Character.class, Short.class, Byte.class});
+        WIDENING_CONVERSIONS.put(float.class, new Class<?>[]{Float.class, Long.class, Integer.class, Character.class, Short.class, Byte.class});
+        WIDENING_CONVERSIONS.put(double.class, new Class<?>[]{Double.class, Float.class, Long.class, Integer.class, Character.class, Short.class, Byte.class});
+    }
+
+    /**
+     * Invoke the condition method of the given rule.
+     *
+     * @param target the annotated rule object
+     * @param facts to inject
+     * @return the result of the condition method
+     * @throws Exception if the condition method cannot be invoked or throws an exception
+     */
+    abstract boolean evaluate(Object target, Facts facts) throws Exception;
+
+    /**
+     * Invoke the action methods of the given rule in order.
+     *
+     * @param target the annotated rule object
+     * @param facts to inject
+     * @throws Exception if an action method cannot be invoked or throws an exception
+     */
+    abstract void execute(Object target, Facts facts) throws Exception;
+
+    /**
+     * Invoke the priority method of the given rule.
+     *
+     * @param target the annotated rule object
+     * @return the result of the priority method
+     * @throws Exception if the priority method cannot be invoked or throws an exception
+     */
+    abstract int getPriority(Object target) throws Exception;
+
+    static Object getFact(final Facts facts, final String factName) {
+        Object fact = facts.get(factName);
+        if (fact == null && !facts.asMap().containsKey(factName)) {
+            throw new NoSuchFactException(format("No fact named '%s' found in known facts: %n%s", factName, facts), factName);
+        }
+        return fact;
+    }
+
+    static Object getFact(final Facts facts, final String factName, final Class<?> parameterType) {
+        Object fact = getFact(facts, factName);
+        if (!isAssignable(parameterType, fact)) {
+            throw new IllegalArgumentException("argument type mismatch");
+        }
+        return fact;
+    }
+
+    // same conversions as Method#invoke: reference assignment, or unboxing possibly followed by widening
+    private static boolean isAssignable(final Class<?> parameterType, final Object fact) {
+        if (!parameterType.isPrimitive()) {
+            return fact == null || parameterType.isInstance(fact);
+        }
+        if (fact == null) {
+            return false;
+        }
+        for (Class<?> wrapperType : WIDENING_CONVERSIONS.get(parameterType)) {
+            if (wrapperType == fact.getClass()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
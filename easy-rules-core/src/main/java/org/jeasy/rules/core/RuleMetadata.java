@@ -0,0 +1,237 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.Rule;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Reflective metadata of an annotated rule class, resolved once per class and
+ * shared by all {@link RuleProxy} instances of that class.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class RuleMetadata {
+
+    private static final ClassValue<RuleMetadata> CACHE = new ClassValue<RuleMetadata>() {
+        @Override
+        protected RuleMetadata computeValue(Class<?> type) {
+            return new RuleMetadata(type);
+        }
+    };
+
+    private final String name;
+    private final String description;
+    private final int priority;
+    private final Method priorityMethod;
+    private final Method conditionMethod;
+    private final String[] conditionFacts;
+    private final Method[] actionMethods;
+    private final String[][] actionFacts;
+    private final Set<String> conditionDependencies;
+    private final Set<String> actionDependencies;
+    private final Set<String> requiredFacts;
+    private final Method compareToMethod;
+    private final Method toStringMethod;
+    private final RuleInvoker invoker;
+
+    private RuleMetadata(final Class<?> ruleClass) {
+        Method[] methods = ruleClass.getMethods();
+        org.jeasy.rules.annotation.Rule rule = Utils.findAnnotation(org.jeasy.rules.annotation.Rule.class, ruleClass).orElse(null);
+
+        conditionMethod = Arrays.stream(methods)
+                .filter(method -> method.isAnnotationPresent(Condition.class))
+                .findFirst()
+                .orElse(null);
+        conditionFacts = conditionMethod != null ? getFactNames(conditionMethod) : new String[0];
+
+        Set<ActionMethodOrderBean> actionMethodBeans = Arrays.stream(methods)
+                .filter(method -> method.isAnnotationPresent(Action.class))
+                .map(method -> new ActionMethodOrderBean(method, method.getAnnotation(Action.class).order()))
+                .collect(Collectors.toCollection(TreeSet::new));
+        actionMethods = actionMethodBeans.stream()
+                .map(ActionMethodOrderBean::getMethod)
+                .toArray(Method[]::new);
+        actionFacts = new String[actionMethods.length][];
+        for (int i = 0; i < actionMethods.length; i++) {
+            actionFacts[i] = getFactNames(actionMethods[i]);
+        }
+        conditionDependencies = getDependencies(conditionFacts);
+        actionDependencies = getDependencies(actionFacts);
+        requiredFacts = Collections.unmodifiableSet(Arrays.stream(conditionFacts)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+
+        priorityMethod = Arrays.stream(methods)
+                .filter(method -> method.isAnnotationPresent(Priority.class))
+                .findFirst()
+                .orElse(null);
+        compareToMethod = Arrays.stream(methods)
+                .filter(method -> Objects.equals(method.getName(), "compareTo"))
+                .findFirst()
+                .orElse(null);
+        toStringMethod = Arrays.stream(methods)
+                .filter(method -> "toString".equals(method.getName()))
+                .findFirst()
+                .orElse(null);
+
+        priority = rule.priority();
+        name = rule.name().equals(Rule.DEFAULT_NAME) ? ruleClass.getSimpleName() : rule.name();
+        description = rule.description().equals(Rule.DEFAULT_DESCRIPTION) ? getDefaultDescription() : rule.description();
+
+        RuleInvoker methodHandleInvoker = Boolean.getBoolean(RuleProxy.REFLECTIVE_INVOCATION_PROPERTY)
+                ? null : MethodHandleRuleInvoker.create(this);
+        invoker = methodHandleInvoker != null ? methodHandleInvoker : new ReflectiveRuleInvoker(this);
+    }
+
+    /**
+     * Get the metadata of the given annotated rule class.
+     *
+     * @param ruleClass a class annotated with {@link org.jeasy.rules.annotation.Rule}
+     * @return the (cached) metadata of the class
+     */
+    static RuleMetadata of(final Class<?> ruleClass) {
+        return CACHE.get(ruleClass);
+    }
+
+    /*
+     * Fact names bound to the parameters of the given method, a null entry stands
+     * for the (validated upfront) parameter of type Facts.
+     */
+    private static String[] getFactNames(final Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        String[] factNames = new String[parameterAnnotations.length];
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            Annotation[] annotations = parameterAnnotations[i];
+            if (annotations.length == 1) {
+                factNames[i] = ((Fact) (annotations[0])).value(); //validated upfront.
+            }
+        }
+        return factNames;
+    }
+
+    /*
+     * Names of the facts injected in the given parameters, or null if the Facts are injected
+     * since any fact may then be accessed.
+     */
+    private static Set<String> getDependencies(final String[]... factNames) {
+        Set<String> dependencies = new HashSet<>();
+        for (String[] names : factNames) {
+            for (String name : names) {
+                if (name == null) {
+                    return null;
+                }
+                dependencies.add(name);
+            }
+        }
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
+    private String getDefaultDescription() {
+        StringBuilder description = new StringBuilder();
+        if (conditionMethod != null) {
+            description.append("when ");
+            description.append(conditionMethod.getName());
+            description.append(" then ");
+        }
+        description.append(Arrays.stream(actionMethods)
+                .map(Method::getName)
+                .collect(Collectors.joining(",")));
+        return description.toString();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    int getPriority() {
+        return priority;
+    }
+
+    Method getPriorityMethod() {
+        return priorityMethod;
+    }
+
+    Method getConditionMethod() {
+        return conditionMethod;
+    }
+
+    String[] getConditionFacts() {
+        return conditionFacts;
+    }
+
+    Method[] getActionMethods() {
+        return actionMethods;
+    }
+
+    String[][] getActionFacts() {
+        return actionFacts;
+    }
+
+    Set<String> getConditionDependencies() {
+        return conditionDependencies;
+    }
+
+    Set<String> getActionDependencies() {
+        return actionDependencies;
+    }
+
+    /*
+     * Facts injected in the condition method: the rule is evaluated to false when one of them is missing.
+     */
+    Set<String> getRequiredFacts() {
+        return requiredFacts;
+    }
+
+    Method getCompareToMethod() {
+        return compareToMethod;
+    }
+
+    Method getToStringMethod() {
+        return toStringMethod;
+    }
+
+    RuleInvoker getInvoker() {
+        return invoker;
+    }
+
+}
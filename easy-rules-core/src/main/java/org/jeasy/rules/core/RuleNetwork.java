@@ -0,0 +1,107 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Rule;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Discrimination network of a compiled rule set: rules are indexed by the names of the
+ * facts read by their conditions, so that only rules depending on changed facts are
+ * re-evaluated.
+ *
+ * Rules whose dependencies are unknown are not indexed and are re-evaluated on every change.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class RuleNetwork {
+
+    private final int size;
+    private final Map<String, BitSet> rulesByFact = new HashMap<>();
+    private final BitSet unindexedRules = new BitSet();
+    private final Map<Rule, Integer> indexes = new IdentityHashMap<>();
+
+    RuleNetwork(final CompiledRules rules) {
+        this.size = rules.size();
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            indexes.putIfAbsent(rule, i);
+            Set<String> conditionFacts = null;
+            if (rule instanceof FactDependent) {
+                conditionFacts = ((FactDependent) rule).getConditionFacts();
+            }
+            if (conditionFacts == null) {
+                unindexedRules.set(i);
+            } else {
+                for (String fact : conditionFacts) {
+                    rulesByFact.computeIfAbsent(fact, name -> new BitSet()).set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the position of a rule in the compiled rule set.
+     *
+     * @param rule to look up
+     * @return the position of the rule, or -1 if the rule is not part of the compiled rule set
+     */
+    int indexOf(final Rule rule) {
+        Integer index = indexes.get(rule);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Get the rules to re-evaluate after the given facts have changed.
+     *
+     * @param changedFacts names of changed facts, or null if any fact may have changed
+     * @return positions of the rules to re-evaluate
+     */
+    BitSet getAffectedRules(final Collection<String> changedFacts) {
+        BitSet affectedRules = new BitSet(size);
+        if (changedFacts == null) {
+            affectedRules.set(0, size);
+            return affectedRules;
+        }
+        if (changedFacts.isEmpty()) {
+            return affectedRules;
+        }
+        affectedRules.or(unindexedRules);
+        for (String fact : changedFacts) {
+            BitSet dependentRules = rulesByFact.get(fact);
+            if (dependentRules != null) {
+                affectedRules.or(dependentRules);
+            }
+        }
+        return affectedRules;
+    }
+}
@@ -23,40 +23,63 @@
  */
 package org.jeasy.rules.core;
 
-import org.jeasy.rules.annotation.Action;
-import org.jeasy.rules.annotation.Condition;
-import org.jeasy.rules.annotation.Fact;
-import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.FactDependent;
 import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 import static java.lang.String.format;
 
 /**
  * Main class to create rule proxies from annotated objects.
  *
+ * Condition, action and priority methods of annotated rules are invoked through
+ * {@link java.lang.invoke.MethodHandle}s. Setting the system property
+ * {@value #REFLECTIVE_INVOCATION_PROPERTY} to {@code true} switches back to
+ * reflective invocation.
+ *
+ * Proxies (and adapters) implement {@link FactDependent}: facts the rule depends on are the ones
+ * injected with {@link org.jeasy.rules.annotation.Fact} in condition and action methods, and are
+ * unknown if {@link Facts} are injected.
+ *
+ * When a {@link AbstractRuleAdapter} has been generated at build time for an annotated
+ * rule class, an instance of this adapter is returned instead of a dynamic proxy.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class RuleProxy implements InvocationHandler {
 
+    /**
+     * System property to invoke annotated rule methods with reflection instead of method handles.
+     */
+    public static final String REFLECTIVE_INVOCATION_PROPERTY = "org.jeasy.rules.proxy.reflection";
+
     private Object target;
 
+    private RuleMetadata metadata;
+
     private static RuleDefinitionValidator ruleDefinitionValidator = new RuleDefinitionValidator();
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RuleProxy.class);
 
+    private static final ClassValue<Constructor<?>> ADAPTER_CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+        @Override
+        protected Constructor<?> computeValue(Class<?> type) {
+            return findAdapterConstructor(type);
+        }
+    };
+
     private RuleProxy(final Object target) {
         this.target = target;
+        this.metadata = RuleMetadata.of(target.getClass());
     }
 
     /**
@@ -68,23 +91,54 @@ public class RuleProxy implements InvocationHandler {
     public static Rule asRule(final Object rule) {
         if (rule instanceof Rule) {
             return (Rule) rule;
+        }
+        Constructor<?> adapterConstructor = ADAPTER_CONSTRUCTORS.get(rule.getClass());
+        if (adapterConstructor != null) {
+            return newAdapter(adapterConstructor, rule);
         } else {
             ruleDefinitionValidator.validateRuleDefinition(rule);
             return (Rule) Proxy.newProxyInstance(
                     Rule.class.getClassLoader(),
-                    new Class[]{Rule.class, Comparable.class},
+                    new Class[]{Rule.class, Comparable.class, FactDependent.class},
                     new RuleProxy(rule));
         }
     }
 
+    private static Rule newAdapter(final Constructor<?> adapterConstructor, final Object rule) {
+        try {
+            return (Rule) adapterConstructor.newInstance(rule);
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(format("Unable to create adapter of rule '%s'", rule.getClass().getName()), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(format("Unable to create adapter of rule '%s'", rule.getClass().getName()), e);
+        }
+    }
+
+    private static Constructor<?> findAdapterConstructor(final Class<?> ruleClass) {
+        ClassLoader classLoader = ruleClass.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+        String adapterName = ruleClass.getName().replace('$', '_') + AbstractRuleAdapter.ADAPTER_SUFFIX;
+        try {
+            Class<?> adapterClass = Class.forName(adapterName, false, classLoader);
+            if (!AbstractRuleAdapter.class.isAssignableFrom(adapterClass)) {
+                return null;
+            }
+            return adapterClass.getConstructor(ruleClass);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
     @Override
     public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
         String methodName = method.getName();
         switch (methodName) {
             case "getName":
-                return getRuleName();
+                return metadata.getName();
             case "getDescription":
-                return getRuleDescription();
+                return metadata.getDescription();
             case "getPriority":
                 return getRulePriority();
             case "compareTo":
@@ -99,65 +153,47 @@ public class RuleProxy implements InvocationHandler {
                 return hashCodeMethod();
             case "toString":
                 return toStringMethod();
+            case "getConditionFacts":
+                return metadata.getConditionDependencies();
+            case "getActionFacts":
+                return metadata.getActionDependencies();
+            case "getRequiredFacts":
+                return metadata.getRequiredFacts();
             default:
                 return null;
         }
     }
 
-    private Object evaluateMethod(final Object[] args) throws IllegalAccessException, InvocationTargetException {
+    private Object evaluateMethod(final Object[] args) throws Exception {
         Facts facts = (Facts) args[0];
-        Method conditionMethod = getConditionMethod().orElse(null);
         try {
-            List<Object> actualParameters = getActualParameters(conditionMethod, facts);
-            return conditionMethod.invoke(target, actualParameters.toArray()); // validated upfront
+            return metadata.getInvoker().evaluate(target, facts); // validated upfront
         } catch (NoSuchFactException e) {
             LOGGER.error("Rule '{}' has been evaluated to false due to a declared but missing fact '{}' in {}",
                     getTargetClass().getName(), e.getMissingFact(), facts);
             return false;
         } catch (IllegalArgumentException e) {
             String error = "Types of injected facts in method '%s' in rule '%s' do not match parameters types";
-            throw new RuntimeException(format(error, conditionMethod.getName(), getTargetClass().getName()), e);
+            throw new RuntimeException(format(error, metadata.getConditionMethod().getName(), getTargetClass().getName()), e);
         }
     }
 
-    private Object executeMethod(final Object[] args) throws IllegalAccessException, InvocationTargetException {
+    private Object executeMethod(final Object[] args) throws Exception {
         Facts facts = (Facts) args[0];
-        for (ActionMethodOrderBean actionMethodBean : getActionMethodBeans()) {
-            Method actionMethod = actionMethodBean.getMethod();
-            List<Object> actualParameters = getActualParameters(actionMethod, facts);
-            actionMethod.invoke(target, actualParameters.toArray());
-        }
+        metadata.getInvoker().execute(target, facts);
         return null;
     }
 
-    private Object compareToMethod(final Object[] args) throws InvocationTargetException, IllegalAccessException {
-        Optional<Method> compareToMethod = getCompareToMethod();
-        if (compareToMethod.isPresent()) {
-            return compareToMethod.get().invoke(target, args);
+    private Object compareToMethod(final Object[] args) throws Exception {
+        Method compareToMethod = metadata.getCompareToMethod();
+        if (compareToMethod != null) {
+            return compareToMethod.invoke(target, args);
         } else {
             Rule otherRule = (Rule) args[0];
             return compareTo(otherRule);
         }
     }
 
-    private List<Object> getActualParameters(Method method, Facts facts) {
-        List<Object> actualParameters = new ArrayList<>();
-        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
-        for (Annotation[] annotations : parameterAnnotations) {
-            if (annotations.length == 1) {
-                String factName = ((Fact) (annotations[0])).value(); //validated upfront.
-                Object fact = facts.get(factName);
-                if (fact == null && !facts.asMap().containsKey(factName)) {
-                    throw new NoSuchFactException(format("No fact named '%s' found in known facts: %n%s", factName, facts), factName);
-                }
-                actualParameters.add(fact);
-            } else {
-                actualParameters.add(facts); //validated upfront, there may be only one parameter not annotated and which is of type Facts.class
-            }
-        }
-        return actualParameters;
-    }
-
     private boolean equalsMethod(final Object[] args) throws Exception {
         if (!(args[0] instanceof Rule)) {
             return false;
@@ -169,35 +205,33 @@ public class RuleProxy implements InvocationHandler {
             return false;
         }
         String otherName = otherRule.getName();
-        String name = getRuleName();
+        String name = metadata.getName();
         if (!name.equals(otherName)) {
             return false;
         }
         String otherDescription = otherRule.getDescription();
-        String description = getRuleDescription();
+        String description = metadata.getDescription();
         return Objects.equals(description, otherDescription);
     }
 
-    private int hashCodeMethod() throws InvocationTargetException, IllegalAccessException {
-        int result = getRuleName().hashCode();
+    private int hashCodeMethod() throws Exception {
+        int result = metadata.getName().hashCode();
         int priority = getRulePriority();
-        String description = getRuleDescription();
+        String description = metadata.getDescription();
         result = 31 * result + (description != null ? description.hashCode() : 0);
         result = 31 * result + priority;
         return result;
     }
 
     private String toStringMethod() throws Exception {
-        Method[] methods = getMethods();
-        for (Method method : methods) {
-            if ("toString".equals(method.getName())) {
-                return (String) method.invoke(target);
-            }
+        Method toStringMethod = metadata.getToStringMethod();
+        if (toStringMethod != null) {
+            return (String) toStringMethod.invoke(target);
         }
-        return getRuleName();
+        return metadata.getName();
     }
 
-    private int compareTo(final Rule otherRule) throws InvocationTargetException, IllegalAccessException {
+    private int compareTo(final Rule otherRule) throws Exception {
         int otherPriority = otherRule.getPriority();
         int priority = getRulePriority();
         if (priority < otherPriority) {
@@ -206,84 +240,16 @@ public class RuleProxy implements InvocationHandler {
             return 1;
         } else {
             String otherName = otherRule.getName();
-            String name = getRuleName();
+            String name = metadata.getName();
             return name.compareTo(otherName);
         }
     }
 
-    private int getRulePriority() throws InvocationTargetException, IllegalAccessException {
-        int priority = Rule.DEFAULT_PRIORITY;
-
-        org.jeasy.rules.annotation.Rule rule = getRuleAnnotation();
-        if (rule.priority() != Rule.DEFAULT_PRIORITY) {
-            priority = rule.priority();
+    private int getRulePriority() throws Exception {
+        if (metadata.getPriorityMethod() != null) {
+            return metadata.getInvoker().getPriority(target);
         }
-
-        Method[] methods = getMethods();
-        for (Method method : methods) {
-            if (method.isAnnotationPresent(Priority.class)) {
-                priority = (int) method.invoke(target);
-                break;
-            }
-        }
-        return priority;
-    }
-
-    private Optional<Method> getConditionMethod() {
-        return Arrays.stream(getMethods())
-                .filter(method -> method.isAnnotationPresent(Condition.class))
-                .findFirst();
-    }
-
-    private Set<ActionMethodOrderBean> getActionMethodBeans() {
-        return Arrays.stream(getMethods())
-                .filter(method -> method.isAnnotationPresent(Action.class))
-                .map(method -> new ActionMethodOrderBean(method, method.getAnnotation(Action.class).order()))
-                .collect(Collectors.toCollection(TreeSet::new));
-    }
-
-    private Optional<Method> getCompareToMethod() {
-        return Arrays.stream(getMethods())
-                .filter(method -> Objects.equals(method.getName(), "compareTo"))
-                .findFirst();
-    }
-
-    private Method[] getMethods() {
-        return getTargetClass().getMethods();
-    }
-
-    private org.jeasy.rules.annotation.Rule getRuleAnnotation() {
-        return Utils.findAnnotation(org.jeasy.rules.annotation.Rule.class, getTargetClass()).orElse(null);
-    }
-
-    private String getRuleName() {
-        org.jeasy.rules.annotation.Rule rule = getRuleAnnotation();
-        return rule.name().equals(Rule.DEFAULT_NAME) ? getTargetClass().getSimpleName() : rule.name();
-    }
-
-    private String getRuleDescription() {
-        // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
-        StringBuilder description = new StringBuilder();
-        appendConditionMethodName(description);
-        appendActionMethodsNames(description);
-
-        org.jeasy.rules.annotation.Rule rule = getRuleAnnotation();
-        return rule.description().equals(Rule.DEFAULT_DESCRIPTION) ? description.toString() : rule.description();
-    }
-
-    private void appendConditionMethodName(StringBuilder description) {
-        getConditionMethod().ifPresent(method -> {
-            description.append("when ");
-            description.append(method.getName());
-            description.append(" then ");
-        });
-    }
-
-    private void appendActionMethodsNames(StringBuilder description) {
-        String methodNames = getActionMethodBeans().stream()
-                .map(methodBean -> methodBean.getMethod().getName())
-                .collect(Collectors.joining(","));
-        description.append(methodNames);
+        return metadata.getPriority();
     }
 
     private Class<?> getTargetClass() {
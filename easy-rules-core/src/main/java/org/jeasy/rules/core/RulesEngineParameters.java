@@ -39,7 +39,12 @@ public class RulesEngineParameters {
      * Default rule priority threshold.
      */
     public static final int DEFAULT_RULE_PRIORITY_THRESHOLD = Integer.MAX_VALUE;
-    
+
+    /**
+     * Default sampling rate of sampled rule listeners.
+     */
+    public static final double DEFAULT_SAMPLING_RATE = 1.0;
+
     /**
      * Parameter to skip next applicable rules when a rule is applied.
      */
@@ -60,6 +65,16 @@ public class RulesEngineParameters {
      */
     private int priorityThreshold;
 
+    /**
+     * Parameter to notify sampled rule listeners of a fraction of firings only.
+     */
+    private double samplingRate = DEFAULT_SAMPLING_RATE;
+
+    /**
+     * Parameter to reorder rules of the same priority based on their observed cost and selectivity.
+     */
+    private boolean adaptiveRuleOrdering;
+
     /**
      * Create a new {@link RulesEngineParameters} with default values.
      */
@@ -95,6 +110,58 @@ public class RulesEngineParameters {
         return this;
     }
 
+    public double getSamplingRate() {
+        return samplingRate;
+    }
+
+    /**
+     * Set the fraction of firings of which sampled rule listeners are notified.
+     * See {@link DefaultRulesEngine#registerSampledRuleListener(org.jeasy.rules.api.RuleListener)}.
+     *
+     * @param samplingRate between 0 (never) and 1 (always)
+     */
+    public void setSamplingRate(final double samplingRate) {
+        if (!(samplingRate >= 0 && samplingRate <= 1)) {
+            throw new IllegalArgumentException("sampling rate must be between 0 and 1, but was " + samplingRate);
+        }
+        this.samplingRate = samplingRate;
+    }
+
+    public RulesEngineParameters samplingRate(final double samplingRate) {
+        setSamplingRate(samplingRate);
+        return this;
+    }
+
+    public boolean isAdaptiveRuleOrdering() {
+        return adaptiveRuleOrdering;
+    }
+
+    /**
+     * Enable or disable adaptive rule ordering. When enabled, a {@link DefaultRulesEngine} firing
+     * {@link org.jeasy.rules.api.CompiledRules} with <code>skipOnFirstAppliedRule</code> (and without
+     * <code>skipOnFirstNonTriggeredRule</code>) measures the cost and the selectivity of the conditions
+     * of rules, and periodically reorders rules of the same priority so that the expected time spent
+     * evaluating conditions before a rule is applied is minimal.
+     *
+     * Rules are never moved across priorities, and rules of the same priority are reordered only
+     * if they are consecutive, declare the same exclusive group and the facts they depend on (see
+     * {@link org.jeasy.rules.api.FactDependent}), and if none of their actions modifies a fact read or
+     * modified by another one. Since at most one of such rules is triggered, the applied rule and the
+     * resulting facts do not depend on their order. See
+     * {@link DefaultRulesEngine#getLearnedRuleOrder(org.jeasy.rules.api.CompiledRules)} to get and pin
+     * the learned order.
+     *
+     * @param adaptiveRuleOrdering true to enable adaptive rule ordering
+     */
+    public void setAdaptiveRuleOrdering(final boolean adaptiveRuleOrdering) {
+        this.adaptiveRuleOrdering = adaptiveRuleOrdering;
+    }
+
+    public RulesEngineParameters adaptiveRuleOrdering(final boolean adaptiveRuleOrdering) {
+        setAdaptiveRuleOrdering(adaptiveRuleOrdering);
+        return this;
+    }
+
     public boolean isSkipOnFirstAppliedRule() {
         return skipOnFirstAppliedRule;
     }
@@ -141,6 +208,8 @@ public class RulesEngineParameters {
                 ", skipOnFirstNonTriggeredRule = " + skipOnFirstNonTriggeredRule +
                 ", skipOnFirstFailedRule = " + skipOnFirstFailedRule +
                 ", priorityThreshold = " + priorityThreshold +
+                ", samplingRate = " + samplingRate +
+                ", adaptiveRuleOrdering = " + adaptiveRuleOrdering +
                 " }";
     }
 }
@@ -23,8 +23,14 @@
  */
 package org.jeasy.rules.core;
 
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
 import java.lang.annotation.Annotation;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 final class Utils {
 
@@ -49,4 +55,43 @@ final class Utils {
         return findAnnotation(targetAnnotation, annotatedType).isPresent();
     }
 
+    /*
+     * Check if the condition of a rule may depend on changed facts (null if unknown).
+     */
+    static boolean dependsOn(final Rule rule, final Set<String> changedFacts) {
+        if (changedFacts == null) {
+            return true;
+        }
+        if (changedFacts.isEmpty()) {
+            return false;
+        }
+        Set<String> conditionFacts = rule instanceof FactDependent ? ((FactDependent) rule).getConditionFacts() : null;
+        if (conditionFacts == null) {
+            return true;
+        }
+        for (String fact : conditionFacts) {
+            if (changedFacts.contains(fact)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Check if all facts required by the condition of a rule are present (true if unknown).
+     */
+    static boolean hasRequiredFacts(final Rule rule, final Facts facts) {
+        Set<String> requiredFacts = rule instanceof FactDependent ? ((FactDependent) rule).getRequiredFacts() : null;
+        if (requiredFacts == null) {
+            return true;
+        }
+        Map<String, Object> factsMap = facts.asMap();
+        for (String fact : requiredFacts) {
+            if (!factsMap.containsKey(fact)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
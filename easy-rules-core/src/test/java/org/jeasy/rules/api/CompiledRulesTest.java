@@ -0,0 +1,202 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.api;
+
+import org.jeasy.rules.core.BasicRule;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledRulesTest {
+
+    @Test
+    public void rulesShouldBeSortedWithPrecomputedNamesAndPriorities() {
+        // Given
+        Rule r1 = new BasicRule("r1", "", 2);
+        Rule r2 = new BasicRule("r2", "", 1);
+        Rules rules = new Rules(r1, r2);
+
+        // When
+        CompiledRules compiledRules = CompiledRules.of(rules);
+
+        // Then
+        assertThat(compiledRules).containsExactly(r2, r1);
+        assertThat(compiledRules.size()).isEqualTo(2);
+        assertThat(compiledRules.get(0)).isSameAs(r2);
+        assertThat(compiledRules.getName(0)).isEqualTo("r2");
+        assertThat(compiledRules.getPriority(0)).isEqualTo(1);
+        assertThat(compiledRules.getName(1)).isEqualTo("r1");
+        assertThat(compiledRules.getPriority(1)).isEqualTo(2);
+    }
+
+    @Test
+    public void compiledRulesShouldNotBeAffectedByChangesOfSourceRules() {
+        // Given
+        Rules rules = new Rules(new BasicRule("r1"));
+        CompiledRules compiledRules = CompiledRules.of(rules);
+
+        // When
+        rules.register(new BasicRule("r2"));
+
+        // Then
+        assertThat(compiledRules).hasSize(1);
+    }
+
+    @Test
+    public void compiledRulesShouldNotBeCompiledTwice() {
+        CompiledRules compiledRules = CompiledRules.of(new Rules(new BasicRule("r1")));
+
+        assertThat(CompiledRules.of(compiledRules)).isSameAs(compiledRules);
+    }
+
+    @Test
+    public void toRulesShouldReturnMutableCopy() {
+        // Given
+        CompiledRules compiledRules = CompiledRules.of(new Rules(new BasicRule("r1")));
+
+        // When
+        Rules rules = compiledRules.toRules();
+        rules.register(new BasicRule("r2"));
+
+        // Then
+        assertThat(rules).hasSize(2);
+        assertThat(compiledRules).hasSize(1);
+    }
+
+    @Test
+    public void getRuleShouldLookUpRulesByName() {
+        Rule r1 = new BasicRule("r1", "", 2);
+        Rule r2 = new BasicRule("r2", "", 1);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(r1, r2));
+
+        assertThat(compiledRules.getRule("r1")).isSameAs(r1);
+        assertThat(compiledRules.getRule("R2")).isSameAs(r2);
+        assertThat(compiledRules.getRule("r3")).isNull();
+    }
+
+    @Test
+    public void getRulesByPriorityShouldReturnSnapshotOfRange() {
+        // Given
+        Rule r1 = new BasicRule("r1", "", 1);
+        Rule r2 = new BasicRule("r2", "", 2);
+        Rule r3 = new BasicRule("r3", "", 2);
+        Rule r4 = new BasicRule("r4", "", Integer.MAX_VALUE);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(r1, r2, r3, r4));
+
+        // When
+        CompiledRules selectedRules = compiledRules.getRules(2, 2);
+
+        // Then
+        assertThat(selectedRules).containsExactly(r2, r3);
+        assertThat(selectedRules.getName(1)).isEqualTo("r3");
+        assertThat(selectedRules.getPriority(1)).isEqualTo(2);
+        assertThat(compiledRules.getRules(Integer.MIN_VALUE, 1)).containsExactly(r1);
+        assertThat(compiledRules.getRules(3, Integer.MAX_VALUE)).containsExactly(r4);
+        assertThat(compiledRules.getRules(Integer.MIN_VALUE, Integer.MAX_VALUE)).isSameAs(compiledRules);
+        assertThat(compiledRules.getRules(2, 1)).isEmpty();
+    }
+
+    @Test
+    public void inOrderShouldKeepGivenOrder() {
+        // Given
+        Rule r1 = new BasicRule("r1", "", 1);
+        Rule r2 = new BasicRule("r2", "", 1);
+        Rule r3 = new BasicRule("r3", "", 2);
+
+        // When
+        CompiledRules compiledRules = CompiledRules.inOrder(Arrays.asList(r2, r1, r3));
+
+        // Then
+        assertThat(compiledRules).containsExactly(r2, r1, r3);
+        assertThat(compiledRules.getName(0)).isEqualTo("r2");
+        assertThat(compiledRules.getRule("r1")).isSameAs(r1);
+    }
+
+    @Test
+    public void snapshotsShouldNotSortRulesAgain() {
+        // Given
+        ComparisonCountingRule r1 = new ComparisonCountingRule("r1", 1);
+        ComparisonCountingRule r2 = new ComparisonCountingRule("r2", 2);
+        Rules rules = new Rules(r2, r1);
+        r1.comparisons = 0;
+        r2.comparisons = 0;
+
+        // When
+        CompiledRules compiledRules = CompiledRules.of(rules);
+        compiledRules.getRules(2, 2);
+        CompiledRules.inOrder(Arrays.asList(r2, r1));
+
+        // Then
+        assertThat(r1.comparisons + r2.comparisons).isZero();
+    }
+
+    @Test
+    public void inOrderShouldKeepRulesGivenTwice() {
+        // Given
+        Rule r1 = new BasicRule("r1", "", 1);
+
+        // When
+        CompiledRules compiledRules = CompiledRules.inOrder(Arrays.asList(r1, r1));
+
+        // Then
+        assertThat(compiledRules.size()).isEqualTo(2);
+        assertThat(compiledRules).containsExactly(r1, r1);
+        assertThat(compiledRules.asStream().toArray()).containsExactly(r1, r1);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void registerShouldBeRejected() {
+        CompiledRules.empty().register(new BasicRule("r1"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unregisterByNameShouldBeRejected() {
+        CompiledRules.of(new Rules(new BasicRule("r1"))).unregister("r1");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void iteratorShouldNotAllowRemoval() {
+        CompiledRules compiledRules = CompiledRules.of(new Rules(new BasicRule("r1")));
+        compiledRules.iterator().next();
+        compiledRules.iterator().remove();
+    }
+
+    static class ComparisonCountingRule extends BasicRule {
+
+        int comparisons;
+
+        ComparisonCountingRule(String name, int priority) {
+            super(name, "", priority);
+        }
+
+        @Override
+        public int compareTo(Rule rule) {
+            comparisons++;
+            return super.compareTo(rule);
+        }
+    }
+
+}
@@ -95,4 +95,56 @@ public class FactsTest {
     public void whenGetNullFact_thenShouldThrowNullPointerException() throws Exception {
         facts.get(null);
     }
+
+    @Test
+    public void whenFactIsPutOrRemoved_thenVersionShouldBeIncremented() {
+        long initialVersion = facts.getVersion();
+
+        facts.put("foo", 1);
+        long fooVersion = facts.getVersion("foo");
+        facts.remove("bar");
+        facts.remove("foo");
+
+        assertThat(fooVersion).isEqualTo(initialVersion + 1);
+        assertThat(facts.getVersion("foo")).isEqualTo(initialVersion + 2);
+        assertThat(facts.getVersion("bar")).isEqualTo(0);
+        assertThat(facts.getVersion()).isEqualTo(initialVersion + 2);
+    }
+
+    @Test
+    public void changesShouldOnlyBeTrackedOnceVersionsHaveBeenRequested() {
+        facts.put("foo", 1);
+        facts.markChanged("foo");
+
+        assertThat(facts.getVersion()).isEqualTo(0);
+        assertThat(facts.getVersion("foo")).isEqualTo(0);
+
+        facts.put("bar", 2);
+
+        assertThat(facts.getChangedFacts(0)).containsOnly("bar");
+        assertThat(facts.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenFactIsWrittenThroughMapView_thenChangeShouldBeTracked() {
+        long initialVersion = facts.getVersion();
+
+        facts.asMap().put("foo", 1);
+        facts.asMap().computeIfAbsent("bar", name -> 2);
+
+        assertThat(facts.getChangedFacts(initialVersion)).containsOnly("foo", "bar");
+    }
+
+    @Test
+    public void getChangedFactsShouldOnlyReturnFactsChangedSinceTheGivenVersion() {
+        facts.put("foo", 1);
+        facts.put("bar", 2);
+        long version = facts.getVersion();
+
+        facts.put("bar", 3);
+        facts.markChanged("baz");
+
+        assertThat(facts.getChangedFacts(version)).containsOnly("bar", "baz");
+        assertThat(facts.getChangedFacts(facts.getVersion())).isEmpty();
+    }
 }
@@ -29,6 +29,7 @@ import org.jeasy.rules.core.BasicRule;
 import org.junit.Test;
 
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -92,6 +93,126 @@ public class RulesTest {
         assertThat(rules).hasSize(1).containsExactly(r1);
     }
 
+    @Test
+    public void unregisterByNameShouldIgnoreCase() throws Exception {
+        Rule r1 = new BasicRule("rule1");
+        rules = new Rules(r1, new BasicRule("Rule2"));
+
+        rules.unregister("RULE2");
+
+        assertThat(rules).containsExactly(r1);
+        assertThat(rules.getRule("rule2")).isNull();
+    }
+
+    @Test
+    public void getRuleShouldIgnoreCaseLikeEqualsIgnoreCase() throws Exception {
+        Rule r1 = new BasicRule("\u0130 rule");
+        Rule r2 = new BasicRule("Stra\u00dfe");
+        rules = new Rules(r1, r2);
+
+        assertThat("\u0130 rule".equalsIgnoreCase("i rule")).isTrue();
+        assertThat(rules.getRule("i rule")).isSameAs(r1);
+        assertThat(rules.getRule("STRA\u00dfE")).isSameAs(r2);
+        assertThat(rules.getRule("STRASSE")).isNull();
+    }
+
+    @Test
+    public void unregisterByNameShouldRemoveRulesSharingTheNameInOrder() throws Exception {
+        Rule r1 = new BasicRule("rule", "", 1);
+        Rule r2 = new BasicRule("rule", "", 2);
+        rules = new Rules(r2, r1);
+
+        rules.unregister("rule");
+        assertThat(rules).containsExactly(r2);
+        assertThat(rules.getRule("rule")).isSameAs(r2);
+
+        rules.unregister("rule");
+        assertThat(rules).isEmpty();
+        assertThat(rules.getRule("rule")).isNull();
+    }
+
+    @Test
+    public void getRule() throws Exception {
+        Rule r1 = new BasicRule("rule1");
+        Rule r2 = new BasicRule("rule2");
+        rules = new Rules(r1, r2);
+
+        assertThat(rules.getRule("rule2")).isSameAs(r2);
+        assertThat(rules.getRule("RULE1")).isSameAs(r1);
+        assertThat(rules.getRule("rule3")).isNull();
+    }
+
+    @Test
+    public void getRuleShouldReflectUnregisteredRules() throws Exception {
+        DummyRule rule = new DummyRule();
+        rules.register(rule);
+        String name = rules.iterator().next().getName();
+
+        rules.unregister(rule);
+
+        assertThat(rules.getRule(name)).isNull();
+    }
+
+    @Test
+    public void getRulesByPriority() throws Exception {
+        Rule r1 = new BasicRule("r1", "", 1);
+        Rule r2 = new BasicRule("r2", "", 2);
+        Rule r3 = new BasicRule("r3", "", 2);
+        Rule r4 = new BasicRule("r4", "", 3);
+        Rule r5 = new BasicRule("r5", "", Integer.MAX_VALUE);
+        rules = new Rules(r5, r4, r3, r2, r1);
+
+        assertThat(rules.getRules(2, 2)).containsExactly(r2, r3);
+        assertThat(rules.getRules(Integer.MIN_VALUE, 2)).containsExactly(r1, r2, r3);
+        assertThat(rules.getRules(3, Integer.MAX_VALUE)).containsExactly(r4, r5);
+        assertThat(rules.getRules(4, 10)).isEmpty();
+        assertThat(rules.getRules(3, 1)).isEmpty();
+    }
+
+    @Test
+    public void getRulesByPriorityShouldSelectRulesOfACustomOrder() throws Exception {
+        Rule a = new RuleOrderedByName("a", 3);
+        Rule b = new RuleOrderedByName("b", 1);
+        Rule c = new RuleOrderedByName("c", 2);
+        Rule d = new RuleOrderedByName("d", 1);
+        rules = new Rules(d, c, b, a);
+
+        assertThat(rules.getRules(1, 2)).containsExactly(b, c, d);
+        assertThat(rules.getRules(1, 1)).containsExactly(b, d);
+        assertThat(rules.getRules(3, Integer.MAX_VALUE)).containsExactly(a);
+        assertThat(rules.getRules(4, 10)).isEmpty();
+    }
+
+    @Test
+    public void getRulesByPriorityShouldReturnCopy() throws Exception {
+        Rule r1 = new BasicRule("r1", "", 1);
+        rules = new Rules(r1);
+
+        Rules selectedRules = rules.getRules(1, 1);
+        selectedRules.unregister("r1");
+
+        assertThat(rules).containsExactly(r1);
+    }
+
+    @Test
+    public void iteratorRemovalShouldUpdateNameIndex() throws Exception {
+        rules = new Rules(new BasicRule("rule1"));
+
+        Iterator<Rule> iterator = rules.iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertThat(rules).isEmpty();
+        assertThat(rules.getRule("rule1")).isNull();
+    }
+
+    @Test
+    public void size() throws Exception {
+        rules = new Rules(new BasicRule("rule1"), new BasicRule("rule2"));
+
+        assertThat(rules.size()).isEqualTo(2);
+    }
+
     @Test
     public void isEmpty() throws Exception {
         assertThat(rules.isEmpty()).isTrue();
@@ -99,10 +220,11 @@ public class RulesTest {
 
     @Test
     public void clear() throws Exception {
-        rules.register(new DummyRule());
+        rules.register(new BasicRule("rule1"));
         rules.clear();
 
         assertThat(rules).isEmpty();
+        assertThat(rules.getRule("rule1")).isNull();
     }
 
     @Test
@@ -128,6 +250,18 @@ public class RulesTest {
         rules.unregister(null);
     }
 
+    class RuleOrderedByName extends BasicRule {
+
+        RuleOrderedByName(String name, int priority) {
+            super(name, "", priority);
+        }
+
+        @Override
+        public int compareTo(Rule rule) {
+            return getName().compareTo(rule.getName());
+        }
+    }
+
     @org.jeasy.rules.annotation.Rule
     class DummyRule {
         @Condition
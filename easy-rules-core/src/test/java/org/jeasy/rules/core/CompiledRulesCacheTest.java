@@ -0,0 +1,74 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rules;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledRulesCacheTest {
+
+    @Test
+    public void valuesShouldBeComputedOncePerSnapshotWhenSnapshotsAreLookedUpAlternately() {
+        // Given
+        List<CompiledRules> computedRules = new ArrayList<>();
+        CompiledRulesCache<String> cache = new CompiledRulesCache<>(rules -> {
+            computedRules.add(rules);
+            return "value" + computedRules.size();
+        });
+        CompiledRules rules1 = CompiledRules.of(new Rules(new BasicRule("r1")));
+        CompiledRules rules2 = CompiledRules.of(new Rules(new BasicRule("r2")));
+
+        // When
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            values.add(cache.get(rules1));
+            values.add(cache.get(rules2));
+        }
+
+        // Then
+        assertThat(values).containsExactly("value1", "value2", "value1", "value2", "value1", "value2");
+        assertThat(computedRules).containsExactly(rules1, rules2);
+    }
+
+    @Test
+    public void valuesShouldNotBeComputedWhenLookedUpIfPresent() {
+        // Given
+        CompiledRulesCache<String> cache = new CompiledRulesCache<>(rules -> "value");
+        CompiledRules rules1 = CompiledRules.of(new Rules(new BasicRule("r1")));
+        CompiledRules rules2 = CompiledRules.of(new Rules(new BasicRule("r2")));
+
+        // When
+        cache.get(rules1);
+
+        // Then
+        assertThat(cache.getIfPresent(rules1)).isEqualTo("value");
+        assertThat(cache.getIfPresent(rules2)).isNull();
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompiledRulesHolderTest {
+
+    @Test
+    public void updatesShouldPublishNewSnapshots() {
+        // Given
+        CompiledRulesHolder holder = new CompiledRulesHolder();
+        CompiledRules initialRules = holder.get();
+
+        // When
+        holder.register(new BasicRule("r1"));
+        CompiledRules rules = holder.register(new BasicRule("r2"));
+
+        // Then
+        assertThat(initialRules).isEmpty();
+        assertThat(holder.get()).isSameAs(rules);
+        assertThat(rules).extracting("name").containsExactly("r1", "r2");
+
+        holder.unregister("r1");
+        assertThat(holder.get()).extracting("name").containsExactly("r2");
+        assertThat(rules).hasSize(2);
+    }
+
+    @Test
+    public void publishShouldReplaceCurrentSnapshot() {
+        CompiledRulesHolder holder = new CompiledRulesHolder(new Rules(new BasicRule("r1")));
+
+        CompiledRules rules = holder.publish(new Rules(new BasicRule("r2")));
+
+        assertThat(holder.get()).isSameAs(rules).extracting("name").containsExactly("r2");
+    }
+
+    @Test
+    public void compiledRulesShouldBeFiredConcurrently() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CompiledRulesHolder holder = new CompiledRulesHolder(new Rules(new RuleBuilder()
+                .name("counter")
+                .when(facts -> facts.get("foo") != null)
+                .then(facts -> executions.incrementAndGet())
+                .build()));
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(executorService.submit(() -> {
+                Facts facts = new Facts();
+                facts.put("foo", "bar");
+                rulesEngine.fire(holder.get(), facts);
+            }));
+            if (i == 50) {
+                holder.register(new BasicRule("r" + i));
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executorService.shutdown();
+
+        // Then
+        assertThat(executions.get()).isEqualTo(100);
+        assertThat(holder.get()).hasSize(2);
+    }
+
+}
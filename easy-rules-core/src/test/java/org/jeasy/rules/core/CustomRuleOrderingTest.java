@@ -31,6 +31,7 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -43,11 +44,12 @@ public class CustomRuleOrderingTest extends AbstractTest {
     public void whenCompareToIsOverridden_thenShouldExecuteRulesInTheCustomOrder() throws Exception {
         // Given
         when(rule1.getName()).thenReturn("a");
-        when(rule1.getPriority()).thenReturn(1);
+        // priorities are not read by the engine unless a priority threshold is set
+        lenient().when(rule1.getPriority()).thenReturn(1);
         when(rule1.evaluate(facts)).thenReturn(true);
 
         when(rule2.getName()).thenReturn("b");
-        when(rule2.getPriority()).thenReturn(0);
+        lenient().when(rule2.getPriority()).thenReturn(0);
         when(rule2.evaluate(facts)).thenReturn(true);
 
         when(rule2.compareTo(rule1)).thenCallRealMethod();
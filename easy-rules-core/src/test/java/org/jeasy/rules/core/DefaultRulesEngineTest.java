@@ -24,19 +24,36 @@
 package org.jeasy.rules.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import org.assertj.core.api.Assertions;
 import org.jeasy.rules.annotation.Action;
 import org.jeasy.rules.annotation.Condition;
 import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.api.RulesEngineListener;
 import org.junit.After;
 import org.junit.Before;
@@ -201,6 +218,58 @@ public class DefaultRulesEngineTest extends AbstractTest {
         verify(ruleListener).beforeEvaluate(rule1, facts);
     }
 
+    @Test
+    public void testCheckRulesInParallel() throws Exception {
+        // Given
+        ForkJoinPool executor = new ForkJoinPool(4);
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine(new RulesEngineParameters(), executor);
+        when(ruleListener.beforeEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts)))
+                .thenAnswer(invocation -> !invocation.<org.jeasy.rules.api.Rule>getArgument(0).getName().equals("rule0"));
+        rulesEngine.registerRuleListener(ruleListener);
+        for (int i = 0; i < 100; i++) {
+            boolean evaluationResult = i % 2 == 0;
+            rules.register(new RuleBuilder().name("rule" + i).when(facts -> evaluationResult).build());
+        }
+
+        // When
+        Map<org.jeasy.rules.api.Rule, Boolean> result = rulesEngine.check(rules, facts);
+
+        // Then
+        executor.shutdown();
+        assertThat(result).hasSize(99);
+        for (Map.Entry<org.jeasy.rules.api.Rule, Boolean> entry : result.entrySet()) {
+            int index = Integer.parseInt(entry.getKey().getName().substring("rule".length()));
+            assertThat(entry.getValue()).isEqualTo(index % 2 == 0);
+        }
+    }
+
+    @Test
+    public void exceptionThrownWhileCheckingRulesInParallelShouldBePropagated() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine(new RulesEngineParameters(), executor);
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            rules.register(new RuleBuilder().name("rule" + i).when(facts -> {
+                if (index == 9) {
+                    throw new IllegalStateException("boom");
+                }
+                return true;
+            }).build());
+        }
+
+        // When
+        try {
+            rulesEngine.check(rules, facts);
+            Assertions.fail("An exception should have been thrown");
+        } catch (IllegalStateException exception) {
+            // Then
+            assertThat(exception).hasMessage("boom");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void nullFactsShouldNotCrashTheEngine() {
         // Given
@@ -291,6 +360,339 @@ public class DefaultRulesEngineTest extends AbstractTest {
         // excepted exception
     }
 
+    @Test
+    public void whenRequiredFactIsMissing_thenRuleShouldNotBeEvaluated() {
+        // Given
+        RuleRequiringFacts rule = new RuleRequiringFacts("rule", 1, "order");
+        when(ruleListener.beforeEvaluate(rule, facts)).thenReturn(true);
+        rulesEngine.registerRuleListener(ruleListener);
+        rules.register(rule);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(rule.evaluations).isZero();
+        assertThat(rule.executions).isZero();
+        verify(ruleListener).afterEvaluate(rule, facts, false);
+
+        // When
+        facts.put("order", new Object());
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(rule.evaluations).isEqualTo(1);
+        assertThat(rule.executions).isEqualTo(1);
+    }
+
+    @Test
+    public void whenRequiredFactIsMissing_thenCompiledRuleShouldNotBeEvaluated() {
+        // Given
+        RuleRequiringFacts orderRule = new RuleRequiringFacts("order rule", 1, "order");
+        RuleRequiringFacts paymentRule = new RuleRequiringFacts("payment rule", 2, "order", "payment");
+        RuleRequiringFacts factRule = new RuleRequiringFacts("fact rule", 3, "fact1");
+        CompiledRules compiledRules = CompiledRules.of(new Rules(orderRule, paymentRule, factRule));
+
+        // When
+        rulesEngine.fire(compiledRules, facts);
+        facts.put("order", new Object());
+        rulesEngine.fire(compiledRules, facts);
+
+        // Then
+        assertThat(orderRule.evaluations).isEqualTo(1);
+        assertThat(paymentRule.evaluations).isZero();
+        assertThat(factRule.evaluations).isEqualTo(2);
+    }
+
+    @Test
+    public void whenManyFactsAreRequired_thenCompiledRulesShouldBeFilteredRuleByRule() {
+        // Given
+        Rules manyRules = new Rules();
+        for (int i = 0; i < 100; i++) {
+            manyRules.register(new RuleRequiringFacts("rule" + i, i, "fact" + i));
+        }
+        CompiledRules compiledRules = CompiledRules.of(manyRules);
+
+        // When
+        rulesEngine.fire(compiledRules, facts);
+
+        // Then
+        for (org.jeasy.rules.api.Rule rule : compiledRules) {
+            boolean present = rule.getName().equals("rule1") || rule.getName().equals("rule2");
+            assertThat(((RuleRequiringFacts) rule).evaluations).isEqualTo(present ? 1 : 0);
+        }
+    }
+
+    @Test
+    public void whenNoPriorityThresholdIsSet_thenPrioritiesOfRulesShouldNotBeRead() {
+        // Given
+        RuleRequiringFacts rule = spy(new RuleRequiringFacts("rule", 1));
+        rules.register(rule);
+        clearInvocations(rule);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        verify(rule).accept(facts);
+        verify(rule, never()).getPriority();
+    }
+
+    @Test
+    public void whenRequiredFactIsMissing_thenRuleShouldBeCheckedAsNotTriggered() {
+        // Given
+        RuleRequiringFacts rule = new RuleRequiringFacts("rule", 1, "order");
+        rules.register(rule);
+
+        // When
+        Map<org.jeasy.rules.api.Rule, Boolean> result = rulesEngine.check(rules, facts);
+
+        // Then
+        assertThat(result).containsEntry(rule, false);
+        assertThat(rule.evaluations).isZero();
+    }
+
+    @Test
+    public void whenFiringIsSampled_thenSampledRuleListenersShouldBeNotifiedOfAllRules() {
+        // Given
+        RuleRequiringFacts firstRule = new RuleRequiringFacts("first", 1);
+        RuleRequiringFacts secondRule = new RuleRequiringFacts("second", 2);
+        rules.register(firstRule);
+        rules.register(secondRule);
+        when(ruleListener.beforeEvaluate(any(), eq(facts))).thenReturn(true);
+        rulesEngine.registerSampledRuleListener(ruleListener);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(rulesEngine.getSampledRuleListeners()).containsExactly(ruleListener);
+        assertThat(rulesEngine.getRuleListeners()).doesNotContain(ruleListener);
+        InOrder inOrder = inOrder(ruleListener);
+        inOrder.verify(ruleListener).beforeEvaluate(firstRule, facts);
+        inOrder.verify(ruleListener).afterEvaluate(firstRule, facts, true);
+        inOrder.verify(ruleListener).beforeExecute(firstRule, facts);
+        inOrder.verify(ruleListener).onSuccess(firstRule, facts);
+        inOrder.verify(ruleListener).beforeEvaluate(secondRule, facts);
+        inOrder.verify(ruleListener).afterEvaluate(secondRule, facts, true);
+        inOrder.verify(ruleListener).beforeExecute(secondRule, facts);
+        inOrder.verify(ruleListener).onSuccess(secondRule, facts);
+    }
+
+    @Test
+    public void whenFiringIsNotSampled_thenSampledRuleListenersShouldNotBeNotified() {
+        // Given
+        rulesEngine = new DefaultRulesEngine(new RulesEngineParameters().samplingRate(0));
+        RuleRequiringFacts rule = new RuleRequiringFacts("rule", 1);
+        rules.register(rule);
+        rulesEngine.registerSampledRuleListener(ruleListener);
+
+        // When
+        rulesEngine.fire(rules, facts);
+        rulesEngine.fireAll(rules, Collections.singletonList(facts));
+        rulesEngine.check(rules, facts);
+
+        // Then
+        assertThat(rule.executions).isEqualTo(2);
+        verifyZeroInteractions(ruleListener);
+    }
+
+    @Test
+    public void whenSomeFiringsAreSampled_thenSampledRuleListenersShouldBeNotifiedOfAllRulesOfSampledFirings() {
+        // Given
+        rulesEngine = new DefaultRulesEngine(new RulesEngineParameters().samplingRate(0.5));
+        for (int i = 0; i < 3; i++) {
+            rules.register(new RuleRequiringFacts("rule" + i, i));
+        }
+        int[] notifications = new int[1];
+        rulesEngine.registerSampledRuleListener(new RuleListener() {
+            @Override
+            public boolean beforeEvaluate(org.jeasy.rules.api.Rule rule, Facts facts) {
+                return true;
+            }
+
+            @Override
+            public void afterEvaluate(org.jeasy.rules.api.Rule rule, Facts facts, boolean evaluationResult) { }
+
+            @Override
+            public void beforeExecute(org.jeasy.rules.api.Rule rule, Facts facts) { }
+
+            @Override
+            public void onSuccess(org.jeasy.rules.api.Rule rule, Facts facts) {
+                notifications[0]++;
+            }
+
+            @Override
+            public void onFailure(org.jeasy.rules.api.Rule rule, Facts facts, Exception exception) { }
+        });
+
+        // When
+        int sampledFirings = 0;
+        for (int i = 0; i < 200; i++) {
+            int notificationsBefore = notifications[0];
+            rulesEngine.fire(rules, facts);
+            int firingNotifications = notifications[0] - notificationsBefore;
+
+            // Then
+            assertThat(firingNotifications).isIn(0, 3);
+            if (firingNotifications > 0) {
+                sampledFirings++;
+            }
+        }
+        assertThat(sampledFirings).isBetween(1, 199);
+    }
+
+    @Test
+    public void whenSamplingRateIsNotBetweenZeroAndOne_thenItShouldBeRejected() {
+        assertThatThrownBy(() -> new RulesEngineParameters().samplingRate(1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RulesEngineParameters().samplingRate(Double.NaN))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void whenAdaptiveRuleOrderingIsEnabled_thenExclusiveRulesOfSamePriorityShouldBeReorderedBySelectivity() {
+        // Given
+        RuleRequiringFacts first = new RuleRequiringFacts("first", 0);
+        first.triggered = false;
+        RuleRequiringFacts notTriggered = exclusiveRule("a", 1, false);
+        RuleRequiringFacts triggered = exclusiveRule("b", 1, true);
+        RuleRequiringFacts last = new RuleRequiringFacts("last", 2);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(first, notTriggered, triggered, last));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters()
+                .skipOnFirstAppliedRule(true)
+                .adaptiveRuleOrdering(true));
+
+        // When
+        for (int i = 0; i < AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            engine.fire(compiledRules, new Facts());
+        }
+        int evaluations = notTriggered.evaluations;
+        engine.fire(compiledRules, new Facts());
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules)).containsExactly(first, triggered, notTriggered, last);
+        assertThat(notTriggered.evaluations).isEqualTo(evaluations);
+        assertThat(triggered.executions).isEqualTo(AdaptiveRuleOrder.REORDER_INTERVAL + 1);
+        assertThat(last.evaluations).isZero();
+    }
+
+    @Test
+    public void whenRuleSetsAreFiredAlternately_thenTheOrderOfEachRuleSetShouldBeLearned() {
+        // Given
+        RuleRequiringFacts notTriggered1 = exclusiveRule("a", 1, false);
+        RuleRequiringFacts triggered1 = exclusiveRule("b", 1, true);
+        RuleRequiringFacts notTriggered2 = exclusiveRule("c", 1, false);
+        RuleRequiringFacts triggered2 = exclusiveRule("d", 1, true);
+        CompiledRules compiledRules1 = CompiledRules.of(new Rules(notTriggered1, triggered1));
+        CompiledRules compiledRules2 = CompiledRules.of(new Rules(notTriggered2, triggered2));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters()
+                .skipOnFirstAppliedRule(true)
+                .adaptiveRuleOrdering(true));
+
+        // When
+        for (int i = 0; i < AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            engine.fire(compiledRules1, new Facts());
+            engine.fire(compiledRules2, new Facts());
+        }
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules1)).containsExactly(triggered1, notTriggered1);
+        assertThat(engine.getLearnedRuleOrder(compiledRules2)).containsExactly(triggered2, notTriggered2);
+    }
+
+    @Test
+    public void whenRulesOfSamePriorityAreNotExclusive_thenTheAppliedRuleShouldNotChange() {
+        // Given
+        RuleRequiringFacts rarelyTriggered = new RuleRequiringFacts("a", 1);
+        RuleRequiringFacts triggered = new RuleRequiringFacts("b", 1);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(rarelyTriggered, triggered));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters()
+                .skipOnFirstAppliedRule(true)
+                .adaptiveRuleOrdering(true));
+
+        // When
+        for (int i = 0; i < AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            rarelyTriggered.triggered = i % 10 == 0;
+            engine.fire(compiledRules, new Facts());
+        }
+        rarelyTriggered.triggered = true;
+        int executions = rarelyTriggered.executions;
+        engine.fire(compiledRules, new Facts());
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules)).isSameAs(compiledRules);
+        assertThat(rarelyTriggered.executions).isEqualTo(executions + 1);
+    }
+
+    @Test
+    public void whenRulesOfSamePriorityDoNotCommute_thenTheyShouldNotBeReordered() {
+        // Given
+        RuleRequiringFacts notTriggered = exclusiveRule("a", 1, false);
+        notTriggered.actionFacts = Collections.singleton("order");
+        RuleRequiringFacts triggered = new RuleRequiringFacts("b", 1, "order");
+        triggered.exclusiveGroup = "group";
+        CompiledRules compiledRules = CompiledRules.of(new Rules(notTriggered, triggered));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters()
+                .skipOnFirstAppliedRule(true)
+                .adaptiveRuleOrdering(true));
+        facts.put("order", "order");
+
+        // When
+        for (int i = 0; i < AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            engine.fire(compiledRules, facts);
+        }
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules)).isSameAs(compiledRules);
+        assertThat(notTriggered.evaluations).isEqualTo(AdaptiveRuleOrder.REORDER_INTERVAL);
+    }
+
+    @Test
+    public void whenRulesAreSkippedOnFirstNonTriggeredRule_thenRulesShouldBeFiredInTheirNaturalOrder() {
+        // Given
+        RuleRequiringFacts triggered = exclusiveRule("a", 1, true);
+        RuleRequiringFacts notTriggered = exclusiveRule("b", 1, false);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(triggered, notTriggered));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters()
+                .skipOnFirstNonTriggeredRule(true)
+                .adaptiveRuleOrdering(true));
+
+        // When
+        for (int i = 0; i <= AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            engine.fire(compiledRules, new Facts());
+        }
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules)).isSameAs(compiledRules);
+        assertThat(triggered.executions).isEqualTo(AdaptiveRuleOrder.REORDER_INTERVAL + 1);
+    }
+
+    @Test
+    public void whenAdaptiveRuleOrderingIsDisabled_thenRulesShouldBeFiredInTheirNaturalOrder() {
+        // Given
+        RuleRequiringFacts notTriggered = exclusiveRule("a", 1, false);
+        RuleRequiringFacts triggered = exclusiveRule("b", 1, true);
+        CompiledRules compiledRules = CompiledRules.of(new Rules(notTriggered, triggered));
+        DefaultRulesEngine engine = new DefaultRulesEngine(new RulesEngineParameters().skipOnFirstAppliedRule(true));
+
+        // When
+        for (int i = 0; i <= AdaptiveRuleOrder.REORDER_INTERVAL; i++) {
+            engine.fire(compiledRules, new Facts());
+        }
+
+        // Then
+        assertThat(engine.getLearnedRuleOrder(compiledRules)).isSameAs(compiledRules);
+        assertThat(notTriggered.evaluations).isEqualTo(AdaptiveRuleOrder.REORDER_INTERVAL + 1);
+    }
+
+    private static RuleRequiringFacts exclusiveRule(String name, int priority, boolean triggered) {
+        RuleRequiringFacts rule = new RuleRequiringFacts(name, priority);
+        rule.exclusiveGroup = "group";
+        rule.triggered = triggered;
+        return rule;
+    }
+
     @After
     public void clearRules() {
         rules.clear();
@@ -339,6 +741,52 @@ public class DefaultRulesEngineTest extends AbstractTest {
 
     }
 
+    static class RuleRequiringFacts extends BasicRule implements FactDependent {
+
+        private final Set<String> requiredFacts;
+        Set<String> actionFacts = Collections.emptySet();
+        String exclusiveGroup;
+        boolean triggered = true;
+        int evaluations;
+        int executions;
+
+        RuleRequiringFacts(String name, int priority, String... requiredFacts) {
+            super(name, DEFAULT_DESCRIPTION, priority);
+            this.requiredFacts = new HashSet<>(Arrays.asList(requiredFacts));
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            evaluations++;
+            return triggered;
+        }
+
+        @Override
+        public void accept(Facts facts) {
+            executions++;
+        }
+
+        @Override
+        public Set<String> getConditionFacts() {
+            return requiredFacts;
+        }
+
+        @Override
+        public Set<String> getActionFacts() {
+            return actionFacts;
+        }
+
+        @Override
+        public Set<String> getRequiredFacts() {
+            return requiredFacts;
+        }
+
+        @Override
+        public String getExclusiveGroup() {
+            return exclusiveGroup;
+        }
+    }
+
     @org.jeasy.rules.annotation.Rule
     public class DummyRule {
 
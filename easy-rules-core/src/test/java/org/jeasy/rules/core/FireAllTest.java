@@ -0,0 +1,214 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.api.RulesEngineListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class FireAllTest {
+
+    private Rule evenRule;
+    private Rule failingRule;
+    private Rules rules;
+
+    @Before
+    public void setUp() {
+        evenRule = new RuleBuilder()
+                .name("even")
+                .priority(1)
+                .when(facts -> facts.<Integer>get("value") % 2 == 0)
+                .then(facts -> facts.put("even", true))
+                .build();
+        failingRule = new RuleBuilder()
+                .name("failing")
+                .priority(2)
+                .when(facts -> facts.<Integer>get("value") > 2)
+                .then(facts -> {
+                    throw new IllegalStateException("boom");
+                })
+                .build();
+        rules = new Rules(evenRule, failingRule);
+    }
+
+    @Test
+    public void rulesShouldBeFiredOnEachFacts() {
+        // Given
+        List<Facts> batch = batch(4);
+
+        // When
+        List<FiringOutcome> outcomes = new DefaultRulesEngine().fireAll(rules, batch);
+
+        // Then
+        assertThat(outcomes).hasSize(4);
+        assertThat(outcomes).extracting(FiringOutcome::getFacts).containsExactlyElementsOf(batch);
+        assertThat(outcomes.get(0).getFiredRules()).isEmpty();
+        assertThat(outcomes.get(0).hasFailures()).isFalse();
+        assertThat(outcomes.get(1).getFiredRules()).containsExactly(evenRule);
+        assertThat(outcomes.get(1).hasFailures()).isFalse();
+        assertThat(outcomes.get(2).getFiredRules()).isEmpty();
+        assertThat(outcomes.get(2).getFailedRules()).containsOnlyKeys(failingRule);
+        assertThat(outcomes.get(2).getFailedRules().get(failingRule)).hasMessage("boom");
+        assertThat(outcomes.get(3).getFiredRules()).containsExactly(evenRule);
+        assertThat(outcomes.get(3).getFailedRules()).containsOnlyKeys(failingRule);
+        assertThat((Boolean) batch.get(1).get("even")).isTrue();
+    }
+
+    @Test
+    public void batchListenersShouldBeTriggeredInsteadOfPerFactsListeners() {
+        // Given
+        RulesEngineListener rulesEngineListener = mock(RulesEngineListener.class);
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine();
+        rulesEngine.registerRulesEngineListener(rulesEngineListener);
+
+        // When
+        List<FiringOutcome> outcomes = rulesEngine.fireAll(rules, batch(3));
+
+        // Then
+        verify(rulesEngineListener).beforeBatch(any(Rules.class));
+        verify(rulesEngineListener).afterBatch(any(Rules.class), eq(outcomes));
+        verify(rulesEngineListener, never()).beforeEvaluate(any(Rules.class), any(Facts.class));
+        verify(rulesEngineListener, never()).afterExecute(any(Rules.class), any(Facts.class));
+    }
+
+    @Test
+    public void batchShouldBeFiredInParallelPartitions() {
+        // Given
+        ForkJoinPool executor = new ForkJoinPool(4);
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine(new RulesEngineParameters(), executor);
+        List<Facts> batch = batch(1000);
+
+        // When
+        List<FiringOutcome> outcomes = rulesEngine.fireAll(rules, batch);
+
+        // Then
+        executor.shutdown();
+        assertThat(outcomes).extracting(FiringOutcome::getFacts).containsExactlyElementsOf(batch);
+        for (int i = 0; i < outcomes.size(); i++) {
+            int value = i + 1;
+            assertThat(outcomes.get(i).getFiredRules()).hasSize(value % 2 == 0 ? 1 : 0);
+            assertThat(outcomes.get(i).hasFailures()).isEqualTo(value > 2);
+        }
+    }
+
+    @Test
+    public void streamOfFactsShouldBeFired() {
+        List<FiringOutcome> outcomes = new DefaultRulesEngine().fireAll(rules, Stream.of(facts(2), facts(4)));
+
+        assertThat(outcomes).hasSize(2);
+        for (FiringOutcome outcome : outcomes) {
+            assertThat(outcome.getFiredRules()).containsExactly(evenRule);
+        }
+    }
+
+    @Test
+    public void defaultImplementationShouldFireRulesOnEachFacts() {
+        // Given
+        List<Facts> firedFacts = new ArrayList<>();
+        RulesEngine rulesEngine = new RulesEngine() {
+            @Override
+            public RulesEngineParameters getParameters() {
+                return new RulesEngineParameters();
+            }
+
+            @Override
+            public List<RuleListener> getRuleListeners() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public List<RulesEngineListener> getRulesEngineListeners() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public void fire(Rules rules, Facts facts) {
+                firedFacts.add(facts);
+            }
+
+            @Override
+            public Map<Rule, Boolean> check(Rules rules, Facts facts) {
+                return Collections.emptyMap();
+            }
+        };
+        List<Facts> batch = batch(2);
+
+        // When
+        List<FiringOutcome> outcomes = rulesEngine.fireAll(rules, batch);
+
+        // Then
+        assertThat(firedFacts).containsExactlyElementsOf(batch);
+        assertThat(outcomes).extracting(FiringOutcome::getFacts).containsExactlyElementsOf(batch);
+    }
+
+    @Test
+    public void inferenceRulesEngineShouldFireEachFactsUntilNoMoreRulesAreApplicable() {
+        // Given
+        Rule decrementRule = new RuleBuilder()
+                .name("decrement")
+                .when(facts -> facts.<Integer>get("value") > 0)
+                .then(facts -> facts.put("value", facts.<Integer>get("value") - 1))
+                .build();
+
+        // When
+        List<FiringOutcome> outcomes = new InferenceRulesEngine().fireAll(new Rules(decrementRule), batch(3));
+
+        // Then
+        assertThat(outcomes).extracting(outcome -> outcome.getFiredRules().size()).containsExactly(1, 2, 3);
+        assertThat(outcomes).extracting(outcome -> outcome.getFacts().<Integer>get("value")).containsOnly(0);
+    }
+
+    private static List<Facts> batch(int size) {
+        List<Facts> batch = new ArrayList<>();
+        IntStream.rangeClosed(1, size).forEach(value -> batch.add(facts(value)));
+        return batch;
+    }
+
+    private static Facts facts(int value) {
+        Facts facts = new Facts();
+        facts.put("value", value);
+        return facts;
+    }
+}
@@ -24,12 +24,35 @@
 package org.jeasy.rules.core;
 
 import org.jeasy.rules.annotation.*;
+import org.jeasy.rules.api.FactDependent;
 import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
+import org.jeasy.rules.api.RuleListener;
 import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.api.RulesEngine;
 import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class InferenceRulesEngineTest {
 
@@ -71,6 +94,217 @@ public class InferenceRulesEngineTest {
         assertThat(dummyRule.getTimestamp()).isLessThanOrEqualTo(anotherDummyRule.getTimestamp());
     }
 
+    @Test
+    public void rulesNotDependingOnChangedFactsShouldNotBeReEvaluated() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        facts.put("baz", false);
+        SwitchingRule switchingRule = new SwitchingRule();
+        EvaluationCountingRule evaluationCountingRule = new EvaluationCountingRule();
+        Rules rules = new Rules(switchingRule, evaluationCountingRule);
+        RulesEngine rulesEngine = new InferenceRulesEngine();
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(facts.<AtomicBoolean>get("foo").get()).isFalse();
+        assertThat(evaluationCountingRule.getEvaluations()).isEqualTo(1);
+    }
+
+    @Test
+    public void candidatesShouldBeFiredWithoutEvaluatingTheirConditionAgain() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        SwitchingRule switchingRule = new SwitchingRule();
+        RulesEngine rulesEngine = new InferenceRulesEngine();
+
+        // When
+        rulesEngine.fire(new Rules(switchingRule), facts);
+
+        // Then
+        assertThat(switchingRule.getEvaluations()).isEqualTo(2); // selection + re-evaluation after firing
+    }
+
+    @Test
+    public void ruleListenersShouldBeNotifiedWhenCandidatesAreFired() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        RuleListener ruleListener = mock(RuleListener.class);
+        when(ruleListener.beforeEvaluate(any(org.jeasy.rules.api.Rule.class), any(Facts.class))).thenReturn(true);
+        InferenceRulesEngine rulesEngine = new InferenceRulesEngine();
+        rulesEngine.registerRuleListener(ruleListener);
+
+        // When
+        rulesEngine.fire(new Rules(new SwitchingRule()), facts);
+
+        // Then
+        InOrder inOrder = inOrder(ruleListener);
+        inOrder.verify(ruleListener).beforeEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts));
+        inOrder.verify(ruleListener).afterEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts), eq(true));
+        inOrder.verify(ruleListener).beforeExecute(any(org.jeasy.rules.api.Rule.class), eq(facts));
+        inOrder.verify(ruleListener).onSuccess(any(org.jeasy.rules.api.Rule.class), eq(facts));
+        inOrder.verify(ruleListener).beforeEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts));
+        inOrder.verify(ruleListener).afterEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts), eq(false));
+        verify(ruleListener, times(2)).beforeEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts));
+        verify(ruleListener, times(1)).afterEvaluate(any(org.jeasy.rules.api.Rule.class), eq(facts), eq(true));
+        verify(ruleListener, times(1)).beforeExecute(any(org.jeasy.rules.api.Rule.class), eq(facts));
+    }
+
+    @Test
+    public void ruleListenersShouldBeNotifiedAfterEachEvaluation() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        facts.put("bar", new AtomicBoolean(true));
+        RuleListener ruleListener = mock(RuleListener.class);
+        when(ruleListener.beforeEvaluate(any(org.jeasy.rules.api.Rule.class), any(Facts.class))).thenReturn(true);
+        InferenceRulesEngine rulesEngine = new InferenceRulesEngine();
+        rulesEngine.registerRuleListener(ruleListener);
+        FooRule fooRule = new FooRule(new ArrayList<>());
+        BarRule barRule = new BarRule(new ArrayList<>());
+
+        // When
+        rulesEngine.fire(new Rules(fooRule, barRule), facts);
+
+        // Then
+        // the bar rule is a stale candidate once the foo rule is fired, and is evaluated again before being fired
+        verify(ruleListener, times(3)).beforeEvaluate(argThat(rule -> rule.getName().equals("BarRule")), eq(facts));
+        verify(ruleListener).afterEvaluate(argThat(rule -> rule.getName().equals("BarRule")), eq(facts), eq(true));
+        verify(ruleListener, times(2)).afterEvaluate(argThat(rule -> rule.getName().equals("BarRule")), eq(facts), eq(false));
+    }
+
+    @Test
+    public void candidateShouldNotBeFiredWhenAPreviousRuleInvalidatedItsCondition() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        facts.put("bar", new AtomicBoolean(true));
+        List<String> firedRules = new ArrayList<>();
+        Rules rules = new Rules(new FooRule(firedRules), new BarRule(firedRules));
+        RulesEngine rulesEngine = new InferenceRulesEngine();
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(firedRules).containsExactly("foo");
+    }
+
+    @Test
+    public void conflictResolutionStrategyShouldDecideWhichCandidatesAreFired() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        facts.put("bar", new AtomicBoolean(true));
+        List<String> firedRules = new ArrayList<>();
+        Rules rules = new Rules(new FooRule(firedRules), new BarRule(firedRules));
+        ConflictResolutionStrategy lowestPriorityFirst = ConflictResolutionStrategy.orderedBy(
+                Comparator.comparingInt(org.jeasy.rules.api.Rule::getPriority).reversed());
+        RulesEngine rulesEngine = new InferenceRulesEngine(new RulesEngineParameters(), lowestPriorityFirst);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(firedRules).containsExactly("bar", "foo");
+    }
+
+    @Test
+    public void firstConflictResolutionStrategyShouldFireOneCandidatePerIteration() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("foo", new AtomicBoolean(true));
+        facts.put("bar", new AtomicBoolean(true));
+        facts.put("baz", false);
+        List<String> firedRules = new ArrayList<>();
+        EvaluationCountingRule evaluationCountingRule = new EvaluationCountingRule();
+        Rules rules = new Rules(new FooRule(firedRules), new BarRule(firedRules), evaluationCountingRule);
+        RulesEngine rulesEngine = new InferenceRulesEngine(new RulesEngineParameters(), ConflictResolutionStrategy.FIRST);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(firedRules).containsExactly("foo");
+        assertThat(evaluationCountingRule.getEvaluations()).isEqualTo(1);
+    }
+
+    @Test
+    public void rulesWithUnknownDependenciesShouldBeReEvaluatedOnEachChange() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("count", 0);
+        CountingRule increment = new CountingRule("increment", 1,
+                f -> f.<Integer>get("count") < 2,
+                f -> f.put("count", f.<Integer>get("count") + 1),
+                set("count"), set("count"));
+        CountingRule unknown = new CountingRule("unknown", 2,
+                f -> f.<Integer>get("count") == 2 && f.get("done") == null,
+                f -> f.put("done", true),
+                null, null);
+
+        // When
+        new InferenceRulesEngine().fire(new Rules(increment, unknown), facts);
+
+        // Then
+        assertThat(facts.<Boolean>get("done")).isTrue();
+    }
+
+    @Test
+    public void factsModifiedByActionsShouldBeConsideredChanged() {
+        // Given
+        Facts facts = new Facts();
+        int[] counter = {0};
+        facts.put("counter", counter);
+        CountingRule increment = new CountingRule("increment", 1,
+                f -> f.<int[]>get("counter")[0] < 3,
+                f -> f.<int[]>get("counter")[0]++,
+                set("counter"), set("counter"));
+
+        // When
+        new InferenceRulesEngine().fire(new Rules(increment), facts);
+
+        // Then
+        assertThat(counter[0]).isEqualTo(3);
+    }
+
+    @Test(timeout = 10000)
+    public void firedRulesShouldBeReEvaluatedEvenIfTheyChangedNoFact() {
+        // Given
+        StatefulRule statefulRule = new StatefulRule();
+
+        // When
+        new InferenceRulesEngine().fire(new Rules(statefulRule), new Facts());
+
+        // Then
+        assertThat(statefulRule.count).isEqualTo(3);
+    }
+
+    @Test
+    public void batchOutcomesShouldContainRulesFiredInAllIterations() {
+        // Given
+        Facts facts = new Facts();
+        facts.put("count", 0);
+        CountingRule increment = new CountingRule("increment", 1,
+                f -> f.<Integer>get("count") < 3,
+                f -> f.put("count", f.<Integer>get("count") + 1),
+                set("count"), set("count"));
+
+        // When
+        List<FiringOutcome> outcomes = new InferenceRulesEngine().fireAll(new Rules(increment), Collections.singletonList(facts));
+
+        // Then
+        assertThat(outcomes.get(0).getFiredRules()).containsExactly(increment, increment, increment);
+    }
+
+    private static Set<String> set(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
     @Rule
     class DummyRule {
 
@@ -135,4 +369,141 @@ public class InferenceRulesEngineTest {
         }
     }
 
+    @Rule
+    class SwitchingRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("foo") AtomicBoolean foo) {
+            evaluations++;
+            return foo.get();
+        }
+
+        @Action
+        public void then(@Fact("foo") AtomicBoolean foo) {
+            foo.set(false);
+        }
+
+        public int getEvaluations() {
+            return evaluations;
+        }
+    }
+
+    @Rule(priority = 1)
+    class FooRule {
+
+        private final List<String> firedRules;
+
+        FooRule(List<String> firedRules) {
+            this.firedRules = firedRules;
+        }
+
+        @Condition
+        public boolean when(@Fact("foo") AtomicBoolean foo) {
+            return foo.get();
+        }
+
+        @Action
+        public void then(@Fact("foo") AtomicBoolean foo, @Fact("bar") AtomicBoolean bar) {
+            firedRules.add("foo");
+            foo.set(false);
+            bar.set(false);
+        }
+    }
+
+    @Rule(priority = 2)
+    class BarRule {
+
+        private final List<String> firedRules;
+
+        BarRule(List<String> firedRules) {
+            this.firedRules = firedRules;
+        }
+
+        @Condition
+        public boolean when(@Fact("bar") AtomicBoolean bar) {
+            return bar.get();
+        }
+
+        @Action
+        public void then(@Fact("bar") AtomicBoolean bar) {
+            firedRules.add("bar");
+            bar.set(false);
+        }
+    }
+
+    @Rule
+    class EvaluationCountingRule {
+
+        private int evaluations;
+
+        @Condition
+        public boolean when(@Fact("baz") boolean baz) {
+            evaluations++;
+            return baz;
+        }
+
+        @Action
+        public void then() {
+        }
+
+        public int getEvaluations() {
+            return evaluations;
+        }
+    }
+
+    @Rule
+    public static class StatefulRule {
+
+        int count;
+
+        @Condition
+        public boolean when() {
+            return count < 3;
+        }
+
+        @Action
+        public void then() {
+            count++;
+        }
+    }
+
+    static class CountingRule extends BasicRule implements FactDependent {
+
+        private final Predicate<Facts> condition;
+        private final Consumer<Facts> action;
+        private final Set<String> conditionFacts;
+        private final Set<String> actionFacts;
+
+        CountingRule(String name, int priority, Predicate<Facts> condition, Consumer<Facts> action,
+                     Set<String> conditionFacts, Set<String> actionFacts) {
+            super(name, DEFAULT_DESCRIPTION, priority);
+            this.condition = condition;
+            this.action = action;
+            this.conditionFacts = conditionFacts;
+            this.actionFacts = actionFacts;
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            return condition.test(facts);
+        }
+
+        @Override
+        public void accept(Facts facts) {
+            action.accept(facts);
+        }
+
+        @Override
+        public Set<String> getConditionFacts() {
+            return conditionFacts;
+        }
+
+        @Override
+        public Set<String> getActionFacts() {
+            return actionFacts;
+        }
+    }
+
 }
@@ -0,0 +1,136 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.api.Facts;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class MethodHandleRuleInvokerTest {
+
+    private RuleInvoker invoker;
+    private MyRule rule;
+    private Facts facts;
+
+    @Before
+    public void setUp() {
+        invoker = MethodHandleRuleInvoker.create(RuleMetadata.of(MyRule.class));
+        rule = new MyRule();
+        facts = new Facts();
+    }
+
+    @Test
+    public void methodHandleInvokerShouldBeUsedByDefault() {
+        assertThat(RuleMetadata.of(MyRule.class).getInvoker()).isInstanceOf(MethodHandleRuleInvoker.class);
+    }
+
+    @Test
+    public void factsShouldBeInjectedInDeclaredParameters() throws Exception {
+        // Given
+        facts.put("age", 18);
+        facts.put("name", "foo");
+
+        // When
+        boolean evaluationResult = invoker.evaluate(rule, facts);
+        invoker.execute(rule, facts);
+
+        // Then
+        assertThat(evaluationResult).isTrue();
+        assertThat(rule.age).isEqualTo(18L); // int fact widened to long parameter
+        assertThat(rule.name).isEqualTo("foo");
+        assertThat(rule.facts).isSameAs(facts);
+        assertThat(invoker.getPriority(rule)).isEqualTo(5);
+    }
+
+    @Test(expected = NoSuchFactException.class)
+    public void missingFactShouldBeReported() throws Exception {
+        invoker.evaluate(rule, facts);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void factOfWrongTypeShouldBeReported() throws Exception {
+        facts.put("age", "eighteen");
+        invoker.evaluate(rule, facts);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullFactForPrimitiveParameterShouldBeReported() throws Exception {
+        facts.put("age", null);
+        invoker.evaluate(rule, facts);
+    }
+
+    @Test
+    public void exceptionThrownByActionShouldBeWrapped() throws Exception {
+        facts.put("name", "error");
+        try {
+            invoker.execute(rule, facts);
+            fail("Expected an InvocationTargetException");
+        } catch (InvocationTargetException e) {
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Rule
+    public static class MyRule {
+
+        private long age;
+        private String name;
+        private Facts facts;
+
+        @Condition
+        public boolean when(@Fact("age") long age) {
+            this.age = age;
+            return age >= 18;
+        }
+
+        @Action(order = 1)
+        public void then(@Fact("name") String name) {
+            if ("error".equals(name)) {
+                throw new IllegalStateException();
+            }
+            this.name = name;
+        }
+
+        @Action(order = 2)
+        public void thenAgain(Facts facts) {
+            this.facts = facts;
+        }
+
+        @Priority
+        public int getPriority() {
+            return 5;
+        }
+    }
+
+}
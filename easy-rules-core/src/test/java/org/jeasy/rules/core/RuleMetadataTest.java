@@ -0,0 +1,88 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.core;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.api.Facts;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleMetadataTest {
+
+    @Test
+    public void metadataShouldBeResolvedOncePerClass() {
+        // When
+        RuleMetadata metadata1 = RuleMetadata.of(MyRule.class);
+        RuleMetadata metadata2 = RuleMetadata.of(MyRule.class);
+
+        // Then
+        assertThat(metadata1).isSameAs(metadata2);
+    }
+
+    @Test
+    public void metadataShouldBeCorrectlyResolved() {
+        // When
+        RuleMetadata metadata = RuleMetadata.of(MyRule.class);
+
+        // Then
+        assertThat(metadata.getName()).isEqualTo("myRule");
+        assertThat(metadata.getDescription()).isEqualTo("when when then first,second");
+        assertThat(metadata.getPriorityMethod().getName()).isEqualTo("getPriority");
+        assertThat(metadata.getConditionMethod().getName()).isEqualTo("when");
+        assertThat(metadata.getConditionFacts()).containsExactly("age", null);
+        assertThat(metadata.getActionMethods()).extracting(Method::getName).containsExactly("first", "second");
+        assertThat(metadata.getActionFacts()[0]).containsExactly("age");
+        assertThat(metadata.getActionFacts()[1]).isEmpty();
+    }
+
+    @Rule(name = "myRule")
+    public static class MyRule {
+
+        @Condition
+        public boolean when(@Fact("age") int age, Facts facts) {
+            return true;
+        }
+
+        @Action(order = 2)
+        public void second() {
+        }
+
+        @Action(order = 1)
+        public void first(@Fact("age") int age) {
+        }
+
+        @Priority
+        public int getPriority() {
+            return 1;
+        }
+    }
+
+}
@@ -26,13 +26,20 @@ package org.jeasy.rules.core;
 import org.jeasy.rules.annotation.Action;
 import org.jeasy.rules.annotation.AnnotatedRuleWithMetaRuleAnnotation;
 import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
 import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class RuleProxyTest {
 
@@ -221,6 +228,59 @@ public class RuleProxyTest {
         assertEquals(Rule.DEFAULT_PRIORITY, proxy.getPriority());
     }
 
+    @Test
+    public void testFactDependenciesFromAnnotatedParameters() {
+
+        @org.jeasy.rules.annotation.Rule
+        class MyRule {
+            @Condition
+            public boolean when(@Fact("foo") int foo) { return true; }
+
+            @Action
+            public void then(@Fact("bar") int bar) { }
+        }
+
+        Rule proxy = RuleProxy.asRule(new MyRule());
+        assertTrue(proxy instanceof FactDependent);
+        assertEquals(Collections.singleton("foo"), ((FactDependent) proxy).getConditionFacts());
+        assertEquals(Collections.singleton("bar"), ((FactDependent) proxy).getActionFacts());
+        assertEquals(Collections.singleton("foo"), ((FactDependent) proxy).getRequiredFacts());
+    }
+
+    @Test
+    public void testRequiredFactsAreKnownWhenFactsAreInjectedInCondition() {
+
+        @org.jeasy.rules.annotation.Rule
+        class MyRule {
+            @Condition
+            public boolean when(@Fact("foo") int foo, Facts facts) { return true; }
+
+            @Action
+            public void then() { }
+        }
+
+        FactDependent proxy = (FactDependent) RuleProxy.asRule(new MyRule());
+        assertNull(proxy.getConditionFacts());
+        assertEquals(Collections.singleton("foo"), proxy.getRequiredFacts());
+    }
+
+    @Test
+    public void testFactDependenciesAreUnknownWhenFactsAreInjected() {
+
+        @org.jeasy.rules.annotation.Rule
+        class MyRule {
+            @Condition
+            public boolean when(@Fact("foo") int foo) { return true; }
+
+            @Action
+            public void then(Facts facts) { }
+        }
+
+        FactDependent proxy = (FactDependent) RuleProxy.asRule(new MyRule());
+        assertEquals(Collections.singleton("foo"), proxy.getConditionFacts());
+        assertNull(proxy.getActionFacts());
+    }
+
     @org.jeasy.rules.annotation.Rule
     class DummyRule {
         @Condition
@@ -0,0 +1,132 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RuleMetricsRegistry} keeping metrics in memory. Latencies are recorded in
+ * lock-free histograms of about 4 KB each (two per rule), and a snapshot of them can be
+ * taken at any time with {@link #getSnapshot()}, for example to find the rules that take
+ * the most time:
+ *
+ * <pre>
+ * registry.getSnapshot().getRules().stream().limit(10).forEach(System.out::println);
+ * </pre>
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class InMemoryRuleMetricsRegistry implements RuleMetricsRegistry {
+
+    private final Map<String, InMemoryRuleMetricsRecorder> recorders = new ConcurrentHashMap<>();
+    private final LatencyHistogram fires = new LatencyHistogram();
+    private final LongAdder evaluatedRules = new LongAdder();
+    private final LongAdder triggeredRules = new LongAdder();
+    private final LongAdder failedRules = new LongAdder();
+
+    @Override
+    public RuleMetricsRecorder getRecorder(final String ruleName) {
+        return recorders.computeIfAbsent(ruleName, InMemoryRuleMetricsRecorder::new);
+    }
+
+    @Override
+    public void recordFire(final long durationNanos, final int evaluatedRules, final int triggeredRules, final int failedRules) {
+        fires.record(durationNanos);
+        this.evaluatedRules.add(evaluatedRules);
+        this.triggeredRules.add(triggeredRules);
+        this.failedRules.add(failedRules);
+    }
+
+    /**
+     * Take a snapshot of recorded metrics.
+     *
+     * @return a snapshot of metrics
+     */
+    public MetricsSnapshot getSnapshot() {
+        List<RuleMetricsSnapshot> rules = new ArrayList<>(recorders.size());
+        for (InMemoryRuleMetricsRecorder recorder : recorders.values()) {
+            rules.add(recorder.getSnapshot());
+        }
+        return new MetricsSnapshot(rules, fires.getSnapshot(),
+                evaluatedRules.sum(), triggeredRules.sum(), failedRules.sum());
+    }
+
+    /**
+     * Reset all metrics. Measurements recorded concurrently may be partially kept.
+     */
+    public void reset() {
+        for (InMemoryRuleMetricsRecorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+        fires.reset();
+        evaluatedRules.reset();
+        triggeredRules.reset();
+        failedRules.reset();
+    }
+
+    private static final class InMemoryRuleMetricsRecorder implements RuleMetricsRecorder {
+
+        private final String ruleName;
+        private final LatencyHistogram evaluations = new LatencyHistogram();
+        private final LatencyHistogram executions = new LatencyHistogram();
+        private final LongAdder triggered = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private InMemoryRuleMetricsRecorder(final String ruleName) {
+            this.ruleName = ruleName;
+        }
+
+        @Override
+        public void recordEvaluation(final long durationNanos, final boolean triggered) {
+            evaluations.record(durationNanos);
+            if (triggered) {
+                this.triggered.increment();
+            }
+        }
+
+        @Override
+        public void recordExecution(final long durationNanos, final boolean successful) {
+            executions.record(durationNanos);
+            if (!successful) {
+                failed.increment();
+            }
+        }
+
+        private RuleMetricsSnapshot getSnapshot() {
+            return new RuleMetricsSnapshot(ruleName, evaluations.getSnapshot(), executions.getSnapshot(),
+                    triggered.sum(), failed.sum());
+        }
+
+        private void reset() {
+            evaluations.reset();
+            executions.reset();
+            triggered.reset();
+            failed.reset();
+        }
+    }
+}
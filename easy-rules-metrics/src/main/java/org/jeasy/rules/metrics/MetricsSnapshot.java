@@ -0,0 +1,130 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the metrics recorded by an {@link InMemoryRuleMetricsRegistry}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class MetricsSnapshot {
+
+    private static final Comparator<RuleMetricsSnapshot> BY_TOTAL_TIME_DESCENDING =
+            Comparator.comparingLong(RuleMetricsSnapshot::getTotalNanos).reversed()
+                    .thenComparing(RuleMetricsSnapshot::getName);
+
+    private final List<RuleMetricsSnapshot> rules;
+    private final LatencySnapshot fires;
+    private final long evaluatedRules;
+    private final long triggeredRules;
+    private final long failedRules;
+
+    MetricsSnapshot(final List<RuleMetricsSnapshot> rules, final LatencySnapshot fires,
+                    final long evaluatedRules, final long triggeredRules, final long failedRules) {
+        List<RuleMetricsSnapshot> sortedRules = new ArrayList<>(rules);
+        sortedRules.sort(BY_TOTAL_TIME_DESCENDING);
+        this.rules = Collections.unmodifiableList(sortedRules);
+        this.fires = fires;
+        this.evaluatedRules = evaluatedRules;
+        this.triggeredRules = triggeredRules;
+        this.failedRules = failedRules;
+    }
+
+    /**
+     * Get the metrics of all rules, sorted by the total time spent evaluating and executing
+     * them, the most expensive rule first.
+     *
+     * @return metrics of rules
+     */
+    public List<RuleMetricsSnapshot> getRules() {
+        return rules;
+    }
+
+    /**
+     * Get the metrics of a rule.
+     *
+     * @param name of the rule
+     * @return metrics of the rule, or null if nothing has been recorded for it
+     */
+    public RuleMetricsSnapshot getRule(final String name) {
+        for (RuleMetricsSnapshot rule : rules) {
+            if (rule.getName().equals(name)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the latencies of calls to <code>fireAll</code>.
+     *
+     * @return fire latencies
+     */
+    public LatencySnapshot getFires() {
+        return fires;
+    }
+
+    /**
+     * Get the number of rules evaluated by all calls to <code>fireAll</code>.
+     *
+     * @return the total number of evaluated rules
+     */
+    public long getEvaluatedRules() {
+        return evaluatedRules;
+    }
+
+    /**
+     * Get the number of rules triggered by all calls to <code>fireAll</code>.
+     *
+     * @return the total number of triggered rules
+     */
+    public long getTriggeredRules() {
+        return triggeredRules;
+    }
+
+    /**
+     * Get the number of rules that failed in all calls to <code>fireAll</code>.
+     *
+     * @return the total number of failed rules
+     */
+    public long getFailedRules() {
+        return failedRules;
+    }
+
+    @Override
+    public String toString() {
+        return "Metrics { " +
+                "fires = " + fires +
+                ", evaluatedRules = " + evaluatedRules +
+                ", triggeredRules = " + triggeredRules +
+                ", failedRules = " + failedRules +
+                ", rules = " + rules +
+                " }";
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Report of rules profiled over a time window, where rules are ranked by self time,
+ * the rule taking the most time first. The report can be written as text or as JSON.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class ProfileReport {
+
+    private static final Comparator<RuleProfile> BY_SELF_TIME_DESCENDING =
+            Comparator.comparingLong(RuleProfile::getSelfNanos).reversed()
+                    .thenComparing(RuleProfile::getName);
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final Instant start;
+    private final Instant end;
+    private final List<RuleProfile> rules;
+
+    ProfileReport(final long startMillis, final long endMillis, final List<RuleProfile> rules) {
+        List<RuleProfile> rankedRules = new ArrayList<>(rules);
+        rankedRules.sort(BY_SELF_TIME_DESCENDING);
+        this.start = Instant.ofEpochMilli(startMillis);
+        this.end = Instant.ofEpochMilli(endMillis);
+        this.rules = Collections.unmodifiableList(rankedRules);
+    }
+
+    /**
+     * Get the start of the time window of the report.
+     *
+     * @return the start of the window
+     */
+    public Instant getStart() {
+        return start;
+    }
+
+    /**
+     * Get the end of the time window of the report.
+     *
+     * @return the end of the window
+     */
+    public Instant getEnd() {
+        return end;
+    }
+
+    /**
+     * Get profiles of rules, ranked by self time, the rule taking the most time first.
+     *
+     * @return ranked profiles of rules
+     */
+    public List<RuleProfile> getRules() {
+        return rules;
+    }
+
+    /**
+     * Write the report as a text table.
+     *
+     * @param writer to write the report to
+     * @throws IOException if the report cannot be written
+     */
+    public void writeText(final Writer writer) throws IOException {
+        writer.write(String.format(Locale.ROOT, "Rules profile from %s to %s%n", start, end));
+        writer.write(String.format(Locale.ROOT, "%5s %12s %12s %12s %11s %12s %9s  %s%n",
+                "rank", "self (ms)", "total (ms)", "evaluations", "selectivity", "executions", "failures", "rule"));
+        int rank = 1;
+        for (RuleProfile rule : rules) {
+            writer.write(String.format(Locale.ROOT, "%5d %12.3f %12.3f %12d %11.3f %12d %9d  %s%n",
+                    rank++, rule.getSelfNanos() / 1e6, rule.getTotalNanos() / 1e6, rule.getEvaluationCount(),
+                    rule.getSelectivity(), rule.getExecutionCount(), rule.getFailedCount(), rule.getName()));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write the report as a JSON document.
+     *
+     * @param writer to write the report to
+     * @throws IOException if the report cannot be written
+     */
+    public void writeJson(final Writer writer) throws IOException {
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeStringField("start", start.toString());
+            json.writeStringField("end", end.toString());
+            json.writeArrayFieldStart("rules");
+            int rank = 1;
+            for (RuleProfile rule : rules) {
+                json.writeStartObject();
+                json.writeNumberField("rank", rank++);
+                json.writeStringField("name", rule.getName());
+                if (rule.getGroup() != null) {
+                    json.writeStringField("group", rule.getGroup());
+                }
+                json.writeNumberField("selfNanos", rule.getSelfNanos());
+                json.writeNumberField("totalNanos", rule.getTotalNanos());
+                json.writeNumberField("evaluationCount", rule.getEvaluationCount());
+                json.writeNumberField("triggeredCount", rule.getTriggeredCount());
+                json.writeNumberField("selectivity", rule.getSelectivity());
+                json.writeNumberField("evaluationSelfNanos", rule.getEvaluationSelfNanos());
+                json.writeNumberField("executionCount", rule.getExecutionCount());
+                json.writeNumberField("failedCount", rule.getFailedCount());
+                json.writeNumberField("executionSelfNanos", rule.getExecutionSelfNanos());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeText(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+}
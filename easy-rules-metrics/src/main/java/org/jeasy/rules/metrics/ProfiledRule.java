@@ -0,0 +1,178 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+
+import java.util.Set;
+
+/**
+ * Rule measuring the time spent evaluating and executing a delegate rule. Time spent in
+ * nested profiled rules (rules of a group) is excluded from the self time of their parent.
+ * Measurements are recorded in the {@link RuleMeasurements} of the delegate rule.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+class ProfiledRule implements Rule {
+
+    private static final ThreadLocal<CallStack> CALL_STACKS = ThreadLocal.withInitial(CallStack::new);
+
+    private final Rule delegate;
+    private final RuleMeasurements measurements;
+
+    ProfiledRule(final Rule delegate, final RuleMeasurements measurements) {
+        this.delegate = delegate;
+        this.measurements = measurements;
+    }
+
+    static ProfiledRule of(final Rule delegate, final RuleMeasurements measurements) {
+        return delegate instanceof FactDependent
+                ? new FactDependentProfiledRule(delegate, measurements) : new ProfiledRule(delegate, measurements);
+    }
+
+    static Rule unwrap(final Rule rule) {
+        return rule instanceof ProfiledRule ? ((ProfiledRule) rule).delegate : rule;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public int getPriority() {
+        return delegate.getPriority();
+    }
+
+    @Override
+    public boolean evaluate(final Facts facts) {
+        CallStack callStack = CALL_STACKS.get();
+        long start = callStack.enter();
+        boolean triggered = false;
+        try {
+            triggered = delegate.evaluate(facts);
+            return triggered;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            measurements.evaluationSelfNanos.add(callStack.exit(elapsed));
+            measurements.evaluationNanos.add(elapsed);
+            measurements.evaluations.increment();
+            if (triggered) {
+                measurements.triggeredEvaluations.increment();
+            }
+        }
+    }
+
+    @Override
+    public void accept(final Facts facts) {
+        CallStack callStack = CALL_STACKS.get();
+        long start = callStack.enter();
+        boolean successful = false;
+        try {
+            delegate.accept(facts);
+            successful = true;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            measurements.executionSelfNanos.add(callStack.exit(elapsed));
+            measurements.executionNanos.add(elapsed);
+            measurements.executions.increment();
+            if (!successful) {
+                measurements.failedExecutions.increment();
+            }
+        }
+    }
+
+    @Override
+    public int compareTo(final Rule rule) {
+        return delegate.compareTo(unwrap(rule));
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+    /*
+     * Profiled rules that are being called on a thread, with the time spent in their nested rules.
+     */
+    private static final class CallStack {
+
+        private long[] nestedNanos = new long[8];
+        private int depth;
+
+        private long enter() {
+            if (++depth == nestedNanos.length) {
+                long[] newNestedNanos = new long[depth * 2];
+                System.arraycopy(nestedNanos, 0, newNestedNanos, 0, depth);
+                nestedNanos = newNestedNanos;
+            }
+            nestedNanos[depth] = 0;
+            return System.nanoTime();
+        }
+
+        private long exit(final long elapsed) {
+            long selfNanos = elapsed - nestedNanos[depth];
+            depth--;
+            nestedNanos[depth] += elapsed;
+            return selfNanos;
+        }
+    }
+
+    private static final class FactDependentProfiledRule extends ProfiledRule implements FactDependent {
+
+        private final FactDependent factDependent;
+
+        private FactDependentProfiledRule(final Rule delegate, final RuleMeasurements measurements) {
+            super(delegate, measurements);
+            this.factDependent = (FactDependent) delegate;
+        }
+
+        @Override
+        public Set<String> getConditionFacts() {
+            return factDependent.getConditionFacts();
+        }
+
+        @Override
+        public Set<String> getActionFacts() {
+            return factDependent.getActionFacts();
+        }
+
+        @Override
+        public Set<String> getRequiredFacts() {
+            return factDependent.getRequiredFacts();
+        }
+
+        @Override
+        public String getExclusiveGroup() {
+            return factDependent.getExclusiveGroup();
+        }
+    }
+}
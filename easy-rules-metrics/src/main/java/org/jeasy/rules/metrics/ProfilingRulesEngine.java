@@ -0,0 +1,116 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngine;
+import org.jeasy.rules.api.RulesEngineListener;
+import org.jeasy.rules.core.RulesEngineParameters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link RulesEngine} profiling the rules fired by a delegate engine, like a
+ * {@link org.jeasy.rules.core.DefaultRulesEngine} or an {@link org.jeasy.rules.core.InferenceRulesEngine}.
+ * Rules are profiled with a {@link RulesProfiler} before being passed to the delegate engine, so
+ * listeners of the delegate engine and outcomes of {@link #fireAll(Rules, Iterable)} refer to profiled
+ * rules, which have the same name as the original rules. Results of {@link #check(Rules, Facts)}
+ * refer to the original rules.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ProfilingRulesEngine implements RulesEngine {
+
+    private final RulesEngine delegate;
+    private final RulesProfiler profiler;
+
+    /**
+     * Create a new {@link ProfilingRulesEngine}.
+     *
+     * @param delegate engine firing profiled rules
+     */
+    public ProfilingRulesEngine(final RulesEngine delegate) {
+        this(delegate, new RulesProfiler());
+    }
+
+    /**
+     * Create a new {@link ProfilingRulesEngine}.
+     *
+     * @param delegate engine firing profiled rules
+     * @param profiler of rules
+     */
+    public ProfilingRulesEngine(final RulesEngine delegate, final RulesProfiler profiler) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate must not be null");
+        this.profiler = Objects.requireNonNull(profiler, "profiler must not be null");
+    }
+
+    /**
+     * Get the profiler of rules fired by this engine.
+     *
+     * @return the rules profiler
+     */
+    public RulesProfiler getProfiler() {
+        return profiler;
+    }
+
+    @Override
+    public RulesEngineParameters getParameters() {
+        return delegate.getParameters();
+    }
+
+    @Override
+    public List<RuleListener> getRuleListeners() {
+        return delegate.getRuleListeners();
+    }
+
+    @Override
+    public List<RulesEngineListener> getRulesEngineListeners() {
+        return delegate.getRulesEngineListeners();
+    }
+
+    @Override
+    public void fire(final Rules rules, final Facts facts) {
+        delegate.fire(profiler.profile(rules), facts);
+    }
+
+    @Override
+    public Map<Rule, Boolean> check(final Rules rules, final Facts facts) {
+        Map<Rule, Boolean> result = new HashMap<>();
+        delegate.check(profiler.profile(rules), facts)
+                .forEach((rule, evaluationResult) -> result.put(ProfiledRule.unwrap(rule), evaluationResult));
+        return result;
+    }
+
+    @Override
+    public List<FiringOutcome> fireAll(final Rules rules, final Iterable<Facts> facts) {
+        return delegate.fireAll(profiler.profile(rules), facts);
+    }
+}
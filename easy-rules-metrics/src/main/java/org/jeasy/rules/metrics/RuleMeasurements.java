@@ -0,0 +1,100 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.Rule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Time spent evaluating and executing a rule, recorded by the {@link ProfiledRule}s of the rule.
+ * Measurements do not refer to the rule they are taken from, nor to rules of a group, so that they
+ * can be kept as long as the rule is in use without keeping it alive. Measurements of rules of a
+ * group are nested in the measurements of the group, and dropped once the rules are collected.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class RuleMeasurements {
+
+    private final String path;
+    private final String group;
+    // measurements of rules of a group, held weakly and compared by identity since rules of a group may be equal
+    private final Map<RuleReference, RuleMeasurements> nestedMeasurements = new HashMap<>();
+
+    final LongAdder evaluations = new LongAdder();
+    final LongAdder triggeredEvaluations = new LongAdder();
+    final LongAdder evaluationNanos = new LongAdder();
+    final LongAdder evaluationSelfNanos = new LongAdder();
+    final LongAdder executions = new LongAdder();
+    final LongAdder failedExecutions = new LongAdder();
+    final LongAdder executionNanos = new LongAdder();
+    final LongAdder executionSelfNanos = new LongAdder();
+
+    RuleMeasurements(final String name, final String group) {
+        this.group = group;
+        this.path = group == null ? name : group + "/" + name;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    String getGroup() {
+        return group;
+    }
+
+    /*
+     * Nested measurements are created when the group is profiled, with the lock of the profiler held.
+     */
+    RuleMeasurements getNestedMeasurements(final Rule rule) {
+        RuleMeasurements measurements = nestedMeasurements.get(new RuleReference(rule));
+        if (measurements == null) {
+            measurements = new RuleMeasurements(rule.getName(), path);
+            nestedMeasurements.put(new RuleReference(rule), measurements);
+        }
+        return measurements;
+    }
+
+    /*
+     * Called with the lock of the profiler held as well, which drops measurements of collected rules.
+     */
+    Collection<RuleMeasurements> getNestedMeasurements() {
+        nestedMeasurements.keySet().removeIf(reference -> reference.get() == null);
+        return nestedMeasurements.values();
+    }
+
+    void reset() {
+        evaluations.reset();
+        triggeredEvaluations.reset();
+        evaluationNanos.reset();
+        evaluationSelfNanos.reset();
+        executions.reset();
+        failedExecutions.reset();
+        executionNanos.reset();
+        executionSelfNanos.reset();
+    }
+}
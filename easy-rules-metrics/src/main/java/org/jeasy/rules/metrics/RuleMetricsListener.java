@@ -0,0 +1,306 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.FiringOutcome;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.api.RulesEngineListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener that measures the evaluation and execution time of each rule, counts
+ * triggered and failed rules, and records totals of each call to <code>fire</code> or <code>fireAll</code>
+ * in a {@link RuleMetricsRegistry}. It should be registered both as a rule listener
+ * and as a rules engine listener:
+ *
+ * <pre>
+ * RuleMetricsListener metricsListener = new RuleMetricsListener(registry);
+ * rulesEngine.registerRuleListener(metricsListener);
+ * rulesEngine.registerRulesEngineListener(metricsListener);
+ * </pre>
+ *
+ * Measurements are taken per thread, so the same listener can be shared by engines
+ * firing rules concurrently. When rules are fired on a batch of facts, the whole batch
+ * is recorded as a single call, whose totals include rules fired on other threads than
+ * the caller, like facts of a batch fired in parallel. Rules fired on such threads are
+ * counted in the batch in progress, or when batches are fired concurrently, in the batch
+ * whose rules contain them. An {@link org.jeasy.rules.core.InferenceRulesEngine} does
+ * not notify rules engine listeners when it fires rules on a single set of facts, so only
+ * metrics of each rule are recorded in that case, not the totals of the call.
+ *
+ * To lower its overhead, the listener can be registered as a sampled rule listener
+ * with <code>registerSampledRuleListener</code> of a rules engine,
+ * in which case rule metrics and rule counts of each call cover sampled firings only.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RuleMetricsListener implements RuleListener, RulesEngineListener {
+
+    private final RuleMetricsRegistry registry;
+    private final Map<String, RuleMetricsRecorder> recorders = new ConcurrentHashMap<>();
+    private final ThreadLocal<FiringState> states = ThreadLocal.withInitial(FiringState::new);
+    // batches in progress, replaced on each change so that they are read without locking
+    private volatile BatchTotals[] batches = new BatchTotals[0];
+
+    /**
+     * Create a new {@link RuleMetricsListener} recording metrics in memory.
+     */
+    public RuleMetricsListener() {
+        this(new InMemoryRuleMetricsRegistry());
+    }
+
+    /**
+     * Create a new {@link RuleMetricsListener}.
+     *
+     * @param registry in which metrics are recorded
+     */
+    public RuleMetricsListener(final RuleMetricsRegistry registry) {
+        this.registry = Objects.requireNonNull(registry, "registry must not be null");
+    }
+
+    /**
+     * Get the registry in which metrics are recorded.
+     *
+     * @return the metrics registry
+     */
+    public RuleMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public boolean beforeEvaluate(final Rule rule, final Facts facts) {
+        FiringState state = states.get();
+        state.select(rule, recorderOf(rule));
+        state.evaluating = true;
+        state.evaluationStart = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public void afterEvaluate(final Rule rule, final Facts facts, final boolean evaluationResult) {
+        long now = System.nanoTime();
+        FiringState state = states.get();
+        // rules of an agenda may be executed without being evaluated again
+        if (state.evaluating && state.rule == rule) {
+            state.recorder.recordEvaluation(now - state.evaluationStart, evaluationResult);
+            countEvaluation(state, rule, evaluationResult);
+        }
+        state.evaluating = false;
+    }
+
+    @Override
+    public void beforeExecute(final Rule rule, final Facts facts) {
+        FiringState state = states.get();
+        if (state.rule != rule) {
+            state.select(rule, recorderOf(rule));
+        }
+        state.executing = true;
+        state.executionStart = System.nanoTime();
+    }
+
+    @Override
+    public void onSuccess(final Rule rule, final Facts facts) {
+        afterExecute(rule, true);
+    }
+
+    @Override
+    public void onFailure(final Rule rule, final Facts facts, final Exception exception) {
+        afterExecute(rule, false);
+    }
+
+    private void afterExecute(final Rule rule, final boolean successful) {
+        long now = System.nanoTime();
+        FiringState state = states.get();
+        if (state.executing && state.rule == rule) {
+            state.recorder.recordExecution(now - state.executionStart, successful);
+            if (!successful) {
+                countFailure(state, rule);
+            }
+        }
+        state.executing = false;
+    }
+
+    @Override
+    public void beforeEvaluate(final Rules rules, final Facts facts) {
+        states.get().startFire();
+    }
+
+    @Override
+    public void afterExecute(final Rules rules, final Facts facts) {
+        endFire();
+    }
+
+    @Override
+    public void beforeBatch(final Rules rules) {
+        BatchTotals batch = new BatchTotals(rules);
+        synchronized (this) {
+            BatchTotals[] newBatches = Arrays.copyOf(batches, batches.length + 1);
+            newBatches[batches.length] = batch;
+            batches = newBatches;
+        }
+    }
+
+    @Override
+    public void afterBatch(final Rules rules, final List<FiringOutcome> outcomes) {
+        long now = System.nanoTime();
+        BatchTotals batch = null;
+        synchronized (this) {
+            for (int i = 0; i < batches.length && batch == null; i++) {
+                if (batches[i].rules == rules) {
+                    batch = batches[i];
+                    BatchTotals[] newBatches = new BatchTotals[batches.length - 1];
+                    System.arraycopy(batches, 0, newBatches, 0, i);
+                    System.arraycopy(batches, i + 1, newBatches, i, batches.length - i - 1);
+                    batches = newBatches;
+                }
+            }
+        }
+        if (batch != null) {
+            registry.recordFire(now - batch.start, batch.evaluatedRules.intValue(),
+                    batch.triggeredRules.intValue(), batch.failedRules.intValue());
+        }
+    }
+
+    /*
+     * Rules fired by a call to fire are counted on the calling thread, others in the batch they are fired in.
+     */
+    private void countEvaluation(final FiringState state, final Rule rule, final boolean triggered) {
+        if (state.firing) {
+            state.evaluatedRules++;
+            if (triggered) {
+                state.triggeredRules++;
+            }
+            return;
+        }
+        BatchTotals batch = batchOf(rule);
+        if (batch != null) {
+            batch.evaluatedRules.increment();
+            if (triggered) {
+                batch.triggeredRules.increment();
+            }
+        }
+    }
+
+    private void countFailure(final FiringState state, final Rule rule) {
+        if (state.firing) {
+            state.failedRules++;
+            return;
+        }
+        BatchTotals batch = batchOf(rule);
+        if (batch != null) {
+            batch.failedRules.increment();
+        }
+    }
+
+    private BatchTotals batchOf(final Rule rule) {
+        BatchTotals[] batches = this.batches;
+        if (batches.length == 1) {
+            return batches[0];
+        }
+        for (BatchTotals batch : batches) {
+            if (batch.rules.getRule(rule.getName()) == rule) {
+                return batch;
+            }
+        }
+        return null;
+    }
+
+    private void endFire() {
+        long now = System.nanoTime();
+        FiringState state = states.get();
+        if (state.firing) {
+            registry.recordFire(now - state.fireStart, state.evaluatedRules, state.triggeredRules, state.failedRules);
+        }
+        state.firing = false;
+    }
+
+    private RuleMetricsRecorder recorderOf(final Rule rule) {
+        String name = rule.getName();
+        RuleMetricsRecorder recorder = recorders.get(name);
+        if (recorder == null) {
+            recorder = recorders.computeIfAbsent(name, registry::getRecorder);
+        }
+        return recorder;
+    }
+
+    /*
+     * Measurements in progress on a thread. Rules are identified by reference
+     * to match the end of an evaluation or execution with its start.
+     */
+    private static final class FiringState {
+
+        private Rule rule;
+        private RuleMetricsRecorder recorder;
+        private boolean evaluating;
+        private long evaluationStart;
+        private boolean executing;
+        private long executionStart;
+
+        private boolean firing;
+        private long fireStart;
+        private int evaluatedRules;
+        private int triggeredRules;
+        private int failedRules;
+
+        private void select(final Rule rule, final RuleMetricsRecorder recorder) {
+            this.rule = rule;
+            this.recorder = recorder;
+            this.evaluating = false;
+            this.executing = false;
+        }
+
+        private void startFire() {
+            firing = true;
+            evaluatedRules = 0;
+            triggeredRules = 0;
+            failedRules = 0;
+            fireStart = System.nanoTime();
+        }
+    }
+
+    /*
+     * Totals of a batch, shared by the threads firing rules on its facts.
+     */
+    private static final class BatchTotals {
+
+        private final Rules rules;
+        private final long start = System.nanoTime();
+        private final LongAdder evaluatedRules = new LongAdder();
+        private final LongAdder triggeredRules = new LongAdder();
+        private final LongAdder failedRules = new LongAdder();
+
+        private BatchTotals(final Rules rules) {
+            this.rules = rules;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+/**
+ * Service provider interface of the registry where {@link RuleMetricsListener}
+ * records its measurements. Implementations must be thread safe since rules may be
+ * fired concurrently by several engines sharing the same listener.
+ *
+ * @see InMemoryRuleMetricsRegistry
+ * @see org.jeasy.rules.metrics.micrometer.MicrometerRuleMetricsRegistry
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public interface RuleMetricsRegistry {
+
+    /**
+     * Get the recorder of a rule. This method is called once per rule name
+     * by a listener, which then reuses the returned recorder.
+     *
+     * @param ruleName name of the rule
+     * @return the recorder of the rule
+     */
+    RuleMetricsRecorder getRecorder(String ruleName);
+
+    /**
+     * Record a call to one of the <code>fireAll</code> methods of a rules engine.
+     *
+     * @param durationNanos duration of the call in nanoseconds
+     * @param evaluatedRules number of rules evaluated during the call
+     * @param triggeredRules number of rules whose condition evaluated to true during the call
+     * @param failedRules number of rules whose action failed during the call
+     */
+    void recordFire(long durationNanos, int evaluatedRules, int triggeredRules, int failedRules);
+
+}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+/**
+ * Immutable snapshot of the metrics of a rule.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class RuleMetricsSnapshot {
+
+    private final String name;
+    private final LatencySnapshot evaluations;
+    private final LatencySnapshot executions;
+    private final long triggeredCount;
+    private final long failedCount;
+
+    RuleMetricsSnapshot(final String name, final LatencySnapshot evaluations, final LatencySnapshot executions,
+                        final long triggeredCount, final long failedCount) {
+        this.name = name;
+        this.evaluations = evaluations;
+        this.executions = executions;
+        this.triggeredCount = triggeredCount;
+        this.failedCount = failedCount;
+    }
+
+    /**
+     * Get the name of the rule.
+     *
+     * @return the rule name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the latencies of the evaluations of the rule's condition.
+     *
+     * @return evaluation latencies
+     */
+    public LatencySnapshot getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Get the latencies of the executions of the rule's action, whether they succeeded or failed.
+     *
+     * @return execution latencies
+     */
+    public LatencySnapshot getExecutions() {
+        return executions;
+    }
+
+    /**
+     * Get the number of evaluations of the rule's condition to true.
+     *
+     * @return the number of times the rule has been triggered
+     */
+    public long getTriggeredCount() {
+        return triggeredCount;
+    }
+
+    /**
+     * Get the number of failed executions of the rule's action.
+     *
+     * @return the number of times the rule has failed
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Get the ratio of evaluations of the rule's condition to true.
+     *
+     * @return the trigger rate between 0 and 1, or 0 if the rule has not been evaluated
+     */
+    public double getTriggerRate() {
+        long evaluationCount = evaluations.getCount();
+        return evaluationCount == 0 ? 0 : (double) triggeredCount / evaluationCount;
+    }
+
+    /**
+     * Get the total time spent evaluating the rule's condition and executing its action.
+     *
+     * @return the total duration in nanoseconds
+     */
+    public long getTotalNanos() {
+        return evaluations.getTotalNanos() + executions.getTotalNanos();
+    }
+
+    @Override
+    public String toString() {
+        return "Rule metrics { " +
+                "name = '" + name + '\'' +
+                ", totalNanos = " + getTotalNanos() +
+                ", triggerRate = " + getTriggerRate() +
+                ", failedCount = " + failedCount +
+                ", evaluations = " + evaluations +
+                ", executions = " + executions +
+                " }";
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+/**
+ * Profile of a rule over a time window. Self times exclude the time spent in rules of
+ * a group, total times include it. Rules of a group are named after the path of the group,
+ * for example <code>group/rule</code>.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public final class RuleProfile {
+
+    private final String name;
+    private final String group;
+    private final long evaluationCount;
+    private final long triggeredCount;
+    private final long evaluationNanos;
+    private final long evaluationSelfNanos;
+    private final long executionCount;
+    private final long failedCount;
+    private final long executionNanos;
+    private final long executionSelfNanos;
+
+    RuleProfile(final RuleMeasurements measurements) {
+        this.name = measurements.getPath();
+        this.group = measurements.getGroup();
+        this.evaluationCount = measurements.evaluations.sum();
+        this.triggeredCount = measurements.triggeredEvaluations.sum();
+        this.evaluationNanos = measurements.evaluationNanos.sum();
+        this.evaluationSelfNanos = measurements.evaluationSelfNanos.sum();
+        this.executionCount = measurements.executions.sum();
+        this.failedCount = measurements.failedExecutions.sum();
+        this.executionNanos = measurements.executionNanos.sum();
+        this.executionSelfNanos = measurements.executionSelfNanos.sum();
+    }
+
+    /**
+     * Get the name of the rule, prefixed with the path of its group if any.
+     *
+     * @return the rule name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the path of the group of the rule.
+     *
+     * @return the group path, or null if the rule does not belong to a group
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * Get the number of evaluations of the rule's condition.
+     *
+     * @return the evaluation count
+     */
+    public long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /**
+     * Get the number of evaluations of the rule's condition to true.
+     *
+     * @return the triggered count
+     */
+    public long getTriggeredCount() {
+        return triggeredCount;
+    }
+
+    /**
+     * Get the fraction of evaluations of the rule's condition to true.
+     *
+     * @return the selectivity between 0 and 1, or 0 if the rule has not been evaluated
+     */
+    public double getSelectivity() {
+        return evaluationCount == 0 ? 0 : (double) triggeredCount / evaluationCount;
+    }
+
+    /**
+     * Get the time spent evaluating the rule's condition, excluding rules of a group.
+     *
+     * @return the evaluation self time in nanoseconds
+     */
+    public long getEvaluationSelfNanos() {
+        return evaluationSelfNanos;
+    }
+
+    /**
+     * Get the number of executions of the rule's action.
+     *
+     * @return the execution count
+     */
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    /**
+     * Get the number of failed executions of the rule's action.
+     *
+     * @return the failed count
+     */
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Get the time spent executing the rule's action, excluding rules of a group.
+     *
+     * @return the execution self time in nanoseconds
+     */
+    public long getExecutionSelfNanos() {
+        return executionSelfNanos;
+    }
+
+    /**
+     * Get the time spent evaluating and executing the rule, excluding rules of a group.
+     *
+     * @return the self time in nanoseconds
+     */
+    public long getSelfNanos() {
+        return evaluationSelfNanos + executionSelfNanos;
+    }
+
+    /**
+     * Get the time spent evaluating and executing the rule, including rules of a group.
+     *
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        return evaluationNanos + executionNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Rule profile { " +
+                "name = '" + name + '\'' +
+                ", selfNanos = " + getSelfNanos() +
+                ", totalNanos = " + getTotalNanos() +
+                ", evaluationCount = " + evaluationCount +
+                ", selectivity = " + getSelectivity() +
+                ", executionCount = " + executionCount +
+                ", failedCount = " + failedCount +
+                " }";
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.support.ActivationRuleGroup;
+import org.jeasy.rules.support.CompositeRule;
+import org.jeasy.rules.support.ConditionalRuleGroup;
+import org.jeasy.rules.support.UnitRuleGroup;
+
+import java.lang.ref.ReferenceQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Profiler of rules. Rules to profile are wrapped with {@link #profile(Rules)}, and
+ * the time spent evaluating and executing them is aggregated until a report of the
+ * current time window is taken with {@link #getReport()}:
+ *
+ * <pre>
+ * RulesProfiler profiler = new RulesProfiler();
+ * Rules profiledRules = profiler.profile(rules);
+ * // fire profiled rules
+ * profiler.getReport().writeText(writer);
+ * </pre>
+ *
+ * Rules of {@link UnitRuleGroup}, {@link ConditionalRuleGroup} and {@link ActivationRuleGroup}
+ * are profiled as well: profiled groups are copies of the original groups whose rules are profiled.
+ * The time spent in rules of a group is excluded from the self time of the group. Other composite
+ * rules are profiled as a whole.
+ *
+ * Measurements of a rule are shared by all its profiled rules, and are kept as long as the original
+ * rule is reachable: the profiler does not keep rules alive, so that rules replaced by a reload are
+ * eventually dropped from reports.
+ *
+ * @see ProfilingRulesEngine
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulesProfiler {
+
+    // measurements by original rule, held weakly and compared by identity since rules of different sets may be equal
+    private final Map<RuleReference, RuleMeasurements> measurements = new HashMap<>();
+    private final ReferenceQueue<Rule> collectedRules = new ReferenceQueue<>();
+    // profiled rules by source rules, compared by identity, whose values do not refer to their keys
+    private final Map<Rules, ProfiledRules> profiledRules = new WeakHashMap<>();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    /**
+     * Get profiled rules. The returned rules are compiled rules delegating to the given ones. They
+     * are cached for each given rules instance, and profiled again only if rules are registered or
+     * unregistered in the given rules, so that rules can be profiled on each firing.
+     *
+     * @param rules to profile
+     * @return profiled rules
+     */
+    public Rules profile(final Rules rules) {
+        ProfiledRules profiled;
+        synchronized (profiledRules) {
+            profiled = profiledRules.get(rules);
+        }
+        // compiled rules never change, other rules are checked without holding a lock
+        if (profiled != null && (rules instanceof CompiledRules || profiled.isProfileOf(rules))) {
+            return profiled.getRules();
+        }
+        synchronized (profiledRules) {
+            profiled = profiledRules.get(rules);
+            if (profiled == null || !profiled.isProfileOf(rules)) {
+                profiled = new ProfiledRules(rules, doProfile(rules));
+                profiledRules.put(rules, profiled);
+            }
+            return profiled.getRules();
+        }
+    }
+
+    private synchronized CompiledRules doProfile(final Rules rules) {
+        expungeCollectedRules();
+        List<Rule> result = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            Rule originalRule = ProfiledRule.unwrap(rule);
+            RuleMeasurements ruleMeasurements = measurements.get(new RuleReference(originalRule));
+            if (ruleMeasurements == null) {
+                ruleMeasurements = new RuleMeasurements(originalRule.getName(), null);
+                measurements.put(new RuleReference(originalRule, collectedRules), ruleMeasurements);
+            }
+            result.add(profileRule(originalRule, ruleMeasurements));
+        }
+        // rules are already sorted, or in the order of the given compiled rules
+        return CompiledRules.inOrder(result);
+    }
+
+    private void expungeCollectedRules() {
+        Object reference;
+        while ((reference = collectedRules.poll()) != null) {
+            measurements.remove(reference);
+        }
+    }
+
+    private ProfiledRule profileRule(final Rule rule, final RuleMeasurements ruleMeasurements) {
+        return ProfiledRule.of(profileRulesOfGroup(rule, ruleMeasurements), ruleMeasurements);
+    }
+
+    private Rule profileRulesOfGroup(final Rule rule, final RuleMeasurements ruleMeasurements) {
+        CompositeRule copy = copyOf(rule);
+        if (copy == null) {
+            return rule;
+        }
+        for (Rule nestedRule : ((CompositeRule) rule).getRules()) {
+            copy.addRule(profileRule(nestedRule, ruleMeasurements.getNestedMeasurements(nestedRule)));
+        }
+        return copy;
+    }
+
+    private static CompositeRule copyOf(final Rule rule) {
+        if (rule.getClass() == UnitRuleGroup.class) {
+            return new UnitRuleGroup(rule.getName(), rule.getDescription(), rule.getPriority());
+        }
+        if (rule.getClass() == ConditionalRuleGroup.class) {
+            return new ConditionalRuleGroup(rule.getName(), rule.getDescription(), rule.getPriority());
+        }
+        if (rule.getClass() == ActivationRuleGroup.class) {
+            return new ActivationRuleGroup(rule.getName(), rule.getDescription(), rule.getPriority());
+        }
+        return null;
+    }
+
+    /**
+     * Get a report of rules profiled since the profiler was created or last reset.
+     *
+     * @return the profile report
+     */
+    public synchronized ProfileReport getReport() {
+        expungeCollectedRules();
+        List<RuleProfile> profiles = new ArrayList<>(measurements.size());
+        for (RuleMeasurements ruleMeasurements : measurements.values()) {
+            addProfiles(ruleMeasurements, profiles);
+        }
+        return new ProfileReport(windowStart, System.currentTimeMillis(), profiles);
+    }
+
+    private static void addProfiles(final RuleMeasurements ruleMeasurements, final List<RuleProfile> profiles) {
+        profiles.add(new RuleProfile(ruleMeasurements));
+        for (RuleMeasurements nestedMeasurements : ruleMeasurements.getNestedMeasurements()) {
+            addProfiles(nestedMeasurements, profiles);
+        }
+    }
+
+    /**
+     * Reset measurements of all profiled rules to start a new time window.
+     * Measurements taken concurrently may be partially kept.
+     */
+    public synchronized void reset() {
+        expungeCollectedRules();
+        for (RuleMeasurements ruleMeasurements : measurements.values()) {
+            reset(ruleMeasurements);
+        }
+        windowStart = System.currentTimeMillis();
+    }
+
+    private static void reset(final RuleMeasurements ruleMeasurements) {
+        ruleMeasurements.reset();
+        ruleMeasurements.getNestedMeasurements().forEach(RulesProfiler::reset);
+    }
+
+    /*
+     * Profiled rules of a source rules instance, with the rules of the source when they were profiled.
+     */
+    private static final class ProfiledRules {
+
+        private final Rule[] sourceRules;
+        private final CompiledRules rules;
+
+        private ProfiledRules(final Rules sourceRules, final CompiledRules rules) {
+            this.sourceRules = sourceRules.asStream().toArray(Rule[]::new);
+            this.rules = rules;
+        }
+
+        private boolean isProfileOf(final Rules sourceRules) {
+            if (sourceRules.size() != this.sourceRules.length) {
+                return false;
+            }
+            int i = 0;
+            for (Rule rule : sourceRules) {
+                if (rule != this.sourceRules[i++]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private CompiledRules getRules() {
+            return rules;
+        }
+    }
+}
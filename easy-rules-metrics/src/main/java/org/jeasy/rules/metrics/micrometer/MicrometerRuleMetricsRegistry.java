@@ -0,0 +1,165 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.jeasy.rules.metrics.RuleMetricsRecorder;
+import org.jeasy.rules.metrics.RuleMetricsRegistry;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RuleMetricsRegistry} publishing metrics to a Micrometer {@link MeterRegistry}.
+ * The following meters are registered, with the given prefix (<code>easyrules</code> by default):
+ *
+ * <ul>
+ *     <li><code>easyrules.rule.evaluation</code>: timer of evaluations of rules' conditions,
+ *     tagged with the <code>rule</code> name and whether it was <code>triggered</code></li>
+ *     <li><code>easyrules.rule.execution</code>: timer of executions of rules' actions,
+ *     tagged with the <code>rule</code> name and their <code>outcome</code> (success or failure)</li>
+ *     <li><code>easyrules.fire</code>: timer of calls to <code>fireAll</code></li>
+ *     <li><code>easyrules.fire.rules</code>: counter of rules evaluated, triggered and failed
+ *     in calls to <code>fireAll</code>, tagged with their <code>state</code></li>
+ * </ul>
+ *
+ * Percentile histograms can be enabled with a <code>MeterFilter</code> on the meter registry.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class MicrometerRuleMetricsRegistry implements RuleMetricsRegistry {
+
+    /**
+     * Default prefix of meter names.
+     */
+    public static final String DEFAULT_PREFIX = "easyrules";
+
+    private final MeterRegistry meterRegistry;
+    private final String prefix;
+    private final Iterable<Tag> tags;
+    private final Timer fires;
+    private final Counter evaluatedRules;
+    private final Counter triggeredRules;
+    private final Counter failedRules;
+
+    /**
+     * Create a new {@link MicrometerRuleMetricsRegistry} with the default prefix.
+     *
+     * @param meterRegistry to which metrics are published
+     */
+    public MicrometerRuleMetricsRegistry(final MeterRegistry meterRegistry) {
+        this(meterRegistry, DEFAULT_PREFIX, Tags.empty());
+    }
+
+    /**
+     * Create a new {@link MicrometerRuleMetricsRegistry}.
+     *
+     * @param meterRegistry to which metrics are published
+     * @param prefix of meter names
+     * @param tags added to all meters, for example to tell rules engines apart
+     */
+    public MicrometerRuleMetricsRegistry(final MeterRegistry meterRegistry, final String prefix, final Iterable<Tag> tags) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry, "meterRegistry must not be null");
+        this.prefix = Objects.requireNonNull(prefix, "prefix must not be null");
+        this.tags = Objects.requireNonNull(tags, "tags must not be null");
+        this.fires = Timer.builder(prefix + ".fire")
+                .description("Calls to fireAll")
+                .tags(tags)
+                .register(meterRegistry);
+        this.evaluatedRules = rulesCounter("evaluated");
+        this.triggeredRules = rulesCounter("triggered");
+        this.failedRules = rulesCounter("failed");
+    }
+
+    @Override
+    public RuleMetricsRecorder getRecorder(final String ruleName) {
+        return new MicrometerRuleMetricsRecorder(
+                evaluationTimer(ruleName, true), evaluationTimer(ruleName, false),
+                executionTimer(ruleName, "success"), executionTimer(ruleName, "failure"));
+    }
+
+    @Override
+    public void recordFire(final long durationNanos, final int evaluatedRules, final int triggeredRules, final int failedRules) {
+        fires.record(durationNanos, TimeUnit.NANOSECONDS);
+        this.evaluatedRules.increment(evaluatedRules);
+        this.triggeredRules.increment(triggeredRules);
+        this.failedRules.increment(failedRules);
+    }
+
+    private Counter rulesCounter(final String state) {
+        return Counter.builder(prefix + ".fire.rules")
+                .description("Rules evaluated, triggered and failed in calls to fireAll")
+                .tags(tags)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private Timer evaluationTimer(final String ruleName, final boolean triggered) {
+        return Timer.builder(prefix + ".rule.evaluation")
+                .description("Evaluations of rules' conditions")
+                .tags(tags)
+                .tag("rule", ruleName)
+                .tag("triggered", String.valueOf(triggered))
+                .register(meterRegistry);
+    }
+
+    private Timer executionTimer(final String ruleName, final String outcome) {
+        return Timer.builder(prefix + ".rule.execution")
+                .description("Executions of rules' actions")
+                .tags(tags)
+                .tag("rule", ruleName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class MicrometerRuleMetricsRecorder implements RuleMetricsRecorder {
+
+        private final Timer triggeredEvaluations;
+        private final Timer nonTriggeredEvaluations;
+        private final Timer successfulExecutions;
+        private final Timer failedExecutions;
+
+        private MicrometerRuleMetricsRecorder(final Timer triggeredEvaluations, final Timer nonTriggeredEvaluations,
+                                              final Timer successfulExecutions, final Timer failedExecutions) {
+            this.triggeredEvaluations = triggeredEvaluations;
+            this.nonTriggeredEvaluations = nonTriggeredEvaluations;
+            this.successfulExecutions = successfulExecutions;
+            this.failedExecutions = failedExecutions;
+        }
+
+        @Override
+        public void recordEvaluation(final long durationNanos, final boolean triggered) {
+            (triggered ? triggeredEvaluations : nonTriggeredEvaluations).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public void recordExecution(final long durationNanos, final boolean successful) {
+            (successful ? successfulExecutions : failedExecutions).record(durationNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void bucketsShouldCoverValuesContiguously() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(LatencyHistogram.highestEquivalentValue(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(LatencyHistogram.highestEquivalentValue(index - 1)).isLessThan(value);
+            }
+        }
+        assertThat(LatencyHistogram.indexOf(LatencyHistogram.HIGHEST_TRACKABLE_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+        assertThat(LatencyHistogram.highestEquivalentValue(LatencyHistogram.BUCKET_COUNT - 1)).isEqualTo(LatencyHistogram.HIGHEST_TRACKABLE_VALUE);
+    }
+
+    @Test
+    public void smallValuesShouldBeRecordedExactly() {
+        for (long value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        LatencySnapshot snapshot = histogram.getSnapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(10);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(55);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(10);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(5.5);
+        assertThat(snapshot.getPercentileNanos(0)).isEqualTo(1);
+        assertThat(snapshot.getPercentileNanos(50)).isEqualTo(5);
+        assertThat(snapshot.getPercentileNanos(90)).isEqualTo(9);
+        assertThat(snapshot.getPercentileNanos(100)).isEqualTo(10);
+    }
+
+    @Test
+    public void percentilesOfLargeValuesShouldBeWithinOneSixteenth() {
+        for (long value = 1; value <= 1_000_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        LatencySnapshot snapshot = histogram.getSnapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1_000_000);
+        for (double percentile : new double[]{1, 25, 50, 75, 99, 99.9}) {
+            long exact = Math.round(percentile * 10_000) * 1_000;
+            assertThat(snapshot.getPercentileNanos(percentile))
+                    .isGreaterThanOrEqualTo(exact)
+                    .isLessThanOrEqualTo(exact + exact / 16);
+        }
+        assertThat(snapshot.getPercentileNanos(100)).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    public void valuesAboveHighestTrackableValueShouldBeCountedInLastBucket() {
+        long hour = 3_600_000_000_000L;
+
+        histogram.record(hour);
+        histogram.record(-1);
+
+        LatencySnapshot snapshot = histogram.getSnapshot();
+        assertThat(snapshot.getCount()).isEqualTo(2);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(hour);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(hour);
+        assertThat(snapshot.getPercentileNanos(100)).isEqualTo(LatencyHistogram.HIGHEST_TRACKABLE_VALUE);
+        assertThat(snapshot.getPercentileNanos(50)).isEqualTo(0);
+    }
+
+    @Test
+    public void resetShouldClearRecordedValues() {
+        histogram.record(42);
+
+        histogram.reset();
+
+        LatencySnapshot snapshot = histogram.getSnapshot();
+        assertThat(snapshot.getCount()).isEqualTo(0);
+        assertThat(snapshot.getTotalNanos()).isEqualTo(0);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(0);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(0);
+        assertThat(snapshot.getPercentileNanos(99)).isEqualTo(0);
+    }
+
+    @Test
+    public void invalidPercentileShouldBeRejected() {
+        assertThatThrownBy(() -> histogram.getSnapshot().getPercentileNanos(101))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.InferenceRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ProfilingRulesEngineTest {
+
+    @Test
+    public void whenRulesAreFired_thenTheyShouldBeProfiled() {
+        // Given
+        ProfilingRulesEngine rulesEngine = new ProfilingRulesEngine(new InferenceRulesEngine());
+        Rules rules = new Rules(new RuleBuilder().name("countdown")
+                .when(facts -> facts.<Integer>get("count") > 0)
+                .then(facts -> facts.put("count", facts.<Integer>get("count") - 1))
+                .build());
+        Facts facts = new Facts();
+        facts.put("count", 3);
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        assertThat(facts.<Integer>get("count")).isZero();
+        RuleProfile countdown = rulesEngine.getProfiler().getReport().getRules().get(0);
+        assertThat(countdown.getName()).isEqualTo("countdown");
+        assertThat(countdown.getEvaluationCount()).isEqualTo(4);
+        assertThat(countdown.getExecutionCount()).isEqualTo(3);
+        assertThat(countdown.getSelectivity()).isEqualTo(0.75);
+    }
+
+    @Test
+    public void whenRulesAreChecked_thenResultsShouldReferToOriginalRules() {
+        // Given
+        ProfilingRulesEngine rulesEngine = new ProfilingRulesEngine(new DefaultRulesEngine());
+        Rule rule = new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build();
+
+        // When
+        Map<Rule, Boolean> result = rulesEngine.check(new Rules(rule), new Facts());
+
+        // Then
+        assertThat(result).containsOnlyKeys(rule);
+        assertThat(result.get(rule)).isTrue();
+        assertThat(rulesEngine.getProfiler().getReport().getRules().get(0).getEvaluationCount()).isEqualTo(1);
+    }
+}
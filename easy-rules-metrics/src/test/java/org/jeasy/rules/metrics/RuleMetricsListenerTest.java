@@ -0,0 +1,235 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.InferenceRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.jeasy.rules.core.RulesEngineParameters;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RuleMetricsListenerTest {
+
+    private InMemoryRuleMetricsRegistry registry;
+    private RuleMetricsListener listener;
+    private DefaultRulesEngine rulesEngine;
+    private Rules rules;
+    private Facts facts;
+
+    @Before
+    public void setUp() {
+        registry = new InMemoryRuleMetricsRegistry();
+        listener = new RuleMetricsListener(registry);
+        rulesEngine = new DefaultRulesEngine();
+        rulesEngine.registerRuleListener(listener);
+        rulesEngine.registerRulesEngineListener(listener);
+        rules = new Rules(
+                new RuleBuilder().name("triggered").priority(1).when(facts -> true).then(facts -> { }).build(),
+                new RuleBuilder().name("not triggered").priority(2).when(facts -> false).then(facts -> { }).build(),
+                new RuleBuilder().name("failing").priority(3).when(facts -> true).then(facts -> {
+                    throw new IllegalStateException("failure");
+                }).build(),
+                new RuleBuilder().name("slow").priority(4).when(facts -> sleep()).then(facts -> { }).build()
+        );
+        facts = new Facts();
+    }
+
+    @Test
+    public void whenRulesAreFired_thenMetricsOfEachRuleShouldBeRecorded() {
+        // When
+        rulesEngine.fire(rules, facts);
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getRules()).hasSize(4);
+
+        RuleMetricsSnapshot triggered = snapshot.getRule("triggered");
+        assertThat(triggered.getEvaluations().getCount()).isEqualTo(2);
+        assertThat(triggered.getExecutions().getCount()).isEqualTo(2);
+        assertThat(triggered.getTriggeredCount()).isEqualTo(2);
+        assertThat(triggered.getTriggerRate()).isEqualTo(1);
+        assertThat(triggered.getFailedCount()).isEqualTo(0);
+
+        RuleMetricsSnapshot notTriggered = snapshot.getRule("not triggered");
+        assertThat(notTriggered.getEvaluations().getCount()).isEqualTo(2);
+        assertThat(notTriggered.getExecutions().getCount()).isEqualTo(0);
+        assertThat(notTriggered.getTriggerRate()).isEqualTo(0);
+
+        RuleMetricsSnapshot failing = snapshot.getRule("failing");
+        assertThat(failing.getExecutions().getCount()).isEqualTo(2);
+        assertThat(failing.getFailedCount()).isEqualTo(2);
+
+        assertThat(snapshot.getRule("unknown")).isNull();
+    }
+
+    @Test
+    public void whenRulesAreFired_thenMostExpensiveRulesShouldComeFirst() {
+        // Given
+        rules.unregister("failing"); // failures are logged by the default rule listener, which takes time
+        rulesEngine.fire(rules, facts); // warm up rules, whose first calls may be slow
+        registry.reset();
+
+        // When
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        RuleMetricsSnapshot slow = registry.getSnapshot().getRules().get(0);
+        assertThat(slow.getName()).isEqualTo("slow");
+        assertThat(slow.getEvaluations().getMaxNanos()).isGreaterThanOrEqualTo(10_000_000);
+        assertThat(slow.getEvaluations().getPercentileNanos(50)).isGreaterThanOrEqualTo(10_000_000);
+    }
+
+    @Test
+    public void whenRulesAreFired_thenTotalsOfEachFireShouldBeRecorded() {
+        // When
+        rulesEngine.fire(rules, facts);
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getFires().getCount()).isEqualTo(2);
+        assertThat(snapshot.getFires().getTotalNanos()).isGreaterThanOrEqualTo(20_000_000);
+        assertThat(snapshot.getEvaluatedRules()).isEqualTo(8);
+        assertThat(snapshot.getTriggeredRules()).isEqualTo(4);
+        assertThat(snapshot.getFailedRules()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenRulesAreFiredOnABatchOfFacts_thenTheBatchShouldBeRecordedAsOneFire() {
+        // When
+        rulesEngine.fireAll(rules, Arrays.asList(new Facts(), new Facts(), new Facts()));
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getFires().getCount()).isEqualTo(1);
+        assertThat(snapshot.getEvaluatedRules()).isEqualTo(12);
+        assertThat(snapshot.getRule("triggered").getEvaluations().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void whenRulesAreFiredOnABatchOfFactsInParallel_thenTotalsOfAllFactsShouldBeRecorded() {
+        // Given
+        ForkJoinPool executor = new ForkJoinPool(4);
+        DefaultRulesEngine parallelRulesEngine = new DefaultRulesEngine(new RulesEngineParameters(), executor);
+        parallelRulesEngine.registerRuleListener(listener);
+        parallelRulesEngine.registerRulesEngineListener(listener);
+        List<Facts> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batch.add(new Facts());
+        }
+
+        // When
+        try {
+            parallelRulesEngine.fireAll(rules, batch);
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getFires().getCount()).isEqualTo(1);
+        assertThat(snapshot.getEvaluatedRules()).isEqualTo(32);
+        assertThat(snapshot.getTriggeredRules()).isEqualTo(16);
+        assertThat(snapshot.getFailedRules()).isEqualTo(8);
+    }
+
+    @Test
+    public void whenRulesAreFiredByAnInferenceEngine_thenOnlyMetricsOfEachRuleShouldBeRecorded() {
+        // Given
+        InferenceRulesEngine inferenceRulesEngine = new InferenceRulesEngine();
+        inferenceRulesEngine.registerRuleListener(listener);
+        inferenceRulesEngine.registerRulesEngineListener(listener);
+        Rules inferenceRules = new Rules(new RuleBuilder().name("once")
+                .when(facts -> !facts.asMap().containsKey("done"))
+                .then(facts -> facts.put("done", true))
+                .build());
+
+        // When
+        inferenceRulesEngine.fire(inferenceRules, facts);
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getRule("once").getEvaluations().getCount()).isEqualTo(2);
+        assertThat(snapshot.getRule("once").getExecutions().getCount()).isEqualTo(1);
+        assertThat(snapshot.getFires().getCount()).isZero();
+    }
+
+    @Test
+    public void whenARuleIsExecutedWithoutBeingEvaluated_thenOnlyItsExecutionShouldBeRecorded() {
+        // Given
+        Rule rule = rules.getRule("triggered");
+
+        // When
+        listener.afterEvaluate(rule, facts, true);
+        listener.beforeExecute(rule, facts);
+        listener.onSuccess(rule, facts);
+
+        // Then
+        RuleMetricsSnapshot metrics = registry.getSnapshot().getRule("triggered");
+        assertThat(metrics.getEvaluations().getCount()).isEqualTo(0);
+        assertThat(metrics.getExecutions().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenRegistryIsReset_thenMetricsShouldBeCleared() {
+        // Given
+        rulesEngine.fire(rules, facts);
+
+        // When
+        registry.reset();
+        rulesEngine.fire(rules, facts);
+
+        // Then
+        MetricsSnapshot snapshot = registry.getSnapshot();
+        assertThat(snapshot.getFires().getCount()).isEqualTo(1);
+        assertThat(snapshot.getRule("triggered").getEvaluations().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void registryIsMandatory() {
+        assertThatThrownBy(() -> new RuleMetricsListener(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    private static boolean sleep() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,281 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.BasicRule;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.jeasy.rules.support.UnitRuleGroup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RulesProfilerTest {
+
+    private RulesProfiler profiler;
+    private DefaultRulesEngine rulesEngine;
+
+    @Before
+    public void setUp() {
+        profiler = new RulesProfiler();
+        rulesEngine = new DefaultRulesEngine();
+    }
+
+    @Test
+    public void whenProfiledRulesAreFired_thenSelectivityOfRulesShouldBeComputed() {
+        // Given
+        Rules rules = new Rules(
+                new RuleBuilder().name("even").when(facts -> facts.<Integer>get("number") % 2 == 0).then(facts -> { }).build(),
+                new RuleBuilder().name("never").priority(2).when(facts -> false).then(facts -> { }).build());
+        Rules profiledRules = profiler.profile(rules);
+
+        // When
+        for (int number = 0; number < 10; number++) {
+            Facts facts = new Facts();
+            facts.put("number", number);
+            rulesEngine.fire(profiledRules, facts);
+        }
+
+        // Then
+        RuleProfile even = profileOf("even");
+        assertThat(even.getEvaluationCount()).isEqualTo(10);
+        assertThat(even.getTriggeredCount()).isEqualTo(5);
+        assertThat(even.getSelectivity()).isEqualTo(0.5);
+        assertThat(even.getExecutionCount()).isEqualTo(5);
+        assertThat(even.getGroup()).isNull();
+        assertThat(profileOf("never").getSelectivity()).isEqualTo(0);
+    }
+
+    @Test
+    public void whenGroupsAreProfiled_thenTimeSpentInTheirRulesShouldBeExcludedFromTheirSelfTime() {
+        // Given
+        UnitRuleGroup group = new UnitRuleGroup("group");
+        group.addRule(new RuleBuilder().name("slow").when(facts -> sleep(10)).then(facts -> sleep(10)).build());
+        group.addRule(new RuleBuilder().name("fast").priority(2).when(facts -> true).then(facts -> { }).build());
+        Rules rules = new Rules(group);
+
+        // When
+        rulesEngine.fire(profiler.profile(rules), new Facts());
+
+        // Then
+        ProfileReport report = profiler.getReport();
+        assertThat(report.getRules()).extracting("name").containsOnly("group/slow", "group/fast", "group");
+        RuleProfile slow = report.getRules().get(0);
+        assertThat(slow.getName()).isEqualTo("group/slow");
+        assertThat(slow.getGroup()).isEqualTo("group");
+        assertThat(slow.getEvaluationSelfNanos()).isGreaterThanOrEqualTo(10_000_000);
+        assertThat(slow.getExecutionSelfNanos()).isGreaterThanOrEqualTo(10_000_000);
+        RuleProfile groupProfile = profileOf("group");
+        assertThat(groupProfile.getTotalNanos()).isGreaterThanOrEqualTo(20_000_000);
+        assertThat(groupProfile.getSelfNanos()).isLessThan(groupProfile.getTotalNanos() - slow.getTotalNanos() + 1);
+        assertThat(groupProfile.getSelectivity()).isEqualTo(1);
+        // the original group is left untouched
+        assertThat(group.getRules()).extracting("name").containsOnly("slow", "fast");
+        assertThat(group.getRules()).doesNotHaveAnyElementsOfTypes(ProfiledRule.class);
+    }
+
+    @Test
+    public void whenCompiledRulesAreProfiled_thenProfiledRulesShouldBeCompiledOnce() {
+        // Given
+        CompiledRules rules = CompiledRules.of(new Rules(
+                new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build()));
+
+        // When
+        Rules profiledRules = profiler.profile(rules);
+
+        // Then
+        assertThat(profiledRules).isInstanceOf(CompiledRules.class);
+        assertThat(profiler.profile(rules)).isSameAs(profiledRules);
+    }
+
+    @Test
+    public void whenCompiledRuleSetsAreProfiledAlternately_thenEachRuleSetShouldBeProfiledOnce() {
+        // Given
+        CompiledRules rules = CompiledRules.of(new Rules(
+                new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build()));
+        CompiledRules otherRules = CompiledRules.of(new Rules(
+                new RuleBuilder().name("other rule").when(facts -> true).then(facts -> { }).build()));
+
+        // When
+        Rules profiledRules = profiler.profile(rules);
+        Rules otherProfiledRules = profiler.profile(otherRules);
+
+        // Then
+        assertThat(profiler.profile(rules)).isSameAs(profiledRules);
+        assertThat(profiler.profile(otherRules)).isSameAs(otherProfiledRules);
+    }
+
+    @Test
+    public void whenRulesAreProfiledSeveralTimes_thenTheyShouldBeProfiledAgainOnlyOnceChanged() {
+        // Given
+        Rules rules = new Rules(new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build());
+        Rules profiledRules = profiler.profile(rules);
+
+        // When
+        Rules unchangedProfiledRules = profiler.profile(rules);
+        rules.register(new RuleBuilder().name("other rule").when(facts -> true).then(facts -> { }).build());
+        Rules changedProfiledRules = profiler.profile(rules);
+
+        // Then
+        assertThat(unchangedProfiledRules).isSameAs(profiledRules);
+        assertThat(changedProfiledRules).isNotSameAs(profiledRules);
+        assertThat(changedProfiledRules).extracting("name").containsExactly("other rule", "rule");
+    }
+
+    @Test
+    public void whenARuleIsProfiledSeveralTimes_thenItsMeasurementsShouldBeShared() {
+        // Given
+        Rule rule = new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build();
+        CompiledRules rules = CompiledRules.of(new Rules(rule));
+
+        // When
+        rulesEngine.fire(profiler.profile(rules), new Facts());
+        rulesEngine.fire(profiler.profile(new Rules(rule)), new Facts());
+
+        // Then
+        assertThat(profiler.getReport().getRules()).hasSize(1);
+        assertThat(profileOf("rule").getEvaluationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void whenRulesDependOnFacts_thenProfiledRulesShouldDependOnTheSameFacts() {
+        // Given
+        RuleRequiringOrder rule = new RuleRequiringOrder();
+
+        // When
+        rulesEngine.fire(profiler.profile(new Rules(rule)), new Facts());
+
+        // Then
+        Rule profiledRule = profiler.profile(new Rules(rule)).getRule("order rule");
+        assertThat(profiledRule).isInstanceOf(FactDependent.class);
+        assertThat(((FactDependent) profiledRule).getRequiredFacts()).containsExactly("order");
+        assertThat(rule.evaluations).isZero();
+    }
+
+    @Test
+    public void whenReportIsWritten_thenRulesShouldBeRankedBySelfTime() throws Exception {
+        // Given
+        Rules rules = new Rules(
+                new RuleBuilder().name("fast").when(facts -> true).then(facts -> { }).build(),
+                new RuleBuilder().name("slow \"rule\"").priority(2).when(facts -> sleep(5)).then(facts -> { }).build());
+        rulesEngine.fire(profiler.profile(rules), new Facts());
+        ProfileReport report = profiler.getReport();
+
+        // When
+        StringWriter text = new StringWriter();
+        report.writeText(text);
+        StringWriter json = new StringWriter();
+        report.writeJson(json);
+
+        // Then
+        assertThat(text.toString())
+                .startsWith("Rules profile from " + report.getStart() + " to " + report.getEnd())
+                .contains("selectivity");
+        assertThat(text.toString().indexOf("slow \"rule\"")).isLessThan(text.toString().indexOf("fast"));
+        JsonNode document = new ObjectMapper().readTree(json.toString());
+        assertThat(document.get("start").asText()).isEqualTo(report.getStart().toString());
+        assertThat(document.get("rules")).hasSize(2);
+        assertThat(document.get("rules").get(0).get("rank").asInt()).isEqualTo(1);
+        assertThat(document.get("rules").get(0).get("name").asText()).isEqualTo("slow \"rule\"");
+        assertThat(document.get("rules").get(0).get("selectivity").asDouble()).isEqualTo(1);
+        assertThat(document.get("rules").get(1).get("evaluationCount").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    public void whenProfilerIsReset_thenANewTimeWindowShouldStart() {
+        // Given
+        Rules rules = profiler.profile(new Rules(new RuleBuilder().name("rule").when(facts -> true).then(facts -> { }).build()));
+        rulesEngine.fire(rules, new Facts());
+        ProfileReport previousReport = profiler.getReport();
+
+        // When
+        profiler.reset();
+        rulesEngine.fire(rules, new Facts());
+
+        // Then
+        ProfileReport report = profiler.getReport();
+        assertThat(report.getStart()).isGreaterThanOrEqualTo(previousReport.getStart());
+        assertThat(report.getRules().get(0).getEvaluationCount()).isEqualTo(1);
+    }
+
+    private RuleProfile profileOf(String name) {
+        for (RuleProfile profile : profiler.getReport().getRules()) {
+            if (profile.getName().equals(name)) {
+                return profile;
+            }
+        }
+        throw new AssertionError("No profile for rule " + name);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    static class RuleRequiringOrder extends BasicRule implements FactDependent {
+
+        int evaluations;
+
+        RuleRequiringOrder() {
+            super("order rule");
+        }
+
+        @Override
+        public boolean evaluate(Facts facts) {
+            evaluations++;
+            return true;
+        }
+
+        @Override
+        public Set<String> getConditionFacts() {
+            return Collections.singleton("order");
+        }
+
+        @Override
+        public Set<String> getActionFacts() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Set<String> getRequiredFacts() {
+            return getConditionFacts();
+        }
+    }
+}
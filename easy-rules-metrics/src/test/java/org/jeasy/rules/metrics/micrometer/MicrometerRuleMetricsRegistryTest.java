@@ -0,0 +1,99 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.metrics.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.RuleBuilder;
+import org.jeasy.rules.metrics.RuleMetricsListener;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicrometerRuleMetricsRegistryTest {
+
+    private MeterRegistry meterRegistry;
+    private DefaultRulesEngine rulesEngine;
+    private Rules rules;
+
+    @Before
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        RuleMetricsListener listener = new RuleMetricsListener(
+                new MicrometerRuleMetricsRegistry(meterRegistry, "rules", Tags.of("engine", "test")));
+        rulesEngine = new DefaultRulesEngine();
+        rulesEngine.registerRuleListener(listener);
+        rulesEngine.registerRulesEngineListener(listener);
+        rules = new Rules(
+                new RuleBuilder().name("triggered").priority(1).when(facts -> true).then(facts -> { }).build(),
+                new RuleBuilder().name("not triggered").priority(2).when(facts -> false).then(facts -> { }).build(),
+                new RuleBuilder().name("failing").priority(3).when(facts -> true).then(facts -> {
+                    throw new IllegalStateException("failure");
+                }).build()
+        );
+    }
+
+    @Test
+    public void whenRulesAreFired_thenMetricsShouldBePublishedToTheMeterRegistry() {
+        // When
+        rulesEngine.fire(rules, new Facts());
+        rulesEngine.fire(rules, new Facts());
+
+        // Then
+        assertThat(meterRegistry.get("rules.rule.evaluation").tags("engine", "test", "rule", "triggered", "triggered", "true")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rules.rule.evaluation").tags("rule", "not triggered", "triggered", "false")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rules.rule.execution").tags("rule", "triggered", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rules.rule.execution").tags("rule", "failing", "outcome", "failure")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rules.fire").timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("rules.fire").timer().totalTime(TimeUnit.NANOSECONDS)).isGreaterThan(0);
+        assertThat(meterRegistry.get("rules.fire.rules").tags("state", "evaluated").counter().count()).isEqualTo(6);
+        assertThat(meterRegistry.get("rules.fire.rules").tags("state", "triggered").counter().count()).isEqualTo(4);
+        assertThat(meterRegistry.get("rules.fire.rules").tags("state", "failed").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void defaultPrefixShouldBeUsedWhenNoneIsGiven() {
+        // Given
+        RuleMetricsListener listener = new RuleMetricsListener(new MicrometerRuleMetricsRegistry(meterRegistry));
+        rulesEngine = new DefaultRulesEngine();
+        rulesEngine.registerRuleListener(listener);
+
+        // When
+        rulesEngine.fire(rules, new Facts());
+
+        // Then
+        assertThat(meterRegistry.get("easyrules.rule.evaluation").tags("rule", "triggered").timer().count()).isEqualTo(1);
+    }
+}
@@ -25,11 +25,13 @@ package org.jeasy.rules.mvel;
 
 import org.jeasy.rules.api.Facts;
 import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
 import org.mvel2.ParserContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -43,6 +45,9 @@ public class MVELAction implements Consumer<Facts> {
 
     private String expression;
     private Serializable compiledExpression;
+    private ParserConfiguration parserConfiguration;
+    private volatile boolean analyzed;
+    private Set<String> facts;
 
     /**
      * Create a new {@link MVELAction}.
@@ -50,8 +55,7 @@ public class MVELAction implements Consumer<Facts> {
      * @param expression the action written in expression language
      */
     public MVELAction(String expression) {
-        this.expression = expression;
-        compiledExpression = MVEL.compileExpression(expression);
+        this(expression, new ParserContext());
     }
 
     /**
@@ -61,8 +65,29 @@ public class MVELAction implements Consumer<Facts> {
      * @param parserContext the MVEL parser context
      */
     public MVELAction(String expression, ParserContext parserContext) {
+        this(expression, MVEL.compileExpression(expression, parserContext), parserContext.getParserConfiguration());
+    }
+
+    /**
+     * Create a new {@link MVELAction}.
+     *
+     * @param expression the action written in expression language
+     * @param parserContext the MVEL parser context
+     * @param expressionCache the cache of compiled expressions
+     */
+    public MVELAction(String expression, ParserContext parserContext, MVELExpressionCache expressionCache) {
         this.expression = expression;
-        compiledExpression = MVEL.compileExpression(expression, parserContext);
+        compiledExpression = expressionCache.compile(expression, parserContext);
+        parserConfiguration = parserContext.getParserConfiguration();
+    }
+
+    /*
+     * Create a MVELAction from an expression compiled beforehand, read from a rule pack for example.
+     */
+    MVELAction(String expression, Serializable compiledExpression, ParserConfiguration parserConfiguration) {
+        this.expression = expression;
+        this.compiledExpression = compiledExpression;
+        this.parserConfiguration = parserConfiguration;
     }
 
     @Override
@@ -74,4 +99,19 @@ public class MVELAction implements Consumer<Facts> {
             throw e;
         }
     }
+
+    Serializable getCompiledExpression() {
+        return compiledExpression;
+    }
+
+    /*
+     * Names of the facts referenced or assigned by this action, or null if they cannot be determined.
+     */
+    Set<String> getFacts() {
+        if (!analyzed) {
+            facts = MVELExpressionAnalyzer.getFacts(expression, parserConfiguration, true);
+            analyzed = true;
+        }
+        return facts;
+    }
 }
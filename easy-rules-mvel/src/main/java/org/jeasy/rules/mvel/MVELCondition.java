@@ -26,11 +26,13 @@ package org.jeasy.rules.mvel;
 import org.jeasy.rules.api.Condition;
 import org.jeasy.rules.api.Facts;
 import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
 import org.mvel2.ParserContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.Set;
 
 /**
  * This class is an implementation of {@link Condition} that uses <a href="https://github.com/mvel/mvel">MVEL</a> to evaluate the condition.
@@ -43,6 +45,11 @@ public class MVELCondition implements Condition {
 
     private String expression;
     private Serializable compiledExpression;
+    private ParserConfiguration parserConfiguration;
+    private volatile boolean analyzed;
+    private Set<String> facts;
+    private volatile boolean requiredFactsAnalyzed;
+    private Set<String> requiredFacts;
 
     /**
      * Create a new {@link MVELCondition}.
@@ -50,8 +57,7 @@ public class MVELCondition implements Condition {
      * @param expression the condition written in expression language
      */
     public MVELCondition(String expression) {
-        this.expression = expression;
-        compiledExpression = MVEL.compileExpression(expression);
+        this(expression, new ParserContext());
     }
 
     /**
@@ -61,8 +67,29 @@ public class MVELCondition implements Condition {
      * @param parserContext the MVEL parser context
      */
     public MVELCondition(String expression, ParserContext parserContext) {
+        this(expression, MVEL.compileExpression(expression, parserContext), parserContext.getParserConfiguration());
+    }
+
+    /**
+     * Create a new {@link MVELCondition}.
+     *
+     * @param expression the condition written in expression language
+     * @param parserContext the MVEL parser context
+     * @param expressionCache the cache of compiled expressions
+     */
+    public MVELCondition(String expression, ParserContext parserContext, MVELExpressionCache expressionCache) {
         this.expression = expression;
-        compiledExpression = MVEL.compileExpression(expression, parserContext);
+        compiledExpression = expressionCache.compile(expression, parserContext);
+        parserConfiguration = parserContext.getParserConfiguration();
+    }
+
+    /*
+     * Create a MVELCondition from an expression compiled beforehand, read from a rule pack for example.
+     */
+    MVELCondition(String expression, Serializable compiledExpression, ParserConfiguration parserConfiguration) {
+        this.expression = expression;
+        this.compiledExpression = compiledExpression;
+        this.parserConfiguration = parserConfiguration;
     }
 
     @Override
@@ -74,4 +101,30 @@ public class MVELCondition implements Condition {
             return false;
         }
     }
+
+    Serializable getCompiledExpression() {
+        return compiledExpression;
+    }
+
+    /*
+     * Names of the facts referenced by this condition, or null if they cannot be determined.
+     */
+    Set<String> getFacts() {
+        if (!analyzed) {
+            facts = MVELExpressionAnalyzer.getFacts(expression, parserConfiguration, false);
+            analyzed = true;
+        }
+        return facts;
+    }
+
+    /*
+     * Names of the facts required by this condition, or null if they cannot be determined.
+     */
+    Set<String> getRequiredFacts() {
+        if (!requiredFactsAnalyzed) {
+            requiredFacts = MVELExpressionAnalyzer.getRequiredFacts(expression, parserConfiguration);
+            requiredFactsAnalyzed = true;
+        }
+        return requiredFacts;
+    }
 }
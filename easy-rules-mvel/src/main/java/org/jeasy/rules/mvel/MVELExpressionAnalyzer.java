@@ -0,0 +1,150 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.mvel;
+
+import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
+import org.mvel2.ParserContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the facts an MVEL expression depends on, from the variables it references.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class MVELExpressionAnalyzer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MVELExpressionAnalyzer.class);
+
+    // keywords of constructs that may skip the evaluation of a part of an expression
+    private static final Set<String> CONDITIONAL_KEYWORDS = new HashSet<>(Arrays.asList(
+            "or", "isdef", "if", "else", "in", "for", "foreach", "while", "until", "do", "with", "def", "function"));
+
+    private MVELExpressionAnalyzer() {
+    }
+
+    /**
+     * Get the names of the facts referenced by an expression.
+     *
+     * @param expression to analyze
+     * @param parserConfiguration used to compile the expression
+     * @param includeAssignedVariables true to include variables assigned by the expression,
+     *                                 which are facts added to or replaced in the facts map
+     * @return names of the referenced facts, or null if they cannot be determined
+     */
+    static Set<String> getFacts(String expression, ParserConfiguration parserConfiguration, boolean includeAssignedVariables) {
+        try {
+            ParserContext parserContext = new ParserContext(parserConfiguration);
+            MVEL.analysisCompile(expression, parserContext);
+            if (parserContext.getFunctions() != null && !parserContext.getFunctions().isEmpty()) {
+                // inputs of functions are not reported by the analysis
+                return null;
+            }
+            Set<String> facts = new HashSet<>(parserContext.getInputs().keySet());
+            if (includeAssignedVariables) {
+                facts.addAll(parserContext.getVariables().keySet());
+            }
+            return Collections.unmodifiableSet(facts);
+        } catch (Exception e) {
+            LOGGER.debug("Unable to analyze expression: '{}'", expression, e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the names of the facts required by a condition. A variable that can not be resolved
+     * makes the evaluation of an expression fail, so every fact referenced by a condition is
+     * required, provided that the condition is always evaluated as a whole.
+     *
+     * @param expression to analyze
+     * @param parserConfiguration used to compile the expression
+     * @return names of the required facts, or null if they cannot be determined
+     */
+    static Set<String> getRequiredFacts(String expression, ParserConfiguration parserConfiguration) {
+        if (isConditional(expression)) {
+            return null;
+        }
+        return getFacts(expression, parserConfiguration, false);
+    }
+
+    /*
+     * Check if the evaluation of an expression may skip some of its parts (disjunctions, ternary
+     * or null-safe operators, negations, statements...), in which case a variable referenced by the
+     * expression is not necessarily resolved. Conjunctions are always evaluated as a whole when their
+     * result is the result of the condition, that is when they are not nested in brackets.
+     */
+    static boolean isConditional(String expression) {
+        boolean conjunction = false;
+        boolean brackets = false;
+        int length = expression.length();
+        for (int i = 0; i < length; i++) {
+            char c = expression.charAt(i);
+            char next = i + 1 < length ? expression.charAt(i + 1) : 0;
+            if (c == '\'' || c == '"') {
+                int end = expression.indexOf(c, i + 1);
+                while (end > 0 && expression.charAt(end - 1) == '\\') {
+                    end = expression.indexOf(c, end + 1);
+                }
+                if (end < 0) {
+                    return true;
+                }
+                i = end;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                    end++;
+                }
+                String word = expression.substring(i, end);
+                if (CONDITIONAL_KEYWORDS.contains(word)) {
+                    return true;
+                }
+                conjunction |= word.equals("and");
+                i = end - 1;
+            } else if (c == '|' || c == '?' || c == ';' || c == '{') {
+                return true;
+            } else if (c == '!' || c == '=') {
+                if (next != '=') {
+                    if (c == '!' || i == 0 || "=!<>".indexOf(expression.charAt(i - 1)) < 0) {
+                        // negation or assignment
+                        return true;
+                    }
+                } else {
+                    i++;
+                }
+            } else if (c == '&' && next == '&') {
+                conjunction = true;
+                i++;
+            } else if (c == '(' || c == '[') {
+                brackets = true;
+            }
+        }
+        return conjunction && brackets;
+    }
+}
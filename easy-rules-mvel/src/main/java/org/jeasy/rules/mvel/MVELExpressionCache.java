@@ -0,0 +1,283 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.mvel;
+
+import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
+import org.mvel2.ParserContext;
+import org.mvel2.integration.Interceptor;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of compiled MVEL expressions.
+ *
+ * Expressions are cached by their text and the configuration of the parser context they are
+ * compiled with (typing mode, typed inputs and variables, imports and class loader), so identical expressions
+ * compiled with equivalent contexts share a single compiled expression. When the cache is full,
+ * the oldest entries are evicted first.
+ *
+ * When an expression is found in the cache, the inputs and variables declared by its compilation
+ * are declared in the given parser context as if the expression had been compiled with it.
+ *
+ * Caching is opt-in: {@link MVELCondition}, {@link MVELAction} and {@link MVELRule} compile their
+ * expressions without a cache unless one is given, and {@link MVELRuleFactory} uses a cache of its own.
+ * Cached entries hold strong references to the class loaders and classes of the parser contexts
+ * they were compiled with, so a cache should not outlive these classes.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class MVELExpressionCache {
+
+    /**
+     * Default maximum number of compiled expressions in a cache.
+     */
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private static final MVELExpressionCache DEFAULT = new MVELExpressionCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final int maximumSize;
+    private final Map<Key, CompiledExpression> compiledExpressions = new ConcurrentHashMap<>();
+    private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Create a new {@link MVELExpressionCache}.
+     *
+     * @param maximumSize maximum number of compiled expressions in the cache, a size of zero disables caching
+     */
+    public MVELExpressionCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("The maximum size of the cache must be positive or zero");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Get a cache shared by the whole application. Since it lives as long as Easy Rules classes,
+     * it should only be used with parser contexts whose class loader and imported classes are
+     * not unloaded before them (typically not in applications redeployed in a container).
+     *
+     * @return the default cache
+     */
+    public static MVELExpressionCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Get the compiled form of an expression, compiling it if it is not cached.
+     *
+     * @param expression to compile
+     * @param parserContext the MVEL parser context
+     * @return the compiled expression
+     */
+    public Serializable compile(String expression, ParserContext parserContext) {
+        if (maximumSize == 0) {
+            missCount.increment();
+            return MVEL.compileExpression(expression, parserContext);
+        }
+        Key key = new Key(expression, parserContext);
+        CompiledExpression compiledExpression = compiledExpressions.get(key);
+        if (compiledExpression != null) {
+            hitCount.increment();
+            return compiledExpression.declareIn(parserContext);
+        }
+        boolean[] compiled = new boolean[1];
+        compiledExpression = compiledExpressions.computeIfAbsent(key, k -> {
+            compiled[0] = true;
+            return new CompiledExpression(expression, parserContext);
+        });
+        if (compiled[0]) {
+            missCount.increment();
+            insertionOrder.add(key);
+            evict();
+            return compiledExpression.expression;
+        }
+        hitCount.increment();
+        return compiledExpression.declareIn(parserContext);
+    }
+
+    private void evict() {
+        while (compiledExpressions.size() > maximumSize) {
+            Key eldest = insertionOrder.poll();
+            if (eldest == null) {
+                return;
+            }
+            compiledExpressions.remove(eldest);
+        }
+    }
+
+    /**
+     * Number of expressions found in the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Number of expressions compiled because they were not found in the cache.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Number of compiled expressions currently in the cache.
+     *
+     * @return the size of the cache
+     */
+    public int size() {
+        return compiledExpressions.size();
+    }
+
+    /**
+     * Remove all compiled expressions from the cache and reset its statistics.
+     */
+    public void clear() {
+        compiledExpressions.clear();
+        insertionOrder.clear();
+        hitCount.reset();
+        missCount.reset();
+    }
+
+    /*
+     * Compiling an expression declares the inputs and variables it uses in the parser context. They are
+     * recorded with the compiled expression to be declared in the parser contexts of later cache hits.
+     */
+    private static final class CompiledExpression {
+
+        private final Serializable expression;
+        private final Map<String, Class> inputs;
+        private final Map<String, Class> variables;
+
+        private CompiledExpression(String expression, ParserContext parserContext) {
+            Map<String, Class> inputsBefore = Key.copyOf(parserContext.getInputs());
+            Map<String, Class> variablesBefore = Key.copyOf(parserContext.getVariables());
+            this.expression = MVEL.compileExpression(expression, parserContext);
+            this.inputs = declared(inputsBefore, parserContext.getInputs());
+            this.variables = declared(variablesBefore, parserContext.getVariables());
+        }
+
+        private static Map<String, Class> declared(Map<String, Class> before, Map<String, Class> after) {
+            if (after == null || after.size() == before.size()) {
+                return Collections.emptyMap();
+            }
+            Map<String, Class> declared = new HashMap<>(after);
+            declared.keySet().removeAll(before.keySet());
+            return declared;
+        }
+
+        private Serializable declareIn(ParserContext parserContext) {
+            inputs.forEach((name, type) -> {
+                if (!parserContext.hasVarOrInput(name)) {
+                    parserContext.addInput(name, type);
+                }
+            });
+            variables.forEach((name, type) -> {
+                if (!parserContext.hasVarOrInput(name)) {
+                    parserContext.addVariable(name, type);
+                }
+            });
+            return expression;
+        }
+    }
+
+    /*
+     * The parser context is mutable (compiling an expression declares its inputs and variables in it),
+     * so keys hold a copy of the parts of its configuration that affect compilation. Types of inputs
+     * and variables only matter to typed compilation: untyped expressions resolve them when executed.
+     */
+    private static final class Key {
+
+        private final String expression;
+        private final boolean strictTypeEnforcement;
+        private final boolean strongTyping;
+        private final Map<String, Class> inputs;
+        private final Map<String, Class> variables;
+        private final Map<String, Object> imports;
+        private final HashSet<String> packageImports;
+        private final Map<String, Interceptor> interceptors;
+        private final ClassLoader classLoader;
+        private final boolean allowNakedMethodCall;
+        private final int hashCode;
+
+        private Key(String expression, ParserContext parserContext) {
+            ParserConfiguration parserConfiguration = parserContext.getParserConfiguration();
+            this.expression = expression;
+            this.strictTypeEnforcement = parserContext.isStrictTypeEnforcement();
+            this.strongTyping = parserContext.isStrongTyping();
+            boolean typed = strictTypeEnforcement || strongTyping;
+            this.inputs = typed ? copyOf(parserContext.getInputs()) : Collections.emptyMap();
+            this.variables = typed ? copyOf(parserContext.getVariables()) : Collections.emptyMap();
+            this.imports = copyOf(parserConfiguration.getImports());
+            this.packageImports = parserConfiguration.getPackageImports() == null ?
+                    new HashSet<>() : new HashSet<>(parserConfiguration.getPackageImports());
+            this.interceptors = copyOf(parserConfiguration.getInterceptors());
+            this.classLoader = parserConfiguration.getClassLoader();
+            this.allowNakedMethodCall = parserConfiguration.isAllowNakedMethCall();
+            this.hashCode = Objects.hash(expression, strictTypeEnforcement, strongTyping, inputs, variables, imports, packageImports);
+        }
+
+        private static <V> Map<String, V> copyOf(Map<String, V> map) {
+            return map == null || map.isEmpty() ? Collections.emptyMap() : new HashMap<>(map);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return hashCode == key.hashCode &&
+                    strictTypeEnforcement == key.strictTypeEnforcement &&
+                    strongTyping == key.strongTyping &&
+                    allowNakedMethodCall == key.allowNakedMethodCall &&
+                    classLoader == key.classLoader &&
+                    expression.equals(key.expression) &&
+                    inputs.equals(key.inputs) &&
+                    variables.equals(key.variables) &&
+                    imports.equals(key.imports) &&
+                    packageImports.equals(key.packageImports) &&
+                    interceptors.equals(key.interceptors);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
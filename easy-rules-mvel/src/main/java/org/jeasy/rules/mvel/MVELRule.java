@@ -24,21 +24,28 @@
 package org.jeasy.rules.mvel;
 
 import org.jeasy.rules.api.Condition;
+import org.jeasy.rules.api.FactDependent;
 import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.jeasy.rules.core.BasicRule;
 import org.mvel2.ParserContext;
 
+import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * A {@link org.jeasy.rules.api.Rule} implementation that uses <a href="https://github.com/mvel/mvel">MVEL</a> to evaluate and execute the rule.
  *
+ * Facts the rule depends on are found by analyzing the variables referenced by MVEL expressions.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
-public class MVELRule extends BasicRule {
+public class MVELRule extends BasicRule implements FactDependent {
 
     private Condition condition = Condition.FALSE;
     private List<Consumer<Facts>> actions = new ArrayList<>();
@@ -103,6 +110,18 @@ public class MVELRule extends BasicRule {
         return this;
     }
 
+    /**
+     * Specify the rule's condition as MVEL expression.
+     * @param condition of the rule
+     * @param parserContext the MVEL parser context
+     * @param expressionCache the cache of compiled expressions
+     * @return this rule
+     */
+    public MVELRule when(String condition, ParserContext parserContext, MVELExpressionCache expressionCache) {
+        this.condition = new MVELCondition(condition, parserContext, expressionCache);
+        return this;
+    }
+
     /**
      * Add an action specified as an MVEL expression to the rule.
      * @param action to add to the rule
@@ -123,6 +142,46 @@ public class MVELRule extends BasicRule {
         return this;
     }
 
+    /**
+     * Add an action specified as an MVEL expression to the rule.
+     * @param action to add to the rule
+     * @param parserContext the MVEL parser context
+     * @param expressionCache the cache of compiled expressions
+     * @return this rule
+     */
+    public MVELRule then(String action, ParserContext parserContext, MVELExpressionCache expressionCache) {
+        this.actions.add(new MVELAction(action, parserContext, expressionCache));
+        return this;
+    }
+
+    MVELRule when(MVELCondition condition) {
+        this.condition = condition;
+        return this;
+    }
+
+    MVELRule then(MVELAction action) {
+        this.actions.add(action);
+        return this;
+    }
+
+    /*
+     * Compiled condition and actions of this rule, or null if one of them is not an MVEL expression.
+     */
+    Serializable getCompiledCondition() {
+        return condition instanceof MVELCondition ? ((MVELCondition) condition).getCompiledExpression() : null;
+    }
+
+    List<Serializable> getCompiledActions() {
+        List<Serializable> compiledActions = new ArrayList<>();
+        for (Consumer<Facts> action : actions) {
+            if (!(action instanceof MVELAction)) {
+                return null;
+            }
+            compiledActions.add(((MVELAction) action).getCompiledExpression());
+        }
+        return compiledActions;
+    }
+
     @Override
     public boolean evaluate(Facts facts) {
         return condition.evaluate(facts);
@@ -132,4 +191,30 @@ public class MVELRule extends BasicRule {
     public void accept(Facts facts) {
         actions.forEach(action -> action.accept(facts));
     }
+
+    @Override
+    public Set<String> getConditionFacts() {
+        if (condition == Condition.FALSE) {
+            return Collections.emptySet();
+        }
+        return condition instanceof MVELCondition ? ((MVELCondition) condition).getFacts() : null;
+    }
+
+    @Override
+    public Set<String> getRequiredFacts() {
+        return condition instanceof MVELCondition ? ((MVELCondition) condition).getRequiredFacts() : null;
+    }
+
+    @Override
+    public Set<String> getActionFacts() {
+        Set<String> facts = new HashSet<>();
+        for (Consumer<Facts> action : actions) {
+            Set<String> actionFacts = action instanceof MVELAction ? ((MVELAction) action).getFacts() : null;
+            if (actionFacts == null) {
+                return null;
+            }
+            facts.addAll(actionFacts);
+        }
+        return facts;
+    }
 }
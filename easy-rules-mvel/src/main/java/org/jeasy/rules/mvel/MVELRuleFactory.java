@@ -26,29 +26,90 @@ package org.jeasy.rules.mvel;
 import org.jeasy.rules.api.Rule;
 import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.support.*;
+import org.mvel2.CompileException;
+import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
 import org.mvel2.ParserContext;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
 
 /**
  * Factory to create {@link MVELRule} instances.
  *
+ * Expressions of rules declaring fact types in their descriptor are compiled with strong typing
+ * and strict type enforcement, each fact being declared as an input of its type. All facts used
+ * by such rules must be declared, and type errors are reported when rules are created instead of
+ * when they are fired. Fact types are fully qualified class names, or names imported in the
+ * configuration of the parser context.
+ *
+ * Rules can also be created from a {@link RulePack} holding the compiled expressions of rules,
+ * which avoids reading rule descriptors and compiling expressions when an application starts.
+ * Compiled expressions are reused as is, so they are not affected by the parser context. Rule packs
+ * record the version of MVEL that compiled their expressions, and can only be used with the same version.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class MVELRuleFactory extends AbstractRuleFactory<ParserContext> {
 
+    private static final String EXPRESSION_LANGUAGE = "mvel";
+    private static final String EXPRESSION_LANGUAGE_VERSION = mvelVersion();
+
     private RuleDefinitionReader reader;
+    private MVELExpressionCache expressionCache;
 
     /**
      * Create a new {@link MVELRuleFactory} with a given reader.
+     * Identical expressions of the created rules share the same compiled expression,
+     * cached by this factory.
      *
      * @param reader to use to read rule definitions
      * @see YamlRuleDefinitionReader
      * @see JsonRuleDefinitionReader
      */
     public MVELRuleFactory(RuleDefinitionReader reader) {
+        this(reader, new MVELExpressionCache(MVELExpressionCache.DEFAULT_MAXIMUM_SIZE));
+    }
+
+    /**
+     * Create a new {@link MVELRuleFactory} with a given reader and cache of compiled expressions.
+     * Identical expressions of the created rules share the same compiled expression.
+     *
+     * @param reader to use to read rule definitions
+     * @param expressionCache the cache of compiled expressions
+     * @see YamlRuleDefinitionReader
+     * @see JsonRuleDefinitionReader
+     */
+    public MVELRuleFactory(RuleDefinitionReader reader, MVELExpressionCache expressionCache) {
         this.reader = reader;
+        this.expressionCache = expressionCache;
+    }
+
+    /**
+     * Create a new {@link MVELRuleFactory} compiling rules in parallel with the given executor.
+     * Each thread compiles rules with its own copy of the parser context.
+     *
+     * @param reader to use to read rule definitions
+     * @param expressionCache the cache of compiled expressions
+     * @param executor used to compile rules in parallel
+     * @see AbstractRuleFactory#AbstractRuleFactory(Executor)
+     */
+    public MVELRuleFactory(RuleDefinitionReader reader, MVELExpressionCache expressionCache, Executor executor) {
+        super(executor);
+        this.reader = reader;
+        this.expressionCache = expressionCache;
     }
 
     /**
@@ -80,6 +141,17 @@ public class MVELRuleFactory extends AbstractRuleFactory<ParserContext> {
         return createRule(ruleDefinitions.get(0), parserContext);
     }
 
+    /**
+     * Create a new {@link MVELRule} from a rule definition.
+     *
+     * @param ruleDefinition of the rule
+     * @return a new rule
+     * @see ReloadableRulesRepository
+     */
+    public Rule createRule(RuleDefinition ruleDefinition) {
+        return createRule(ruleDefinition, new ParserContext());
+    }
+
     /**
      * Create a set of {@link MVELRule} from a Reader.
      *
@@ -92,25 +164,197 @@ public class MVELRuleFactory extends AbstractRuleFactory<ParserContext> {
 
     /**
      * Create a set of {@link MVELRule} from a Reader.
+     * Rules are created one at a time as their definitions are read from the descriptor.
      *
      * @param rulesDescriptor as a Reader
      * @return a set of rules
      */
     public Rules createRules(Reader rulesDescriptor, ParserContext parserContext) throws Exception {
-        Rules rules = new Rules();
-        List<RuleDefinition> ruleDefinitions = reader.read(rulesDescriptor);
-        ruleDefinitions.forEach(ruleDefinition -> rules.register(createRule(ruleDefinition, parserContext)));
-        return rules;
+        return createRules(reader.iterate(rulesDescriptor), parserContext);
+    }
+
+    /**
+     * Create a {@link RulePack} from a Reader. Rule definitions are validated and their
+     * expressions compiled, so that the rule pack can be written with a {@link RulePackWriter}
+     * and rules created from it later without compiling expressions again.
+     *
+     * @param rulesDescriptor as a Reader
+     * @return a rule pack with compiled expressions
+     */
+    public RulePack createRulePack(Reader rulesDescriptor) throws Exception {
+        return createRulePack(rulesDescriptor, new ParserContext());
+    }
+
+    /**
+     * Create a {@link RulePack} from a Reader. Rule definitions are validated and their
+     * expressions compiled, so that the rule pack can be written with a {@link RulePackWriter}
+     * and rules created from it later without compiling expressions again.
+     *
+     * @param rulesDescriptor as a Reader
+     * @param parserContext the MVEL parser context
+     * @return a rule pack with compiled expressions
+     */
+    public RulePack createRulePack(Reader rulesDescriptor, ParserContext parserContext) throws Exception {
+        return createRulePack(reader.iterate(rulesDescriptor), EXPRESSION_LANGUAGE, EXPRESSION_LANGUAGE_VERSION, parserContext);
+    }
+
+    /**
+     * Create a set of {@link MVELRule} from a rule pack.
+     *
+     * @param rulePack read with a {@link RulePackReader}
+     * @return a set of rules
+     */
+    public Rules createRules(RulePack rulePack) {
+        return createRules(rulePack, new ParserContext());
+    }
+
+    /**
+     * Create a set of {@link MVELRule} from a rule pack. Compiled expressions of the rule pack
+     * are used as is, other expressions are compiled with the given parser context.
+     *
+     * @param rulePack read with a {@link RulePackReader}
+     * @param parserContext the MVEL parser context
+     * @return a set of rules
+     * @throws IllegalArgumentException if expressions of the rule pack were compiled with another version of MVEL
+     */
+    public Rules createRules(RulePack rulePack, ParserContext parserContext) {
+        if (EXPRESSION_LANGUAGE.equals(rulePack.getExpressionLanguage())
+                && !Objects.equals(EXPRESSION_LANGUAGE_VERSION, rulePack.getExpressionLanguageVersion())) {
+            throw new IllegalArgumentException(format("The rule pack was compiled with MVEL %s but MVEL %s is used, the rule pack must be created again",
+                    rulePack.getExpressionLanguageVersion(), EXPRESSION_LANGUAGE_VERSION));
+        }
+        return super.createRules(rulePack, parserContext);
     }
 
     protected Rule createSimpleRule(RuleDefinition ruleDefinition, ParserContext parserContext) {
+        if (ruleDefinition.getFactTypes().isEmpty()) {
+            return createSimpleRule(ruleDefinition, () -> parserContext);
+        }
+        Map<String, Class> factTypes = getFactTypes(ruleDefinition, parserContext.getParserConfiguration());
+        try {
+            return createSimpleRule(ruleDefinition, () -> createTypedParserContext(parserContext, factTypes));
+        } catch (CompileException e) {
+            throw new IllegalArgumentException(format("Type error in rule '%s': %s", ruleDefinition.getName(), e.getMessage()), e);
+        }
+    }
+
+    @Override
+    protected Rule createSimpleRule(RuleDefinition ruleDefinition, RulePack rulePack, ParserContext parserContext) {
+        if (!EXPRESSION_LANGUAGE.equals(rulePack.getExpressionLanguage()) || !rulePack.hasCompiledExpressions(ruleDefinition)) {
+            return createSimpleRule(ruleDefinition, parserContext);
+        }
+        ParserConfiguration parserConfiguration = parserContext.getParserConfiguration();
         MVELRule mvelRule = new MVELRule()
                 .name(ruleDefinition.getName())
                 .description(ruleDefinition.getDescription())
                 .priority(ruleDefinition.getPriority())
-                .when(ruleDefinition.getCondition(), parserContext);
-        ruleDefinition.getActions().forEach(action -> mvelRule.then(action, parserContext));
+                .when(new MVELCondition(ruleDefinition.getCondition(), rulePack.getCompiledCondition(ruleDefinition), parserConfiguration));
+        List<String> actions = ruleDefinition.getActions();
+        List<Serializable> compiledActions = rulePack.getCompiledActions(ruleDefinition);
+        for (int i = 0; i < actions.size(); i++) {
+            mvelRule.then(new MVELAction(actions.get(i), compiledActions.get(i), parserConfiguration));
+        }
         return mvelRule;
     }
 
+    @Override
+    protected void addCompiledExpressions(RulePack rulePack, RuleDefinition ruleDefinition, Rule rule) {
+        MVELRule mvelRule = (MVELRule) rule;
+        Serializable compiledCondition = mvelRule.getCompiledCondition();
+        List<Serializable> compiledActions = mvelRule.getCompiledActions();
+        if (compiledCondition != null && compiledActions != null) {
+            rulePack.setCompiledExpressions(ruleDefinition, compiledCondition, compiledActions);
+        }
+    }
+
+    /*
+     * Compiling expressions declares their variables in the parser context, and resolving
+     * imports caches classes in its configuration, so both are copied.
+     */
+    @Override
+    protected ParserContext copyContext(ParserContext parserContext) {
+        ParserConfiguration parserConfiguration = parserContext.getParserConfiguration();
+        HashSet<String> packageImports = parserConfiguration.getPackageImports();
+        ParserConfiguration configurationCopy = new ParserConfiguration(
+                new HashMap<>(parserConfiguration.getImports()),
+                packageImports == null ? null : new HashSet<>(packageImports),
+                parserConfiguration.getInterceptors());
+        configurationCopy.setClassLoader(parserConfiguration.getClassLoader());
+        configurationCopy.setAllowNakedMethCall(parserConfiguration.isAllowNakedMethCall());
+        configurationCopy.setAllowBootstrapBypass(parserConfiguration.isAllowBootstrapBypass());
+        ParserContext contextCopy = new ParserContext(configurationCopy);
+        contextCopy.setStrictTypeEnforcement(parserContext.isStrictTypeEnforcement());
+        contextCopy.setStrongTyping(parserContext.isStrongTyping());
+        if (parserContext.getInputs() != null) {
+            contextCopy.addInputs(parserContext.getInputs());
+        }
+        if (parserContext.getVariables() != null) {
+            contextCopy.addVariables(parserContext.getVariables());
+        }
+        return contextCopy;
+    }
+
+    private Rule createSimpleRule(RuleDefinition ruleDefinition, Supplier<ParserContext> parserContext) {
+        MVELRule mvelRule = new MVELRule()
+                .name(ruleDefinition.getName())
+                .description(ruleDefinition.getDescription())
+                .priority(ruleDefinition.getPriority())
+                .when(ruleDefinition.getCondition(), parserContext.get(), expressionCache);
+        ruleDefinition.getActions().forEach(action -> mvelRule.then(action, parserContext.get(), expressionCache));
+        return mvelRule;
+    }
+
+    /*
+     * Variables declared by an expression are added to its parser context, so each expression
+     * of a typed rule is compiled with its own context.
+     */
+    private ParserContext createTypedParserContext(ParserContext parserContext, Map<String, Class> factTypes) {
+        ParserContext typedParserContext = new ParserContext(parserContext.getParserConfiguration());
+        typedParserContext.setStrictTypeEnforcement(true);
+        typedParserContext.setStrongTyping(true);
+        if (parserContext.getInputs() != null) {
+            typedParserContext.addInputs(parserContext.getInputs());
+        }
+        typedParserContext.addInputs(factTypes);
+        return typedParserContext;
+    }
+
+    private Map<String, Class> getFactTypes(RuleDefinition ruleDefinition, ParserConfiguration parserConfiguration) {
+        Map<String, Class> factTypes = new HashMap<>();
+        ruleDefinition.getFactTypes().forEach((fact, type) ->
+                factTypes.put(fact, getFactType(ruleDefinition, fact, type, parserConfiguration)));
+        return factTypes;
+    }
+
+    private Class<?> getFactType(RuleDefinition ruleDefinition, String fact, String type, ParserConfiguration parserConfiguration) {
+        if (parserConfiguration.hasImport(type)) {
+            return parserConfiguration.getImport(type);
+        }
+        try {
+            return Class.forName(type, false, parserConfiguration.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(format("Unknown type '%s' of fact '%s' in rule '%s'", type, fact, ruleDefinition.getName()), e);
+        }
+    }
+
+
+    /*
+     * Constants of the MVEL class hold the version of the language, not of the library,
+     * so the version is read from the Maven metadata of the library when available.
+     */
+    private static String mvelVersion() {
+        try (InputStream inputStream = MVEL.class.getResourceAsStream("/META-INF/maven/org.mvel/mvel2/pom.properties")) {
+            if (inputStream != null) {
+                Properties properties = new Properties();
+                properties.load(inputStream);
+                String version = properties.getProperty("version");
+                if (version != null) {
+                    return version;
+                }
+            }
+        } catch (IOException e) {
+            // fall back to the version of the language
+        }
+        return MVEL.VERSION + "." + MVEL.VERSION_SUB;
+    }
 }
@@ -0,0 +1,184 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.mvel;
+
+import org.jeasy.rules.api.Facts;
+import org.junit.Test;
+import org.mvel2.ParserContext;
+
+import java.io.Serializable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MVELExpressionCacheTest {
+
+    @Test
+    public void identicalExpressionsShouldShareTheSameCompiledExpression() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+
+        // when
+        Serializable first = cache.compile("person.age > 18", new ParserContext());
+        Serializable second = cache.compile("person.age > 18", new ParserContext());
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void expressionsCompiledWithDifferentContextsShouldNotBeShared() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+        ParserContext typedParserContext = new ParserContext();
+        typedParserContext.setStrongTyping(true);
+        typedParserContext.addInput("person", Person.class);
+
+        // when
+        Serializable untyped = cache.compile("person.age > 18", new ParserContext());
+        Serializable typed = cache.compile("person.age > 18", typedParserContext);
+
+        // then
+        assertThat(typed).isNotSameAs(untyped);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isZero();
+    }
+
+    @Test
+    public void eldestExpressionsShouldBeEvictedWhenTheCacheIsFull() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(2);
+        Serializable first = cache.compile("a > 1", new ParserContext());
+        cache.compile("b > 1", new ParserContext());
+        cache.compile("c > 1", new ParserContext());
+
+        // when
+        Serializable recompiled = cache.compile("a > 1", new ParserContext());
+
+        // then
+        assertThat(recompiled).isNotSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(4);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void cacheOfSizeZeroShouldNotCacheExpressions() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(0);
+
+        // when
+        Serializable first = cache.compile("a > 1", new ParserContext());
+        Serializable second = cache.compile("a > 1", new ParserContext());
+
+        // then
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void clearShouldRemoveExpressionsAndResetStatistics() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+        cache.compile("a > 1", new ParserContext());
+        cache.compile("a > 1", new ParserContext());
+
+        // when
+        cache.clear();
+
+        // then
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getHitCount()).isZero();
+        assertThat(cache.getMissCount()).isZero();
+    }
+
+    @Test
+    public void conditionsAndActionsShouldShareCompiledExpressions() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+        ParserContext parserContext = new ParserContext();
+        MVELCondition isAdult = new MVELCondition("person.age > 18", parserContext, cache);
+        MVELCondition isAlsoAdult = new MVELCondition("person.age > 18", parserContext, cache);
+        MVELAction markAsAdult = new MVELAction("person.setAdult(true);", parserContext, cache);
+        MVELAction markAlsoAsAdult = new MVELAction("person.setAdult(true);", parserContext, cache);
+        Facts facts = new Facts();
+        Person person = new Person("foo", 20);
+        facts.put("person", person);
+
+        // when
+        boolean evaluationResult = isAdult.evaluate(facts) && isAlsoAdult.evaluate(facts);
+        markAsAdult.accept(facts);
+        markAlsoAsAdult.accept(facts);
+
+        // then
+        assertThat(evaluationResult).isTrue();
+        assertThat(person.isAdult()).isTrue();
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void inputsAndVariablesShouldBeDeclaredInTheParserContextOfCacheHits() {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+        String expression = "age = person.age; age > 18";
+        ParserContext compilingParserContext = new ParserContext();
+        ParserContext parserContext = new ParserContext();
+
+        // when
+        cache.compile(expression, compilingParserContext);
+        cache.compile(expression, parserContext);
+
+        // then
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(compilingParserContext.hasVarOrInput("person")).isTrue();
+        assertThat(compilingParserContext.hasVarOrInput("age")).isTrue();
+        assertThat(parserContext.getInputs()).isEqualTo(compilingParserContext.getInputs());
+        assertThat(parserContext.getVariables()).isEqualTo(compilingParserContext.getVariables());
+    }
+
+    @Test
+    public void conditionsAndActionsShouldNotBeCachedUnlessACacheIsGiven() {
+        // given
+        MVELExpressionCache defaultCache = MVELExpressionCache.getDefault();
+        long misses = defaultCache.getMissCount();
+        long hits = defaultCache.getHitCount();
+
+        // when
+        new MVELCondition("person.age > 18", new ParserContext());
+        new MVELAction("person.setAdult(true);", new ParserContext());
+        new MVELRule().when("person.age > 18").then("person.setAdult(true);");
+
+        // then
+        assertThat(defaultCache.getMissCount()).isEqualTo(misses);
+        assertThat(defaultCache.getHitCount()).isEqualTo(hits);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaximumSizeShouldBeRejected() {
+        new MVELExpressionCache(-1);
+    }
+}
@@ -64,4 +64,58 @@ public class MVELRuleTest {
         // then
         assertThat(foo.isAdult()).isTrue();
     }
+
+    @Test
+    public void factsReferencedByExpressionsShouldBeDeclaredAsDependencies() {
+        // given
+        mvelRule = new MVELRule()
+                .when("person.age > threshold && person.name.length() > 2")
+                .then("person.setAdult(true);")
+                .then("adults = adults + 1;");
+
+        // then
+        assertThat(mvelRule.getConditionFacts()).containsOnly("person", "threshold");
+        assertThat(mvelRule.getActionFacts()).containsOnly("person", "adults");
+    }
+
+    @Test
+    public void dependenciesOfExpressionsDefiningFunctionsShouldBeUnknown() {
+        // given
+        mvelRule = new MVELRule()
+                .when("def isAdult(p) { p.age > 18 }; isAdult(person)");
+
+        // then
+        assertThat(mvelRule.getConditionFacts()).isNull();
+        assertThat(mvelRule.getActionFacts()).isEmpty();
+    }
+
+    @Test
+    public void factsReferencedByConditionsEvaluatedAsAWholeShouldBeRequired() {
+        assertThat(new MVELRule().when("person.age > 18").getRequiredFacts()).containsOnly("person");
+        assertThat(new MVELRule().when("person.age != threshold").getRequiredFacts()).containsOnly("person", "threshold");
+        assertThat(new MVELRule().when("person.age >= 18 && person.name == 'a || !b'").getRequiredFacts()).containsOnly("person");
+        assertThat(new MVELRule().when("person.age > 18 and weather.rainy").getRequiredFacts()).containsOnly("person", "weather");
+    }
+
+    @Test
+    public void factsReferencedByConditionsPartiallyEvaluatedShouldNotBeRequired() {
+        assertThat(new MVELRule().when("person.age > 18 || weather.rainy").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("person.age > 18 or weather.rainy").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("!(person.age > 18 && weather.rainy)").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("(person.age > 18 && weather.rainy) == false").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("person.age > 18 ? weather.rainy : true").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("isdef person").getRequiredFacts()).isNull();
+        assertThat(new MVELRule().when("def isAdult(p) { p.age > 18 }; isAdult(person)").getRequiredFacts()).isNull();
+    }
+
+    @Test
+    public void whenARequiredFactIsMissing_thenConditionShouldBeEvaluatedToFalse() {
+        // given
+        mvelRule = new MVELRule().when("person.age > 18 && weather.rainy");
+        facts.put("person", new Person("foo", 20));
+
+        // then
+        assertThat(mvelRule.getRequiredFacts()).containsOnly("person", "weather");
+        assertThat(mvelRule.evaluate(facts)).isFalse();
+    }
 }
@@ -23,22 +23,34 @@
  */
 package org.jeasy.rules.mvel;
 
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.support.RulePack;
+import org.jeasy.rules.support.RulePackReader;
+import org.jeasy.rules.support.RulePackWriter;
 import org.jeasy.rules.support.YamlRuleDefinitionReader;
 import org.jeasy.rules.support.UnitRuleGroup;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 // TODO use parametrized test to merge this test class with MVELJsonRuleFactoryTest
 public class MVELYamlRuleFactoryTest {
@@ -46,6 +58,9 @@ public class MVELYamlRuleFactoryTest {
     @org.junit.Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @org.junit.Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private MVELRuleFactory factory = new MVELRuleFactory(new YamlRuleDefinitionReader());
 
     @Test
@@ -168,4 +183,232 @@ public class MVELYamlRuleFactoryTest {
         // then
         // expected exception
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRuleCreationFromFileReader_withFactTypes() throws Exception {
+        // given
+        Reader adultRuleDescriptorAsReader = new FileReader("src/test/resources/typed-adult-rule.yml");
+        Rule adultRule = factory.createRule(adultRuleDescriptorAsReader);
+        Facts facts = new Facts();
+        Person person = new Person("foo", 20);
+        facts.put("person", person);
+
+        // when
+        new DefaultRulesEngine().fire(new Rules(adultRule), facts);
+
+        // then
+        assertThat(person.isAdult()).isTrue();
+    }
+
+    @Test
+    public void testRuleCreation_withFactTypesAndTypeError() throws Exception {
+        // given
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Type error in rule 'adult rule'");
+        Reader ruleDescriptor = new StringReader(typedAdultRuleDescriptor("org.jeasy.rules.mvel.Person", "person.agee > 18"));
+
+        // when
+        Rule rule = factory.createRule(ruleDescriptor);
+
+        // then
+        // expected exception
+    }
+
+    @Test
+    public void testRuleCreation_withFactTypesAndUndeclaredFact() throws Exception {
+        // given
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Type error in rule 'adult rule'");
+        Reader ruleDescriptor = new StringReader(typedAdultRuleDescriptor("org.jeasy.rules.mvel.Person", "person.age > age"));
+
+        // when
+        Rule rule = factory.createRule(ruleDescriptor);
+
+        // then
+        // expected exception
+    }
+
+    @Test
+    public void testRuleCreation_withUnknownFactType() throws Exception {
+        // given
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Unknown type 'org.jeasy.rules.mvel.Human' of fact 'person' in rule 'adult rule'");
+        Reader ruleDescriptor = new StringReader(typedAdultRuleDescriptor("org.jeasy.rules.mvel.Human", "person.age > 18"));
+
+        // when
+        Rule rule = factory.createRule(ruleDescriptor);
+
+        // then
+        // expected exception
+    }
+
+    @Test
+    public void testRulesCreation_withDuplicateExpressions() throws Exception {
+        // given
+        MVELExpressionCache cache = new MVELExpressionCache(10);
+        MVELRuleFactory factory = new MVELRuleFactory(new YamlRuleDefinitionReader(), cache);
+        String rule = "condition: \"person.age > 18\"\n" +
+                "actions:\n" +
+                "  - \"count = 1; person.setAdult(count > 0);\"\n";
+        Reader rulesDescriptor = new StringReader("name: rule1\n" + rule + "---\nname: rule2\n" + rule);
+
+        // when
+        Rules rules = factory.createRules(rulesDescriptor);
+
+        // then
+        assertThat(rules).hasSize(2);
+        assertThat(cache.getMissCount()).isEqualTo(2);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRulesCreationInParallel() throws Exception {
+        // given
+        StringBuilder rulesDescriptor = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            rulesDescriptor.append("---\n")
+                    .append("name: rule").append(i).append('\n')
+                    .append("priority: ").append(i % 10).append('\n')
+                    .append("condition: \"person.age > ").append(i).append("\"\n")
+                    .append("actions:\n")
+                    .append("  - \"person.setAdult(true);\"\n");
+        }
+        rulesDescriptor.append("---\n").append(new String(Files.readAllBytes(Paths.get("src/test/resources/composite-rules.yml"))));
+        ForkJoinPool executor = new ForkJoinPool(4);
+        MVELRuleFactory parallelFactory = new MVELRuleFactory(new YamlRuleDefinitionReader(), MVELExpressionCache.getDefault(), executor);
+
+        // when
+        Rules rules;
+        try {
+            rules = parallelFactory.createRules(new StringReader(rulesDescriptor.toString()));
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        Rules expectedRules = factory.createRules(new StringReader(rulesDescriptor.toString()));
+        assertThat(rules).hasSize(102);
+        List<String> expectedNames = new ArrayList<>();
+        expectedRules.forEach(rule -> expectedNames.add(rule.getName()));
+        assertThat(rules).extracting(Rule::getName).containsExactlyElementsOf(expectedNames);
+        assertThat(rules).filteredOn("name", "Movie id rule").hasOnlyElementsOfType(UnitRuleGroup.class);
+    }
+
+    @Test
+    public void testRulesCreationInParallel_withInvalidRules() throws Exception {
+        // given
+        String rulesDescriptor = "name: valid rule\n" +
+                "condition: \"person.age > 18\"\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"\n" +
+                "---\n" +
+                "name: invalid rule\n" +
+                "condition: \"(person.age > 18\"\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"\n" +
+                "---\n" +
+                "name: composite rule\n" +
+                "compositeRuleType: UnitRuleGroup\n" +
+                "factTypes:\n" +
+                "  person: org.jeasy.rules.mvel.Person\n" +
+                "composingRules:\n" +
+                "  - name: valid composing rule\n" +
+                "    condition: \"person.age > 18\"\n" +
+                "    actions:\n" +
+                "      - \"person.setAdult(true);\"\n" +
+                "  - name: invalid composing rule\n" +
+                "    condition: \"person.agee > 18\"\n" +
+                "    actions:\n" +
+                "      - \"person.setAdult(true);\"\n" +
+                "---\n" +
+                "name: rule without condition\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"\n";
+        ForkJoinPool executor = new ForkJoinPool(2);
+        MVELRuleFactory parallelFactory = new MVELRuleFactory(new YamlRuleDefinitionReader(), MVELExpressionCache.getDefault(), executor);
+
+        // when
+        Throwable throwable;
+        try {
+            throwable = catchThrowable(() -> parallelFactory.createRules(new StringReader(rulesDescriptor)));
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(throwable)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Unable to create 3 rule(s):")
+                .hasMessageContaining("rule 'invalid rule' (#2)")
+                .hasMessageContaining("rule 'invalid composing rule' of rule 'composite rule' (#3): Type error in rule 'invalid composing rule'")
+                .hasMessageContaining("rule #4: The rule condition must be specified");
+        assertThat(throwable.getMessage()).doesNotContain("'valid rule'", "'valid composing rule'");
+        assertThat(throwable.getSuppressed()).hasSize(3);
+    }
+
+    @Test
+    public void testRulesCreationFromRulePack() throws Exception {
+        // given
+        String rulesDescriptor = new String(Files.readAllBytes(Paths.get("src/test/resources/typed-adult-rule.yml"))) +
+                "\n---\n" + new String(Files.readAllBytes(Paths.get("src/test/resources/composite-rules.yml")));
+        RulePack rulePack = factory.createRulePack(new StringReader(rulesDescriptor));
+        Path path = temporaryFolder.newFile("rules.pack").toPath();
+        new RulePackWriter().write(rulePack, path);
+
+        // when
+        RulePackReader reader = new RulePackReader(null, RulePackReader.DEFAULT_ALLOWED_PACKAGES, Collections.singletonList(Person.class.getName()));
+        RulePack readRulePack = reader.read(path);
+        Rules rules = factory.createRules(readRulePack);
+
+        // then
+        assertThat(readRulePack.getRuleDefinitions()).hasSize(3);
+        assertThat(readRulePack.hasCompiledExpressions(readRulePack.getRuleDefinitions().get(0))).isTrue();
+        assertThat(rules).extracting(Rule::getName).containsExactly("Movie id rule", "adult rule", "weather rule");
+        assertThat(rules).filteredOn("name", "Movie id rule").hasOnlyElementsOfType(UnitRuleGroup.class);
+        Facts facts = new Facts();
+        Person person = new Person("foo", 20);
+        facts.put("person", person);
+        facts.put("rain", false);
+        new DefaultRulesEngine().fire(rules, facts);
+        assertThat(person.isAdult()).isTrue();
+    }
+
+    @Test
+    public void testRulesCreationFromRulePack_withAnotherMVELVersion() throws Exception {
+        // given
+        RulePack rulePack = factory.createRulePack(new FileReader("src/test/resources/adult-rule.yml"));
+        RulePack otherVersionRulePack = new RulePack(rulePack.getExpressionLanguage(), "2.0.0");
+        rulePack.getRuleDefinitions().forEach(otherVersionRulePack::addRuleDefinition);
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("The rule pack was compiled with MVEL 2.0.0 but MVEL " + rulePack.getExpressionLanguageVersion() + " is used");
+
+        // when
+        factory.createRules(otherVersionRulePack);
+
+        // then
+        // expected exception
+    }
+
+    @Test
+    public void testRulePackCreation_withInvalidRule() throws Exception {
+        // given
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("Type error in rule 'adult rule'");
+        Reader ruleDescriptor = new StringReader(typedAdultRuleDescriptor("org.jeasy.rules.mvel.Person", "person.agee > 18"));
+
+        // when
+        factory.createRulePack(ruleDescriptor);
+
+        // then
+        // expected exception
+    }
+
+    private String typedAdultRuleDescriptor(String personType, String condition) {
+        return "name: adult rule\n" +
+                "factTypes:\n" +
+                "  person: " + personType + "\n" +
+                "condition: \"" + condition + "\"\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"";
+    }
+}
@@ -0,0 +1,402 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.processor;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.core.AbstractRuleAdapter;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Annotation processor that generates, for each class annotated with {@link Rule}, a concrete
+ * {@link org.jeasy.rules.api.Rule} implementation extending {@link AbstractRuleAdapter} which
+ * calls the condition and action methods directly.
+ *
+ * The rule definition is validated at build time, with the same constraints as the ones checked
+ * at runtime for dynamic proxies. Generated adapters are picked up by
+ * {@link org.jeasy.rules.core.RuleProxy#asRule(Object)}, so that neither reflection nor dynamic
+ * proxies are involved when firing annotated rules.
+ *
+ * Abstract classes, local and anonymous classes, private classes and classes annotated with a
+ * meta-annotation of {@link Rule} are skipped and still proxied at runtime.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+@SupportedAnnotationTypes("org.jeasy.rules.annotation.Rule")
+public class RuleAdapterProcessor extends AbstractProcessor {
+
+    private static final String FACTS_TYPE = "org.jeasy.rules.api.Facts";
+    private static final String RULE_TYPE = "org.jeasy.rules.api.Rule";
+
+    private final Set<String> generatedAdapters = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Rule.class)) {
+            if (element.getKind() == ElementKind.CLASS && isSupported((TypeElement) element)) {
+                process((TypeElement) element);
+            }
+        }
+        return false;
+    }
+
+    private void process(TypeElement ruleType) {
+        String adapterName = getAdapterName(ruleType);
+        if (!generatedAdapters.add(adapterName)) {
+            return;
+        }
+        RuleModel rule = analyze(ruleType);
+        if (rule == null) {
+            return;
+        }
+        try (Writer writer = processingEnv.getFiler().createSourceFile(adapterName, ruleType).openWriter()) {
+            write(rule, adapterName, new PrintWriter(writer));
+        } catch (IOException e) {
+            error(ruleType, format("Unable to generate rule adapter '%s': %s", adapterName, e.getMessage()));
+        }
+    }
+
+    private boolean isSupported(TypeElement ruleType) {
+        if (ruleType.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        Element element = ruleType;
+        while (element instanceof TypeElement) {
+            TypeElement type = (TypeElement) element;
+            if (type.getModifiers().contains(Modifier.PRIVATE)
+                    || (type.getNestingKind() != NestingKind.TOP_LEVEL && type.getNestingKind() != NestingKind.MEMBER)) {
+                return false;
+            }
+            element = type.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /*
+     * The adapter is named after the binary name of the rule class where '$' is replaced with '_',
+     * which is how RuleProxy looks it up at runtime.
+     */
+    private String getAdapterName(TypeElement ruleType) {
+        String binaryName = processingEnv.getElementUtils().getBinaryName(ruleType).toString();
+        return binaryName.replace('$', '_') + AbstractRuleAdapter.ADAPTER_SUFFIX;
+    }
+
+    private RuleModel analyze(TypeElement ruleType) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(ruleType));
+        RuleModel rule = new RuleModel(ruleType);
+        boolean valid = true;
+
+        List<ExecutableElement> conditionMethods = getMethodsAnnotatedWith(Condition.class, methods);
+        if (conditionMethods.size() != 1) {
+            error(ruleType, format("Rule '%s' must have exactly one public method annotated with '%s'", ruleType.getQualifiedName(), Condition.class.getName()));
+            valid = false;
+        } else {
+            rule.condition = conditionMethods.get(0);
+            if (!isPublic(rule.condition) || rule.condition.getReturnType().getKind() != TypeKind.BOOLEAN || !hasValidParameters(rule.condition)) {
+                error(rule.condition, format("Condition method '%s' defined in rule '%s' must be public, must return boolean type and may have parameters annotated with @Fact (and/or exactly one parameter of type Facts or one of its sub-types).", rule.condition.getSimpleName(), ruleType.getQualifiedName()));
+                valid = false;
+            }
+        }
+
+        List<ExecutableElement> actionMethods = getMethodsAnnotatedWith(Action.class, methods);
+        if (actionMethods.isEmpty()) {
+            error(ruleType, format("Rule '%s' must have at least one public method annotated with '%s'", ruleType.getQualifiedName(), Action.class.getName()));
+            valid = false;
+        }
+        for (ExecutableElement actionMethod : actionMethods) {
+            if (!isPublic(actionMethod) || actionMethod.getReturnType().getKind() != TypeKind.VOID || !hasValidParameters(actionMethod)) {
+                error(actionMethod, format("Action method '%s' defined in rule '%s' must be public, must return void type and may have parameters annotated with @Fact (and/or exactly one parameter of type Facts or one of its sub-types).", actionMethod.getSimpleName(), ruleType.getQualifiedName()));
+                valid = false;
+            }
+        }
+        // same order as rule proxies: by order, then by name and parameter types
+        rule.actions = actionMethods.stream()
+                .sorted(Comparator.<ExecutableElement>comparingInt(method -> method.getAnnotation(Action.class).order())
+                        .thenComparing(method -> method.getSimpleName().toString())
+                        .thenComparing(this::parameterTypes))
+                .collect(Collectors.toList());
+
+        List<ExecutableElement> priorityMethods = getMethodsAnnotatedWith(Priority.class, methods);
+        if (priorityMethods.size() > 1) {
+            error(ruleType, format("Rule '%s' must have exactly one method annotated with '%s'", ruleType.getQualifiedName(), Priority.class.getName()));
+            valid = false;
+        } else if (priorityMethods.size() == 1) {
+            rule.priority = priorityMethods.get(0);
+            if (!isPublic(rule.priority) || rule.priority.getReturnType().getKind() != TypeKind.INT || !rule.priority.getParameters().isEmpty()) {
+                error(rule.priority, format("Priority method '%s' defined in rule '%s' must be public, have no parameters and return integer type.", rule.priority.getSimpleName(), ruleType.getQualifiedName()));
+                valid = false;
+            }
+        }
+
+        rule.compareTo = methods.stream()
+                .filter(method -> method.getSimpleName().contentEquals("compareTo") && isPublic(method))
+                .filter(method -> method.getReturnType().getKind() == TypeKind.INT && method.getParameters().size() == 1)
+                .filter(method -> isAssignable(RULE_TYPE, method.getParameters().get(0).asType()))
+                .findFirst()
+                .orElse(null);
+
+        return valid ? rule : null;
+    }
+
+    private String parameterTypes(ExecutableElement method) {
+        return method.getParameters().stream()
+                .map(parameter -> processingEnv.getTypeUtils().erasure(parameter.asType()).toString())
+                .collect(Collectors.joining(","));
+    }
+
+    private List<ExecutableElement> getMethodsAnnotatedWith(Class<? extends java.lang.annotation.Annotation> annotation, List<ExecutableElement> methods) {
+        return methods.stream()
+                .filter(method -> method.getAnnotation(annotation) != null)
+                .collect(Collectors.toList());
+    }
+
+    private boolean isPublic(ExecutableElement method) {
+        return method.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    private boolean hasValidParameters(ExecutableElement method) {
+        int notAnnotatedParameterCount = 0;
+        for (VariableElement parameter : method.getParameters()) {
+            if (parameter.getAnnotation(Fact.class) == null) {
+                notAnnotatedParameterCount += 1;
+                if (notAnnotatedParameterCount > 1 || !isAssignable(parameter.asType(), FACTS_TYPE)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isAssignable(TypeMirror type, String targetType) {
+        TypeMirror target = processingEnv.getElementUtils().getTypeElement(targetType).asType();
+        return processingEnv.getTypeUtils().isAssignable(type, target);
+    }
+
+    private boolean isAssignable(String type, TypeMirror targetType) {
+        TypeMirror source = processingEnv.getElementUtils().getTypeElement(type).asType();
+        return processingEnv.getTypeUtils().isAssignable(source, targetType);
+    }
+
+    private void write(RuleModel rule, String adapterName, PrintWriter out) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(rule.type).getQualifiedName().toString();
+        String simpleName = adapterName.substring(adapterName.lastIndexOf('.') + 1);
+        String ruleTypeName = erasure(rule.type.asType());
+
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * Rule adapter of {@link " + ruleTypeName + "}.");
+        out.println(" *");
+        out.println(" * Generated by {@code " + getClass().getName() + "}, do not edit.");
+        out.println(" */");
+        out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        out.println("public final class " + simpleName + " extends " + AbstractRuleAdapter.class.getName() + "<" + ruleTypeName + "> {");
+        out.println();
+        out.println("    public " + simpleName + "(" + ruleTypeName + " target) {");
+        out.println("        super(target, " + literal(rule.getName()) + ", " + literal(rule.getDescription()) + ", "
+                + rule.getAnnotation().priority() + ", " + literal(rule.condition.getSimpleName().toString()) + ",");
+        out.println("                " + factNames(Collections.singletonList(rule.condition)) + ",");
+        out.println("                " + requiredFactNames(rule.condition) + ",");
+        out.println("                " + factNames(rule.actions) + ");");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    protected boolean doEvaluate(" + FACTS_TYPE + " facts) {");
+        writeInvocation(rule.condition, "return ", "        ", out);
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    protected void doExecute(" + FACTS_TYPE + " facts) {");
+        for (ExecutableElement action : rule.actions) {
+            out.println("        {");
+            writeInvocation(action, "", "            ", out);
+            out.println("        }");
+        }
+        out.println("    }");
+        if (rule.priority != null) {
+            out.println();
+            out.println("    @Override");
+            out.println("    public int getPriority() {");
+            writeInvocation(rule.priority, "return ", "        ", out);
+            out.println("    }");
+        }
+        if (rule.compareTo != null) {
+            out.println();
+            out.println("    @Override");
+            out.println("    public int compareTo(" + RULE_TYPE + " rule) {");
+            out.println("        try {");
+            out.println("            return target." + rule.compareTo.getSimpleName() + "(rule);");
+            out.println("        } catch (java.lang.Throwable throwable) {");
+            out.println("            throw invocationFailure(throwable);");
+            out.println("        }");
+            out.println("    }");
+        }
+        out.println();
+        out.println("}");
+    }
+
+    private void writeInvocation(ExecutableElement method, String prefix, String indent, PrintWriter out) {
+        List<String> arguments = new ArrayList<>();
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            TypeMirror parameterType = parameter.asType();
+            Fact fact = parameter.getAnnotation(Fact.class);
+            String argument = "arg" + i;
+            if (fact != null) {
+                String type = parameterType.getKind().isPrimitive() ? boxedType(parameterType) : erasure(parameterType);
+                out.println(indent + erasure(parameterType) + " " + argument + " = (" + type + ") fact(facts, "
+                        + literal(fact.value()) + ", " + erasure(parameterType) + ".class);");
+            } else if (erasure(parameterType).equals(FACTS_TYPE)) {
+                out.println(indent + FACTS_TYPE + " " + argument + " = facts;");
+            } else {
+                out.println(indent + erasure(parameterType) + " " + argument + " = facts(facts, " + erasure(parameterType) + ".class);");
+            }
+            arguments.add(argument);
+        }
+        out.println(indent + "try {");
+        out.println(indent + "    " + prefix + "target." + method.getSimpleName() + "(" + String.join(", ", arguments) + ");");
+        out.println(indent + "} catch (java.lang.Throwable throwable) {");
+        out.println(indent + "    throw invocationFailure(throwable);");
+        out.println(indent + "}");
+    }
+
+    /*
+     * Array of the names of the facts injected in the given methods, or null if Facts are injected.
+     */
+    private String factNames(List<ExecutableElement> methods) {
+        List<String> factNames = new ArrayList<>();
+        for (ExecutableElement method : methods) {
+            for (VariableElement parameter : method.getParameters()) {
+                Fact fact = parameter.getAnnotation(Fact.class);
+                if (fact == null) {
+                    return "null";
+                }
+                factNames.add(literal(fact.value()));
+            }
+        }
+        return "new java.lang.String[] {" + String.join(", ", factNames) + "}";
+    }
+
+    /*
+     * Array of the names of the facts injected with @Fact in the given method, whether Facts are injected as well or not.
+     */
+    private String requiredFactNames(ExecutableElement method) {
+        List<String> factNames = new ArrayList<>();
+        for (VariableElement parameter : method.getParameters()) {
+            Fact fact = parameter.getAnnotation(Fact.class);
+            if (fact != null) {
+                factNames.add(literal(fact.value()));
+            }
+        }
+        return "new java.lang.String[] {" + String.join(", ", factNames) + "}";
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String boxedType(TypeMirror primitiveType) {
+        return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) primitiveType).getQualifiedName().toString();
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private static class RuleModel {
+
+        private final TypeElement type;
+        private ExecutableElement condition;
+        private List<ExecutableElement> actions;
+        private ExecutableElement priority;
+        private ExecutableElement compareTo;
+
+        RuleModel(TypeElement type) {
+            this.type = type;
+        }
+
+        Rule getAnnotation() {
+            return type.getAnnotation(Rule.class);
+        }
+
+        String getName() {
+            String name = getAnnotation().name();
+            return name.equals(org.jeasy.rules.api.Rule.DEFAULT_NAME) ? type.getSimpleName().toString() : name;
+        }
+
+        // Default description = "when " + conditionMethodName + " then " + comma separated actionMethodsNames
+        String getDescription() {
+            String description = getAnnotation().description();
+            if (!description.equals(org.jeasy.rules.api.Rule.DEFAULT_DESCRIPTION)) {
+                return description;
+            }
+            return "when " + condition.getSimpleName() + " then " + actions.stream()
+                    .map(action -> action.getSimpleName().toString())
+                    .collect(Collectors.joining(","));
+        }
+    }
+
+}
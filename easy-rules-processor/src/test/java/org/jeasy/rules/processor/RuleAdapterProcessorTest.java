@@ -0,0 +1,290 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.processor;
+
+import org.jeasy.rules.api.FactDependent;
+import org.jeasy.rules.api.Facts;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.RuleListener;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.AbstractRuleAdapter;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.core.RuleProxy;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RuleAdapterProcessorTest {
+
+    private Facts facts;
+
+    @Before
+    public void setUp() {
+        facts = new Facts();
+    }
+
+    @Test
+    public void generatedAdapterShouldBeUsedInsteadOfProxy() {
+        // Given
+        WeatherRule weatherRule = new WeatherRule(3);
+
+        // When
+        Rule rule = RuleProxy.asRule(weatherRule);
+
+        // Then
+        assertThat(rule).isInstanceOf(WeatherRule_RuleAdapter.class);
+        assertThat(((WeatherRule_RuleAdapter) rule).getTarget()).isSameAs(weatherRule);
+        assertThat(rule.getName()).isEqualTo("weather rule");
+        assertThat(rule.getDescription()).isEqualTo("if it rains then take an umbrella");
+        assertThat(rule.getPriority()).isEqualTo(3);
+        assertThat(rule).isEqualTo(RuleProxy.asRule(weatherRule));
+    }
+
+    @Test
+    public void adapterShouldInjectFactsAndExecuteActionsInOrder() {
+        // Given
+        WeatherRule weatherRule = new WeatherRule(1);
+        Rule rule = RuleProxy.asRule(weatherRule);
+        facts.put("rain", true);
+        facts.put("temperature", 15); // int fact injected in a long parameter
+
+        // When
+        boolean evaluationResult = rule.evaluate(facts);
+        rule.accept(facts);
+
+        // Then
+        assertThat(evaluationResult).isTrue();
+        assertThat(weatherRule.actions).containsExactly("forecast 15", "umbrella");
+        assertThat((Boolean) facts.get("umbrella")).isTrue();
+    }
+
+    @Test
+    public void adapterShouldDeclareFactsReadByItsMethods() {
+        FactDependent rule = (FactDependent) RuleProxy.asRule(new WeatherRule(1));
+
+        assertThat(rule.getConditionFacts()).containsOnly("rain", "temperature");
+        assertThat(rule.getActionFacts()).isNull(); // an action has access to all facts
+    }
+
+    @Test
+    public void missingFactShouldEvaluateToFalse() {
+        facts.put("rain", true);
+
+        assertThat(RuleProxy.asRule(new WeatherRule(1)).evaluate(facts)).isFalse();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void factOfWrongTypeShouldBeRejected() {
+        facts.put("rain", "yes");
+        facts.put("temperature", 15);
+
+        RuleProxy.asRule(new WeatherRule(1)).evaluate(facts);
+    }
+
+    @Test
+    public void adapterShouldBeGeneratedForNestedRules() {
+        // Given
+        Rule rule = RuleProxy.asRule(new WeatherRule.Nested.AlwaysFailingRule());
+        RuleListener ruleListener = mock(RuleListener.class);
+        when(ruleListener.beforeEvaluate(rule, facts)).thenReturn(true);
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine();
+        rulesEngine.registerRuleListener(ruleListener);
+
+        // When
+        rulesEngine.fire(new Rules(rule), facts);
+
+        // Then
+        assertThat(rule).isInstanceOf(WeatherRule_Nested_AlwaysFailingRule_RuleAdapter.class);
+        assertThat(rule.getName()).isEqualTo("AlwaysFailingRule");
+        assertThat(rule.getDescription()).isEqualTo("when when then then");
+        verify(ruleListener).onFailure(eq(rule), eq(facts), any(UndeclaredThrowableException.class));
+    }
+
+    @Test
+    public void invalidRuleShouldBeReportedAtCompileTime() throws Exception {
+        // Given
+        String source = "package test;\n" +
+                "@org.jeasy.rules.annotation.Rule\n" +
+                "public class InvalidRule {\n" +
+                "    @org.jeasy.rules.annotation.Condition\n" +
+                "    public int when() { return 1; }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void then() { }\n" +
+                "}\n";
+
+        // When
+        List<String> errors = compile("test.InvalidRule", source);
+
+        // Then
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0)).startsWith("Condition method 'when' defined in rule 'test.InvalidRule' must be public, must return boolean type");
+    }
+
+    @Test
+    public void validRuleShouldCompileWithGeneratedAdapter() throws Exception {
+        String source = "package test;\n" +
+                "@org.jeasy.rules.annotation.Rule\n" +
+                "public class ValidRule {\n" +
+                "    @org.jeasy.rules.annotation.Condition\n" +
+                "    public boolean when(@org.jeasy.rules.annotation.Fact(\"fact\") java.util.List<String> fact) { return true; }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void then(@org.jeasy.rules.annotation.Fact(\"value\") double value) { }\n" +
+                "}\n";
+
+        assertThat(compile("test.ValidRule", source)).isEmpty();
+    }
+
+    @Test
+    public void adapterAndProxyShouldRequireTheSameFacts() throws Exception {
+        // Given
+        String source = "package test;\n" +
+                "@org.jeasy.rules.annotation.Rule\n" +
+                "public class MixedRule {\n" +
+                "    @org.jeasy.rules.annotation.Condition\n" +
+                "    public boolean when(@org.jeasy.rules.annotation.Fact(\"rain\") boolean rain, org.jeasy.rules.api.Facts facts) {\n" +
+                "        facts.put(\"evaluated\", true);\n" +
+                "        return rain;\n" +
+                "    }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void then() { }\n" +
+                "}\n";
+        Rule adapter = RuleProxy.asRule(load("test.MixedRule", source, true).getDeclaredConstructor().newInstance());
+        Rule proxy = RuleProxy.asRule(load("test.MixedRule", source, false).getDeclaredConstructor().newInstance());
+        Facts adapterFacts = new Facts();
+        Facts proxyFacts = new Facts();
+        DefaultRulesEngine rulesEngine = new DefaultRulesEngine();
+
+        // When
+        rulesEngine.fire(new Rules(adapter), adapterFacts);
+        rulesEngine.fire(new Rules(proxy), proxyFacts);
+
+        // Then
+        assertThat(adapter).isInstanceOf(AbstractRuleAdapter.class);
+        assertThat(Proxy.isProxyClass(proxy.getClass())).isTrue();
+        assertThat(((FactDependent) adapter).getConditionFacts()).isNull();
+        assertThat(((FactDependent) adapter).getRequiredFacts()).containsOnly("rain");
+        assertThat(((FactDependent) proxy).getRequiredFacts()).containsOnly("rain");
+        assertThat(adapterFacts.asMap()).isEmpty();
+        assertThat(proxyFacts.asMap()).isEmpty();
+    }
+
+    private List<String> compile(String className, String source) throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        compile(className, source, true, Files.createTempDirectory("easy-rules-processor").toFile(), diagnostics);
+        return diagnostics.getDiagnostics().stream()
+                .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                .map(diagnostic -> diagnostic.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    /*
+     * Compile the given rule with or without the processor, and load it in a new class loader.
+     */
+    @Test
+    public void adapterAndProxyShouldExecuteActionsOfTheSameOrderInTheSameOrder() throws Exception {
+        // Given
+        String source = "package test;\n" +
+                "@org.jeasy.rules.annotation.Rule\n" +
+                "public class OrderedActionsRule {\n" +
+                "    @org.jeasy.rules.annotation.Condition\n" +
+                "    public boolean when() { return true; }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void c(org.jeasy.rules.api.Facts facts) { facts.put(\"actions\", facts.get(\"actions\") + \"c\"); }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void a(org.jeasy.rules.api.Facts facts) { facts.put(\"actions\", facts.get(\"actions\") + \"a\"); }\n" +
+                "    @org.jeasy.rules.annotation.Action(order = -1)\n" +
+                "    public void d(org.jeasy.rules.api.Facts facts) { facts.put(\"actions\", facts.get(\"actions\") + \"d\"); }\n" +
+                "    @org.jeasy.rules.annotation.Action\n" +
+                "    public void b(org.jeasy.rules.api.Facts facts) { facts.put(\"actions\", facts.get(\"actions\") + \"b\"); }\n" +
+                "}\n";
+        Rule adapter = RuleProxy.asRule(load("test.OrderedActionsRule", source, true).getDeclaredConstructor().newInstance());
+        Rule proxy = RuleProxy.asRule(load("test.OrderedActionsRule", source, false).getDeclaredConstructor().newInstance());
+        Facts adapterFacts = new Facts();
+        adapterFacts.put("actions", "");
+        Facts proxyFacts = new Facts();
+        proxyFacts.put("actions", "");
+
+        // When
+        adapter.accept(adapterFacts);
+        proxy.accept(proxyFacts);
+
+        // Then
+        assertThat(adapter).isInstanceOf(AbstractRuleAdapter.class);
+        assertThat(adapterFacts.<String>get("actions")).isEqualTo("dabc");
+        assertThat(proxyFacts.<String>get("actions")).isEqualTo("dabc");
+    }
+
+    private Class<?> load(String className, String source, boolean process) throws Exception {
+        File output = Files.createTempDirectory("easy-rules-processor").toFile();
+        compile(className, source, process, output, new DiagnosticCollector<>());
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{output.toURI().toURL()}, getClass().getClassLoader());
+        return classLoader.loadClass(className);
+    }
+
+    private void compile(String className, String source, boolean process, File output,
+                         DiagnosticCollector<JavaFileObject> diagnostics) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, Collections.singletonList(output));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, Collections.singletonList(output));
+            fileManager.setLocation(StandardLocation.CLASS_PATH, Collections.singletonList(
+                    new File(Rule.class.getProtectionDomain().getCodeSource().getLocation().toURI())));
+            JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return source;
+                }
+            };
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, null, null, Collections.singletonList(sourceFile));
+            task.setProcessors(process ? Collections.singletonList(new RuleAdapterProcessor()) : Collections.emptyList());
+            task.call();
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.processor;
+
+import org.jeasy.rules.annotation.Action;
+import org.jeasy.rules.annotation.Condition;
+import org.jeasy.rules.annotation.Fact;
+import org.jeasy.rules.annotation.Priority;
+import org.jeasy.rules.annotation.Rule;
+import org.jeasy.rules.api.Facts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Rule(name = "weather rule", description = "if it rains then take an umbrella")
+public class WeatherRule {
+
+    final List<String> actions = new ArrayList<>();
+    private final int priority;
+
+    public WeatherRule(int priority) {
+        this.priority = priority;
+    }
+
+    @Condition
+    public boolean itRains(@Fact("rain") boolean rain, @Fact("temperature") long temperature) {
+        return rain && temperature > 0;
+    }
+
+    @Action(order = 2)
+    public void takeAnUmbrella(Facts facts) {
+        actions.add("umbrella");
+        facts.put("umbrella", true);
+    }
+
+    @Action(order = 1)
+    public void checkForecast(@Fact("temperature") long temperature) {
+        actions.add("forecast " + temperature);
+    }
+
+    @Priority
+    public int getPriority() {
+        return priority;
+    }
+
+    public static class Nested {
+
+        @org.jeasy.rules.annotation.Rule
+        public static class AlwaysFailingRule {
+
+            @Condition
+            public boolean when() {
+                return true;
+            }
+
+            @Action
+            public void then() throws Exception {
+                throw new Exception("boom");
+            }
+        }
+    }
+
+}
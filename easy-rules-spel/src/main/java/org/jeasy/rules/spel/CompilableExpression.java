@@ -0,0 +1,92 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.spel;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+/**
+ * A parsed SpEL expression that is compiled to bytecode when the compiler is enabled in the
+ * {@link SpelParserConfiguration} used to parse it.
+ *
+ * The expression is compiled after its first successful evaluation, once the types it operates on
+ * are known. Expressions that cannot be compiled are interpreted. If a compiled expression fails,
+ * for example because facts of a different type are given, it falls back to interpreted mode
+ * and may be compiled again for the new types.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class CompilableExpression {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompilableExpression.class);
+
+    private final String expression;
+    private final Expression parsedExpression;
+    private final boolean compilerEnabled;
+    private volatile boolean compiled;
+
+    CompilableExpression(String expression, ParserContext parserContext, SpelParserConfiguration configuration) {
+        this.expression = expression;
+        this.parsedExpression = new SpelExpressionParser(configuration).parseExpression(expression, parserContext);
+        this.compilerEnabled = configuration.getCompilerMode() != SpelCompilerMode.OFF
+                && parsedExpression instanceof SpelExpression;
+    }
+
+    <T> T getValue(EvaluationContext context, Class<T> expectedResultType) {
+        T value;
+        try {
+            value = parsedExpression.getValue(context, expectedResultType);
+        } catch (SpelEvaluationException e) {
+            if (!compilerEnabled || e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw e;
+            }
+            LOGGER.debug("Compiled expression '{}' failed, falling back to interpreted mode", expression, e);
+            ((SpelExpression) parsedExpression).revertToInterpreted();
+            value = parsedExpression.getValue(context, expectedResultType);
+        }
+        if (compilerEnabled) {
+            // no-op if the expression is already compiled
+            compiled = ((SpelExpression) parsedExpression).compileExpression();
+        }
+        return value;
+    }
+
+    Expression getParsedExpression() {
+        return parsedExpression;
+    }
+
+    boolean isCompiled() {
+        return compiled;
+    }
+
+}
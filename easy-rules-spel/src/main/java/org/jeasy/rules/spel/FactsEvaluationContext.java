@@ -0,0 +1,93 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.spel;
+
+import org.jeasy.rules.api.Facts;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link StandardEvaluationContext} reused by SpEL conditions and actions of a thread.
+ *
+ * The facts map is set as the root object and facts are resolved as variables directly from the
+ * facts map instead of being copied in the context on each evaluation. Variables assigned by an
+ * expression are local to the evaluation and shadow facts with the same name, as with a new context.
+ *
+ * Reusing the context keeps the property accessors and method resolvers it creates, along with
+ * their caches, across evaluations.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class FactsEvaluationContext extends StandardEvaluationContext {
+
+    private static final ThreadLocal<FactsEvaluationContext> CONTEXT = ThreadLocal.withInitial(FactsEvaluationContext::new);
+
+    private final Map<String, Object> variables = new HashMap<>();
+    private Map<String, Object> facts;
+
+    private FactsEvaluationContext() {
+    }
+
+    /*
+     * Get the context of the current thread bound to the given facts, or a new context if
+     * the context of the current thread is already in use by an enclosing evaluation.
+     * The context must be released after the evaluation.
+     */
+    static FactsEvaluationContext acquire(Facts facts) {
+        FactsEvaluationContext context = CONTEXT.get();
+        if (context.facts != null) {
+            context = new FactsEvaluationContext();
+        }
+        context.facts = facts.asMap();
+        context.setRootObject(context.facts);
+        return context;
+    }
+
+    void release() {
+        facts = null;
+        variables.clear();
+        setRootObject(null);
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        variables.put(name, value);
+    }
+
+    @Override
+    public void setVariables(Map<String, Object> variables) {
+        this.variables.putAll(variables);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        if (variables.containsKey(name)) {
+            return variables.get(name);
+        }
+        return facts.get(name);
+    }
+
+}
@@ -26,12 +26,10 @@ package org.jeasy.rules.spel;
 import org.jeasy.rules.api.Facts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.SpelParserConfiguration;
 
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -41,16 +39,18 @@ import java.util.function.Consumer;
  *
  * The facts map is set as the root object of the {@link org.springframework.expression.EvaluationContext}.
  *
+ * The evaluation context is reused across evaluations of the same thread.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class SpELAction implements Consumer<Facts> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpELAction.class);
 
-    private final ExpressionParser parser = new SpelExpressionParser();
-
     private String expression;
-    private Expression compiledExpression;
+    private CompilableExpression compiledExpression;
+    private volatile boolean analyzed;
+    private Set<String> facts;
 
     /**
      * Create a new {@link SpELAction}.
@@ -58,8 +58,7 @@ public class SpELAction implements Consumer<Facts> {
      * @param expression the action written in expression language
      */
     public SpELAction(String expression) {
-        this.expression = expression;
-        compiledExpression = parser.parseExpression(expression);
+        this(expression, new SpelParserConfiguration());
     }
 
     /**
@@ -69,21 +68,67 @@ public class SpELAction implements Consumer<Facts> {
      * @param parserContext the SpEL parser context
      */
     public SpELAction(String expression, ParserContext parserContext) {
+        this(expression, parserContext, new SpelParserConfiguration());
+    }
+
+    /**
+     * Create a new {@link SpELAction}.
+     *
+     * The SpEL compiler can be enabled with the parser configuration, in which case the expression
+     * is compiled to bytecode after its first successful evaluation if it is compilable.
+     *
+     * @param expression the action written in expression language
+     * @param parserConfiguration the SpEL parser configuration
+     */
+    public SpELAction(String expression, SpelParserConfiguration parserConfiguration) {
+        this(expression, null, parserConfiguration);
+    }
+
+    /**
+     * Create a new {@link SpELAction}.
+     *
+     * The SpEL compiler can be enabled with the parser configuration, in which case the expression
+     * is compiled to bytecode after its first successful evaluation if it is compilable.
+     *
+     * @param expression the action written in expression language
+     * @param parserContext the SpEL parser context
+     * @param parserConfiguration the SpEL parser configuration
+     */
+    public SpELAction(String expression, ParserContext parserContext, SpelParserConfiguration parserConfiguration) {
         this.expression = expression;
-        compiledExpression = parser.parseExpression(expression, parserContext);
+        compiledExpression = new CompilableExpression(expression, parserContext, parserConfiguration);
     }
 
     @Override
     public void accept(Facts facts) {
+        FactsEvaluationContext context = FactsEvaluationContext.acquire(facts);
         try {
-            StandardEvaluationContext context = new StandardEvaluationContext();
-            context.setRootObject(facts.asMap());
-            context.setVariables(facts.asMap());
-            compiledExpression.getValue(context);
+            compiledExpression.getValue(context, Object.class);
         } catch (Exception e) {
             LOGGER.error("Unable to evaluate expression: '" + expression + "' on facts: " + facts, e);
             throw e;
+        } finally {
+            context.release();
         }
     }
 
+    /**
+     * Tell if the SpEL compiler is enabled and this action has been compiled to bytecode.
+     *
+     * @return true if this action is compiled, false if it is interpreted
+     */
+    public boolean isCompiled() {
+        return compiledExpression.isCompiled();
+    }
+
+    /*
+     * Names of the facts referenced by this action, or null if they cannot be determined.
+     */
+    Set<String> getFacts() {
+        if (!analyzed) {
+            facts = SpELExpressionAnalyzer.getFacts(compiledExpression.getParsedExpression());
+            analyzed = true;
+        }
+        return facts;
+    }
 }
@@ -27,11 +27,10 @@ import org.jeasy.rules.api.Condition;
 import org.jeasy.rules.api.Facts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.SpelParserConfiguration;
+
+import java.util.Set;
 
 /**
  * This class is an implementation of {@link Condition} that uses <a href="https://docs.spring.io/spring/docs/current/spring-framework-reference/core.html#expressions">SpEL</a> to evaluate the condition.
@@ -40,16 +39,20 @@ import org.springframework.expression.spel.support.StandardEvaluationContext;
  *
  * The facts map is set as the root object of the {@link org.springframework.expression.EvaluationContext}.
  *
+ * The evaluation context is reused across evaluations of the same thread.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class SpELCondition implements Condition {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SpELCondition.class);
 
-    private final ExpressionParser parser = new SpelExpressionParser();
-
     private String expression;
-    private Expression compiledExpression;
+    private CompilableExpression compiledExpression;
+    private volatile boolean analyzed;
+    private Set<String> facts;
+    private volatile boolean requiredFactsAnalyzed;
+    private Set<String> requiredFacts;
 
     /**
      * Create a new {@link SpELCondition}.
@@ -57,31 +60,88 @@ public class SpELCondition implements Condition {
      * @param expression the condition written in expression language
      */
     public SpELCondition(String expression) {
-        this.expression = expression;
-        compiledExpression = parser.parseExpression(expression);
+        this(expression, new SpelParserConfiguration());
     }
 
     /**
      * Create a new {@link SpELCondition}.
      *
-     * @param expression    the condition written in expression language
+     * @param expression the condition written in expression language
      * @param parserContext the SpEL parser context
      */
     public SpELCondition(String expression, ParserContext parserContext) {
+        this(expression, parserContext, new SpelParserConfiguration());
+    }
+
+    /**
+     * Create a new {@link SpELCondition}.
+     *
+     * The SpEL compiler can be enabled with the parser configuration, in which case the expression
+     * is compiled to bytecode after its first successful evaluation if it is compilable.
+     *
+     * @param expression the condition written in expression language
+     * @param parserConfiguration the SpEL parser configuration
+     */
+    public SpELCondition(String expression, SpelParserConfiguration parserConfiguration) {
+        this(expression, null, parserConfiguration);
+    }
+
+    /**
+     * Create a new {@link SpELCondition}.
+     *
+     * The SpEL compiler can be enabled with the parser configuration, in which case the expression
+     * is compiled to bytecode after its first successful evaluation if it is compilable.
+     *
+     * @param expression the condition written in expression language
+     * @param parserContext the SpEL parser context
+     * @param parserConfiguration the SpEL parser configuration
+     */
+    public SpELCondition(String expression, ParserContext parserContext, SpelParserConfiguration parserConfiguration) {
         this.expression = expression;
-        compiledExpression = parser.parseExpression(expression, parserContext);
+        compiledExpression = new CompilableExpression(expression, parserContext, parserConfiguration);
     }
 
     @Override
     public boolean evaluate(Facts facts) {
+        FactsEvaluationContext context = FactsEvaluationContext.acquire(facts);
         try {
-            StandardEvaluationContext context = new StandardEvaluationContext();
-            context.setRootObject(facts.asMap());
-            context.setVariables(facts.asMap());
-            return  compiledExpression.getValue(context, Boolean.class);
+            return compiledExpression.getValue(context, Boolean.class);
         } catch (Exception e) {
             LOGGER.error("Unable to evaluate expression: '" + expression + "' on facts: " + facts, e);
             return false;
+        } finally {
+            context.release();
+        }
+    }
+
+    /**
+     * Tell if the SpEL compiler is enabled and this condition has been compiled to bytecode.
+     *
+     * @return true if this condition is compiled, false if it is interpreted
+     */
+    public boolean isCompiled() {
+        return compiledExpression.isCompiled();
+    }
+
+    /*
+     * Names of the facts referenced by this condition, or null if they cannot be determined.
+     */
+    Set<String> getFacts() {
+        if (!analyzed) {
+            facts = SpELExpressionAnalyzer.getFacts(compiledExpression.getParsedExpression());
+            analyzed = true;
+        }
+        return facts;
+    }
+
+    /*
+     * Names of the facts required by this condition, or null if they cannot be determined.
+     */
+    Set<String> getRequiredFacts() {
+        if (!requiredFactsAnalyzed) {
+            requiredFacts = SpELExpressionAnalyzer.getRequiredFacts(compiledExpression.getParsedExpression());
+            requiredFactsAnalyzed = true;
         }
+        return requiredFacts;
     }
 }
@@ -0,0 +1,184 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.spel;
+
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelNode;
+import org.springframework.expression.spel.ast.CompoundExpression;
+import org.springframework.expression.spel.ast.Indexer;
+import org.springframework.expression.spel.ast.MethodReference;
+import org.springframework.expression.spel.ast.OpAnd;
+import org.springframework.expression.spel.ast.OpOr;
+import org.springframework.expression.spel.ast.Operator;
+import org.springframework.expression.spel.ast.OperatorNot;
+import org.springframework.expression.spel.ast.Projection;
+import org.springframework.expression.spel.ast.PropertyOrFieldReference;
+import org.springframework.expression.spel.ast.Selection;
+import org.springframework.expression.spel.ast.Ternary;
+import org.springframework.expression.spel.ast.VariableReference;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Finds the facts a SpEL expression depends on, from the variables it references.
+ *
+ * Facts are both variables and entries of the root object of the evaluation context.
+ * Since entries of the root object are not named in the expression, the facts of an
+ * expression accessing the root object cannot be determined.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+final class SpELExpressionAnalyzer {
+
+    private SpELExpressionAnalyzer() {
+    }
+
+    /**
+     * Get the names of the facts referenced by an expression.
+     *
+     * @param expression to analyze
+     * @return names of the referenced facts, or null if they cannot be determined
+     */
+    static Set<String> getFacts(Expression expression) {
+        Set<String> facts = new HashSet<>();
+        return collectFacts(expression, facts) ? Collections.unmodifiableSet(facts) : null;
+    }
+
+    private static boolean collectFacts(Expression expression, Set<String> facts) {
+        if (expression instanceof LiteralExpression) {
+            return true;
+        }
+        if (expression instanceof SpelExpression) {
+            return collectFacts(((SpelExpression) expression).getAST(), true, false, facts);
+        }
+        if (expression instanceof CompositeStringExpression) {
+            for (Expression subExpression : ((CompositeStringExpression) expression).getExpressions()) {
+                if (!collectFacts(subExpression, facts)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /*
+     * A node is in root context if it is evaluated against the root object, ie the facts map,
+     * rather than against the result of a previous node of a compound expression. Inside a
+     * selection or a projection, nodes are evaluated against elements of the collection.
+     */
+    private static boolean collectFacts(SpelNode node, boolean rootContext, boolean elementScope, Set<String> facts) {
+        if (node instanceof VariableReference) {
+            String name = node.toStringAST().substring(1);
+            if (name.equals("root") || (name.equals("this") && !elementScope)) {
+                return false;
+            }
+            if (!name.equals("this")) {
+                facts.add(name);
+            }
+        }
+        if (rootContext && (node instanceof PropertyOrFieldReference || node instanceof Indexer || node instanceof MethodReference)) {
+            return false;
+        }
+        boolean selection = node instanceof Selection || node instanceof Projection;
+        for (int i = 0; i < node.getChildCount(); i++) {
+            boolean childRootContext;
+            if (node instanceof CompoundExpression) {
+                childRootContext = i == 0 && rootContext;
+            } else {
+                childRootContext = !selection && !elementScope;
+            }
+            if (!collectFacts(node.getChild(i), childRootContext, elementScope || selection, facts)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the names of the facts required by a condition. A missing fact is a null variable,
+     * so a fact is required if the condition can not be evaluated to true when a property of
+     * this fact, or an element if it is indexed, is accessed without the safe navigation operator.
+     *
+     * @param expression to analyze
+     * @return names of the required facts, or null if they cannot be determined
+     */
+    static Set<String> getRequiredFacts(Expression expression) {
+        if (!(expression instanceof SpelExpression)) {
+            return null;
+        }
+        Set<String> facts = new HashSet<>();
+        collectRequiredFacts(((SpelExpression) expression).getAST(), facts);
+        return Collections.unmodifiableSet(facts);
+    }
+
+    /*
+     * Operands of a conjunction whose result is the result of the condition are all required
+     * for the condition to be true, even if they are not all evaluated.
+     */
+    private static void collectRequiredFacts(SpelNode node, Set<String> facts) {
+        if (node instanceof OpAnd) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                collectRequiredFacts(node.getChild(i), facts);
+            }
+        } else {
+            collectDereferencedFacts(node, facts);
+        }
+    }
+
+    /*
+     * Collect facts dereferenced by nodes that are always evaluated, and whose evaluation
+     * hence fails when one of these facts is missing.
+     */
+    private static void collectDereferencedFacts(SpelNode node, Set<String> facts) {
+        if (node instanceof OpAnd || node instanceof OpOr || node instanceof OperatorNot || node instanceof Ternary) {
+            // only the first operand is always evaluated
+            collectDereferencedFacts(node.getChild(0), facts);
+        } else if (node instanceof Operator) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                collectDereferencedFacts(node.getChild(i), facts);
+            }
+        } else if (node instanceof CompoundExpression && node.getChildCount() > 1) {
+            SpelNode first = node.getChild(0);
+            SpelNode second = node.getChild(1);
+            if (first instanceof VariableReference && isDereference(second)) {
+                String name = first.toStringAST().substring(1);
+                if (!name.equals("root") && !name.equals("this")) {
+                    facts.add(name);
+                }
+            }
+            collectDereferencedFacts(first, facts);
+        }
+    }
+
+    private static boolean isDereference(SpelNode node) {
+        return (node instanceof PropertyOrFieldReference && !((PropertyOrFieldReference) node).isNullSafe())
+                || node instanceof Indexer;
+    }
+}
@@ -24,21 +24,29 @@
 package org.jeasy.rules.spel;
 
 import org.jeasy.rules.api.Condition;
+import org.jeasy.rules.api.FactDependent;
 import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.jeasy.rules.core.BasicRule;
 import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelParserConfiguration;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
  * A {@link Rule} implementation that uses <a href="https://docs.spring.io/spring/docs/current/spring-framework-reference/core.html#expressions">SpEL</a> to evaluate and execute the rule.
  *
+ * Facts the rule depends on are found by analyzing the variables referenced by SpEL expressions.
+ * They cannot be determined for expressions accessing facts through the root object.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
-public class SpELRule extends BasicRule {
+public class SpELRule extends BasicRule implements FactDependent {
 
     private Condition condition = Condition.FALSE;
     private List<Consumer<Facts>> actions = new ArrayList<>();
@@ -104,6 +112,18 @@ public class SpELRule extends BasicRule {
         return this;
     }
 
+    /**
+     * Specify the rule's condition as SpEL expression.
+     * @param condition of the rule
+     * @param parserContext the SpEL parser context
+     * @param parserConfiguration the SpEL parser configuration
+     * @return this rule
+     */
+    public SpELRule when(String condition, ParserContext parserContext, SpelParserConfiguration parserConfiguration) {
+        this.condition = new SpELCondition(condition, parserContext, parserConfiguration);
+        return this;
+    }
+
     /**
      * Add an action specified as an SpEL expression to the rule.
      * @param action to add to the rule
@@ -125,6 +145,18 @@ public class SpELRule extends BasicRule {
         return this;
     }
 
+    /**
+     * Add an action specified as an SpEL expression to the rule.
+     * @param action to add to the rule
+     * @param parserContext the SpEL parser context
+     * @param parserConfiguration the SpEL parser configuration
+     * @return this rule
+     */
+    public SpELRule then(String action, ParserContext parserContext, SpelParserConfiguration parserConfiguration) {
+        this.actions.add(new SpELAction(action, parserContext, parserConfiguration));
+        return this;
+    }
+
     @Override
     public boolean evaluate(Facts facts) {
         return condition.evaluate(facts);
@@ -134,4 +166,50 @@ public class SpELRule extends BasicRule {
     public void accept(Facts facts) {
         actions.forEach(action -> action.accept(facts));
     }
+
+    /**
+     * Tell if the condition and all actions of this rule have been compiled to bytecode.
+     *
+     * Expressions are compiled after their first successful evaluation if the SpEL compiler
+     * is enabled in their parser configuration and if they are compilable.
+     *
+     * @return true if this rule is compiled, false if any of its expressions is interpreted
+     */
+    public boolean isCompiled() {
+        if (!(condition instanceof SpELCondition) || !((SpELCondition) condition).isCompiled()) {
+            return false;
+        }
+        for (Consumer<Facts> action : actions) {
+            if (!(action instanceof SpELAction) || !((SpELAction) action).isCompiled()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<String> getConditionFacts() {
+        if (condition == Condition.FALSE) {
+            return Collections.emptySet();
+        }
+        return condition instanceof SpELCondition ? ((SpELCondition) condition).getFacts() : null;
+    }
+
+    @Override
+    public Set<String> getRequiredFacts() {
+        return condition instanceof SpELCondition ? ((SpELCondition) condition).getRequiredFacts() : null;
+    }
+
+    @Override
+    public Set<String> getActionFacts() {
+        Set<String> facts = new HashSet<>();
+        for (Consumer<Facts> action : actions) {
+            Set<String> actionFacts = action instanceof SpELAction ? ((SpELAction) action).getFacts() : null;
+            if (actionFacts == null) {
+                return null;
+            }
+            facts.addAll(actionFacts);
+        }
+        return facts;
+    }
 }
@@ -28,9 +28,11 @@ import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.support.*;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelParserConfiguration;
 
 import java.io.Reader;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Factory to create {@link SpELRule} instances.
@@ -39,7 +41,10 @@ import java.util.List;
  */
 public class SpELRuleFactory extends AbstractRuleFactory<ParserContext> {
 
+    private static final String EXPRESSION_LANGUAGE = "spel";
+
     private RuleDefinitionReader reader;
+    private SpelParserConfiguration parserConfiguration;
 
     /**
      * Create a new {@link SpELRuleFactory} with a given reader.
@@ -49,7 +54,38 @@ public class SpELRuleFactory extends AbstractRuleFactory<ParserContext> {
      * @see JsonRuleDefinitionReader
      */
     public SpELRuleFactory(RuleDefinitionReader reader) {
+        this(reader, new SpelParserConfiguration());
+    }
+
+    /**
+     * Create a new {@link SpELRuleFactory} with a given reader and parser configuration.
+     *
+     * The parser configuration can enable the SpEL compiler, with
+     * {@link org.springframework.expression.spel.SpelCompilerMode#IMMEDIATE} or
+     * {@link org.springframework.expression.spel.SpelCompilerMode#MIXED} mode and an optional class loader,
+     * for all expressions of created rules. Expressions that are not compilable are interpreted.
+     *
+     * @param reader to use to read rule definitions
+     * @param parserConfiguration used to parse SpEL expressions
+     * @see SpELRule#isCompiled()
+     */
+    public SpELRuleFactory(RuleDefinitionReader reader, SpelParserConfiguration parserConfiguration) {
+        this.reader = reader;
+        this.parserConfiguration = parserConfiguration;
+    }
+
+    /**
+     * Create a new {@link SpELRuleFactory} compiling rules in parallel with the given executor.
+     *
+     * @param reader to use to read rule definitions
+     * @param parserConfiguration used to parse SpEL expressions
+     * @param executor used to compile rules in parallel
+     * @see AbstractRuleFactory#AbstractRuleFactory(Executor)
+     */
+    public SpELRuleFactory(RuleDefinitionReader reader, SpelParserConfiguration parserConfiguration, Executor executor) {
+        super(executor);
         this.reader = reader;
+        this.parserConfiguration = parserConfiguration;
     }
 
     /**
@@ -81,6 +117,17 @@ public class SpELRuleFactory extends AbstractRuleFactory<ParserContext> {
         return createRule(ruleDefinitions.get(0), parserContext);
     }
 
+    /**
+     * Create a new {@link SpELRule} from a rule definition.
+     *
+     * @param ruleDefinition of the rule
+     * @return a new rule
+     * @see ReloadableRulesRepository
+     */
+    public Rule createRule(RuleDefinition ruleDefinition) {
+        return createRule(ruleDefinition, new TemplateParserContext());
+    }
+
     /**
      * Create a set of {@link SpELRule} from a Reader.
      *
@@ -93,17 +140,61 @@ public class SpELRuleFactory extends AbstractRuleFactory<ParserContext> {
 
     /**
      * Create a set of {@link SpELRule} from a Reader.
+     * Rules are created one at a time as their definitions are read from the descriptor.
      *
      * @param rulesDescriptor as a Reader
      * @return a set of rules
      */
     public Rules createRules(Reader rulesDescriptor, ParserContext parserContext) throws Exception {
-        Rules rules = new Rules();
-        List<RuleDefinition> ruleDefinitions = reader.read(rulesDescriptor);
-        for (RuleDefinition ruleDefinition : ruleDefinitions) {
-            rules.register(createRule(ruleDefinition, parserContext));
-        }
-        return rules;
+        return createRules(reader.iterate(rulesDescriptor), parserContext);
+    }
+
+    /**
+     * Create a {@link RulePack} from a Reader. Rule definitions are validated, so that the rule
+     * pack can be written with a {@link RulePackWriter} and rules created from it later without
+     * reading and validating the descriptor again. SpEL expressions are not serializable, so they
+     * are compiled again when rules are created from the rule pack.
+     *
+     * @param rulesDescriptor as a Reader
+     * @return a rule pack
+     */
+    public RulePack createRulePack(Reader rulesDescriptor) throws Exception {
+        return createRulePack(rulesDescriptor, new TemplateParserContext());
+    }
+
+    /**
+     * Create a {@link RulePack} from a Reader. Rule definitions are validated, so that the rule
+     * pack can be written with a {@link RulePackWriter} and rules created from it later without
+     * reading and validating the descriptor again. SpEL expressions are not serializable, so they
+     * are compiled again when rules are created from the rule pack.
+     *
+     * @param rulesDescriptor as a Reader
+     * @param parserContext the SpEL parser context
+     * @return a rule pack
+     */
+    public RulePack createRulePack(Reader rulesDescriptor, ParserContext parserContext) throws Exception {
+        return createRulePack(reader.iterate(rulesDescriptor), EXPRESSION_LANGUAGE, parserContext);
+    }
+
+    /**
+     * Create a set of {@link SpELRule} from a rule pack.
+     *
+     * @param rulePack read with a {@link RulePackReader}
+     * @return a set of rules
+     */
+    public Rules createRules(RulePack rulePack) {
+        return createRules(rulePack, new TemplateParserContext());
+    }
+
+    /**
+     * Create a set of {@link SpELRule} from a rule pack.
+     *
+     * @param rulePack read with a {@link RulePackReader}
+     * @param parserContext the SpEL parser context
+     * @return a set of rules
+     */
+    public Rules createRules(RulePack rulePack, ParserContext parserContext) {
+        return super.createRules(rulePack, parserContext);
     }
 
     protected Rule createSimpleRule(RuleDefinition ruleDefinition, ParserContext parserContext) {
@@ -111,8 +202,8 @@ public class SpELRuleFactory extends AbstractRuleFactory<ParserContext> {
                 .name(ruleDefinition.getName())
                 .description(ruleDefinition.getDescription())
                 .priority(ruleDefinition.getPriority())
-                .when(ruleDefinition.getCondition(), parserContext);
-        ruleDefinition.getActions().forEach(action -> spELRule.then(action, parserContext));
+                .when(ruleDefinition.getCondition(), parserContext, parserConfiguration);
+        ruleDefinition.getActions().forEach(action -> spELRule.then(action, parserContext, parserConfiguration));
         return spELRule;
     }
 
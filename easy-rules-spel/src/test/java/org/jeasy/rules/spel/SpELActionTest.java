@@ -23,6 +23,7 @@
  */
 package org.jeasy.rules.spel;
 
+import org.jeasy.rules.api.Condition;
 import org.jeasy.rules.api.Facts;
 import org.junit.Rule;
 import org.junit.Test;
@@ -102,4 +103,20 @@ public class SpELActionTest {
         assertThat(systemOutRule.getLog()).contains("hello");
 
     }
+
+    @Test
+    public void variablesAssignedByAnActionShouldNotLeakToNextEvaluations() {
+        // given
+        Consumer<Facts> assignVariable = new SpELAction("#temperature = 35");
+        Condition isHot = new SpELCondition("#temperature > 30");
+        Facts facts = new Facts();
+        facts.put("temperature", 20);
+
+        // when
+        assignVariable.accept(facts);
+
+        // then
+        assertThat(isHot.evaluate(facts)).isFalse();
+        assertThat((int) facts.get("temperature")).isEqualTo(20);
+    }
 }
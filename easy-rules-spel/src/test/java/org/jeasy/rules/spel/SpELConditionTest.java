@@ -28,6 +28,11 @@ import org.jeasy.rules.api.Facts;
 import org.junit.Test;
 import org.springframework.expression.ParserContext;
 import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -73,4 +78,103 @@ public class SpELConditionTest {
         // then
         assertThat(evaluationResult).isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void conditionsShouldSeeFactsChangedBetweenEvaluations() {
+        // given
+        Condition isHot = new SpELCondition("#temperature > 30");
+        Facts facts = new Facts();
+        facts.put("temperature", 20);
+        boolean firstEvaluationResult = isHot.evaluate(facts);
+
+        // when
+        facts.put("temperature", 35);
+
+        // then
+        assertThat(firstEvaluationResult).isFalse();
+        assertThat(isHot.evaluate(facts)).isTrue();
+    }
+
+    @Test
+    public void conditionsShouldBeEvaluatedInsideTheEvaluationOfAnotherCondition() {
+        // given
+        Condition isAdult = new SpELCondition("#person.age > 18");
+        Facts personFacts = new Facts();
+        personFacts.put("person", new Person("foo", 20));
+        Supplier<Boolean> nestedEvaluation = () -> isAdult.evaluate(personFacts);
+        Condition condition = new SpELCondition("#nested.get() && #temperature > 30");
+        Facts facts = new Facts();
+        facts.put("nested", nestedEvaluation);
+        facts.put("temperature", 35);
+
+        // when
+        boolean evaluationResult = condition.evaluate(facts);
+
+        // then
+        assertThat(evaluationResult).isTrue();
+    }
+
+    @Test
+    public void whenCompilerIsEnabled_thenConditionShouldBeCompiledAfterFirstEvaluation() {
+        // given
+        SpELCondition isAdult = new SpELCondition("#person.age > 18", new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+        Facts facts = new Facts();
+        facts.put("person", new Person("foo", 20));
+
+        // when
+        boolean firstEvaluationResult = isAdult.evaluate(facts);
+        facts.put("person", new Person("bar", 17));
+        boolean secondEvaluationResult = isAdult.evaluate(facts);
+
+        // then
+        assertThat(firstEvaluationResult).isTrue();
+        assertThat(secondEvaluationResult).isFalse();
+        assertThat(isAdult.isCompiled()).isTrue();
+    }
+
+    @Test
+    public void whenCompilerIsDisabled_thenConditionShouldBeInterpreted() {
+        // given
+        SpELCondition isAdult = new SpELCondition("#person.age > 18");
+        Facts facts = new Facts();
+        facts.put("person", new Person("foo", 20));
+
+        // when
+        boolean evaluationResult = isAdult.evaluate(facts);
+
+        // then
+        assertThat(evaluationResult).isTrue();
+        assertThat(isAdult.isCompiled()).isFalse();
+    }
+
+    @Test
+    public void whenConditionIsNotCompilable_thenItShouldBeInterpreted() {
+        // given
+        SpELCondition hasAdults = new SpELCondition("#ages.?[#this > 18].size() > 0", new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+        Facts facts = new Facts();
+        facts.put("ages", Arrays.asList(10, 20));
+
+        // when
+        boolean evaluationResult = hasAdults.evaluate(facts);
+
+        // then
+        assertThat(evaluationResult).isTrue();
+        assertThat(hasAdults.isCompiled()).isFalse();
+    }
+
+    @Test
+    public void whenCompiledConditionFails_thenItShouldFallBackToInterpretedMode() {
+        // given
+        SpELCondition isHot = new SpELCondition("#temperature > 30", new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, null));
+        Facts facts = new Facts();
+        facts.put("temperature", 35);
+        isHot.evaluate(facts); // compiled for an integer temperature
+
+        // when
+        facts.put("temperature", 35.5);
+        boolean evaluationResult = isHot.evaluate(facts);
+
+        // then
+        assertThat(evaluationResult).isTrue();
+    }
+}
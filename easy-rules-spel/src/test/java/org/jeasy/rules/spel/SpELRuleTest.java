@@ -83,4 +83,58 @@ public class SpELRuleTest {
         // then
         assertThat(foo.isAdult()).isTrue();
     }
+
+    @Test
+    public void factsReferencedByExpressionsShouldBeDeclaredAsDependencies() {
+        // given
+        spelRule = new SpELRule()
+                .when("#person.age > #threshold and #people.?[age > 18].size() > 0")
+                .then("#person.setAdult(true)")
+                .then("#count = #people.size()");
+
+        // then
+        assertThat(spelRule.getConditionFacts()).containsOnly("person", "threshold", "people");
+        assertThat(spelRule.getActionFacts()).containsOnly("person", "count", "people");
+    }
+
+    @Test
+    public void dependenciesOfExpressionsAccessingRootObjectShouldBeUnknown() {
+        // given
+        spelRule = new SpELRule()
+                .when("#root['person'].age > 18")
+                .then("['person'].setAdult(true)");
+
+        // then
+        assertThat(spelRule.getConditionFacts()).isNull();
+        assertThat(spelRule.getActionFacts()).isNull();
+    }
+
+    @Test
+    public void dereferencedFactsShouldBeRequired() {
+        assertThat(new SpELRule().when("#person.age > 18").getRequiredFacts()).containsOnly("person");
+        assertThat(new SpELRule().when("#person.age > 18 and #weather.rainy").getRequiredFacts()).containsOnly("person", "weather");
+        assertThat(new SpELRule().when("#people[0].age > #threshold").getRequiredFacts()).containsOnly("people");
+        assertThat(new SpELRule().when("!(#person.adult and #weather.rainy)").getRequiredFacts()).containsOnly("person");
+        assertThat(new SpELRule().when("#person.age > 18 or #weather.rainy").getRequiredFacts()).containsOnly("person");
+    }
+
+    @Test
+    public void factsThatMayBeMissingShouldNotBeRequired() {
+        assertThat(new SpELRule().when("#person == null").getRequiredFacts()).isEmpty();
+        assertThat(new SpELRule().when("#person?.age > 18").getRequiredFacts()).isEmpty();
+        assertThat(new SpELRule().when("#adult or #person.age > 18").getRequiredFacts()).isEmpty();
+        assertThat(new SpELRule().when("#adult ? true : #person.age > 18").getRequiredFacts()).isEmpty();
+        assertThat(new SpELRule().when("(#adult and #person.age > 18) == false").getRequiredFacts()).isEmpty();
+    }
+
+    @Test
+    public void whenARequiredFactIsMissing_thenConditionShouldBeEvaluatedToFalse() {
+        // given
+        spelRule = new SpELRule().when("#person.age > 18 and #weather.rainy");
+        facts.put("person", new Person("foo", 20));
+
+        // then
+        assertThat(spelRule.getRequiredFacts()).containsOnly("person", "weather");
+        assertThat(spelRule.evaluate(facts)).isFalse();
+    }
 }
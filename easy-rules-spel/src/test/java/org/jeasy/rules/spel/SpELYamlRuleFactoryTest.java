@@ -23,20 +23,30 @@
  */
 package org.jeasy.rules.spel;
 
+import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rule;
 import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.DefaultRulesEngine;
+import org.jeasy.rules.support.RulePack;
+import org.jeasy.rules.support.RulePackReader;
+import org.jeasy.rules.support.RulePackWriter;
 import org.jeasy.rules.support.UnitRuleGroup;
 import org.jeasy.rules.support.YamlRuleDefinitionReader;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 
 import java.io.File;
 import java.io.FileReader;
 import java.io.Reader;
 import java.io.StringReader;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -46,6 +56,9 @@ public class SpELYamlRuleFactoryTest {
     @org.junit.Rule
     public ExpectedException expectedException = ExpectedException.none();
 
+    @org.junit.Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private SpELRuleFactory factory = new SpELRuleFactory(new YamlRuleDefinitionReader());
 
     @Test
@@ -168,4 +181,76 @@ public class SpELYamlRuleFactoryTest {
         // then
         // expected exception
     }
-}
\ No newline at end of file
+
+    @Test
+    public void whenCompilerIsEnabled_thenCreatedRulesShouldBeCompiled() throws Exception {
+        // given
+        SpELRuleFactory factory = new SpELRuleFactory(new YamlRuleDefinitionReader(),
+                new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, getClass().getClassLoader()));
+        Reader ruleDescriptor = new StringReader("name: adult rule\n" +
+                "condition: \"#{ #person.age > 18 }\"\n" +
+                "actions:\n" +
+                "  - \"#{ #person.setAdult(true) }\"");
+        SpELRule rule = (SpELRule) factory.createRule(ruleDescriptor);
+        Facts facts = new Facts();
+        Person person = new Person("foo", 20);
+        facts.put("person", person);
+
+        // when
+        new DefaultRulesEngine().fire(new Rules(rule), facts);
+
+        // then
+        assertThat(person.isAdult()).isTrue();
+        assertThat(rule.isCompiled()).isTrue();
+    }
+
+    @Test
+    public void testRulesCreationInParallel() throws Exception {
+        // given
+        String rulesDescriptor = new String(Files.readAllBytes(Paths.get("src/test/resources/rules.yml"))) +
+                "\n---\n" + new String(Files.readAllBytes(Paths.get("src/test/resources/composite-rules.yml")));
+        ForkJoinPool executor = new ForkJoinPool(2);
+        SpELRuleFactory parallelFactory = new SpELRuleFactory(new YamlRuleDefinitionReader(), new SpelParserConfiguration(), executor);
+
+        // when
+        Rules rules;
+        try {
+            rules = parallelFactory.createRules(new StringReader(rulesDescriptor));
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        assertThat(rules).extracting(Rule::getName).containsExactly("Movie id rule", "adult rule", "weather rule", "weather rule");
+        assertThat(rules).filteredOn("name", "Movie id rule").hasOnlyElementsOfType(UnitRuleGroup.class);
+    }
+
+    @Test
+    public void testRulesCreationFromRulePack() throws Exception {
+        // given
+        String rulesDescriptor = "name: adult rule\n" +
+                "condition: \"#{ #person.age > 18 }\"\n" +
+                "actions:\n" +
+                "  - \"#{ #person.setAdult(true) }\"\n" +
+                "---\n" +
+                "name: weather rule\n" +
+                "condition: \"#{ #rain }\"\n" +
+                "actions:\n" +
+                "  - \"#{ T(java.lang.System).out.println('It rains, take an umbrella!') }\"";
+        RulePack rulePack = factory.createRulePack(new StringReader(rulesDescriptor));
+        Path path = temporaryFolder.newFile("rules.pack").toPath();
+        new RulePackWriter().write(rulePack, path);
+
+        // when
+        Rules rules = factory.createRules(new RulePackReader().read(path));
+
+        // then
+        assertThat(rules).extracting(Rule::getName).containsExactly("adult rule", "weather rule");
+        Facts facts = new Facts();
+        Person person = new Person("foo", 20);
+        facts.put("person", person);
+        facts.put("rain", false);
+        new DefaultRulesEngine().fire(rules, facts);
+        assertThat(person.isAdult()).isTrue();
+    }
+}
@@ -26,10 +26,12 @@ package org.jeasy.rules.support;
 import org.jeasy.rules.api.Rule;
 
 import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * Base class for {@link RuleDefinitionReader}s.
@@ -39,10 +41,28 @@ import java.util.stream.StreamSupport;
 public abstract class AbstractRuleDefinitionReader implements RuleDefinitionReader {
 
     public List<RuleDefinition> read(Reader reader) throws Exception {
-        Iterable<Map<String, Object>> rules = loadRules(reader);
-        return StreamSupport.stream(rules.spliterator(), false)
-                .map(this::createRuleDefinition)
-                .collect(Collectors.toList());
+        List<RuleDefinition> ruleDefinitions = new ArrayList<>();
+        try {
+            iterate(reader).forEachRemaining(ruleDefinitions::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return ruleDefinitions;
+    }
+
+    public Iterator<RuleDefinition> iterate(Reader reader) throws Exception {
+        Iterator<Map<String, Object>> rules = streamRules(reader);
+        return new Iterator<RuleDefinition>() {
+            @Override
+            public boolean hasNext() {
+                return rules.hasNext();
+            }
+
+            @Override
+            public RuleDefinition next() {
+                return createRuleDefinition(rules.next());
+            }
+        };
     }
 
     /**
@@ -54,6 +74,19 @@ public abstract class AbstractRuleDefinitionReader implements RuleDefinitionRead
      */
     protected abstract Iterable<Map<String, Object>> loadRules(Reader reader) throws Exception;
 
+    /**
+     * Load rules from the given reader one at a time as Maps. By default, all rules are
+     * {@link #loadRules(Reader) loaded} before iterating over them. Readers able to parse
+     * rules incrementally should override this method.
+     *
+     * @param reader to read rules from
+     * @return an iterator of rule Maps
+     * @throws Exception if unable to load rules
+     */
+    protected Iterator<Map<String, Object>> streamRules(Reader reader) throws Exception {
+        return loadRules(reader).iterator();
+    }
+
     /**
      * Create a rule definition.
      *
@@ -86,6 +119,16 @@ public abstract class AbstractRuleDefinitionReader implements RuleDefinitionRead
         }
         ruleDefinition.setActions(actions);
 
+        Map<String, Object> factTypes = (Map<String, Object>) map.get("factTypes");
+        if (factTypes != null) {
+            factTypes.forEach((fact, type) -> {
+                if (!(type instanceof String)) {
+                    throw new IllegalArgumentException("The type of fact '" + fact + "' must be a class name");
+                }
+                ruleDefinition.getFactTypes().put(fact, (String) type);
+            });
+        }
+
         List<Object> composingRules = (List<Object>) map.get("composingRules");
         if (composingRules != null && compositeRuleType == null) {
             throw new IllegalArgumentException("Non-composite rules cannot have composing rules");
@@ -95,10 +138,20 @@ public abstract class AbstractRuleDefinitionReader implements RuleDefinitionRead
             List<RuleDefinition> composingRuleDefinitions = composingRules.stream()
                     .map(rule -> createRuleDefinition((Map<String, Object>) rule))
                     .collect(Collectors.toList());
+            composingRuleDefinitions.forEach(composingRuleDefinition -> inheritFactTypes(ruleDefinition, composingRuleDefinition));
             ruleDefinition.setComposingRules(composingRuleDefinitions);
             ruleDefinition.setCompositeRuleType(compositeRuleType);
         }
 
         return ruleDefinition;
     }
+
+    /*
+     * Fact types declared by a composite rule apply to its composing rules, unless they redeclare them.
+     */
+    private void inheritFactTypes(RuleDefinition compositeRuleDefinition, RuleDefinition composingRuleDefinition) {
+        compositeRuleDefinition.getFactTypes().forEach(composingRuleDefinition.getFactTypes()::putIfAbsent);
+        composingRuleDefinition.getComposingRules()
+                .forEach(ruleDefinition -> inheritFactTypes(composingRuleDefinition, ruleDefinition));
+    }
 }
@@ -24,13 +24,34 @@
 package org.jeasy.rules.support;
 
 import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
 
 /**
  * Base class for rule factories.
  *
+ * A factory created with an {@link Executor} compiles rules in parallel: rule definitions
+ * are read in batches, simple rules of a batch (including those composing composite rules)
+ * are compiled on the executor and the caller thread, then rules are assembled and registered
+ * in the order of their definitions. Instead of failing on the first invalid rule, all rules
+ * are created and errors are reported together in a single {@link IllegalArgumentException}.
+ *
  * @param <C> parser context type
  *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
@@ -43,6 +64,37 @@ public abstract class AbstractRuleFactory<C> {
             ActivationRuleGroup.class.getSimpleName()
     );
 
+    private static final int BATCH_SIZE = 1024;
+
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * Create a new factory compiling rules on the caller thread.
+     */
+    protected AbstractRuleFactory() {
+        this.executor = null;
+        this.parallelism = 1;
+    }
+
+    /**
+     * Create a new factory compiling rules in parallel.
+     *
+     * Simple rules are split in as many partitions as the parallelism of the executor if it is
+     * a {@link ForkJoinPool}, or as the number of available processors otherwise. One partition
+     * is compiled on the caller thread and the others are submitted to the executor.
+     *
+     * @param executor used to compile rules in parallel
+     */
+    protected AbstractRuleFactory(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("The executor must not be null");
+        }
+        this.executor = executor;
+        this.parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+    }
+
     protected Rule createRule(RuleDefinition ruleDefinition, C context) {
         if (ruleDefinition.isCompositeRule()) {
             return createCompositeRule(ruleDefinition, context);
@@ -51,9 +103,159 @@ public abstract class AbstractRuleFactory<C> {
         }
     }
 
+    /**
+     * Create rules from rule definitions, building and registering them one at a time
+     * (or one batch at a time when compiling in parallel) as the given iterator advances.
+     *
+     * @param ruleDefinitions to create rules from
+     * @param context the parser context
+     * @return a set of rules
+     * @throws IOException if the rule definitions cannot be read
+     * @see RuleDefinitionReader#iterate(java.io.Reader)
+     */
+    protected Rules createRules(Iterator<RuleDefinition> ruleDefinitions, C context) throws IOException {
+        Rules rules = new Rules();
+        try {
+            if (executor == null) {
+                while (ruleDefinitions.hasNext()) {
+                    rules.register(createRule(ruleDefinitions.next(), context));
+                }
+            } else {
+                createRulesInParallel(ruleDefinitions, context, rules);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rules;
+    }
+
+    /**
+     * Create a rule pack from rule definitions. Rules are created to validate their definitions
+     * and, when the expression language allows it, to attach their compiled expressions to the pack.
+     *
+     * @param ruleDefinitions to add to the rule pack
+     * @param expressionLanguage name of the expression language of rules
+     * @param context the parser context
+     * @return a rule pack
+     * @throws IOException if the rule definitions cannot be read
+     * @see #addCompiledExpressions(RulePack, RuleDefinition, Rule)
+     */
+    protected RulePack createRulePack(Iterator<RuleDefinition> ruleDefinitions, String expressionLanguage, C context) throws IOException {
+        return createRulePack(ruleDefinitions, expressionLanguage, null, context);
+    }
+
+    /**
+     * Create a rule pack from rule definitions. Rules are created to validate their definitions
+     * and, when the expression language allows it, to attach their compiled expressions to the pack.
+     *
+     * @param ruleDefinitions to add to the rule pack
+     * @param expressionLanguage name of the expression language of rules
+     * @param expressionLanguageVersion version of the implementation of the expression language
+     * @param context the parser context
+     * @return a rule pack
+     * @throws IOException if the rule definitions cannot be read
+     * @see #addCompiledExpressions(RulePack, RuleDefinition, Rule)
+     */
+    protected RulePack createRulePack(Iterator<RuleDefinition> ruleDefinitions, String expressionLanguage,
+                                      String expressionLanguageVersion, C context) throws IOException {
+        RulePack rulePack = new RulePack(expressionLanguage, expressionLanguageVersion);
+        try {
+            while (ruleDefinitions.hasNext()) {
+                RuleDefinition ruleDefinition = ruleDefinitions.next();
+                compileRuleDefinition(ruleDefinition, rulePack, context);
+                rulePack.addRuleDefinition(ruleDefinition);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rulePack;
+    }
+
+    /**
+     * Create rules from a rule pack, reusing its compiled expressions when available.
+     *
+     * @param rulePack to create rules from
+     * @param context the parser context
+     * @return a set of rules
+     * @see #createSimpleRule(RuleDefinition, RulePack, Object)
+     */
+    protected Rules createRules(RulePack rulePack, C context) {
+        Rules rules = new Rules();
+        for (RuleDefinition ruleDefinition : rulePack.getRuleDefinitions()) {
+            rules.register(createRule(ruleDefinition, rulePack, context));
+        }
+        return rules;
+    }
+
     protected abstract Rule createSimpleRule(RuleDefinition ruleDefinition, C parserContext);
 
+    /**
+     * Create a simple rule of a rule pack. By default, expressions of the rule are compiled again.
+     * Factories of languages with serializable compiled expressions should override this method
+     * to reuse them.
+     *
+     * @param ruleDefinition of a simple rule of the rule pack
+     * @param rulePack the rule pack
+     * @param parserContext the parser context
+     * @return a new rule
+     */
+    protected Rule createSimpleRule(RuleDefinition ruleDefinition, RulePack rulePack, C parserContext) {
+        return createSimpleRule(ruleDefinition, parserContext);
+    }
+
+    /**
+     * Attach the compiled expressions of a simple rule to a rule pack, if they are serializable.
+     * Does nothing by default.
+     *
+     * @param rulePack the rule pack
+     * @param ruleDefinition of the simple rule
+     * @param rule created from the rule definition
+     */
+    protected void addCompiledExpressions(RulePack rulePack, RuleDefinition ruleDefinition, Rule rule) {
+    }
+
+    /**
+     * Copy a parser context for the compilation of rules on another thread. Parser contexts
+     * that are not modified when compiling rules can be shared, which is the default.
+     *
+     * @param parserContext to copy
+     * @return a parser context to use on a single thread
+     */
+    protected C copyContext(C parserContext) {
+        return parserContext;
+    }
+
     protected Rule createCompositeRule(RuleDefinition ruleDefinition, C parserContext) {
+        CompositeRule compositeRule = newCompositeRule(ruleDefinition);
+        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+            compositeRule.addRule(createRule(composingRuleDefinition, parserContext));
+        }
+        return compositeRule;
+    }
+
+    private Rule createRule(RuleDefinition ruleDefinition, RulePack rulePack, C context) {
+        if (!ruleDefinition.isCompositeRule()) {
+            return createSimpleRule(ruleDefinition, rulePack, context);
+        }
+        CompositeRule compositeRule = newCompositeRule(ruleDefinition);
+        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+            compositeRule.addRule(createRule(composingRuleDefinition, rulePack, context));
+        }
+        return compositeRule;
+    }
+
+    private void compileRuleDefinition(RuleDefinition ruleDefinition, RulePack rulePack, C context) {
+        if (ruleDefinition.isCompositeRule()) {
+            newCompositeRule(ruleDefinition); // validates the composite rule type
+            for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+                compileRuleDefinition(composingRuleDefinition, rulePack, context);
+            }
+        } else {
+            addCompiledExpressions(rulePack, ruleDefinition, createSimpleRule(ruleDefinition, context));
+        }
+    }
+
+    private CompositeRule newCompositeRule(RuleDefinition ruleDefinition) {
         CompositeRule compositeRule;
         String name = ruleDefinition.getName();
         switch (ruleDefinition.getCompositeRuleType()) {
@@ -71,12 +273,149 @@ public abstract class AbstractRuleFactory<C> {
         }
         compositeRule.setDescription(ruleDefinition.getDescription());
         compositeRule.setPriority(ruleDefinition.getPriority());
+        return compositeRule;
+    }
 
-        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
-            compositeRule.addRule(createRule(composingRuleDefinition, parserContext));
+    private void createRulesInParallel(Iterator<RuleDefinition> ruleDefinitions, C context, Rules rules) {
+        List<RuleCreationError> errors = new ArrayList<>();
+        int position = 0;
+        while (ruleDefinitions.hasNext()) {
+            List<RuleDefinition> batch = new ArrayList<>();
+            List<Integer> positions = new ArrayList<>();
+            while (batch.size() < BATCH_SIZE && ruleDefinitions.hasNext()) {
+                position++;
+                try {
+                    batch.add(ruleDefinitions.next());
+                    positions.add(position);
+                } catch (IllegalArgumentException e) {
+                    errors.add(new RuleCreationError(position, format("rule #%d", position), e));
+                }
+            }
+            List<RuleDefinition> simpleRuleDefinitions = new ArrayList<>();
+            batch.forEach(ruleDefinition -> collectSimpleRuleDefinitions(ruleDefinition, simpleRuleDefinitions));
+            Rule[] simpleRules = new Rule[simpleRuleDefinitions.size()];
+            RuntimeException[] failures = new RuntimeException[simpleRuleDefinitions.size()];
+            runInParallel(simpleRuleDefinitions.size(), (from, to) -> {
+                C partitionContext = copyContext(context);
+                for (int i = from; i < to; i++) {
+                    try {
+                        simpleRules[i] = createSimpleRule(simpleRuleDefinitions.get(i), partitionContext);
+                    } catch (RuntimeException e) {
+                        failures[i] = e;
+                    }
+                }
+            });
+            Map<RuleDefinition, Integer> indexes = new IdentityHashMap<>();
+            for (int i = 0; i < simpleRuleDefinitions.size(); i++) {
+                indexes.put(simpleRuleDefinitions.get(i), i);
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                RuleDefinition ruleDefinition = batch.get(i);
+                try {
+                    Rule rule = assembleRule(ruleDefinition, indexes, simpleRules, failures);
+                    if (rule != null) {
+                        rules.register(rule);
+                        continue;
+                    }
+                } catch (IllegalArgumentException e) {
+                    errors.add(new RuleCreationError(positions.get(i), format("rule '%s' (#%d)", ruleDefinition.getName(), positions.get(i)), e));
+                    continue;
+                }
+                collectFailures(ruleDefinition, ruleDefinition, positions.get(i), indexes, failures, errors);
+            }
+        }
+        if (!errors.isEmpty()) {
+            errors.sort(Comparator.comparingInt(error -> error.position));
+            StringBuilder message = new StringBuilder(format("Unable to create %d rule(s):", errors.size()));
+            errors.forEach(error -> message.append(format("%n - %s: %s", error.rule, error.cause.getMessage())));
+            IllegalArgumentException exception = new IllegalArgumentException(message.toString());
+            errors.forEach(error -> exception.addSuppressed(error.cause));
+            throw exception;
         }
+    }
+
+    private void collectSimpleRuleDefinitions(RuleDefinition ruleDefinition, List<RuleDefinition> simpleRuleDefinitions) {
+        if (ruleDefinition.isCompositeRule()) {
+            ruleDefinition.getComposingRules()
+                    .forEach(composingRuleDefinition -> collectSimpleRuleDefinitions(composingRuleDefinition, simpleRuleDefinitions));
+        } else {
+            simpleRuleDefinitions.add(ruleDefinition);
+        }
+    }
 
+    /*
+     * Assemble a rule from its compiled simple rules, or return null if one of them failed to compile.
+     */
+    private Rule assembleRule(RuleDefinition ruleDefinition, Map<RuleDefinition, Integer> indexes, Rule[] simpleRules, RuntimeException[] failures) {
+        if (!ruleDefinition.isCompositeRule()) {
+            int index = indexes.get(ruleDefinition);
+            return failures[index] == null ? simpleRules[index] : null;
+        }
+        CompositeRule compositeRule = newCompositeRule(ruleDefinition);
+        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+            Rule composingRule = assembleRule(composingRuleDefinition, indexes, simpleRules, failures);
+            if (composingRule == null) {
+                return null;
+            }
+            compositeRule.addRule(composingRule);
+        }
         return compositeRule;
     }
 
+    private void collectFailures(RuleDefinition rootRuleDefinition, RuleDefinition ruleDefinition, int position,
+                                 Map<RuleDefinition, Integer> indexes, RuntimeException[] failures,
+                                 List<RuleCreationError> errors) {
+        if (ruleDefinition.isCompositeRule()) {
+            ruleDefinition.getComposingRules().forEach(composingRuleDefinition ->
+                    collectFailures(rootRuleDefinition, composingRuleDefinition, position, indexes, failures, errors));
+            return;
+        }
+        RuntimeException failure = failures[indexes.get(ruleDefinition)];
+        if (failure != null) {
+            String name = ruleDefinition == rootRuleDefinition ? format("rule '%s'", ruleDefinition.getName())
+                    : format("rule '%s' of rule '%s'", ruleDefinition.getName(), rootRuleDefinition.getName());
+            errors.add(new RuleCreationError(position, format("%s (#%d)", name, position), failure));
+        }
+    }
+
+    /*
+     * Split the range [0, size) in contiguous partitions, run the first one on the caller
+     * thread and the others on the executor, then wait for all of them.
+     */
+    private void runInParallel(int size, BiConsumer<Integer, Integer> partitionTask) {
+        int partitionSize = Math.max(1, (size + parallelism - 1) / parallelism);
+        List<CompletableFuture<Void>> partitions = new ArrayList<>();
+        for (int start = partitionSize; start < size; start += partitionSize) {
+            int from = start;
+            int to = Math.min(start + partitionSize, size);
+            partitions.add(CompletableFuture.runAsync(() -> partitionTask.accept(from, to), executor));
+        }
+        partitionTask.accept(0, Math.min(partitionSize, size));
+        try {
+            CompletableFuture.allOf(partitions.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException exception) {
+            Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw exception;
+        }
+    }
+
+    private static class RuleCreationError {
+
+        private final int position;
+        private final String rule;
+        private final RuntimeException cause;
+
+        private RuleCreationError(int position, String rule, RuntimeException cause) {
+            this.position = position;
+            this.rule = rule;
+            this.cause = cause;
+        }
+    }
+
 }
@@ -107,4 +107,12 @@ public abstract class CompositeRule extends BasicRule {
         Optional.ofNullable(proxyRules.get(rule)).ifPresent(rules::remove);
     }
 
+    /**
+     * Get the rules composing the composite rule.
+     * @return an unmodifiable view of composing rules
+     */
+    public Set<Rule> getRules() {
+        return Collections.unmodifiableSet(rules);
+    }
+
 }
@@ -23,12 +23,17 @@
  */
 package org.jeasy.rules.support;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 /**
@@ -71,4 +76,39 @@ public class JsonRuleDefinitionReader extends AbstractRuleDefinitionReader {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Parse rules one at a time with a streaming parser, so that only the rule
+     * being read is held in memory.
+     */
+    @Override
+    protected Iterator<Map<String, Object>> streamRules(Reader reader) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(reader);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("The rules descriptor must contain an array of rule definitions");
+        }
+        return new Iterator<Map<String, Object>>() {
+
+            private JsonToken token = parser.nextToken();
+
+            @Override
+            public boolean hasNext() {
+                return token != null && token != JsonToken.END_ARRAY;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    Map<String, Object> rule = (Map<String, Object>) objectMapper.readValue(parser, Object.class);
+                    token = parser.nextToken();
+                    return rule;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
 }
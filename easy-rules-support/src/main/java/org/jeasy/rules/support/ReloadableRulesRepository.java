@@ -0,0 +1,408 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.api.Rules;
+import org.jeasy.rules.core.CompiledRulesHolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Repository of rules defined in the rule descriptors of a directory, reloaded when they change.
+ *
+ * When a descriptor changes, only rule definitions whose name or content changed are compiled
+ * again; unchanged rules are reused as is. The resulting rule set is published as an immutable
+ * {@link CompiledRules} snapshot through a {@link CompiledRulesHolder}, so rules engines firing
+ * the previous snapshot are neither blocked nor affected. If a descriptor cannot be read or one of
+ * its rules cannot be compiled, the rules previously loaded from this descriptor are kept.
+ *
+ * Descriptors are reloaded by {@link #reload()}, or automatically by a background thread watching
+ * the directory once the repository is {@link #start() started}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class ReloadableRulesRepository implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReloadableRulesRepository.class);
+
+    private static final long QUIET_PERIOD_MILLIS = 100;
+    private static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final RuleDefinitionReader reader;
+    private final Function<RuleDefinition, Rule> ruleFactory;
+    private final CompiledRulesHolder rulesHolder;
+
+    private final Map<Path, LoadedDescriptor> descriptors = new HashMap<>();
+
+    private final AtomicLong reloadCount = new AtomicLong();
+    private final AtomicLong compiledRuleCount = new AtomicLong();
+    private final AtomicLong compileFailureCount = new AtomicLong();
+    private final AtomicLong readFailureCount = new AtomicLong();
+    private final AtomicReference<Duration> lastReloadDuration = new AtomicReference<>(Duration.ZERO);
+
+    private WatchService watchService;
+    private Thread watcher;
+
+    /**
+     * Create a new {@link ReloadableRulesRepository} publishing rules through a new {@link CompiledRulesHolder}.
+     *
+     * @param directory containing rule descriptors
+     * @param glob pattern of the names of rule descriptors in the directory, {@code *.yml} for example
+     * @param reader used to read rule definitions from descriptors
+     * @param ruleFactory used to create rules from their definitions
+     */
+    public ReloadableRulesRepository(Path directory, String glob, RuleDefinitionReader reader, Function<RuleDefinition, Rule> ruleFactory) {
+        this(directory, glob, reader, ruleFactory, new CompiledRulesHolder());
+    }
+
+    /**
+     * Create a new {@link ReloadableRulesRepository}.
+     *
+     * @param directory containing rule descriptors
+     * @param glob pattern of the names of rule descriptors in the directory, {@code *.yml} for example
+     * @param reader used to read rule definitions from descriptors
+     * @param ruleFactory used to create rules from their definitions
+     * @param rulesHolder through which rules are published
+     */
+    public ReloadableRulesRepository(Path directory, String glob, RuleDefinitionReader reader,
+                                     Function<RuleDefinition, Rule> ruleFactory, CompiledRulesHolder rulesHolder) {
+        this.directory = Objects.requireNonNull(directory);
+        this.matcher = directory.getFileSystem().getPathMatcher("glob:" + Objects.requireNonNull(glob));
+        this.reader = Objects.requireNonNull(reader);
+        this.ruleFactory = Objects.requireNonNull(ruleFactory);
+        this.rulesHolder = Objects.requireNonNull(rulesHolder);
+    }
+
+    /**
+     * Get the current snapshot of rules.
+     *
+     * @return the current rules
+     */
+    public CompiledRules getRules() {
+        return rulesHolder.get();
+    }
+
+    /**
+     * Get the holder through which rules are published.
+     *
+     * @return the rules holder
+     */
+    public CompiledRulesHolder getRulesHolder() {
+        return rulesHolder;
+    }
+
+    /**
+     * Load rule descriptors, then watch the directory in a background thread
+     * to reload descriptors when they are created, modified or deleted.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        reload();
+        watcher = new Thread(this::watch, "easy-rules-reloader-" + directory.getFileName());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stop watching the directory.
+     *
+     * @throws IOException if the watch service cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+            watcher = null;
+        }
+    }
+
+    /**
+     * Reload rule descriptors of the directory that were created, modified or deleted since the
+     * last reload, and publish the resulting rules if they changed.
+     *
+     * @return the current rules
+     * @throws IOException if the directory cannot be listed
+     */
+    public synchronized CompiledRules reload() throws IOException {
+        long start = System.nanoTime();
+        boolean changed = false;
+        Set<Path> paths = new HashSet<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, path -> matcher.matches(path.getFileName()))) {
+            for (Path path : stream) {
+                if (Files.isRegularFile(path)) {
+                    paths.add(path);
+                    changed |= reload(path);
+                }
+            }
+        }
+        changed |= descriptors.keySet().retainAll(paths);
+        CompiledRules rules = rulesHolder.get();
+        if (changed) {
+            Rules newRules = new Rules();
+            descriptors.values().forEach(descriptor -> descriptor.rules.values().forEach(loadedRule -> newRules.register(loadedRule.rule)));
+            rules = rulesHolder.publish(newRules);
+        }
+        reloadCount.incrementAndGet();
+        lastReloadDuration.set(Duration.ofNanos(System.nanoTime() - start));
+        return rules;
+    }
+
+    /*
+     * Reload a descriptor if its content changed, reusing rules whose definition did not change.
+     * Returns true if the rules of the descriptor changed. The content is not read again if the
+     * size and modification time did not change, unless the descriptor was modified so close to
+     * the previous check that a later modification could have the same timestamp.
+     */
+    private boolean reload(Path path) {
+        LoadedDescriptor previous = descriptors.get(path);
+        Map<String, LoadedRule> previousRules = previous != null ? previous.rules : Collections.emptyMap();
+        byte[] hash = null;
+        BasicFileAttributes attributes = null;
+        long checkTime = System.currentTimeMillis();
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (previous != null && previous.size == attributes.size()
+                    && previous.lastModifiedTime.equals(attributes.lastModifiedTime())
+                    && previous.lastModifiedTime.toMillis() < previous.checkTime - TIMESTAMP_RESOLUTION_MILLIS) {
+                return false;
+            }
+            byte[] content = Files.readAllBytes(path);
+            hash = digest().digest(content);
+            if (previous != null && Arrays.equals(previous.hash, hash)) {
+                descriptors.put(path, new LoadedDescriptor(attributes, checkTime, hash, previousRules));
+                return false;
+            }
+            List<RuleDefinition> ruleDefinitions = reader.read(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8));
+            Map<String, LoadedRule> rules = new LinkedHashMap<>();
+            for (RuleDefinition ruleDefinition : ruleDefinitions) {
+                byte[] ruleHash = hash(ruleDefinition);
+                LoadedRule previousRule = previousRules.get(ruleDefinition.getName());
+                if (previousRule != null && Arrays.equals(previousRule.hash, ruleHash)) {
+                    rules.put(ruleDefinition.getName(), previousRule);
+                    continue;
+                }
+                try {
+                    rules.put(ruleDefinition.getName(), new LoadedRule(ruleHash, ruleFactory.apply(ruleDefinition)));
+                    compiledRuleCount.incrementAndGet();
+                } catch (RuntimeException e) {
+                    compileFailureCount.incrementAndGet();
+                    LOGGER.error("Unable to compile rule '{}' of {}, keeping rules previously loaded from this file",
+                            ruleDefinition.getName(), path, e);
+                    // the same content is not compiled again until the descriptor changes
+                    descriptors.put(path, new LoadedDescriptor(attributes, checkTime, hash, previousRules));
+                    return false;
+                }
+            }
+            descriptors.put(path, new LoadedDescriptor(attributes, checkTime, hash, rules));
+            return true;
+        } catch (Exception e) {
+            readFailureCount.incrementAndGet();
+            LOGGER.error("Unable to read rules from {}, keeping rules previously loaded from this file", path, e);
+            if (hash != null) {
+                descriptors.put(path, new LoadedDescriptor(attributes, checkTime, hash, previousRules));
+            }
+            return false;
+        }
+    }
+
+    private void watch() {
+        WatchService watchService;
+        synchronized (this) {
+            watchService = this.watchService;
+        }
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // wait for writes to settle before reloading
+                while (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                    key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    reload();
+                } catch (IOException e) {
+                    LOGGER.error("Unable to reload rules from {}", directory, e);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            LOGGER.debug("Stopped watching {}", directory);
+        }
+    }
+
+    private static byte[] hash(RuleDefinition ruleDefinition) {
+        MessageDigest digest = digest();
+        update(digest, ruleDefinition);
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, RuleDefinition ruleDefinition) {
+        update(digest, ruleDefinition.getName());
+        update(digest, ruleDefinition.getDescription());
+        update(digest, String.valueOf(ruleDefinition.getPriority()));
+        update(digest, ruleDefinition.getCondition());
+        update(digest, String.valueOf(ruleDefinition.getActions()));
+        update(digest, String.valueOf(ruleDefinition.getFactTypes()));
+        update(digest, ruleDefinition.getCompositeRuleType());
+        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+            update(digest, composingRuleDefinition);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update(bytes);
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every Java platform supports SHA-256
+        }
+    }
+
+    /**
+     * Number of reloads of the directory.
+     *
+     * @return the reload count
+     */
+    public long getReloadCount() {
+        return reloadCount.get();
+    }
+
+    /**
+     * Duration of the last reload of the directory, including the compilation of changed rules.
+     *
+     * @return the duration of the last reload
+     */
+    public Duration getLastReloadDuration() {
+        return lastReloadDuration.get();
+    }
+
+    /**
+     * Number of rules compiled because they were added or changed.
+     *
+     * @return the compiled rule count
+     */
+    public long getCompiledRuleCount() {
+        return compiledRuleCount.get();
+    }
+
+    /**
+     * Number of rules that could not be compiled.
+     *
+     * @return the compile failure count
+     */
+    public long getCompileFailureCount() {
+        return compileFailureCount.get();
+    }
+
+    /**
+     * Number of times a rule descriptor could not be read.
+     *
+     * @return the read failure count
+     */
+    public long getReadFailureCount() {
+        return readFailureCount.get();
+    }
+
+    private static class LoadedDescriptor {
+
+        private final long size;
+        private final FileTime lastModifiedTime;
+        private final long checkTime;
+        private final byte[] hash;
+        private final Map<String, LoadedRule> rules;
+
+        private LoadedDescriptor(BasicFileAttributes attributes, long checkTime, byte[] hash, Map<String, LoadedRule> rules) {
+            this.size = attributes.size();
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.checkTime = checkTime;
+            this.hash = hash;
+            this.rules = rules;
+        }
+    }
+
+    private static class LoadedRule {
+
+        private final byte[] hash;
+        private final Rule rule;
+
+        private LoadedRule(byte[] hash, Rule rule) {
+            this.hash = hash;
+            this.rule = rule;
+        }
+    }
+}
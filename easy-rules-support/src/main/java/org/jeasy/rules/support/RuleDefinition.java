@@ -26,7 +26,9 @@ package org.jeasy.rules.support;
 import org.jeasy.rules.api.Rule;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Rule definition as defined in a rule descriptor.
@@ -35,6 +37,9 @@ import java.util.List;
  * This definition is produced by a {@link RuleDefinitionReader}
  * and consumed by rule factories to create rules.
  *
+ * Fact types map the names of facts used by the rule to the fully qualified
+ * names of their types. Rule factories may use them to type check expressions.
+ *
  * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
  */
 public class RuleDefinition {
@@ -44,6 +49,7 @@ public class RuleDefinition {
     private int priority = Rule.DEFAULT_PRIORITY;
     private String condition;
     private List<String> actions = new ArrayList<>();
+    private Map<String, String> factTypes = new LinkedHashMap<>();
     private List<RuleDefinition> composingRules = new ArrayList<>();
     private String compositeRuleType;
 
@@ -87,6 +93,14 @@ public class RuleDefinition {
         this.actions = actions;
     }
 
+    public Map<String, String> getFactTypes() {
+        return factTypes;
+    }
+
+    public void setFactTypes(Map<String, String> factTypes) {
+        this.factTypes = factTypes;
+    }
+
     public void setComposingRules(List<RuleDefinition> composingRuleDefinitions) {
         this.composingRules = composingRuleDefinitions;
     }
@@ -24,6 +24,7 @@
 package org.jeasy.rules.support;
 
 import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -48,4 +49,20 @@ public interface RuleDefinitionReader {
      */
     List<RuleDefinition> read(Reader reader) throws Exception;
 
+    /**
+     * Read rule definitions from a rule descriptor one at a time.
+     *
+     * Implementations may read the descriptor lazily as the iterator advances, so that
+     * rule definitions of large descriptors do not need to be held in memory all at once.
+     * The reader must stay open until the iteration is complete. Errors happening while
+     * iterating are thrown as unchecked exceptions.
+     *
+     * @param reader of the rules descriptor
+     * @return an iterator over rule definitions
+     * @throws Exception if a problem occurs during rule definition reading
+     */
+    default Iterator<RuleDefinition> iterate(Reader reader) throws Exception {
+        return read(reader).iterator();
+    }
+
 }
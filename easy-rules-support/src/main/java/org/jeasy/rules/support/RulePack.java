@@ -0,0 +1,146 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validated rule definitions, with the compiled form of their expressions when the
+ * expression language allows it, that can be stored in a binary file to create rules
+ * without reading rule descriptors and compiling expressions again.
+ *
+ * Rule packs are created by rule factories, written with a {@link RulePackWriter}
+ * and read with a {@link RulePackReader}.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulePack {
+
+    private final String expressionLanguage;
+    private final String expressionLanguageVersion;
+    private final List<RuleDefinition> ruleDefinitions = new ArrayList<>();
+    private final Map<RuleDefinition, CompiledExpressions> compiledExpressions = new IdentityHashMap<>();
+
+    /**
+     * Create a new {@link RulePack}.
+     *
+     * @param expressionLanguage name of the language of rule expressions, used to check
+     *                           compiled expressions are read by the language that wrote them
+     */
+    public RulePack(String expressionLanguage) {
+        this(expressionLanguage, null);
+    }
+
+    /**
+     * Create a new {@link RulePack}.
+     *
+     * @param expressionLanguage name of the language of rule expressions, used to check
+     *                           compiled expressions are read by the language that wrote them
+     * @param expressionLanguageVersion version of the implementation of the expression language,
+     *                                  used to check compiled expressions are read by the same version
+     */
+    public RulePack(String expressionLanguage, String expressionLanguageVersion) {
+        this.expressionLanguage = expressionLanguage;
+        this.expressionLanguageVersion = expressionLanguageVersion;
+    }
+
+    public String getExpressionLanguage() {
+        return expressionLanguage;
+    }
+
+    public String getExpressionLanguageVersion() {
+        return expressionLanguageVersion;
+    }
+
+    public List<RuleDefinition> getRuleDefinitions() {
+        return Collections.unmodifiableList(ruleDefinitions);
+    }
+
+    public void addRuleDefinition(RuleDefinition ruleDefinition) {
+        ruleDefinitions.add(ruleDefinition);
+    }
+
+    /**
+     * Attach the compiled form of the condition and actions of a simple rule definition.
+     *
+     * @param ruleDefinition of a simple rule, part of this rule pack
+     * @param compiledCondition the compiled condition
+     * @param compiledActions the compiled actions, in the order of the actions of the definition
+     */
+    public void setCompiledExpressions(RuleDefinition ruleDefinition, Serializable compiledCondition, List<? extends Serializable> compiledActions) {
+        if (compiledActions.size() != ruleDefinition.getActions().size()) {
+            throw new IllegalArgumentException("Rule '" + ruleDefinition.getName() + "' has " + ruleDefinition.getActions().size()
+                    + " action(s) but " + compiledActions.size() + " compiled action(s)");
+        }
+        compiledExpressions.put(ruleDefinition, new CompiledExpressions(compiledCondition, new ArrayList<>(compiledActions)));
+    }
+
+    /**
+     * Check if the expressions of a simple rule definition have been compiled.
+     *
+     * @param ruleDefinition of a simple rule, part of this rule pack
+     * @return true if the compiled condition and actions of the rule are available
+     */
+    public boolean hasCompiledExpressions(RuleDefinition ruleDefinition) {
+        return compiledExpressions.containsKey(ruleDefinition);
+    }
+
+    /**
+     * Get the compiled condition of a simple rule definition.
+     *
+     * @param ruleDefinition of a simple rule, part of this rule pack
+     * @return the compiled condition, or null if it is not available
+     */
+    public Serializable getCompiledCondition(RuleDefinition ruleDefinition) {
+        CompiledExpressions expressions = compiledExpressions.get(ruleDefinition);
+        return expressions != null ? expressions.condition : null;
+    }
+
+    /**
+     * Get the compiled actions of a simple rule definition.
+     *
+     * @param ruleDefinition of a simple rule, part of this rule pack
+     * @return the compiled actions, or an empty list if they are not available
+     */
+    public List<Serializable> getCompiledActions(RuleDefinition ruleDefinition) {
+        CompiledExpressions expressions = compiledExpressions.get(ruleDefinition);
+        return expressions != null ? Collections.unmodifiableList(expressions.actions) : Collections.emptyList();
+    }
+
+    private static class CompiledExpressions {
+
+        private final Serializable condition;
+        private final List<Serializable> actions;
+
+        private CompiledExpressions(Serializable condition, List<Serializable> actions) {
+            this.condition = condition;
+            this.actions = actions;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static org.jeasy.rules.support.RulePackWriter.MAGIC;
+import static org.jeasy.rules.support.RulePackWriter.NULL;
+import static org.jeasy.rules.support.RulePackWriter.VERSION;
+
+/**
+ * Reader of {@link RulePack}s written by a {@link RulePackWriter}.
+ *
+ * Rule pack files are memory-mapped. Rule definitions are read as they were written, without
+ * being validated again. Compiled expressions are deserialized with Java serialization, restricted
+ * to classes of the allowed packages (those of MVEL by default), primitive and common JDK value and
+ * collection types, and the allowed classes given to the reader. Any other class is rejected with an
+ * {@link InvalidClassException}. Fact types declared by rule definitions of the pack are not trusted, since
+ * they are read from the pack itself: fact types used by compiled expressions must be allowed explicitly.
+ * Rule packs should still only be read from trusted sources.
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulePackReader {
+
+    /**
+     * Packages of classes allowed in compiled expressions by default.
+     */
+    public static final List<String> DEFAULT_ALLOWED_PACKAGES = Collections.singletonList("org.mvel2");
+
+    private static final Set<String> ALLOWED_JDK_CLASSES = new HashSet<>(Arrays.asList(
+            "boolean", "byte", "char", "short", "int", "long", "float", "double", "void",
+            "java.lang.Object", "java.lang.String", "java.lang.Boolean", "java.lang.Character", "java.lang.Number",
+            "java.lang.Byte", "java.lang.Short", "java.lang.Integer", "java.lang.Long", "java.lang.Float", "java.lang.Double",
+            "java.lang.Enum", "java.math.BigInteger", "java.math.BigDecimal",
+            "java.util.ArrayList", "java.util.LinkedList", "java.util.HashMap", "java.util.LinkedHashMap", "java.util.TreeMap",
+            "java.util.HashSet", "java.util.LinkedHashSet", "java.util.TreeSet",
+            // serialized form of ConcurrentHashMap
+            "java.util.concurrent.ConcurrentHashMap", "java.util.concurrent.ConcurrentHashMap$Segment",
+            "java.util.concurrent.locks.ReentrantLock", "java.util.concurrent.locks.ReentrantLock$Sync",
+            "java.util.concurrent.locks.ReentrantLock$NonfairSync", "java.util.concurrent.locks.AbstractQueuedSynchronizer",
+            "java.util.concurrent.locks.AbstractOwnableSynchronizer"
+    ));
+
+    private final ClassLoader classLoader;
+    private final List<String> allowedPackages;
+    private final Set<String> allowedClasses;
+
+    /**
+     * Create a new {@link RulePackReader} resolving classes of compiled expressions
+     * with the default class loader of Java serialization.
+     */
+    public RulePackReader() {
+        this(null);
+    }
+
+    /**
+     * Create a new {@link RulePackReader}.
+     *
+     * @param classLoader used to resolve classes of compiled expressions
+     */
+    public RulePackReader(ClassLoader classLoader) {
+        this(classLoader, DEFAULT_ALLOWED_PACKAGES);
+    }
+
+    /**
+     * Create a new {@link RulePackReader}.
+     *
+     * @param classLoader used to resolve classes of compiled expressions
+     * @param allowedPackages packages of classes allowed in compiled expressions, besides JDK value types
+     */
+    public RulePackReader(ClassLoader classLoader, Collection<String> allowedPackages) {
+        this(classLoader, allowedPackages, Collections.emptySet());
+    }
+
+    /**
+     * Create a new {@link RulePackReader}.
+     *
+     * @param classLoader used to resolve classes of compiled expressions
+     * @param allowedPackages packages of classes allowed in compiled expressions, besides JDK value types
+     * @param allowedClasses fully qualified names of other classes allowed in compiled expressions,
+     *                       like fact types of rule definitions
+     */
+    public RulePackReader(ClassLoader classLoader, Collection<String> allowedPackages, Collection<String> allowedClasses) {
+        this.classLoader = classLoader;
+        this.allowedPackages = new ArrayList<>(allowedPackages);
+        this.allowedClasses = new HashSet<>(allowedClasses);
+    }
+
+    /**
+     * Read a rule pack from a file.
+     *
+     * @param path of the rule pack file
+     * @return the rule pack
+     * @throws IOException if the rule pack cannot be read
+     */
+    public RulePack read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Read a rule pack from a buffer, starting at its current position.
+     *
+     * @param buffer containing the rule pack
+     * @return the rule pack
+     * @throws IOException if the rule pack cannot be read
+     */
+    public RulePack read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a rule pack");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported rule pack version " + version);
+            }
+            RulePack rulePack = new RulePack(readString(buffer), readString(buffer));
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readString(buffer);
+            }
+            int ruleCount = buffer.getInt();
+            List<RuleDefinition> compiledRuleDefinitions = new ArrayList<>();
+            for (int i = 0; i < ruleCount; i++) {
+                rulePack.addRuleDefinition(readRuleDefinition(buffer, strings, compiledRuleDefinitions));
+            }
+            int compiledExpressionsLength = buffer.getInt();
+            if (!compiledRuleDefinitions.isEmpty()) {
+                ByteBuffer compiledExpressions = buffer.slice();
+                compiledExpressions.limit(compiledExpressionsLength);
+                readCompiledExpressions(compiledExpressions, compiledRuleDefinitions, rulePack);
+            }
+            buffer.position(buffer.position() + compiledExpressionsLength);
+            return rulePack;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("The rule pack is truncated or corrupted", e);
+        }
+    }
+
+    private RuleDefinition readRuleDefinition(ByteBuffer buffer, String[] strings, List<RuleDefinition> compiledRuleDefinitions) {
+        RuleDefinition ruleDefinition = new RuleDefinition();
+        ruleDefinition.setName(stringAt(buffer.getInt(), strings));
+        ruleDefinition.setDescription(stringAt(buffer.getInt(), strings));
+        ruleDefinition.setPriority(buffer.getInt());
+        ruleDefinition.setCondition(stringAt(buffer.getInt(), strings));
+        int actionCount = buffer.getInt();
+        List<String> actions = new ArrayList<>(actionCount);
+        for (int i = 0; i < actionCount; i++) {
+            actions.add(stringAt(buffer.getInt(), strings));
+        }
+        ruleDefinition.setActions(actions);
+        int factTypeCount = buffer.getInt();
+        for (int i = 0; i < factTypeCount; i++) {
+            ruleDefinition.getFactTypes().put(stringAt(buffer.getInt(), strings), stringAt(buffer.getInt(), strings));
+        }
+        ruleDefinition.setCompositeRuleType(stringAt(buffer.getInt(), strings));
+        int composingRuleCount = buffer.getInt();
+        List<RuleDefinition> composingRules = new ArrayList<>(composingRuleCount);
+        for (int i = 0; i < composingRuleCount; i++) {
+            composingRules.add(readRuleDefinition(buffer, strings, compiledRuleDefinitions));
+        }
+        ruleDefinition.setComposingRules(composingRules);
+        if (!ruleDefinition.isCompositeRule() && buffer.get() != 0) {
+            compiledRuleDefinitions.add(ruleDefinition);
+        }
+        return ruleDefinition;
+    }
+
+    private void readCompiledExpressions(ByteBuffer buffer, List<RuleDefinition> compiledRuleDefinitions, RulePack rulePack) throws IOException {
+        try (ObjectInputStream objectInput = new CompiledExpressionsInputStream(new ByteBufferInputStream(buffer), classLoader, allowedPackages, allowedClasses)) {
+            for (RuleDefinition ruleDefinition : compiledRuleDefinitions) {
+                Serializable compiledCondition = (Serializable) objectInput.readObject();
+                List<Serializable> compiledActions = new ArrayList<>();
+                for (int i = 0; i < ruleDefinition.getActions().size(); i++) {
+                    compiledActions.add((Serializable) objectInput.readObject());
+                }
+                rulePack.setCompiledExpressions(ruleDefinition, compiledCondition, compiledActions);
+            }
+        } catch (ClassNotFoundException | InvalidClassException e) {
+            throw new IOException(format("Unable to read compiled expressions of the rule pack, written with %s %s",
+                    rulePack.getExpressionLanguage(), rulePack.getExpressionLanguageVersion()), e);
+        }
+    }
+
+    private String stringAt(int index, String[] strings) {
+        return index == NULL ? null : strings[index];
+    }
+
+    private String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+    private static class CompiledExpressionsInputStream extends ObjectInputStream {
+
+        private final ClassLoader classLoader;
+        private final List<String> allowedPackages;
+        private final Set<String> allowedClasses;
+
+        private CompiledExpressionsInputStream(InputStream inputStream, ClassLoader classLoader,
+                                               List<String> allowedPackages, Set<String> allowedClasses) throws IOException {
+            super(inputStream);
+            this.classLoader = classLoader;
+            this.allowedPackages = allowedPackages;
+            this.allowedClasses = allowedClasses;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+            checkAllowed(description.getName());
+            if (classLoader != null) {
+                try {
+                    return Class.forName(description.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    // primitive types are resolved by the default implementation
+                }
+            }
+            return super.resolveClass(description);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws InvalidClassException {
+            throw new InvalidClassException(String.join(", ", interfaces), "Proxies are not allowed in compiled expressions of a rule pack");
+        }
+
+        private void checkAllowed(String className) throws InvalidClassException {
+            String componentName = className;
+            if (componentName.startsWith("[")) {
+                componentName = componentName.substring(componentName.lastIndexOf('[') + 1);
+                if (componentName.length() == 1) {
+                    return; // array of primitive type
+                }
+                componentName = componentName.substring(1, componentName.length() - 1);
+            }
+            if (!ALLOWED_JDK_CLASSES.contains(componentName) && !allowedClasses.contains(componentName) && !isInAllowedPackage(componentName)) {
+                throw new InvalidClassException(className, "Class not allowed in compiled expressions of a rule pack");
+            }
+        }
+
+        private boolean isInAllowedPackage(String className) {
+            for (String allowedPackage : allowedPackages) {
+                if (className.startsWith(allowedPackage + ".")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
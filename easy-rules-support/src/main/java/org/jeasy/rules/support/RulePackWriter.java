@@ -0,0 +1,178 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of {@link RulePack}s in a compact binary format.
+ *
+ * A rule pack file starts with a header (magic number and format version) and the name and
+ * version of the expression language, followed by a table of all distinct strings of rule definitions (names,
+ * descriptions, expressions and fact types), the tree of rule definitions referring to strings
+ * by their index in the table, and finally the compiled expressions, serialized in a single
+ * object stream so that expressions shared by several rules are written once.
+ *
+ * @see RulePackReader
+ *
+ * @author Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ */
+public class RulePackWriter {
+
+    static final int MAGIC = 0x4552504B; // "ERPK"
+    static final int VERSION = 2;
+    static final int NULL = -1;
+
+    /**
+     * Write a rule pack to a file.
+     *
+     * @param rulePack to write
+     * @param path of the file
+     * @throws IOException if the rule pack cannot be written
+     */
+    public void write(RulePack rulePack, Path path) throws IOException {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(rulePack, outputStream);
+        }
+    }
+
+    /**
+     * Write a rule pack to an output stream. The stream is not closed.
+     *
+     * @param rulePack to write
+     * @param outputStream to write the rule pack to
+     * @throws IOException if the rule pack cannot be written
+     */
+    public void write(RulePack rulePack, OutputStream outputStream) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        rulePack.getRuleDefinitions().forEach(ruleDefinition -> collectStrings(ruleDefinition, strings));
+
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        writeString(output, rulePack.getExpressionLanguage());
+        writeString(output, rulePack.getExpressionLanguageVersion());
+        output.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            writeString(output, string);
+        }
+        List<RuleDefinition> ruleDefinitions = rulePack.getRuleDefinitions();
+        output.writeInt(ruleDefinitions.size());
+        ByteArrayOutputStream compiledExpressions = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutput = new ObjectOutputStream(compiledExpressions)) {
+            for (RuleDefinition ruleDefinition : ruleDefinitions) {
+                writeRuleDefinition(output, objectOutput, ruleDefinition, rulePack, strings);
+            }
+        }
+        output.writeInt(compiledExpressions.size());
+        compiledExpressions.writeTo(output);
+        output.flush();
+    }
+
+    private void collectStrings(RuleDefinition ruleDefinition, Map<String, Integer> strings) {
+        addString(ruleDefinition.getName(), strings);
+        addString(ruleDefinition.getDescription(), strings);
+        addString(ruleDefinition.getCondition(), strings);
+        actionsOf(ruleDefinition).forEach(action -> addString(action, strings));
+        ruleDefinition.getFactTypes().forEach((fact, type) -> {
+            addString(fact, strings);
+            addString(type, strings);
+        });
+        addString(ruleDefinition.getCompositeRuleType(), strings);
+        ruleDefinition.getComposingRules().forEach(composingRuleDefinition -> collectStrings(composingRuleDefinition, strings));
+    }
+
+    private void addString(String string, Map<String, Integer> strings) {
+        if (string != null) {
+            strings.putIfAbsent(string, strings.size());
+        }
+    }
+
+    private void writeRuleDefinition(DataOutputStream output, ObjectOutputStream objectOutput, RuleDefinition ruleDefinition,
+                                     RulePack rulePack, Map<String, Integer> strings) throws IOException {
+        output.writeInt(indexOf(ruleDefinition.getName(), strings));
+        output.writeInt(indexOf(ruleDefinition.getDescription(), strings));
+        output.writeInt(ruleDefinition.getPriority());
+        output.writeInt(indexOf(ruleDefinition.getCondition(), strings));
+        List<String> actions = actionsOf(ruleDefinition);
+        output.writeInt(actions.size());
+        for (String action : actions) {
+            output.writeInt(indexOf(action, strings));
+        }
+        output.writeInt(ruleDefinition.getFactTypes().size());
+        for (Map.Entry<String, String> factType : ruleDefinition.getFactTypes().entrySet()) {
+            output.writeInt(indexOf(factType.getKey(), strings));
+            output.writeInt(indexOf(factType.getValue(), strings));
+        }
+        output.writeInt(indexOf(ruleDefinition.getCompositeRuleType(), strings));
+        output.writeInt(ruleDefinition.getComposingRules().size());
+        for (RuleDefinition composingRuleDefinition : ruleDefinition.getComposingRules()) {
+            writeRuleDefinition(output, objectOutput, composingRuleDefinition, rulePack, strings);
+        }
+        if (!ruleDefinition.isCompositeRule()) {
+            boolean compiled = rulePack.hasCompiledExpressions(ruleDefinition);
+            output.writeBoolean(compiled);
+            if (compiled) {
+                objectOutput.writeObject(rulePack.getCompiledCondition(ruleDefinition));
+                for (Serializable compiledAction : rulePack.getCompiledActions(ruleDefinition)) {
+                    objectOutput.writeObject(compiledAction);
+                }
+            }
+        }
+    }
+
+    /*
+     * Composite rule definitions may have no actions at all.
+     */
+    private List<String> actionsOf(RuleDefinition ruleDefinition) {
+        return ruleDefinition.getActions() != null ? ruleDefinition.getActions() : Collections.emptyList();
+    }
+
+    private int indexOf(String string, Map<String, Integer> strings) {
+        return string == null ? NULL : strings.get(string);
+    }
+
+    private void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -26,6 +26,7 @@ package org.jeasy.rules.support;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.Reader;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -71,4 +72,24 @@ public class YamlRuleDefinitionReader extends AbstractRuleDefinitionReader {
                 .map(rule -> (Map<String, Object>) rule)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Compose rules one document at a time from parser events, so that only the rule
+     * being read is held in memory.
+     */
+    @Override
+    protected Iterator<Map<String, Object>> streamRules(Reader reader) {
+        Iterator<Object> rules = yaml.loadAll(reader).iterator();
+        return new Iterator<Map<String, Object>>() {
+            @Override
+            public boolean hasNext() {
+                return rules.hasNext();
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                return (Map<String, Object>) rules.next();
+            }
+        };
+    }
 }
@@ -28,13 +28,17 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 
 // TODO use parametrized test to merge this test class with YamlRuleDefinitionReaderTest.
 public class JsonRuleDefinitionReaderTest {
@@ -202,4 +206,70 @@ public class JsonRuleDefinitionReaderTest {
         assertThat(ruleDefinition.getCondition()).isEqualTo("rain == True");
         assertThat(ruleDefinition.getActions()).isEqualTo(Collections.singletonList("System.out.println(\"It rains, take an umbrella!\");"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRuleDefinitionReading_withFactTypes() throws Exception {
+        // given
+        File adultRuleDescriptor = new File("src/test/resources/typed-adult-rule.json");
+
+        // when
+        List<RuleDefinition> ruleDefinitions = ruleDefinitionReader.read(new FileReader(adultRuleDescriptor));
+
+        // then
+        assertThat(ruleDefinitions).hasSize(1);
+        assertThat(ruleDefinitions.get(0).getFactTypes()).containsOnly(entry("person", "org.jeasy.rules.Person"));
+    }
+
+    @Test
+    public void testRuleDefinitionIteration() throws Exception {
+        // given
+        File rulesDescriptor = new File("src/test/resources/rules.json");
+
+        // when
+        Iterator<RuleDefinition> ruleDefinitions = ruleDefinitionReader.iterate(new FileReader(rulesDescriptor));
+
+        // then
+        assertThat(ruleDefinitions).extracting(RuleDefinition::getName).containsExactly("adult rule", "weather rule");
+    }
+
+    @Test
+    public void testRuleDefinitionIteration_isLazy() throws Exception {
+        // given
+        String rulesDescriptor = "[{\"name\": \"adult rule\", \"condition\": \"person.age > 18\", \"actions\": [\"person.setAdult(true);\"]}, {\"name\": \"invalid rule\"}]";
+        Iterator<RuleDefinition> ruleDefinitions = ruleDefinitionReader.iterate(new StringReader(rulesDescriptor));
+
+        // when
+        RuleDefinition ruleDefinition = ruleDefinitions.next();
+
+        // then
+        assertThat(ruleDefinition.getName()).isEqualTo("adult rule");
+        assertThat(ruleDefinitions.hasNext()).isTrue();
+        assertThatThrownBy(ruleDefinitions::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The rule condition must be specified");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRuleDefinitionIteration_whenDescriptorIsNotAnArray() throws Exception {
+        // given
+        String rulesDescriptor = "{\"name\": \"adult rule\"}";
+
+        // when
+        ruleDefinitionReader.iterate(new StringReader(rulesDescriptor));
+
+        // then
+        // expected exception
+    }
+
+    @Test(expected = IOException.class)
+    public void testRuleDefinitionReading_withMalformedDescriptor() throws Exception {
+        // given
+        String rulesDescriptor = "[{\"name\": \"adult rule\", \"condition\": \"person.age > 18\", \"actions\": [\"person.setAdult(true);\"]}, {\"name\":";
+
+        // when
+        ruleDefinitionReader.read(new StringReader(rulesDescriptor));
+
+        // then
+        // expected exception
+    }
+}
@@ -0,0 +1,204 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import org.jeasy.rules.api.CompiledRules;
+import org.jeasy.rules.api.Rule;
+import org.jeasy.rules.core.RuleBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReloadableRulesRepositoryTest {
+
+    @org.junit.Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private List<String> compiledRules = new ArrayList<>();
+    private Function<RuleDefinition, Rule> ruleFactory = ruleDefinition -> {
+        if ("fail".equals(ruleDefinition.getCondition())) {
+            throw new IllegalArgumentException("Invalid condition");
+        }
+        compiledRules.add(ruleDefinition.getName());
+        return new RuleBuilder()
+                .name(ruleDefinition.getName())
+                .priority(ruleDefinition.getPriority())
+                .when(facts -> true)
+                .then(facts -> { })
+                .build();
+    };
+
+    private Path directory;
+    private ReloadableRulesRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.getRoot().toPath();
+        repository = new ReloadableRulesRepository(directory, "*.yml", new YamlRuleDefinitionReader(), ruleFactory);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        repository.close();
+    }
+
+    @Test
+    public void reloadShouldLoadRulesOfMatchingDescriptors() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"), rule("rule2", 2, "true"));
+        write("other.yml", rule("rule3", 3, "true"));
+        write("rules.txt", rule("rule4", 4, "true"));
+
+        // when
+        CompiledRules rules = repository.reload();
+
+        // then
+        assertThat(rules).extracting(Rule::getName).containsExactly("rule1", "rule2", "rule3");
+        assertThat(repository.getRules()).isSameAs(rules);
+        assertThat(repository.getReloadCount()).isEqualTo(1);
+        assertThat(repository.getCompiledRuleCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void reloadShouldOnlyCompileChangedRules() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"), rule("rule2", 2, "true"));
+        CompiledRules previousRules = repository.reload();
+        compiledRules.clear();
+
+        // when
+        write("rules.yml", rule("rule1", 1, "true"), rule("rule2", 2, "false"));
+        CompiledRules rules = repository.reload();
+
+        // then
+        assertThat(compiledRules).containsExactly("rule2");
+        assertThat(rules).isNotSameAs(previousRules);
+        assertThat(rules.get(0)).isSameAs(previousRules.get(0));
+        assertThat(rules.get(1)).isNotSameAs(previousRules.get(1));
+        assertThat(repository.getCompiledRuleCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void reloadShouldNotPublishRulesWhenNothingChanged() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"));
+        CompiledRules previousRules = repository.reload();
+
+        // when
+        write("rules.yml", rule("rule1", 1, "true"));
+        CompiledRules rules = repository.reload();
+
+        // then
+        assertThat(rules).isSameAs(previousRules);
+        assertThat(compiledRules).containsExactly("rule1");
+    }
+
+    @Test
+    public void reloadShouldRemoveRulesOfDeletedDescriptors() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"));
+        write("other.yml", rule("rule2", 2, "true"));
+        repository.reload();
+
+        // when
+        Files.delete(directory.resolve("other.yml"));
+        CompiledRules rules = repository.reload();
+
+        // then
+        assertThat(rules).extracting(Rule::getName).containsExactly("rule1");
+    }
+
+    @Test
+    public void reloadShouldKeepPreviousRulesWhenRuleCannotBeCompiled() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"), rule("rule2", 2, "true"));
+        CompiledRules previousRules = repository.reload();
+
+        // when
+        write("rules.yml", rule("rule1", 1, "false"), rule("rule2", 2, "fail"));
+        CompiledRules rules = repository.reload();
+        repository.reload();
+
+        // then
+        assertThat(rules).isSameAs(previousRules);
+        assertThat(repository.getCompileFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void reloadShouldKeepPreviousRulesWhenDescriptorCannotBeRead() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"));
+        CompiledRules previousRules = repository.reload();
+
+        // when
+        write("rules.yml", "name: [rule1");
+        CompiledRules rules = repository.reload();
+
+        // then
+        assertThat(rules).isSameAs(previousRules);
+        assertThat(repository.getReadFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void startedRepositoryShouldReloadChangedDescriptors() throws Exception {
+        // given
+        write("rules.yml", rule("rule1", 1, "true"));
+        repository.start();
+        CompiledRules previousRules = repository.getRules();
+
+        // when
+        write("rules.yml", rule("rule1", 1, "true"), rule("rule2", 2, "true"));
+
+        // then
+        long deadline = System.currentTimeMillis() + 10000;
+        while (repository.getRules().size() != 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(repository.getRules()).extracting(Rule::getName).containsExactly("rule1", "rule2");
+        assertThat(previousRules).extracting(Rule::getName).containsExactly("rule1");
+    }
+
+    private void write(String fileName, String... rules) throws IOException {
+        Files.write(directory.resolve(fileName), String.join("---\n", rules).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String rule(String name, int priority, String condition) {
+        return "name: " + name + "\n" +
+                "priority: " + priority + "\n" +
+                "condition: \"" + condition + "\"\n" +
+                "actions:\n" +
+                "  - \"noop\"\n";
+    }
+}
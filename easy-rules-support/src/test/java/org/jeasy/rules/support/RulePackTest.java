@@ -0,0 +1,192 @@
+/**
+ * The MIT License
+ *
+ *  Copyright (c) 2019, Mahmoud Ben Hassine (mahmoud.benhassine@icloud.com)
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in
+ *  all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ *  THE SOFTWARE.
+ */
+package org.jeasy.rules.support;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RulePackTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private RulePackWriter writer = new RulePackWriter();
+    private RulePackReader reader = new RulePackReader();
+
+    @Test
+    public void testRulePackWritingAndReading() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test", "1.0");
+        List<RuleDefinition> ruleDefinitions = new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/rules.yml"));
+        ruleDefinitions.addAll(new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/typed-composite-rules.yml")));
+        ruleDefinitions.forEach(rulePack::addRuleDefinition);
+        RuleDefinition adultRule = ruleDefinitions.get(0);
+        rulePack.setCompiledExpressions(adultRule, "compiled condition", Arrays.asList("compiled action"));
+        Path path = temporaryFolder.newFile("rules.pack").toPath();
+
+        // when
+        writer.write(rulePack, path);
+        RulePack readRulePack = reader.read(path);
+
+        // then
+        assertThat(readRulePack.getExpressionLanguage()).isEqualTo("test");
+        assertThat(readRulePack.getExpressionLanguageVersion()).isEqualTo("1.0");
+        List<RuleDefinition> readRuleDefinitions = readRulePack.getRuleDefinitions();
+        assertThat(readRuleDefinitions).hasSize(3);
+        for (int i = 0; i < ruleDefinitions.size(); i++) {
+            assertSameDefinition(readRuleDefinitions.get(i), ruleDefinitions.get(i));
+        }
+        RuleDefinition readAdultRule = readRuleDefinitions.get(0);
+        assertThat(readRulePack.hasCompiledExpressions(readAdultRule)).isTrue();
+        assertThat(readRulePack.getCompiledCondition(readAdultRule)).isEqualTo("compiled condition");
+        assertThat(readRulePack.getCompiledActions(readAdultRule)).containsExactly("compiled action");
+        RuleDefinition readWeatherRule = readRuleDefinitions.get(1);
+        assertThat(readRulePack.hasCompiledExpressions(readWeatherRule)).isFalse();
+        assertThat(readRulePack.getCompiledCondition(readWeatherRule)).isNull();
+        assertThat(readRulePack.getCompiledActions(readWeatherRule)).isEmpty();
+    }
+
+    @Test
+    public void testRulePackReading_whenNotARulePack() {
+        // given
+        ByteBuffer buffer = ByteBuffer.wrap("[{\"name\": \"adult rule\"}]".getBytes());
+
+        // then
+        assertThatThrownBy(() -> reader.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Not a rule pack");
+    }
+
+    @Test
+    public void testRulePackReading_whenTruncated() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test");
+        new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/rules.yml")).forEach(rulePack::addRuleDefinition);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(rulePack, outputStream);
+        ByteBuffer buffer = ByteBuffer.wrap(Arrays.copyOf(outputStream.toByteArray(), outputStream.size() / 2));
+
+        // then
+        assertThatThrownBy(() -> reader.read(buffer))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The rule pack is truncated or corrupted");
+    }
+
+    @Test
+    public void testRulePackReading_whenCompiledExpressionsHaveAClassNotAllowed() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test", "1.0");
+        RuleDefinition ruleDefinition = new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/adult-rule.yml")).get(0);
+        rulePack.addRuleDefinition(ruleDefinition);
+        rulePack.setCompiledExpressions(ruleDefinition, new CompiledGadget(), Collections.nCopies(ruleDefinition.getActions().size(), "compiled action"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(rulePack, outputStream);
+
+        // then
+        assertThatThrownBy(() -> reader.read(ByteBuffer.wrap(outputStream.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Unable to read compiled expressions of the rule pack, written with test 1.0")
+                .hasCauseInstanceOf(InvalidClassException.class);
+    }
+
+    @Test
+    public void testRulePackReading_whenCompiledExpressionsHaveADeclaredFactTypeNotAllowed() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test", "1.0");
+        RuleDefinition ruleDefinition = new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/adult-rule.yml")).get(0);
+        ruleDefinition.getFactTypes().put("gadget", CompiledGadget.class.getName());
+        rulePack.addRuleDefinition(ruleDefinition);
+        rulePack.setCompiledExpressions(ruleDefinition, new CompiledGadget(), Collections.nCopies(ruleDefinition.getActions().size(), "compiled action"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(rulePack, outputStream);
+
+        // then
+        assertThatThrownBy(() -> reader.read(ByteBuffer.wrap(outputStream.toByteArray())))
+                .isInstanceOf(IOException.class)
+                .hasCauseInstanceOf(InvalidClassException.class);
+    }
+
+    @Test
+    public void testRulePackReading_whenCompiledExpressionsHaveAnAllowedClass() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test", "1.0");
+        RuleDefinition ruleDefinition = new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/adult-rule.yml")).get(0);
+        rulePack.addRuleDefinition(ruleDefinition);
+        rulePack.setCompiledExpressions(ruleDefinition, new CompiledGadget(), Collections.nCopies(ruleDefinition.getActions().size(), "compiled action"));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writer.write(rulePack, outputStream);
+        reader = new RulePackReader(null, RulePackReader.DEFAULT_ALLOWED_PACKAGES, Collections.singletonList(CompiledGadget.class.getName()));
+
+        // when
+        RulePack readRulePack = reader.read(ByteBuffer.wrap(outputStream.toByteArray()));
+
+        // then
+        assertThat(readRulePack.getCompiledCondition(readRulePack.getRuleDefinitions().get(0))).isInstanceOf(CompiledGadget.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCompiledExpressions_whenActionCountDiffers() throws Exception {
+        // given
+        RulePack rulePack = new RulePack("test");
+        RuleDefinition ruleDefinition = new YamlRuleDefinitionReader().read(new FileReader("src/test/resources/adult-rule.yml")).get(0);
+
+        // when
+        rulePack.setCompiledExpressions(ruleDefinition, "compiled condition", Arrays.asList("compiled action", "another compiled action"));
+
+        // then
+        // expected exception
+    }
+
+    private void assertSameDefinition(RuleDefinition actual, RuleDefinition expected) {
+        assertThat(actual.getName()).isEqualTo(expected.getName());
+        assertThat(actual.getDescription()).isEqualTo(expected.getDescription());
+        assertThat(actual.getPriority()).isEqualTo(expected.getPriority());
+        assertThat(actual.getCondition()).isEqualTo(expected.getCondition());
+        assertThat(actual.getActions()).isEqualTo(expected.getActions() != null ? expected.getActions() : Collections.emptyList());
+        assertThat(actual.getFactTypes()).isEqualTo(expected.getFactTypes());
+        assertThat(actual.getCompositeRuleType()).isEqualTo(expected.getCompositeRuleType());
+        assertThat(actual.getComposingRules()).hasSameSizeAs(expected.getComposingRules());
+        for (int i = 0; i < expected.getComposingRules().size(); i++) {
+            assertSameDefinition(actual.getComposingRules().get(i), expected.getComposingRules().get(i));
+        }
+    }
+
+    static class CompiledGadget implements Serializable {
+    }
+}
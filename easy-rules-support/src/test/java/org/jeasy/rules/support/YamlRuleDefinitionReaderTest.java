@@ -32,9 +32,11 @@ import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 // TODO use parametrized test to merge this test class with JsonRuleDefinitionReaderTest
 public class YamlRuleDefinitionReaderTest {
@@ -202,4 +204,82 @@ public class YamlRuleDefinitionReaderTest {
         assertThat(ruleDefinition.getCondition()).isEqualTo("rain == True");
         assertThat(ruleDefinition.getActions()).isEqualTo(Collections.singletonList("System.out.println(\"It rains, take an umbrella!\");"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRuleDefinitionReading_withFactTypes() throws Exception {
+        // given
+        File rulesDescriptor = new File("src/test/resources/typed-composite-rules.yml");
+
+        // when
+        List<RuleDefinition> ruleDefinitions = ruleDefinitionReader.read(new FileReader(rulesDescriptor));
+
+        // then
+        assertThat(ruleDefinitions).hasSize(1);
+        RuleDefinition ruleDefinition = ruleDefinitions.get(0);
+        assertThat(ruleDefinition.getFactTypes())
+                .containsEntry("person", "org.jeasy.rules.Person")
+                .containsEntry("movie", "org.jeasy.rules.Movie")
+                .hasSize(2);
+        List<RuleDefinition> subrules = ruleDefinition.getComposingRules();
+        assertThat(subrules.get(0).getFactTypes())
+                .containsEntry("person", "org.jeasy.rules.Person")
+                .containsEntry("movie", "org.jeasy.rules.Movie")
+                .containsEntry("day", "java.time.LocalDateTime")
+                .hasSize(3);
+        assertThat(subrules.get(1).getFactTypes())
+                .containsEntry("person", "org.jeasy.rules.Person")
+                .containsEntry("movie", "org.jeasy.rules.RatedMovie") // redeclared type
+                .hasSize(2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRuleDefinitionReading_withInvalidFactType() throws Exception {
+        // given
+        String ruleDescriptor = "name: adult rule\n" +
+                "factTypes:\n" +
+                "  person: 1\n" +
+                "condition: \"person.age > 18\"\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"";
+
+        // when
+        ruleDefinitionReader.read(new StringReader(ruleDescriptor));
+
+        // then
+        // expected exception
+    }
+
+    @Test
+    public void testRuleDefinitionIteration() throws Exception {
+        // given
+        File rulesDescriptor = new File("src/test/resources/rules.yml");
+
+        // when
+        Iterator<RuleDefinition> ruleDefinitions = ruleDefinitionReader.iterate(new FileReader(rulesDescriptor));
+
+        // then
+        assertThat(ruleDefinitions).extracting(RuleDefinition::getName).containsExactly("adult rule", "weather rule");
+    }
+
+    @Test
+    public void testRuleDefinitionIteration_isLazy() throws Exception {
+        // given
+        String rulesDescriptor = "name: adult rule\n" +
+                "condition: \"person.age > 18\"\n" +
+                "actions:\n" +
+                "  - \"person.setAdult(true);\"\n" +
+                "---\n" +
+                "name: invalid rule\n";
+        Iterator<RuleDefinition> ruleDefinitions = ruleDefinitionReader.iterate(new StringReader(rulesDescriptor));
+
+        // when
+        RuleDefinition ruleDefinition = ruleDefinitions.next();
+
+        // then
+        assertThat(ruleDefinition.getName()).isEqualTo("adult rule");
+        assertThat(ruleDefinitions.hasNext()).isTrue();
+        assertThatThrownBy(ruleDefinitions::next)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("The rule condition must be specified");
+    }
+}
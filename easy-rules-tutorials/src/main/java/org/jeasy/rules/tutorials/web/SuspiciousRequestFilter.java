@@ -32,6 +32,7 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.annotation.WebFilter;
+import org.jeasy.rules.api.CompiledRules;
 import org.jeasy.rules.api.Facts;
 import org.jeasy.rules.api.Rules;
 import org.jeasy.rules.api.RulesEngine;
@@ -40,14 +41,14 @@ import org.jeasy.rules.core.DefaultRulesEngine;
 @WebFilter("/*")
 public class SuspiciousRequestFilter implements Filter {
 
-    private Rules rules;
+    private CompiledRules rules;
     private RulesEngine rulesEngine;
 
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         rulesEngine = new DefaultRulesEngine();
-        rules = new Rules();
-        rules.register(new SuspiciousRequestRule());
+        // compiled rules can be fired concurrently by request threads without copy or lock
+        rules = CompiledRules.of(new Rules(new SuspiciousRequestRule()));
     }
 
     @Override